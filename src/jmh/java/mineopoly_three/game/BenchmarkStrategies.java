@@ -0,0 +1,28 @@
+package mineopoly_three.game;
+
+import mineopoly_three.competition.CompetitionStrategy;
+import mineopoly_three.strategy.MinePlayerStrategy;
+import mineopoly_three.strategy.RandomStrategy;
+
+/**
+ * The strategies the benchmarks can be run with, selected by name through a JMH @Param
+ */
+public enum BenchmarkStrategies {
+    RandomStrategy,
+    CompetitionStrategy;
+
+    /**
+     * All benchmarks use the same fixed seed so that the exact same games are measured on every run
+     */
+    static final long BENCHMARK_SEED = 126;
+
+    MinePlayerStrategy createStrategy() {
+        switch (this) {
+            case CompetitionStrategy:
+                return new CompetitionStrategy();
+            case RandomStrategy:
+            default:
+                return new RandomStrategy();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package mineopoly_three.game;
+
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Economy methods called on every sale and by strategies every time they look up prices
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EconomyBenchmark {
+    private Economy economy;
+    private List<InventoryItem> fullInventory;
+
+    @Setup
+    public void createEconomy() {
+        economy = new Economy(ItemTypes.RESOURCES);
+        fullInventory = new ArrayList<>(MinePlayer.MAX_ITEMS);
+        for (int i = 0; i < MinePlayer.MAX_ITEMS; i++) {
+            ItemType resourceType = ItemTypes.RESOURCES[i % ItemTypes.RESOURCES.length];
+            fullInventory.add(new InventoryItem(resourceType));
+        }
+    }
+
+    @Benchmark
+    public int sellResources() {
+        int totalSellPrice = economy.sellResources(fullInventory);
+        // Keep prices from decaying to zero over the course of the measurement
+        for (int i = 0; i < 8; i++) {
+            economy.increaseDemand();
+        }
+        return totalSellPrice;
+    }
+
+    @Benchmark
+    public Map<ItemType, Integer> getCurrentPrices() {
+        return economy.getCurrentPrices();
+    }
+}
@@ -0,0 +1,64 @@
+package mineopoly_three.game;
+
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.strategy.RandomStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the two GameBoard methods the engine calls every turn regardless of what the strategies do, and how
+ *  long a lookahead strategy waits to fork the game
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBoardBenchmark {
+    @Param({"14", "20", "26", "32", "64"})
+    private int boardSize;
+
+    private GameBoard board;
+    private MinePlayer redPlayer;
+    private MinePlayer bluePlayer;
+    private Economy economy;
+
+    @Setup
+    public void createBoard() {
+        long seed = BenchmarkStrategies.BENCHMARK_SEED;
+        board = new WorldGenerator(seed).generateBoard(boardSize);
+        economy = new Economy(ItemTypes.RESOURCES);
+        redPlayer = new MinePlayer(new RandomStrategy(), board.getRedStartTileLocation(), economy, seed, true);
+        bluePlayer = new MinePlayer(new RandomStrategy(), board.getBlueStartTileLocation(), economy, seed, false);
+        board.addPlayer(redPlayer);
+        board.addPlayer(bluePlayer);
+    }
+
+    @Benchmark
+    public GameBoard update() {
+        board.update();
+        return board;
+    }
+
+    @Benchmark
+    public PlayerBoardView convertToView() {
+        return board.convertToView(redPlayer, bluePlayer);
+    }
+
+    @Benchmark
+    public ForwardModel fork() {
+        return new ForwardModel(board, redPlayer, bluePlayer, economy, true, Integer.MAX_VALUE, 1000, 0, true);
+    }
+}
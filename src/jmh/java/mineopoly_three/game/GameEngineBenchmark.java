@@ -0,0 +1,49 @@
+package mineopoly_three.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures whole games per second through GameEngine.runGame. The red player uses the strategy under test and
+ *  the blue player is always a RandomStrategy, every game is played on the same fixed seed
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameEngineBenchmark {
+    @Param({"14", "20", "26", "32", "64"})
+    private int boardSize;
+
+    @Param({"RandomStrategy", "CompetitionStrategy"})
+    private BenchmarkStrategies redStrategy;
+
+    private GameEngine gameEngine;
+
+    @Setup(Level.Invocation)
+    public void createEngine() {
+        gameEngine = new GameEngine(boardSize, redStrategy.createStrategy(),
+                                    BenchmarkStrategies.RandomStrategy.createStrategy(),
+                                    BenchmarkStrategies.BENCHMARK_SEED);
+    }
+
+    @Benchmark
+    public int runGame() {
+        gameEngine.runGame();
+        return gameEngine.getRedPlayerScore();
+    }
+}
@@ -0,0 +1,17 @@
+package mineopoly_three.game;
+
+import mineopoly_three.item.ItemType;
+
+import java.util.Arrays;
+
+/**
+ * Shared ItemType arrays for setting up benchmark state the same way the GameEngine does
+ */
+final class ItemTypes {
+    static final ItemType[] RESOURCES = Arrays.stream(ItemType.values())
+            .filter(ItemType::isResource)
+            .toArray(ItemType[]::new);
+
+    private ItemTypes() {
+    }
+}
@@ -0,0 +1,77 @@
+package mineopoly_three.game;
+
+import mineopoly_three.strategy.MctsStrategy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how MctsStrategy's rollouts per second scale with the number of worker threads. Every search starts from
+ *  the first turn of the same game with a fresh tree, and rollouts are reported per second next to searches
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MctsStrategyBenchmark {
+    private static final int BOARD_SIZE = 20;
+    private static final long TURN_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int ROLLOUT_DEPTH = MctsStrategy.DEFAULT_ROLLOUT_DEPTH;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private MctsStrategy strategy;
+    private ForwardModel startingModel;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class RolloutCounter {
+        public long rollouts;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            rollouts = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createStrategy() {
+        GameEngine gameEngine = new GameEngine(BOARD_SIZE, BenchmarkStrategies.RandomStrategy.createStrategy(),
+                                               BenchmarkStrategies.RandomStrategy.createStrategy(),
+                                               BenchmarkStrategies.BENCHMARK_SEED);
+        startingModel = gameEngine.fork(true);
+        strategy = new MctsStrategy(TURN_BUDGET_NANOS, parallelism, ROLLOUT_DEPTH);
+        strategy.initialize(BOARD_SIZE, MinePlayer.MAX_ITEMS, MinePlayer.MAX_ENERGY, gameEngine.getMinScoreToWin(),
+                            startingModel.getBoardView(), startingModel.getYourLocation(), true,
+                            new Random(BenchmarkStrategies.BENCHMARK_SEED));
+    }
+
+    @TearDown(Level.Trial)
+    public void shutDownStrategy() {
+        strategy.endRound(0, 0);
+    }
+
+    @Benchmark
+    public Object search(RolloutCounter counter) {
+        Object action = strategy.search(startingModel);
+        counter.rollouts += strategy.getLastTurnRollouts();
+        return action;
+    }
+}
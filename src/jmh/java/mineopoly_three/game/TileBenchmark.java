@@ -0,0 +1,78 @@
+package mineopoly_three.game;
+
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.item.ItemType;
+import mineopoly_three.strategy.RandomStrategy;
+import mineopoly_three.tiles.TileType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures GameBoard.interact, which the engine calls for every non-move TurnAction. The empty tile benchmarks use
+ *  a tile cracked during setup, so neither interaction changes the board. The resource benchmark mines a diamond
+ *  tile out and picks the diamond up, the path players take every time they collect a resource
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TileBenchmark {
+    private GameBoard board;
+    private MinePlayer player;
+    private GameBoard resourceBoard;
+    private MinePlayer resourcePlayer;
+
+    @Setup
+    public void createTile() {
+        board = new GameBoard(1);
+        board.setRedStartLocation(new Point(0, 0));
+        Economy economy = new Economy(ItemTypes.RESOURCES);
+        player = new MinePlayer(new RandomStrategy(), board.getRedStartTileLocation(), economy,
+                                BenchmarkStrategies.BENCHMARK_SEED, true);
+        board.addPlayer(player);
+        board.interact(player, TurnAction.MINE);
+
+        resourceBoard = new GameBoard(1);
+        resourceBoard.setRedStartLocation(new Point(0, 0));
+        resourcePlayer = new MinePlayer(new RandomStrategy(), resourceBoard.getRedStartTileLocation(), economy,
+                                        BenchmarkStrategies.BENCHMARK_SEED, true);
+        resourceBoard.addPlayer(resourcePlayer);
+    }
+
+    @Benchmark
+    public GameBoard interactPickUpNothing() {
+        board.interact(player, TurnAction.PICK_UP_RESOURCE);
+        return board;
+    }
+
+    @Benchmark
+    public GameBoard interactMineEmpty() {
+        board.interact(player, TurnAction.MINE);
+        return board;
+    }
+
+    @Benchmark
+    public GameBoard interactMineAndPickUpResource() {
+        resourceBoard.setTileTypeAtLocation(0, 0, TileType.RESOURCE_DIAMOND);
+        for (int i = 0; i < ItemType.DIAMOND.getTurnsToMine(); i++) {
+            resourceBoard.interact(resourcePlayer, TurnAction.MINE);
+        }
+        resourceBoard.interact(resourcePlayer, TurnAction.PICK_UP_RESOURCE);
+        // Make room for the next diamond without going through the Economy
+        resourcePlayer.getInventory().clear();
+        return resourceBoard;
+    }
+}
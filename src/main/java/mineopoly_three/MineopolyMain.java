@@ -1,39 +1,108 @@
 package mineopoly_three;
 
 import mineopoly_three.competition.CompetitionStrategy;
+import mineopoly_three.evaluation.EvaluationResult;
+import mineopoly_three.evaluation.WinPercentEvaluator;
 import mineopoly_three.game.GameEngine;
 import mineopoly_three.graphics.UserInterface;
-import mineopoly_three.replay.Replay;
+import mineopoly_three.replay.ReplayArchive;
+import mineopoly_three.replay.ReplayArchiveWriter;
 import mineopoly_three.replay.ReplayIO;
+import mineopoly_three.replay.ReplayVerification;
+import mineopoly_three.replay.ReplayVerifier;
 import mineopoly_three.strategy.*;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Random;
 
 public class MineopolyMain {
     private static final int DEFAULT_BOARD_SIZE = 20;
     private static final int PREFERRED_GUI_WIDTH = 750; // Bump this up or down according to your screen size
     private static final boolean TEST_STRATEGY_WIN_PERCENT = false; // Change to true to test your win percent
+    private static final int NUM_WIN_PERCENT_ROUNDS = 1000;
+    private static final long WIN_PERCENT_SEED = 126; // Same seed means the same win percents on every run
+    private static final boolean PRINT_TURN_METRICS = false; // Change to true to see where the time in a game goes
+    // Use this to keep the replays of every win percent game in one archive file
+    private static final String winPercentReplayArchivePath = null;
 
     // Use this if you want to view a past match replay
     private static final String savedReplayFilePath = null;
     // Use this to save a replay of the current match
     private static final String replayOutputFilePath = null;
+    // Use this to check every replay in a directory or replay archive still plays out the way it was recorded
+    private static final String verifyReplaysPath = null;
+    // Saved replays keep the full game state this often, so watching one can jump to any turn quickly
+    private static final int REPLAY_KEYFRAME_INTERVAL = 50;
 
     public static void main(String[] args) {
-        if (TEST_STRATEGY_WIN_PERCENT) {
-            MinePlayerStrategy yourStrategy = new CompetitionStrategy();
-            int[] assignmentBoardSizes = new int[]{14, 20, 26, 32};
-            for (int testBoardSize : assignmentBoardSizes) {
-                double strategyWinPercent = getStrategyWinPercent(yourStrategy, testBoardSize);
-                System.out.println("(Board size, win percent): (" + testBoardSize + ", " + strategyWinPercent + ")");
-            }
+        if (verifyReplaysPath != null) {
+            verifyReplays();
+        } else if (TEST_STRATEGY_WIN_PERCENT) {
+            testWinPercent();
         } else {
             // Not testing the win percent, show the game instead
             playGameOrReplay();
         }
     }
 
+    private static void verifyReplays() {
+        Path replaysPath = Paths.get(verifyReplaysPath);
+        ReplayVerifier verifier = new ReplayVerifier();
+        List<ReplayVerification> verifications;
+        try {
+            if (Files.isDirectory(replaysPath)) {
+                verifications = verifier.verifyDirectory(replaysPath);
+            } else {
+                try (ReplayArchive replayArchive = new ReplayArchive(replaysPath)) {
+                    verifications = verifier.verifyArchive(replayArchive);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read the replays at the given path");
+            e.printStackTrace();
+            return;
+        }
+
+        int numMatched = 0;
+        for (ReplayVerification verification : verifications) {
+            if (verification.getOutcome() == ReplayVerification.Outcome.MATCHED) {
+                numMatched++;
+            } else {
+                System.out.println(verification);
+            }
+        }
+        System.out.println(numMatched + " of " + verifications.size() + " replays matched");
+    }
+
+    private static void testWinPercent() {
+        // Every game gets its own fresh strategies so games can be played in parallel
+        WinPercentEvaluator evaluator = new WinPercentEvaluator(CompetitionStrategy::new, RandomStrategy::new,
+                                                                WIN_PERCENT_SEED);
+        evaluator.setRecordTurnMetrics(PRINT_TURN_METRICS);
+        int[] assignmentBoardSizes = new int[]{14, 20, 26, 32};
+
+        // A null archive is skipped by try-with-resources, so no replays are kept unless the path is set
+        try (ReplayArchiveWriter replayArchive = (winPercentReplayArchivePath == null) ? null
+                : new ReplayArchiveWriter(Paths.get(winPercentReplayArchivePath))) {
+            evaluator.setReplayArchive(replayArchive);
+            for (EvaluationResult result : evaluator.evaluate(assignmentBoardSizes, NUM_WIN_PERCENT_ROUNDS)) {
+                System.out.println("(Board size, win percent): (" + result.getBoardSize() + ", "
+                                   + result.getWinPercent() + ")");
+                if (result.getTurnMetrics() != null) {
+                    System.out.print(result.getTurnMetrics());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("There was an error with the replay archive at the given path");
+            e.printStackTrace();
+        }
+    }
+
     private static void playGameOrReplay() {
         final GameEngine gameEngine;
         if (savedReplayFilePath == null) {
@@ -43,6 +112,10 @@ public class MineopolyMain {
             long randomSeed = System.currentTimeMillis();
             gameEngine = new GameEngine(DEFAULT_BOARD_SIZE, redStrategy, blueStrategy, randomSeed);
             gameEngine.setGuiEnabled(true);
+            // Record the replay as the game is played if the output path isn't null
+            gameEngine.setReplayFilePath(replayOutputFilePath);
+            gameEngine.setKeyframeInterval(REPLAY_KEYFRAME_INTERVAL);
+            gameEngine.setRecordStateHashes(replayOutputFilePath != null);
         } else {
             // Showing a replay
             gameEngine = ReplayIO.setupEngineForReplay(savedReplayFilePath);
@@ -58,28 +131,5 @@ public class MineopolyMain {
             SwingUtilities.invokeLater(() ->                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                                  UserInterface.instantiateGUI(gameEngine, PREFERRED_GUI_WIDTH));
         }
         gameEngine.runGame();
-
-        // Record the replay if the output path isn't null and we aren't already watching a replay
-        if (savedReplayFilePath == null && replayOutputFilePath != null) {
-            Replay gameReplay = gameEngine.getReplay();
-            ReplayIO.writeReplayToFile(gameReplay, replayOutputFilePath);
-        }
-    }
-
-    private static double getStrategyWinPercent(MinePlayerStrategy yourStrategy, int boardSize) {
-        final int numTotalRounds = 1000;
-        int numRoundsWonByMinScore = 0;
-        MinePlayerStrategy randomStrategy = new RandomStrategy();
-        GameEngine gameEngine;
-
-        for (int i = 0; i < numTotalRounds; i++) {
-            gameEngine = new GameEngine(boardSize, yourStrategy, randomStrategy);
-            gameEngine.runGame();
-
-            if (gameEngine.getRedPlayerScore() >= gameEngine.getMinScoreToWin()) {
-                numRoundsWonByMinScore++;
-            }
-        }
-        return ((double) numRoundsWonByMinScore) / numTotalRounds;
     }
 }
@@ -0,0 +1,198 @@
+package mineopoly_three.action;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The actions one player took in a game, one byte per turn. Each byte is a TurnAction ordinal or NO_ACTION for a
+ *  turn the player did nothing. A log can end with an exception marker, for a player whose strategy threw the
+ *  exception that ended the game. Players record into a log and replays read it back through a Cursor, neither
+ *  of which allocates anything per turn.
+ */
+public final class ActionLog {
+    private static final TurnAction[] allTurnActions = TurnAction.values();
+    private static final byte NO_ACTION = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private byte[] actionCodes;
+    private int numActions;
+    private boolean endsWithException;
+
+    public ActionLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedActions How many actions the log should have room for before it has to grow
+     */
+    public ActionLog(int expectedActions) {
+        this.actionCodes = new byte[Math.max(expectedActions, 1)];
+        this.numActions = 0;
+        this.endsWithException = false;
+    }
+
+    public ActionLog(ActionLog toCopy) {
+        this.actionCodes = Arrays.copyOf(toCopy.actionCodes, Math.max(toCopy.numActions, 1));
+        this.numActions = toCopy.numActions;
+        this.endsWithException = toCopy.endsWithException;
+    }
+
+    /**
+     * Builds a log out of a list of actions
+     *
+     * @param actions The actions, with null for turns the player did nothing
+     * @param endsWithException True if the player's strategy threw an exception after the last action
+     * @return A log of the actions
+     */
+    public static ActionLog of(List<TurnAction> actions, boolean endsWithException) {
+        ActionLog actionLog = new ActionLog(actions.size());
+        for (TurnAction action : actions) {
+            actionLog.add(action);
+        }
+        if (endsWithException) {
+            actionLog.addException();
+        }
+        return actionLog;
+    }
+
+    /**
+     * Records the action taken on the next turn
+     *
+     * @param action The action taken, or null if the player did nothing
+     */
+    public void add(TurnAction action) {
+        if (endsWithException) {
+            throw new IllegalStateException("Nothing can happen after the exception that ended the game");
+        }
+        if (numActions == actionCodes.length) {
+            actionCodes = Arrays.copyOf(actionCodes, actionCodes.length * 2);
+        }
+        actionCodes[numActions++] = (action == null) ? NO_ACTION : (byte) action.ordinal();
+    }
+
+    /**
+     * Records that the player's strategy threw the exception that ended the game
+     */
+    public void addException() {
+        endsWithException = true;
+    }
+
+    /**
+     * @return The number of actions in the log, not counting an exception at the end
+     */
+    public int size() {
+        return numActions;
+    }
+
+    /**
+     * @param turnIndex The index of the action, from 0 to size() - 1
+     * @return The action at that index, or null if the player did nothing on that turn
+     */
+    public TurnAction get(int turnIndex) {
+        if (turnIndex < 0 || turnIndex >= numActions) {
+            throw new IndexOutOfBoundsException("No action " + turnIndex + " in a log of " + numActions);
+        }
+        byte actionCode = actionCodes[turnIndex];
+        return (actionCode == NO_ACTION) ? null : allTurnActions[actionCode];
+    }
+
+    public boolean endsWithException() {
+        return endsWithException;
+    }
+
+    /**
+     * Forgets every action after a number of turns, along with an exception at the end, for when a game is rewound
+     *
+     * @param numActionsToKeep The number of actions to keep
+     */
+    public void truncate(int numActionsToKeep) {
+        if (numActionsToKeep < 0) {
+            throw new IllegalArgumentException("Number of actions to keep can't be negative");
+        }
+        if (numActionsToKeep <= numActions) {
+            numActions = numActionsToKeep;
+            endsWithException = false;
+        }
+    }
+
+    /**
+     * @return An unmodifiable view of the actions in the log, with null for turns the player did nothing. The view
+     *          follows any later changes to the log
+     */
+    public List<TurnAction> asList() {
+        return new AbstractList<TurnAction>() {
+            @Override
+            public TurnAction get(int index) {
+                return ActionLog.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return numActions;
+            }
+        };
+    }
+
+    /**
+     * @return A cursor at the first action of the log
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Reads through a log one action at a time, like a replay playing back a game. A cursor sees actions added to
+     *  the log after it was made
+     */
+    public final class Cursor {
+        private int nextTurnIndex;
+
+        private Cursor() {
+            this.nextTurnIndex = 0;
+        }
+
+        /**
+         * @return True if there is another action to read
+         */
+        public boolean hasNext() {
+            return nextTurnIndex < numActions;
+        }
+
+        /**
+         * @return True if every action has been read and the log ends with an exception
+         */
+        public boolean isAtException() {
+            return nextTurnIndex >= numActions && endsWithException;
+        }
+
+        /**
+         * @return The next action, or null if the player did nothing on that turn
+         */
+        public TurnAction next() {
+            if (!hasNext()) {
+                throw new IllegalStateException("No actions left in the log");
+            }
+            return get(nextTurnIndex++);
+        }
+
+        /**
+         * @return The index of the action next() will return
+         */
+        public int getPosition() {
+            return nextTurnIndex;
+        }
+
+        /**
+         * Moves the cursor to any action in the log
+         *
+         * @param turnIndex The index of the action next() should return
+         */
+        public void setPosition(int turnIndex) {
+            if (turnIndex < 0) {
+                throw new IllegalArgumentException("Position can't be negative");
+            }
+            this.nextTurnIndex = turnIndex;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package mineopoly_three.action;
 
 import mineopoly_three.game.GameBoard;
 import mineopoly_three.game.MinePlayer;
-import mineopoly_three.tiles.Tile;
 
 import java.awt.*;
 import java.util.Random;
@@ -23,8 +22,7 @@ public class MoveAction extends Action {
 
     @Override
     public void performAction(GameBoard board, MinePlayer player, TurnAction action) {
-        Tile currentTile = player.getCurrentTile();
-        Point playerLocation = currentTile.getLocation();
+        Point playerLocation = player.getLocation();
 
         int nextX = playerLocation.x + xChange;
         int nextY = playerLocation.y + yChange;
@@ -35,8 +33,7 @@ public class MoveAction extends Action {
             return;
         }
 
-        Tile nextTile = board.getTileAtLocation(nextX, nextY);
-        if (nextTile.getPlayerOnTile() != null) {
+        if (board.getPlayerAtLocation(nextX, nextY) != null) {
             // Can't step on a tile if there's another player there
             return;
         }
@@ -46,9 +43,7 @@ public class MoveAction extends Action {
         boolean canMoveWithNoEnergyLeft = (playerRNG.nextDouble() < NO_ENERGY_MOVE_CHANCE);
         if (hasEnergyLeft || canMoveWithNoEnergyLeft) {
             // Move is valid, leave old tile and enter new one
-            currentTile.onExit(player);
-            nextTile.onEnter(player);
-            player.setCurrentTile(nextTile);
+            board.movePlayer(player, nextX, nextY);
             player.useEnergy();
         }
     }
@@ -2,11 +2,6 @@ package mineopoly_three.action;
 
 import mineopoly_three.game.GameBoard;
 import mineopoly_three.game.MinePlayer;
-import mineopoly_three.item.InventoryItem;
-import mineopoly_three.tiles.Tile;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * A TileInteractAction represents any Action that is performed on a Tile that may change
@@ -16,15 +11,7 @@ import java.util.List;
 public class TileInteractAction extends Action {
     @Override
     public void performAction(GameBoard board, MinePlayer player, TurnAction action) {
-        Tile currentPlayerTile = player.getCurrentTile();
-        Tile tileAfterAction = currentPlayerTile.interact(player, action);
-
-        if (tileAfterAction != currentPlayerTile) {
-            // Tile has changed as a result of the action
-            board.setTileAtTileLocation(tileAfterAction);
-            player.setCurrentTile(tileAfterAction);
-        }
-
-        board.trackItemsOnPoint(tileAfterAction.getLocation(), tileAfterAction.getItemsOnTile());
+        // The board owns all tile state, so it decides what the action does to the player's tile
+        board.interact(player, action);
     }
 }
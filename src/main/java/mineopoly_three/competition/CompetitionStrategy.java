@@ -4,10 +4,16 @@ import mineopoly_three.game.Economy;
 import mineopoly_three.action.TurnAction;
 import mineopoly_three.item.InventoryItem;
 import mineopoly_three.item.ItemType;
+import mineopoly_three.strategy.BoardSnapshot;
 import mineopoly_three.strategy.PlayerBoardView;
 import mineopoly_three.strategy.MinePlayerStrategy;
 import mineopoly_three.tiles.TileType;
+import mineopoly_three.util.Bitboards;
+import mineopoly_three.util.DistanceField;
 import mineopoly_three.util.DistanceUtil;
+import mineopoly_three.util.NearestStationTable;
+import mineopoly_three.util.PathFinder;
+import mineopoly_three.util.TourPlanner;
 // ^ These classes were provided to you, they should not be put in the competition package
 
 import java.awt.*;
@@ -21,6 +27,10 @@ import java.util.*;
  */
 @SuppressWarnings("unused")
 public class CompetitionStrategy implements MinePlayerStrategy {
+    // Cached because values() copies the whole array on every call
+    private static final ItemType[] allItemTypes = ItemType.values();
+    private static final TileType[] allTileTypes = TileType.values();
+
     // Fixed information about the game
     private int boardSize;
     private int maxInventorySize;
@@ -41,11 +51,26 @@ public class CompetitionStrategy implements MinePlayerStrategy {
     // Internal tracking
     private HashSet<Point> rechargeLocations = new HashSet<>();
     private HashSet<Point> myMarketLocations = new HashSet<>();
+    // The nearest of the locations above for every tile, since they never move
+    private NearestStationTable nearestRecharges;
+    private NearestStationTable nearestMarkets;
     private int itemCount = 0;
+    // How many of each item is held, indexed by ItemType ordinal
+    private int[] heldCounts = new int[allItemTypes.length];
+    private int turnsSinceSold = 0;
+    // How far every tile is from the nearest tile of each resource, indexed by TileType ordinal
+    private DistanceField[] mineFields;
+    private BoardSnapshot lastSeenBoard;
 
     // User-defined parameters
     private final String strategyName = "Anonymous";
     private final double mineTimeDeprecationFactor = 4;
+    private boolean isPathFindingEnabled = false;
+    private boolean isTourPlanningEnabled = false;
+    private final long tourPlanningNanos = 2_000_000;
+    // Only created when path finding or tour planning is enabled
+    private PathFinder pathFinder;
+    private TourPlanner tourPlanner;
 
     /**
      * Initialises the player Strategy
@@ -96,6 +121,33 @@ public class CompetitionStrategy implements MinePlayerStrategy {
         this.isRedPlayer = isRedPlayer;
 
         storeRechargeAndMarketLocations(startingBoard);
+        createMineFields();
+        updateMineFields(startingBoard);
+        if (isPathFindingEnabled) {
+            pathFinder = new PathFinder(boardSize);
+            pathFinder.update(startingBoard);
+        }
+        if (isTourPlanningEnabled) {
+            tourPlanner = new TourPlanner(boardSize, maxInventorySize, nearestMarkets, nearestRecharges);
+        }
+    }
+
+    /**
+     * Walks around the opponent and autominers with a PathFinder instead of straight towards each destination.
+     *  Off by default, and only takes effect from the next call to initialize()
+     * @param isPathFindingEnabled True to walk along PathFinder paths
+     */
+    public void setPathFindingEnabled(boolean isPathFindingEnabled) {
+        this.isPathFindingEnabled = isPathFindingEnabled;
+    }
+
+    /**
+     * Picks each mine from a TourPlanner tour of several mines and a market, instead of the best value mine on its
+     *  own. Off by default, and only takes effect from the next call to initialize()
+     * @param isTourPlanningEnabled True to plan tours
+     */
+    public void setTourPlanningEnabled(boolean isTourPlanningEnabled) {
+        this.isTourPlanningEnabled = isTourPlanningEnabled;
     }
 
     /**
@@ -112,6 +164,7 @@ public class CompetitionStrategy implements MinePlayerStrategy {
     @Override
     public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge, boolean isRedTurn) {
         updateTurnVariables(boardView, economy, currentCharge);
+        turnsSinceSold++;
         enterNextModeIfComplete(currentCharge);
         return getCurrentModeAction();
     }
@@ -123,6 +176,9 @@ public class CompetitionStrategy implements MinePlayerStrategy {
     @Override
     public void onReceiveItem(InventoryItem itemReceived) {
         itemCount++;
+        if (itemReceived != null) {
+            heldCounts[itemReceived.getItemType().ordinal()]++;
+        }
     }
 
     /**
@@ -132,6 +188,8 @@ public class CompetitionStrategy implements MinePlayerStrategy {
     @Override
     public void onSoldInventory(int totalSellPrice) {
         itemCount = 0;
+        Arrays.fill(heldCounts, 0);
+        turnsSinceSold = 0;
     }
 
     /**
@@ -168,18 +226,118 @@ public class CompetitionStrategy implements MinePlayerStrategy {
     private void storeRechargeAndMarketLocations(PlayerBoardView startingBoard) {
         TileType myMarketType = isRedPlayer ? TileType.RED_MARKET : TileType.BLUE_MARKET;
 
-        for (int x = 0; x < boardSize; x++) {
-            for (int y = 0; y < boardSize; y++) {
-                TileType checkTileType = startingBoard.getTileTypeAtLocation(x, y);
+        addLocationsOfType(startingBoard, TileType.RECHARGE, rechargeLocations);
+        addLocationsOfType(startingBoard, myMarketType, myMarketLocations);
+
+        // Built from the sets in the order they iterate in, so ties go the same way as a search over the sets
+        nearestRecharges = new NearestStationTable(boardSize, rechargeLocations);
+        nearestMarkets = new NearestStationTable(boardSize, myMarketLocations);
+    }
+
+    /**
+     * Adds the Point of every tile of one type on the board to a set, visiting only those tiles
+     * @param board The board to be searched
+     * @param tileType The type of tile to find
+     * @param locations The set to add the Points to
+     */
+    private void addLocationsOfType(PlayerBoardView board, TileType tileType, Set<Point> locations) {
+        int viewSize = board.getBoardSnapshot().getSize();
+        long[] tileBits = board.getTileTypeBits(tileType);
+
+        // Points are added column by column, since the order things go into a HashSet can change the order they
+        //  come back out in, and nearest tile searches keep the first of equally near tiles
+        int[] columnMajorCells = new int[Bitboards.count(tileBits)];
+        int numCells = 0;
+        for (int cellIndex = Bitboards.nextSetBit(tileBits, 0); cellIndex >= 0;
+             cellIndex = Bitboards.nextSetBit(tileBits, cellIndex + 1)) {
+            int x = cellIndex % viewSize;
+            int y = cellIndex / viewSize;
+            if (x < boardSize && y < boardSize) {
+                columnMajorCells[numCells++] = (x * viewSize) + y;
+            }
+        }
+
+        Arrays.sort(columnMajorCells, 0, numCells);
+        for (int i = 0; i < numCells; i++) {
+            locations.add(new Point(columnMajorCells[i] / viewSize, columnMajorCells[i] % viewSize));
+        }
+    }
 
-                if (checkTileType == TileType.RECHARGE) {
-                    rechargeLocations.add(new Point(x, y));
+    /**
+     * Creates an empty DistanceField for the resource tile of every item that can be sold
+     */
+    private void createMineFields() {
+        mineFields = new DistanceField[allTileTypes.length];
+        for (ItemType itemType : allItemTypes) {
+            TileType resourceTileType = itemType.getResourceTileType();
+            if (resourceTileType != null) {
+                mineFields[resourceTileType.ordinal()] = new DistanceField(boardSize);
+            }
+        }
+    }
+
+    /**
+     * Brings the resource DistanceFields up to date with a board. Boards from the game list the tiles that changed
+     *  since the last one, so only mined out tiles are patched; any other new board is read in full
+     * @param board The board to be read
+     */
+    private void updateMineFields(PlayerBoardView board) {
+        BoardSnapshot snapshot = board.getBoardSnapshot();
+        if (snapshot == lastSeenBoard) {
+            return;
+        }
+        lastSeenBoard = snapshot;
+
+        int numChangedCells = board.getNumChangedCells();
+        if (numChangedCells == 0) {
+            rebuildMineFields(snapshot);
+            return;
+        }
+        for (int i = 0; i < numChangedCells; i++) {
+            int x = board.getChangedCellX(i);
+            int y = board.getChangedCellY(i);
+            if (x >= boardSize || y >= boardSize) {
+                continue;
+            }
+            TileType tileType = snapshot.getTileType(x, y);
+            for (int typeOrdinal = 0; typeOrdinal < mineFields.length; typeOrdinal++) {
+                DistanceField mineField = mineFields[typeOrdinal];
+                if (mineField == null) {
+                    continue;
                 }
+                if (tileType == allTileTypes[typeOrdinal]) {
+                    mineField.addSource(x, y);
+                } else {
+                    mineField.removeSource(x, y);
+                }
+            }
+        }
+    }
 
-                else if (checkTileType == myMarketType) {
-                    myMarketLocations.add(new Point(x, y));
+    /**
+     * Sets the sources of every resource DistanceField from every tile on a board
+     * @param snapshot The board to be read
+     */
+    private void rebuildMineFields(BoardSnapshot snapshot) {
+        int viewSize = snapshot.getSize();
+        byte[] tileTypes = new byte[viewSize * viewSize];
+        snapshot.copyTileTypes(tileTypes);
+
+        int[] sourceCells = new int[boardSize * boardSize];
+        int searchSize = Math.min(boardSize, viewSize);
+        for (int typeOrdinal = 0; typeOrdinal < mineFields.length; typeOrdinal++) {
+            if (mineFields[typeOrdinal] == null) {
+                continue;
+            }
+            int numSourceCells = 0;
+            for (int y = 0; y < searchSize; y++) {
+                for (int x = 0; x < searchSize; x++) {
+                    if (tileTypes[(y * viewSize) + x] == typeOrdinal) {
+                        sourceCells[numSourceCells++] = (y * boardSize) + x;
+                    }
                 }
             }
+            mineFields[typeOrdinal].setSources(sourceCells, numSourceCells);
         }
     }
 
@@ -191,8 +349,15 @@ public class CompetitionStrategy implements MinePlayerStrategy {
         destination = null;
         isMineDepleted = false;
         itemCount = 0;
+        heldCounts = new int[allItemTypes.length];
+        turnsSinceSold = 0;
         rechargeLocations = new HashSet<>();
         myMarketLocations = new HashSet<>();
+        nearestRecharges = null;
+        nearestMarkets = null;
+        lastSeenBoard = null;
+        pathFinder = null;
+        tourPlanner = null;
     }
 
     /**
@@ -206,6 +371,10 @@ public class CompetitionStrategy implements MinePlayerStrategy {
         this.economy = economy;
         myLocation = this.boardView.getYourLocation();
         this.currentCharge = currentCharge;
+        updateMineFields(boardView);
+        if (pathFinder != null) {
+            pathFinder.update(boardView);
+        }
     }
 
     /**
@@ -241,11 +410,27 @@ public class CompetitionStrategy implements MinePlayerStrategy {
     }
 
     /**
-     * Sets the current mode to MINE and the destination to the mine with the best "value"
+     * Sets the current mode to MINE and the destination to the mine with the best "value", or to the first mine of
+     * the best tour when tour planning is enabled
      */
     private void enterMineMode() {
         currentMode = Mode.MINE;
-        destination = findBestValueMine(myLocation);
+        if (tourPlanner == null) {
+            destination = findBestValueMine(myLocation);
+            return;
+        }
+
+        TourPlanner.Tour tour = tourPlanner.plan(boardView, economy, myLocation, heldCounts,
+                                                 maxInventorySize - itemCount, currentCharge,
+                                                 (itemCount == 0) ? 0 : turnsSinceSold, tourPlanningNanos);
+        if (tour != null && tour.getNumMines() > 0) {
+            destination = new Point(tour.getMineX(0), tour.getMineY(0));
+        } else if (tour != null && itemCount > 0) {
+            enterSellMode(); // Selling what is held is worth more than mining anything else first
+        } else {
+            // Nothing is held, or no tour can reach a market on this charge
+            destination = findBestValueMine(myLocation);
+        }
     }
 
     /**
@@ -282,13 +467,10 @@ public class CompetitionStrategy implements MinePlayerStrategy {
      * @return The Point of the nearest RechargeTile
      */
     private Point findNearestRecharge(Point origin) {
-        // Code below derived from:
-        // https://stackoverflow.com/questions/13318733/get-closest-value-to-a-number-in-array
-        return rechargeLocations
-                .stream()
-                .min(Comparator.comparingInt(point ->
-                        DistanceUtil.getManhattanDistance(origin, point)))
-                .orElseThrow(() -> new IllegalArgumentException("No recharge locations exist"));
+        if (nearestRecharges.getNumStations() == 0) {
+            throw new IllegalArgumentException("No recharge locations exist");
+        }
+        return nearestRecharges.getNearestStation(origin);
     }
 
     /**
@@ -297,11 +479,10 @@ public class CompetitionStrategy implements MinePlayerStrategy {
      * @return The Point of the nearest MarketTile (of the player's color)
      */
     private Point findNearestMarket(Point origin) {
-        return myMarketLocations
-                .stream()
-                .min(Comparator.comparingInt(point ->
-                        DistanceUtil.getManhattanDistance(origin, point)))
-                .orElseThrow(() -> new IllegalArgumentException("No markets exist"));
+        if (nearestMarkets.getNumStations() == 0) {
+            throw new IllegalArgumentException("No markets exist");
+        }
+        return nearestMarkets.getNearestStation(origin);
     }
 
     /**
@@ -311,44 +492,14 @@ public class CompetitionStrategy implements MinePlayerStrategy {
      * @return The Point of the nearest ResourceTile of particular resource
      */
     private Point findNearestMine(Point origin, TileType mineTileType) {
-        LinkedList<Point> searchPoints = new LinkedList<>(Collections.singletonList(origin));
-        LinkedList<Point> searchedPoints = new LinkedList<>();
-        Point searchPoint;
-        Point adjacentPoint;
-
-        while (!searchPoints.isEmpty()) {
-            searchPoint = searchPoints.poll();
-            if (boardView.getTileTypeAtLocation(searchPoint) == mineTileType) {
-                return searchPoint; // A Point with the desired resource type is found;
-            }
-            searchedPoints.add(searchPoint);
-
-            // Adds the four adjacent Points to the search queue, if they are within bounds
-            adjacentPoint = new Point(searchPoint.x + 1, searchPoint.y);
-            if (!searchedPoints.contains(adjacentPoint) && !searchPoints.contains(adjacentPoint)
-                    && adjacentPoint.x < boardSize){
-                searchPoints.add(adjacentPoint);
-            }
-
-            adjacentPoint = new Point(searchPoint.x - 1, searchPoint.y);
-            if (!searchedPoints.contains(adjacentPoint) && !searchPoints.contains(adjacentPoint)
-                    && adjacentPoint.x >= 0) {
-                searchPoints.add(adjacentPoint);
-            }
-
-            adjacentPoint = new Point(searchPoint.x, searchPoint.y + 1);
-            if (!searchedPoints.contains(adjacentPoint) && !searchPoints.contains(adjacentPoint)
-                    && adjacentPoint.y < boardSize) {
-                searchPoints.add(adjacentPoint);
-            }
-
-            adjacentPoint = new Point(searchPoint.x, searchPoint.y - 1);
-            if (!searchedPoints.contains(adjacentPoint) && !searchPoints.contains(adjacentPoint)
-                    && adjacentPoint.y >= 0) {
-                searchPoints.add(adjacentPoint);
-            }
+        // The search visits neighbors in the same order as a breadth first search from the origin, so of equally
+        //  near mines the same one is always picked
+        DistanceField mineField = mineFields[mineTileType.ordinal()];
+        if (mineField == null || mineField.getNumSources() == 0) {
+            return null;
         }
-        return null;
+        int mineCell = mineField.findNearestSource(origin.x, origin.y);
+        return new Point(mineCell % boardSize, mineCell / boardSize);
     }
 
     /**
@@ -364,11 +515,14 @@ public class CompetitionStrategy implements MinePlayerStrategy {
         Point nearestMine;
         double weightedValue;
         
-        for(ItemType itemType : economy.getCurrentPrices().keySet()) {
+        for(ItemType itemType : allItemTypes) {
+            if (!economy.isSellable(itemType)) {
+                continue;
+            }
             nearestMine = findNearestMine(origin, itemType.getResourceTileType());
             
             if (nearestMine != null) {
-                weightedValue = (economy.getCurrentPrices().get(itemType)) /
+                weightedValue = economy.getPrice(itemType) /
                         (DistanceUtil.getManhattanDistance(origin, nearestMine)
                                 + mineTimeDeprecationFactor * itemType.getTurnsToMine());
 
@@ -390,6 +544,14 @@ public class CompetitionStrategy implements MinePlayerStrategy {
      * @return A TurnAction to move in a particular direction
      */
     private TurnAction moveTowards(Point origin, Point destination) {
+        if (pathFinder != null) {
+            // A path can be longer than the straight way, so it is only taken when the charge lasts the whole way
+            int pathMoves = pathFinder.findPath(origin.x, origin.y, destination.x, destination.y);
+            if (pathMoves <= currentCharge) {
+                return getMoveToward(origin, pathFinder.getPathX(1), pathFinder.getPathY(1));
+            }
+        }
+
         int xDifference = origin.x - destination.x;
         int yDifference = origin.y - destination.y;
 
@@ -419,6 +581,20 @@ public class CompetitionStrategy implements MinePlayerStrategy {
         }
     }
 
+    /**
+     * Returns the TurnAction that moves from a Point origin onto a neighboring tile
+     * @param origin The Point origin
+     * @param nextX The x coordinate of the neighboring tile
+     * @param nextY The y coordinate of the neighboring tile
+     * @return A TurnAction to move in a particular direction
+     */
+    private TurnAction getMoveToward(Point origin, int nextX, int nextY) {
+        if (nextX != origin.x) {
+            return (nextX < origin.x) ? TurnAction.MOVE_LEFT : TurnAction.MOVE_RIGHT;
+        }
+        return (nextY < origin.y) ? TurnAction.MOVE_DOWN : TurnAction.MOVE_UP;
+    }
+
     /**
      * Checks if a projected movement from a Point origin will reach a Point obstacle
      * @param origin The Point origin
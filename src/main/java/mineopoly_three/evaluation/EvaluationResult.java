@@ -0,0 +1,80 @@
+package mineopoly_three.evaluation;
+
+import mineopoly_three.metrics.TurnMetrics;
+
+/**
+ * The outcome of evaluating a strategy over some number of games on a single board size.
+ * Results for disjoint sets of games on the same board size can be merged together, which is how
+ *  the WinPercentEvaluator combines the work done by separate threads.
+ */
+public class EvaluationResult {
+    private final int boardSize;
+    private final int gamesPlayed;
+    private final int gamesWonByMinScore;
+    private final TurnMetrics turnMetrics;
+
+    public EvaluationResult(int boardSize, int gamesPlayed, int gamesWonByMinScore) {
+        this(boardSize, gamesPlayed, gamesWonByMinScore, null);
+    }
+
+    public EvaluationResult(int boardSize, int gamesPlayed, int gamesWonByMinScore, TurnMetrics turnMetrics) {
+        this.boardSize = boardSize;
+        this.gamesPlayed = gamesPlayed;
+        this.gamesWonByMinScore = gamesWonByMinScore;
+        this.turnMetrics = turnMetrics;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public int getGamesWonByMinScore() {
+        return gamesWonByMinScore;
+    }
+
+    /**
+     * @return The phase timings of every game in this result added together, or null if they were not recorded.
+     *          The evaluated strategy is always the red player
+     */
+    public TurnMetrics getTurnMetrics() {
+        return turnMetrics;
+    }
+
+    /**
+     * @return The fraction of games in which the evaluated strategy reached the minimum score to win
+     */
+    public double getWinPercent() {
+        if (gamesPlayed == 0) {
+            return 0;
+        }
+        return ((double) gamesWonByMinScore) / gamesPlayed;
+    }
+
+    /**
+     * Combines this result with the result of another, disjoint, set of games on the same board size
+     *
+     * @param other The result to merge with this one
+     * @return A new EvaluationResult covering the games of both results
+     */
+    public EvaluationResult merge(EvaluationResult other) {
+        if (other.boardSize != this.boardSize) {
+            throw new IllegalArgumentException("Cannot merge results from different board sizes");
+        }
+        TurnMetrics mergedMetrics = null;
+        if (turnMetrics != null || other.turnMetrics != null) {
+            mergedMetrics = new TurnMetrics();
+            if (turnMetrics != null) {
+                mergedMetrics.add(turnMetrics);
+            }
+            if (other.turnMetrics != null) {
+                mergedMetrics.add(other.turnMetrics);
+            }
+        }
+        return new EvaluationResult(boardSize, gamesPlayed + other.gamesPlayed,
+                                    gamesWonByMinScore + other.gamesWonByMinScore, mergedMetrics);
+    }
+}
@@ -0,0 +1,224 @@
+package mineopoly_three.evaluation;
+
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.game.StrategyBudget;
+import mineopoly_three.metrics.TurnMetrics;
+import mineopoly_three.replay.ReplayArchiveWriter;
+import mineopoly_three.strategy.MinePlayerStrategy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays a large number of headless games between a strategy and an opponent to estimate how often the strategy
+ *  reaches the minimum score to win. Every game gets a fresh pair of strategies from the given factories and a
+ *  seed derived only from the evaluation seed, the board size and the game's index, so games can be spread over
+ *  every core of a ForkJoinPool and still produce the exact same numbers on every run.
+ */
+public class WinPercentEvaluator {
+    // Below this many games a task stops splitting and just plays its games on the current thread
+    private static final int GAMES_PER_LEAF_TASK = 8;
+
+    private final Supplier<MinePlayerStrategy> yourStrategyFactory;
+    private final Supplier<MinePlayerStrategy> opponentStrategyFactory;
+    private final long evaluationSeed;
+    private final ForkJoinPool pool;
+    private boolean recordTurnMetrics;
+    private StrategyBudget strategyBudget;
+    private ReplayArchiveWriter replayArchive;
+
+    public WinPercentEvaluator(Supplier<MinePlayerStrategy> yourStrategyFactory,
+                               Supplier<MinePlayerStrategy> opponentStrategyFactory, long evaluationSeed) {
+        this(yourStrategyFactory, opponentStrategyFactory, evaluationSeed, ForkJoinPool.commonPool());
+    }
+
+    public WinPercentEvaluator(Supplier<MinePlayerStrategy> yourStrategyFactory,
+                               Supplier<MinePlayerStrategy> opponentStrategyFactory, long evaluationSeed,
+                               ForkJoinPool pool) {
+        if (yourStrategyFactory == null || opponentStrategyFactory == null || pool == null) {
+            throw new IllegalArgumentException("Strategy factories and pool cannot be null");
+        }
+        this.yourStrategyFactory = yourStrategyFactory;
+        this.opponentStrategyFactory = opponentStrategyFactory;
+        this.evaluationSeed = evaluationSeed;
+        this.pool = pool;
+        this.recordTurnMetrics = false;
+        this.strategyBudget = null;
+        this.replayArchive = null;
+    }
+
+    public StrategyBudget getStrategyBudget() {
+        return strategyBudget;
+    }
+
+    /**
+     * Runs every strategy in the next evaluations within a budget, so one stuck or runaway strategy costs a lost game
+     *  instead of a stuck evaluation
+     *
+     * @param strategyBudget The limits for each strategy, or null to call strategies directly
+     */
+    public void setStrategyBudget(StrategyBudget strategyBudget) {
+        this.strategyBudget = strategyBudget;
+    }
+
+    public ReplayArchiveWriter getReplayArchive() {
+        return replayArchive;
+    }
+
+    /**
+     * Adds the replay of every game in the next evaluations to an archive, in the order the games finish. Archived
+     *  replays carry state hashes, so ReplayVerifier can tell exactly when a replay stops reproducing
+     *
+     * @param replayArchive The archive to add replays to, or null to not keep replays
+     */
+    public void setReplayArchive(ReplayArchiveWriter replayArchive) {
+        this.replayArchive = replayArchive;
+    }
+
+    public boolean isRecordingTurnMetrics() {
+        return recordTurnMetrics;
+    }
+
+    /**
+     * Turns timing of every turn phase on or off for the next evaluations. Timings are added up per board size
+     *  and can be read from EvaluationResult.getTurnMetrics()
+     *
+     * @param recordTurnMetrics True to record turn metrics
+     */
+    public void setRecordTurnMetrics(boolean recordTurnMetrics) {
+        this.recordTurnMetrics = recordTurnMetrics;
+    }
+
+    /**
+     * Plays numGamesPerSize games on each of the given board sizes, with all board sizes running concurrently
+     *
+     * @param boardSizes The board sizes to evaluate the strategy on
+     * @param numGamesPerSize The number of games to play on each board size
+     * @return One EvaluationResult per board size, in the same order as boardSizes
+     */
+    public List<EvaluationResult> evaluate(int[] boardSizes, int numGamesPerSize) {
+        if (numGamesPerSize < 0) {
+            throw new IllegalArgumentException("Number of games is negative");
+        }
+
+        List<GameRangeTask> boardSizeTasks = new ArrayList<>(boardSizes.length);
+        for (int boardSize : boardSizes) {
+            boardSizeTasks.add(new GameRangeTask(boardSize, 0, numGamesPerSize));
+        }
+
+        return pool.invoke(new RecursiveTask<List<EvaluationResult>>() {
+            @Override
+            protected List<EvaluationResult> compute() {
+                ForkJoinTask.invokeAll(boardSizeTasks);
+                List<EvaluationResult> results = new ArrayList<>(boardSizeTasks.size());
+                for (GameRangeTask boardSizeTask : boardSizeTasks) {
+                    results.add(boardSizeTask.join());
+                }
+                return results;
+            }
+        });
+    }
+
+    /**
+     * Plays numGames games on a single board size
+     *
+     * @param boardSize The size of the board to play on
+     * @param numGames The number of games to play
+     * @return The merged result of all games
+     */
+    public EvaluationResult evaluate(int boardSize, int numGames) {
+        return evaluate(new int[]{boardSize}, numGames).get(0);
+    }
+
+    /**
+     * Computes the world seed for one game of an evaluation. The seed only depends on its inputs, so which thread
+     *  plays the game (and in what order) has no effect on the outcome
+     *
+     * @param evaluationSeed The seed of the whole evaluation
+     * @param boardSize The board size of the game
+     * @param gameIndex The index of the game among all games on that board size
+     * @return The seed to pass to the GameEngine for this game
+     */
+    public static long getGameSeed(long evaluationSeed, int boardSize, int gameIndex) {
+        // Mixed before anything is added to it, otherwise evaluation seed s on size n would play the same games as
+        //  evaluation seed s + 1 on size n - 1
+        long combinedSeed = mixBits(evaluationSeed);
+        combinedSeed = mixBits(combinedSeed + boardSize);
+        combinedSeed = mixBits(combinedSeed + gameIndex);
+        return combinedSeed;
+    }
+
+    private static long mixBits(long value) {
+        // The SplitMix64 finalizer, nearby inputs map to wildly different outputs
+        value += 0x9E3779B97F4A7C15L;
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    private boolean playGame(int boardSize, int gameIndex, TurnMetrics turnMetrics) {
+        long gameSeed = getGameSeed(evaluationSeed, boardSize, gameIndex);
+        MinePlayerStrategy yourStrategy = yourStrategyFactory.get();
+        MinePlayerStrategy opponentStrategy = opponentStrategyFactory.get();
+
+        GameEngine gameEngine = new GameEngine(boardSize, yourStrategy, opponentStrategy, gameSeed);
+        gameEngine.setTurnMetrics(turnMetrics);
+        gameEngine.setStrategyBudget(strategyBudget);
+        gameEngine.setRecordStateHashes(replayArchive != null);
+        gameEngine.runGame();
+        if (replayArchive != null) {
+            try {
+                replayArchive.append(gameEngine.getReplay());
+            } catch (IOException e) {
+                // Losing a replay is no reason to stop the evaluation
+                System.err.println("There was an error adding the replay of game " + gameIndex + " to the archive");
+                e.printStackTrace();
+            }
+        }
+        return gameEngine.getRedPlayerScore() >= gameEngine.getMinScoreToWin();
+    }
+
+    /**
+     * Plays the games with indices [startGame, endGame) on one board size, splitting in half until the range
+     *  is small enough to play directly
+     */
+    private class GameRangeTask extends RecursiveTask<EvaluationResult> {
+        private final int boardSize;
+        private final int startGame;
+        private final int endGame;
+
+        private GameRangeTask(int boardSize, int startGame, int endGame) {
+            this.boardSize = boardSize;
+            this.startGame = startGame;
+            this.endGame = endGame;
+        }
+
+        @Override
+        protected EvaluationResult compute() {
+            int numGames = endGame - startGame;
+            if (numGames <= GAMES_PER_LEAF_TASK) {
+                // A leaf plays its games one after another, so they can all record into the same metrics
+                TurnMetrics leafMetrics = recordTurnMetrics ? new TurnMetrics() : null;
+                int numGamesWon = 0;
+                for (int gameIndex = startGame; gameIndex < endGame; gameIndex++) {
+                    if (playGame(boardSize, gameIndex, leafMetrics)) {
+                        numGamesWon++;
+                    }
+                }
+                return new EvaluationResult(boardSize, numGames, numGamesWon, leafMetrics);
+            }
+
+            int midGame = startGame + (numGames / 2);
+            GameRangeTask firstHalf = new GameRangeTask(boardSize, startGame, midGame);
+            GameRangeTask secondHalf = new GameRangeTask(boardSize, midGame, endGame);
+            firstHalf.fork();
+            EvaluationResult secondHalfResult = secondHalf.compute();
+            return firstHalf.join().merge(secondHalfResult);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package mineopoly_three.game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Decides which tiles autominers work on each turn without looking at the rest of the board.
+ * An autominer works on its own tile and the four tiles next to it, and every turn it works on a tile counts
+ *  towards that tile's total. A resource tile is mined once every time its total reaches a multiple of
+ *  GameBoard.AUTOMINER_MULTIPLIER. Totals are stored lazily as (total at some turn, number of autominers working
+ *  on the tile since then), and resource tiles are put on a small timer wheel at the turn their total next
+ *  reaches a multiple, so a turn only costs as much as the number of tiles that actually get mined.
+ */
+class AutominerScheduler {
+    private static final int NOT_SCHEDULED = -1;
+
+    // A tile is never due more than AUTOMINER_MULTIPLIER turns after it is scheduled
+    private static final int WHEEL_SIZE = GameBoard.AUTOMINER_MULTIPLIER + 1;
+
+    private final int boardSize;
+    private final boolean[] hasAutominer;
+    private final int[] numAutominersWorking;
+    private final int[] turnsWorkedAtLastChange;
+    private final int[] lastChangeTurn;
+    private final int[] scheduledTurn;
+
+    private final int[][] wheelSlots;
+    private final int[] wheelSlotSizes;
+
+    // Tiles that started being worked on since the last turn, the autominer cracks them on its first turn there
+    private int[] newlyWorkedCells;
+    private int numNewlyWorkedCells;
+
+    private int[] cellsToReschedule;
+    private int currentTurn;
+
+    AutominerScheduler(int boardSize) {
+        this.boardSize = boardSize;
+        int numCells = boardSize * boardSize;
+        this.hasAutominer = new boolean[numCells];
+        this.numAutominersWorking = new int[numCells];
+        this.turnsWorkedAtLastChange = new int[numCells];
+        this.lastChangeTurn = new int[numCells];
+        this.scheduledTurn = new int[numCells];
+        Arrays.fill(scheduledTurn, NOT_SCHEDULED);
+
+        this.wheelSlots = new int[WHEEL_SIZE][8];
+        this.wheelSlotSizes = new int[WHEEL_SIZE];
+        this.newlyWorkedCells = new int[8];
+        this.numNewlyWorkedCells = 0;
+        this.cellsToReschedule = new int[8];
+        this.currentTurn = 0;
+    }
+
+    /**
+     * Creates an independent copy of another scheduler, for a forked board
+     *
+     * @param toCopy The scheduler to copy
+     */
+    AutominerScheduler(AutominerScheduler toCopy) {
+        this.boardSize = toCopy.boardSize;
+        this.hasAutominer = toCopy.hasAutominer.clone();
+        this.numAutominersWorking = toCopy.numAutominersWorking.clone();
+        this.turnsWorkedAtLastChange = toCopy.turnsWorkedAtLastChange.clone();
+        this.lastChangeTurn = toCopy.lastChangeTurn.clone();
+        this.scheduledTurn = toCopy.scheduledTurn.clone();
+
+        this.wheelSlots = new int[WHEEL_SIZE][];
+        for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+            wheelSlots[slot] = toCopy.wheelSlots[slot].clone();
+        }
+        this.wheelSlotSizes = toCopy.wheelSlotSizes.clone();
+        this.newlyWorkedCells = toCopy.newlyWorkedCells.clone();
+        this.numNewlyWorkedCells = toCopy.numNewlyWorkedCells;
+        this.cellsToReschedule = new int[toCopy.cellsToReschedule.length];
+        this.currentTurn = toCopy.currentTurn;
+    }
+
+    void writeState(DataOutput out) throws IOException {
+        // Only the few tiles near autominers differ from a fresh scheduler, so only those are written
+        int numWorkedCells = 0;
+        for (int cellIndex = 0; cellIndex < hasAutominer.length; cellIndex++) {
+            if (!isUntouched(cellIndex)) {
+                numWorkedCells++;
+            }
+        }
+        out.writeInt(numWorkedCells);
+        for (int cellIndex = 0; cellIndex < hasAutominer.length; cellIndex++) {
+            if (!isUntouched(cellIndex)) {
+                out.writeInt(cellIndex);
+                out.writeBoolean(hasAutominer[cellIndex]);
+                out.writeInt(numAutominersWorking[cellIndex]);
+                out.writeInt(turnsWorkedAtLastChange[cellIndex]);
+                out.writeInt(lastChangeTurn[cellIndex]);
+                out.writeInt(scheduledTurn[cellIndex]);
+            }
+        }
+
+        for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+            writeCells(out, wheelSlots[slot], wheelSlotSizes[slot]);
+        }
+        writeCells(out, newlyWorkedCells, numNewlyWorkedCells);
+        out.writeInt(currentTurn);
+    }
+
+    void readState(DataInput in) throws IOException {
+        Arrays.fill(hasAutominer, false);
+        Arrays.fill(numAutominersWorking, 0);
+        Arrays.fill(turnsWorkedAtLastChange, 0);
+        Arrays.fill(lastChangeTurn, 0);
+        Arrays.fill(scheduledTurn, NOT_SCHEDULED);
+        int numWorkedCells = in.readInt();
+        for (int i = 0; i < numWorkedCells; i++) {
+            int cellIndex = in.readInt();
+            hasAutominer[cellIndex] = in.readBoolean();
+            numAutominersWorking[cellIndex] = in.readInt();
+            turnsWorkedAtLastChange[cellIndex] = in.readInt();
+            lastChangeTurn[cellIndex] = in.readInt();
+            scheduledTurn[cellIndex] = in.readInt();
+        }
+
+        for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+            wheelSlotSizes[slot] = in.readInt();
+            wheelSlots[slot] = readCells(in, wheelSlots[slot], wheelSlotSizes[slot]);
+        }
+        numNewlyWorkedCells = in.readInt();
+        newlyWorkedCells = readCells(in, newlyWorkedCells, numNewlyWorkedCells);
+        currentTurn = in.readInt();
+    }
+
+    private boolean isUntouched(int cellIndex) {
+        return !hasAutominer[cellIndex] && numAutominersWorking[cellIndex] == 0
+               && turnsWorkedAtLastChange[cellIndex] == 0 && lastChangeTurn[cellIndex] == 0
+               && scheduledTurn[cellIndex] == NOT_SCHEDULED;
+    }
+
+    private static void writeCells(DataOutput out, int[] cells, int numCells) throws IOException {
+        out.writeInt(numCells);
+        for (int i = 0; i < numCells; i++) {
+            out.writeInt(cells[i]);
+        }
+    }
+
+    private static int[] readCells(DataInput in, int[] cells, int numCells) throws IOException {
+        if (cells.length < numCells) {
+            cells = new int[numCells];
+        }
+        for (int i = 0; i < numCells; i++) {
+            cells[i] = in.readInt();
+        }
+        return cells;
+    }
+
+    boolean hasAutominer(int cellIndex) {
+        return hasAutominer[cellIndex];
+    }
+
+    /**
+     * Records that an autominer was placed on or removed from a tile, which changes the work done on that tile
+     *  and the tiles next to it from this turn on
+     *
+     * @param cellIndex The index of the tile, (y * boardSize) + x
+     * @param autominerPresent True if the tile now has an autominer on it
+     * @param board The board the autominer is on
+     */
+    void setAutominer(int cellIndex, boolean autominerPresent, GameBoard board) {
+        if (hasAutominer[cellIndex] == autominerPresent) {
+            return;
+        }
+        hasAutominer[cellIndex] = autominerPresent;
+
+        int x = cellIndex % boardSize;
+        int y = cellIndex / boardSize;
+        int workChange = autominerPresent ? 1 : -1;
+        changeWorkers(cellIndex, workChange, board);
+        if (x > 0) {
+            changeWorkers(cellIndex - 1, workChange, board);
+        }
+        if (x < boardSize - 1) {
+            changeWorkers(cellIndex + 1, workChange, board);
+        }
+        if (y > 0) {
+            changeWorkers(cellIndex - boardSize, workChange, board);
+        }
+        if (y < boardSize - 1) {
+            changeWorkers(cellIndex + boardSize, workChange, board);
+        }
+    }
+
+    /**
+     * Lets every autominer work for one turn
+     *
+     * @param board The board the autominers are on
+     */
+    void runTurn(GameBoard board) {
+        for (int i = 0; i < numNewlyWorkedCells; i++) {
+            int cellIndex = newlyWorkedCells[i];
+            if (numAutominersWorking[cellIndex] > 0) {
+                board.crackWithAutominer(cellIndex);
+            }
+        }
+        numNewlyWorkedCells = 0;
+
+        int slot = currentTurn % WHEEL_SIZE;
+        int[] dueCells = wheelSlots[slot];
+        int numDueCells = wheelSlotSizes[slot];
+        wheelSlotSizes[slot] = 0;
+        if (cellsToReschedule.length < numDueCells) {
+            cellsToReschedule = new int[dueCells.length];
+        }
+
+        int numToReschedule = 0;
+        for (int i = 0; i < numDueCells; i++) {
+            int cellIndex = dueCells[i];
+            if (scheduledTurn[cellIndex] != currentTurn) {
+                // Rescheduled or cancelled after this entry was added
+                continue;
+            }
+            scheduledTurn[cellIndex] = NOT_SCHEDULED;
+
+            int timesToMine = countMultiplesWorkedThisTurn(cellIndex);
+            if (board.mineWithAutominer(cellIndex, timesToMine)) {
+                cellsToReschedule[numToReschedule++] = cellIndex;
+            }
+        }
+
+        currentTurn++;
+        for (int i = 0; i < numToReschedule; i++) {
+            schedule(cellsToReschedule[i], board);
+        }
+    }
+
+    private void changeWorkers(int cellIndex, int workChange, GameBoard board) {
+        // Lock in the work done so far at the old rate before changing the rate
+        turnsWorkedAtLastChange[cellIndex] = getTurnsWorked(cellIndex, currentTurn);
+        lastChangeTurn[cellIndex] = currentTurn;
+        numAutominersWorking[cellIndex] += workChange;
+
+        if (workChange > 0) {
+            newlyWorkedCells = append(newlyWorkedCells, numNewlyWorkedCells, cellIndex);
+            numNewlyWorkedCells++;
+        }
+        schedule(cellIndex, board);
+    }
+
+    private int getTurnsWorked(int cellIndex, int turn) {
+        return turnsWorkedAtLastChange[cellIndex] + numAutominersWorking[cellIndex] * (turn - lastChangeTurn[cellIndex]);
+    }
+
+    private int countMultiplesWorkedThisTurn(int cellIndex) {
+        // This turn the tile's total goes through [firstWork, firstWork + numWorkers - 1], the first turn never counts
+        int firstWork = getTurnsWorked(cellIndex, currentTurn);
+        int lastWork = firstWork + numAutominersWorking[cellIndex] - 1;
+        int multiplesBefore = (firstWork > 0) ? ((firstWork - 1) / GameBoard.AUTOMINER_MULTIPLIER) : 0;
+        return (lastWork / GameBoard.AUTOMINER_MULTIPLIER) - multiplesBefore;
+    }
+
+    private void schedule(int cellIndex, GameBoard board) {
+        int numWorkers = numAutominersWorking[cellIndex];
+        if (numWorkers <= 0 || !board.isAutominerResourceTarget(cellIndex)) {
+            scheduledTurn[cellIndex] = NOT_SCHEDULED;
+            return;
+        }
+
+        // Find the first turn whose work passes through a positive multiple of AUTOMINER_MULTIPLIER
+        int turnsWorked = getTurnsWorked(cellIndex, currentTurn);
+        int nextMultiple = Math.max(1, turnsWorked) + GameBoard.AUTOMINER_MULTIPLIER - 1;
+        nextMultiple -= nextMultiple % GameBoard.AUTOMINER_MULTIPLIER;
+        int dueTurn = currentTurn + (nextMultiple - turnsWorked) / numWorkers;
+        if (scheduledTurn[cellIndex] == dueTurn) {
+            return;
+        }
+
+        scheduledTurn[cellIndex] = dueTurn;
+        int slot = dueTurn % WHEEL_SIZE;
+        wheelSlots[slot] = append(wheelSlots[slot], wheelSlotSizes[slot], cellIndex);
+        wheelSlotSizes[slot]++;
+    }
+
+    private static int[] append(int[] array, int size, int value) {
+        if (size == array.length) {
+            array = Arrays.copyOf(array, size * 2);
+        }
+        array[size] = value;
+        return array;
+    }
+}
@@ -2,26 +2,93 @@ package mineopoly_three.game;
 
 import mineopoly_three.item.InventoryItem;
 import mineopoly_three.item.ItemType;
+import mineopoly_three.util.StateHash;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.Observable;
-
-public class Economy extends Observable {
-    private static final int NUM_UPDATES_BEFORE_NOTIFY = 10;
 
+public class Economy {
     private final ItemType[] sellableResourceTypes;
-    private Map<ItemType, Integer> resourcePrices;
-    private int updatesSinceLastNotify;
+    // Indexed by ItemType ordinal, so updating prices every turn never boxes an Integer. Unsellable types stay 0
+    private final int[] resourcePrices;
+    private final boolean[] isSellableByType;
+    private final int[] numSoldByType;
+    private long priceVersion;
+    private GameEventBus eventBus = GameEventBus.NONE;
 
     public Economy(ItemType[] resourceTypes) {
         this.sellableResourceTypes = resourceTypes;
-        resourcePrices = new HashMap<>();
+        this.resourcePrices = new int[ItemType.values().length];
+        this.isSellableByType = new boolean[resourcePrices.length];
         for (ItemType resourceType : sellableResourceTypes) {
-            resourcePrices.put(resourceType, resourceType.getStartingPrice());
+            resourcePrices[resourceType.ordinal()] = resourceType.getStartingPrice();
+            isSellableByType[resourceType.ordinal()] = true;
         }
-        this.updatesSinceLastNotify = 0;
+        this.numSoldByType = new int[resourcePrices.length];
+        this.priceVersion = 0;
+    }
+
+    /**
+     * Copies the prices of another Economy for a forked game. Listeners of the original hear nothing from the copy
+     *
+     * @param toCopy The Economy to copy
+     */
+    public Economy(Economy toCopy) {
+        this.sellableResourceTypes = toCopy.sellableResourceTypes;
+        this.resourcePrices = toCopy.resourcePrices.clone();
+        this.isSellableByType = toCopy.isSellableByType;
+        this.numSoldByType = new int[resourcePrices.length];
+        this.priceVersion = toCopy.priceVersion;
+    }
+
+    /**
+     * Gets the current price of one item type without copying every price into a Map
+     *
+     * @param itemType The type of item
+     * @return The price that type sells for right now, or 0 if it can't be sold
+     */
+    public int getPrice(ItemType itemType) {
+        return resourcePrices[itemType.ordinal()];
+    }
+
+    /**
+     * @param itemType The type of item
+     * @return True if markets buy that type of item
+     */
+    public boolean isSellable(ItemType itemType) {
+        return isSellableByType[itemType.ordinal()];
+    }
+
+    /**
+     * Copies the current price of every item type into an array the caller owns, so a strategy can read every
+     *  price each turn without allocating anything
+     *
+     * @param destination An array indexed by ItemType ordinal, with room for every ItemType. Types that can't be
+     *                     sold get a price of 0
+     */
+    public void copyPrices(int[] destination) {
+        if (destination == null || destination.length < resourcePrices.length) {
+            throw new IllegalArgumentException("Destination needs room for " + resourcePrices.length + " prices");
+        }
+        System.arraycopy(resourcePrices, 0, destination, 0, resourcePrices.length);
+    }
+
+    /**
+     * Gets a number that goes up whenever any price changes and stays the same otherwise. A strategy can keep
+     *  values it worked out from the prices until the version it saw them at is no longer current.
+     *  Prices that sit at their maximum turn after turn don't change the version.
+     * Versions only mean something within one Economy. A copy starts at the version of the Economy it was copied
+     *  from and counts on by itself, so the same version can stand for different prices in each
+     *
+     * @return The version of the current prices
+     */
+    public long getPriceVersion() {
+        return priceVersion;
     }
 
     /**
@@ -30,76 +97,191 @@ public class Economy extends Observable {
      * @return A Map from each ResourceType to its price
      */
     public Map<ItemType, Integer> getCurrentPrices() {
-        // Nothing outside this class should be able to modify prices, need to make a copy
-        Map<ItemType, Integer> resourcePricesCopy = new HashMap<>();
-        for (ItemType resourceType : resourcePrices.keySet()) {
-            resourcePricesCopy.put(resourceType, resourcePrices.get(resourceType));
+        // EnumMaps iterate in declaration order, a HashMap of enums would iterate in a different order every run
+        Map<ItemType, Integer> resourcePricesCopy = new EnumMap<>(ItemType.class);
+        for (ItemType resourceType : sellableResourceTypes) {
+            resourcePricesCopy.put(resourceType, resourcePrices[resourceType.ordinal()]);
         }
         return resourcePricesCopy;
     }
 
     /**
      * Increments the price for each ResourceType by its priceIncreasePerTurn value.
-     * Notifies any observers (like the GUI) that they should update every NUM_UPDATES_BEFORE_NOTIFY calls
+     * Tells any listeners (like the GUI) if a price changed
      */
     protected void increaseDemand() {
+        boolean pricesChanged = false;
         for (ItemType resourceType : sellableResourceTypes) {
-            Integer currentPrice = resourcePrices.getOrDefault(resourceType, 0);
-            Integer nextPrice = currentPrice + resourceType.getPriceIncreasePerTurn();
+            int currentPrice = resourcePrices[resourceType.ordinal()];
+            int nextPrice = currentPrice + resourceType.getPriceIncreasePerTurn();
             if (nextPrice >= resourceType.getMaxPrice()) {
                 nextPrice = resourceType.getMaxPrice();
             }
-            resourcePrices.put(resourceType, nextPrice);
+            resourcePrices[resourceType.ordinal()] = nextPrice;
+            pricesChanged |= (nextPrice != currentPrice);
         }
-
-        // Let any observers, like the GUI, know to update after this updates some number of times
-        this.updatesSinceLastNotify++;
-        if (this.updatesSinceLastNotify >= NUM_UPDATES_BEFORE_NOTIFY) {
-            this.notifyObservers();
+        if (pricesChanged) {
+            onPricesChanged();
         }
     }
 
     /**
      * Calculates the total price for all InventoryItems in the passed in Collection.
      * Decreases the price for each resource according to newPrice = oldPrice * (1 - (numSold / 8)).
-     * Immediately notifies any observers (like the GUI) that they should update.
+     * Tells any listeners (like the GUI) if a price changed.
      *
      * @param itemsToSell The entire Collection of InventoryItems to be sold
      * @return The total price that all InventoryItems were sold for
      */
     protected int sellResources(Collection<InventoryItem> itemsToSell) {
         // Count the number of each resource type being sold
-        Map<ItemType, Integer> resourcesToNumSold = new HashMap<>();
+        Arrays.fill(numSoldByType, 0);
         for (InventoryItem itemToSell : itemsToSell) {
             ItemType currentType = itemToSell.getItemType();
 
             if(currentType.isResource()) {
-                int numSold = resourcesToNumSold.getOrDefault(currentType, 0);
-                resourcesToNumSold.put(currentType, numSold + 1);
+                numSoldByType[currentType.ordinal()]++;
             }
         }
 
         // We now know how many of each type are being sold, need to calculate how much they are all worth
         int totalSellPrice = 0;
+        boolean pricesChanged = false;
         for (ItemType sellableResourceType : sellableResourceTypes) {
-            int numSoldOfType = resourcesToNumSold.getOrDefault(sellableResourceType, 0);
-            int priceForResource = resourcePrices.getOrDefault(sellableResourceType, 0);
+            int numSoldOfType = numSoldByType[sellableResourceType.ordinal()];
+            int priceForResource = resourcePrices[sellableResourceType.ordinal()];
             totalSellPrice += numSoldOfType * priceForResource;
 
-            // Supply has gone up, decrease the sell price according to oldPrice * (1 - (numSold / 8))
-            int newResourcePrice = (int) (priceForResource * (1.0 - (numSoldOfType / 8.0)));
-            resourcePrices.put(sellableResourceType, newResourcePrice);
+            int newResourcePrice = getPriceAfterSelling(priceForResource, numSoldOfType);
+            resourcePrices[sellableResourceType.ordinal()] = newResourcePrice;
+            pricesChanged |= (newResourcePrice != priceForResource);
+        }
+        if (pricesChanged) {
+            onPricesChanged();
         }
-
-        // Always notify observers on a sell
-        this.notifyObservers();
         return totalSellPrice;
     }
 
-    @Override
-    public void notifyObservers() {
-        this.setChanged();
-        super.notifyObservers();
-        this.updatesSinceLastNotify = 0;
+    private static int getPriceAfterSelling(int price, int numSold) {
+        // Supply has gone up, decrease the sell price according to oldPrice * (1 - (numSold / 8))
+        return (int) (price * (1.0 - (numSold / 8.0)));
+    }
+
+    /**
+     * Works out what an item type will sell for some turns from now if nobody sells any of it before then, without
+     *  stepping a copy of the Economy turn by turn. Prices go up by a fixed amount each turn until they reach
+     *  their maximum, so this is exact.
+     *
+     * @param itemType The type of item
+     * @param turnsFromNow How many turns ahead to look. 0 is the price a sale made with this turn's action gets
+     * @return The price that type will sell for then, or 0 if it can't be sold
+     */
+    public int getForecastPrice(ItemType itemType, int turnsFromNow) {
+        if (turnsFromNow < 0) {
+            throw new IllegalArgumentException("Can't forecast a price in the past");
+        }
+        int currentPrice = resourcePrices[itemType.ordinal()];
+        if (turnsFromNow == 0 || !isSellableByType[itemType.ordinal()]) {
+            return currentPrice;
+        }
+        long forecastPrice = currentPrice + (long) turnsFromNow * itemType.getPriceIncreasePerTurn();
+        return (int) Math.min(forecastPrice, itemType.getMaxPrice());
+    }
+
+    /**
+     * Works out what an item type's price drops to right after some of it is sold some turns from now, if nobody
+     *  sells any of it before then
+     *
+     * @param itemType The type of item
+     * @param numSold How many items of that type are sold together
+     * @param turnsFromNow How many turns ahead the sale happens, 0 for a sale made with this turn's action
+     * @return The price of that type right after the sale
+     */
+    public int getForecastPriceAfterSelling(ItemType itemType, int numSold, int turnsFromNow) {
+        if (numSold < 0) {
+            throw new IllegalArgumentException("Can't sell a negative number of items");
+        }
+        return getPriceAfterSelling(getForecastPrice(itemType, turnsFromNow), numSold);
+    }
+
+    /**
+     * Works out how much selling some items will earn some turns from now, if nobody sells anything before then.
+     *  Every item sold at once gets the price from before the sale, so this is the same as what selling them would
+     *  add to a player's score.
+     *
+     * @param numToSellByType How many of each item type to sell, indexed by ItemType ordinal. Types that can't be
+     *                         sold, or are past the end of the array, are ignored
+     * @param turnsFromNow How many turns ahead the sale happens, 0 for a sale made with this turn's action
+     * @return The total the items would sell for
+     */
+    public int getForecastRevenue(int[] numToSellByType, int turnsFromNow) {
+        if (numToSellByType == null) {
+            throw new IllegalArgumentException("Counts cannot be null");
+        }
+        int totalRevenue = 0;
+        for (ItemType sellableResourceType : sellableResourceTypes) {
+            int ordinal = sellableResourceType.ordinal();
+            if (ordinal < numToSellByType.length) {
+                totalRevenue += numToSellByType[ordinal] * getForecastPrice(sellableResourceType, turnsFromNow);
+            }
+        }
+        return totalRevenue;
+    }
+
+    /**
+     * Works out how much selling an inventory will earn some turns from now, if nobody sells anything before then
+     *
+     * @param itemsToSell The items to sell. Items that can't be sold, like autominers, are ignored
+     * @param turnsFromNow How many turns ahead the sale happens, 0 for a sale made with this turn's action
+     * @return The total the items would sell for
+     */
+    public int getForecastRevenue(Collection<InventoryItem> itemsToSell, int turnsFromNow) {
+        int totalRevenue = 0;
+        for (InventoryItem itemToSell : itemsToSell) {
+            ItemType itemType = itemToSell.getItemType();
+            if (isSellableByType[itemType.ordinal()]) {
+                totalRevenue += getForecastPrice(itemType, turnsFromNow);
+            }
+        }
+        return totalRevenue;
+    }
+
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(resourcePrices.length);
+        for (int resourcePrice : resourcePrices) {
+            out.writeInt(resourcePrice);
+        }
+    }
+
+    long hashState(long hash) {
+        for (int resourcePrice : resourcePrices) {
+            hash = StateHash.combine(hash, resourcePrice);
+        }
+        return hash;
+    }
+
+    void readState(DataInput in) throws IOException {
+        if (in.readInt() != resourcePrices.length) {
+            throw new IOException("Keyframe has prices for a different set of items");
+        }
+        for (int i = 0; i < resourcePrices.length; i++) {
+            resourcePrices[i] = in.readInt();
+        }
+        // Listeners hear about the whole game being restored from the GameEngine once everything is read
+        priceVersion++;
+    }
+
+    /**
+     * Sends the events of this economy to a GameEngine's listeners
+     *
+     * @param eventBus The engine's event bus
+     */
+    void setEventBus(GameEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    private void onPricesChanged() {
+        priceVersion++;
+        eventBus.firePricesChanged(this);
     }
 }
@@ -0,0 +1,195 @@
+package mineopoly_three.game;
+
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.tiles.TileType;
+
+import java.awt.Point;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An independent copy of a running game that a strategy can play ahead in without touching the real game.
+ * Turns are played with the same rules as the GameEngine, from the point of view of one of the players: you choose
+ *  your action and the action you expect your opponent to take, and can then read what the game would look like.
+ * Forking is cheap, the board is copied as a handful of flat arrays and shares its immutable snapshot with the game
+ *  it was forked from, so try out every candidate in a fork of its own.
+ * A ForwardModel is not safe to use from more than one thread, but forks of it can be used on other threads.
+ */
+public class ForwardModel {
+    private final GameBoard board;
+    private final MinePlayer redPlayer;
+    private final MinePlayer bluePlayer;
+    private final Economy economy;
+    private final boolean isRedPlayer;
+    private final int minScoreToWin;
+    private final int maxTurns;
+    private int turnNumber;
+    private boolean isRedTurn;
+
+    ForwardModel(GameBoard board, MinePlayer redPlayer, MinePlayer bluePlayer, Economy economy, boolean isRedPlayer,
+                 int minScoreToWin, int maxTurns, int turnNumber, boolean isRedTurn) {
+        // Everything passed in is copied, so nothing done to this model can reach the game it came from
+        this.economy = new Economy(economy);
+        this.redPlayer = new MinePlayer(redPlayer, this.economy);
+        this.bluePlayer = new MinePlayer(bluePlayer, this.economy);
+        this.board = new GameBoard(board, this.redPlayer, this.bluePlayer);
+        this.isRedPlayer = isRedPlayer;
+        this.minScoreToWin = minScoreToWin;
+        this.maxTurns = maxTurns;
+        this.turnNumber = turnNumber;
+        this.isRedTurn = isRedTurn;
+    }
+
+    /**
+     * Makes another independent copy of this model in its current state
+     *
+     * @return A new ForwardModel that can be played ahead separately from this one
+     */
+    public ForwardModel fork() {
+        return new ForwardModel(board, redPlayer, bluePlayer, economy, isRedPlayer, minScoreToWin, maxTurns,
+                                turnNumber, isRedTurn);
+    }
+
+    /**
+     * Plays one turn the way the GameEngine would: whoever moves first this turn acts first, then the other player
+     *  acts, then the board and the economy update.
+     *
+     * @param yourAction The action for the player this model was forked for, or null to do nothing
+     * @param opponentAction The action to assume the opponent takes, or null to do nothing
+     * @throws IllegalStateException If the game is already over
+     */
+    public void step(TurnAction yourAction, TurnAction opponentAction) {
+        if (isGameOver()) {
+            throw new IllegalStateException("The game is already over");
+        }
+
+        TurnAction redAction = isRedPlayer ? yourAction : opponentAction;
+        TurnAction blueAction = isRedPlayer ? opponentAction : yourAction;
+        if (isRedTurn) {
+            performAction(redPlayer, redAction);
+            performAction(bluePlayer, blueAction);
+        } else {
+            performAction(bluePlayer, blueAction);
+            performAction(redPlayer, redAction);
+        }
+
+        board.update();
+        economy.increaseDemand();
+        isRedTurn = !isRedTurn;
+        turnNumber++;
+    }
+
+    private void performAction(MinePlayer player, TurnAction action) {
+        // Recorded like the engine does, since it also decides which way the player last moved
+        player.addTurnAction(action);
+        if (action != null) {
+            action.getActionToPerform().performAction(board, player, action);
+        }
+    }
+
+    /**
+     * @return True if the game has run out of turns or a player has reached the score needed to win
+     */
+    public boolean isGameOver() {
+        return turnNumber >= maxTurns || redPlayer.getScore() >= minScoreToWin
+               || bluePlayer.getScore() >= minScoreToWin;
+    }
+
+    /**
+     * @return The number of turns played in the game so far, including the ones played in this model
+     */
+    public int getTurnNumber() {
+        return turnNumber;
+    }
+
+    /**
+     * @return True if red acts first on the next turn
+     */
+    public boolean isRedTurn() {
+        return isRedTurn;
+    }
+
+    /**
+     * @return The same hash GameEngine.getStateHash() would give a game in exactly the state of this model
+     */
+    public long getStateHash() {
+        return GameEngine.hashState(board, redPlayer, bluePlayer, economy, turnNumber, isRedTurn);
+    }
+
+    /**
+     * @return True if this model was forked for the red player
+     */
+    public boolean isRedPlayer() {
+        return isRedPlayer;
+    }
+
+    public int getYourScore() {
+        return getYou().getScore();
+    }
+
+    public int getOtherPlayerScore() {
+        return getOpponent().getScore();
+    }
+
+    /**
+     * @return A copy of your location
+     */
+    public Point getYourLocation() {
+        return new Point(getYou().getLocation());
+    }
+
+    /**
+     * @return A copy of the other player's location
+     */
+    public Point getOtherPlayerLocation() {
+        return new Point(getOpponent().getLocation());
+    }
+
+    public int getYourEnergy() {
+        return getYou().getCurrentEnergy();
+    }
+
+    /**
+     * @return The items you are carrying, which cannot be modified
+     */
+    public List<InventoryItem> getYourInventory() {
+        return Collections.unmodifiableList(getYou().getInventory());
+    }
+
+    /**
+     * Gets the Economy of this model, so its prices can be read the same way as the real game's
+     *
+     * @return The Economy this model sells to
+     */
+    public Economy getEconomy() {
+        return economy;
+    }
+
+    /**
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     * @return The type of tile at (x, y), or null if it is outside the board
+     */
+    public TileType getTileTypeAtLocation(int x, int y) {
+        return board.getTileTypeAtLocation(x, y);
+    }
+
+    /**
+     * Gets the same view of this model's board that the GameEngine would give you at this point
+     *
+     * @return A PlayerBoardView of the board from your point of view
+     */
+    public PlayerBoardView getBoardView() {
+        return board.convertToView(getYou(), getOpponent());
+    }
+
+    private MinePlayer getYou() {
+        return isRedPlayer ? redPlayer : bluePlayer;
+    }
+
+    private MinePlayer getOpponent() {
+        return isRedPlayer ? bluePlayer : redPlayer;
+    }
+}
@@ -3,52 +3,144 @@ package mineopoly_three.game;
 import mineopoly_three.action.TurnAction;
 import mineopoly_three.graphics.ImageManager;
 import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemCellCursor;
+import mineopoly_three.item.ItemIndex;
 import mineopoly_three.item.ItemType;
+import mineopoly_three.strategy.BoardSnapshot;
 import mineopoly_three.strategy.PlayerBoardView;
 import mineopoly_three.tiles.*;
+import mineopoly_three.util.StateHash;
 
 import java.awt.*;
-import java.util.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
+/**
+ * The GameEngine's board and the rules for what happens on it. All state is kept in flat primitive arrays indexed
+ *  by (y * boardSize) + x, with (0, 0) as the bottom left tile. The Tile classes are only thin views over
+ *  this data for rendering, nothing in the engine needs a Tile object to run a game.
+ */
 public class GameBoard {
 
     /**How much longer it takes an autominer to mine a resource compared to a player*/
     public static final int AUTOMINER_MULTIPLIER = 4;
 
-    private Tile[][] board;
+    private static final float RECHARGE_PERCENT_PER_TURN = 0.1f;
+    private static final TileType[] allTileTypes = TileType.values();
+    // The resource each TileType ordinal holds, null for tiles that can't be mined for anything
+    private static final ItemType[] resourceByTileType = new ItemType[allTileTypes.length];
+    private static final byte NO_OCCUPANT = 0;
+    private static final byte RED_OCCUPANT = 1;
+    private static final byte BLUE_OCCUPANT = 2;
+    private static final int[] NO_CHANGED_CELLS = new int[0];
+
+    static {
+        for (ItemType itemType : ItemType.values()) {
+            if (itemType.isResource()) {
+                resourceByTileType[itemType.getResourceTileType().ordinal()] = itemType;
+            }
+        }
+    }
+
+    private final int size;
     private Point redStartLocation;
     private Point blueStartLocation;
 
-    // A map of tile locations affected by an autominer to the number of turns they have been mined
-    private Map<Point, Integer> autominerTiles;
-
-    // Variables to pre-compute things about the board and change them quickly on the fly
-    private TileType[][] tileView;
-    private Map<Point, List<InventoryItem>> itemsOnGround;
-
-    public GameBoard(Tile[][] tiles) {
-        board = tiles;
+    // The TileType ordinal of each cell
+    private final byte[] tileTypes;
+    // How many times each resource tile has been mined. Any non zero value on an EMPTY cell means it is cracked
+    private final byte[] mineProgress;
+    // The items on the ground, only for the few cells that have any
+    private final ItemIndex itemsOnGround;
+    // Which player, if any, is standing in each cell
+    private final byte[] occupants;
+    private final MinePlayer[] players;
+
+    private final AutominerScheduler autominerScheduler;
+    private GameEventBus eventBus = GameEventBus.NONE;
+
+    // A Zobrist style hash of every cell's tile, mining progress and items. The board's hash is the XOR of all the
+    //  cell hashes, so a change to one cell only has to rehash that cell
+    private final long[] cellHashes;
+    private long stateHash;
+
+    // Tile types and items on the ground, published as an immutable BoardSnapshot whenever a view is requested
+    private final BoardSnapshot.Builder snapshotBuilder;
+    // The last view made for each player, handed out again as long as everything in it is still up to date
+    private final PlayerBoardView[] lastViews = new PlayerBoardView[2];
+    private final Supplier<?>[] lastViewForwardModels = new Supplier<?>[2];
+    // For each player, the cells whose tile type or items changed in the snapshot since their last view, each
+    //  listed once. They are handed to the player with their next view
+    private final int[][] changedCells = new int[2][];
+    private final boolean[][] isCellChanged = new boolean[2][];
+    private final int[] numChangedCells = new int[2];
 
-        autominerTiles = new HashMap<>();
-
-        // Pre-compute the intensive variables to give to a PlayerBoardView
-        itemsOnGround = new HashMap<>();
-        tileView = new TileType[board.length][board.length];
-        for (int i = 0; i < tileView.length; i++) {
-            for (int j = 0; j < tileView[i].length; j++) {
-                tileView[i][j] = board[i][j].getType();
-
-                Point itemLocation = board[i][j].getLocation();
-                Point itemLocationCopy = new Point(itemLocation.x, itemLocation.y);
-                List<InventoryItem> items = new ArrayList<>(board[i][j].getItemsOnTile());
-                itemsOnGround.put(itemLocationCopy, items);
+    /**
+     * Creates a board with every tile empty
+     *
+     * @param size The length and width of the board
+     */
+    public GameBoard(int size) {
+        this.size = size;
+        int numCells = size * size;
+        this.tileTypes = new byte[numCells];
+        this.mineProgress = new byte[numCells];
+        this.itemsOnGround = new ItemIndex(size, size);
+        this.occupants = new byte[numCells];
+        this.players = new MinePlayer[2];
+        Arrays.fill(tileTypes, (byte) TileType.EMPTY.ordinal());
+
+        this.autominerScheduler = new AutominerScheduler(size);
+        this.cellHashes = new long[numCells];
+        rehashAllCells();
+        initializeChangedCells(numCells);
+        this.snapshotBuilder = new BoardSnapshot.Builder(size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                snapshotBuilder.setTileType(x, y, TileType.EMPTY);
             }
         }
     }
 
+    /**
+     * Creates an independent copy of another board for a forked game, with the forked game's players standing
+     *  where the original players are. The flat arrays are copied, and the published BoardSnapshot chunks are
+     *  shared until one of the two boards writes to them
+     *
+     * @param toCopy The board to copy
+     * @param redPlayer The forked game's red player
+     * @param bluePlayer The forked game's blue player
+     */
+    GameBoard(GameBoard toCopy, MinePlayer redPlayer, MinePlayer bluePlayer) {
+        this.size = toCopy.size;
+        this.redStartLocation = toCopy.redStartLocation;
+        this.blueStartLocation = toCopy.blueStartLocation;
+        this.tileTypes = toCopy.tileTypes.clone();
+        this.mineProgress = toCopy.mineProgress.clone();
+        this.itemsOnGround = new ItemIndex(toCopy.itemsOnGround);
+        this.occupants = toCopy.occupants.clone();
+        this.players = new MinePlayer[2];
+        if (toCopy.players[RED_OCCUPANT - 1] != null) {
+            players[RED_OCCUPANT - 1] = redPlayer;
+        }
+        if (toCopy.players[BLUE_OCCUPANT - 1] != null) {
+            players[BLUE_OCCUPANT - 1] = bluePlayer;
+        }
+
+        this.autominerScheduler = new AutominerScheduler(toCopy.autominerScheduler);
+        this.cellHashes = toCopy.cellHashes.clone();
+        this.stateHash = toCopy.stateHash;
+        initializeChangedCells(tileTypes.length);
+        this.snapshotBuilder = new BoardSnapshot.Builder(toCopy.snapshotBuilder.build());
+    }
+
     public int getSize() {
-        return board.length;
+        return size;
     }
 
     public Point getRedStartTileLocation() {
@@ -67,122 +159,498 @@ public class GameBoard {
         this.blueStartLocation = blueStartLocation;
     }
 
-    public void trackItemsOnPoint(Point pointWithItem, List<InventoryItem> itemsOnPoint) {
-        itemsOnGround.put(pointWithItem, new ArrayList<>(itemsOnPoint));
+    public boolean isValidLocation(Point location) {
+        return isValidLocation(location.x, location.y);
+    }
+
+    public boolean isValidLocation(int x, int y) {
+        boolean xInBounds = (x >= 0 && x < size);
+        boolean yInBounds = (y >= 0 && y < size);
+        return xInBounds && yInBounds;
     }
 
     /**
-     * Gets the tile at the specified location in Cartesian (x, y) coordinates with (0, 0) as the bottom left tile
-     *  and (boardSize - 1, boardSize - 1) as the top right tile
+     * Gets the type of the tile at the specified location in Cartesian (x, y) coordinates
      *
-     * @param location A Point representing (x, y) coordinates of the tile to get
-     * @return The Tile at the specified location on the board
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     * @return The TileType at the location, or null if the location is outside the board
      */
-    public Tile getTileAtLocation(Point location) {
-        return getTileAtLocation(location.x, location.y);
+    public TileType getTileTypeAtLocation(int x, int y) {
+        if (!isValidLocation(x, y)) {
+            return null;
+        }
+        return allTileTypes[tileTypes[getCellIndex(x, y)]];
     }
 
     /**
-     * Gets the tile at the specified location in Cartesian (x, y) coordinates with (0, 0) as the bottom left tile
-     *  and (boardSize - 1, boardSize - 1) as the top right tile
+     * Changes the type of the tile at the specified location, resetting any mining progress on it.
+     * This is meant for building the board, players standing on the tile are not affected
      *
-     * @param x The x coordinate of the tile to get
-     * @param y The y coordinate of the tile to get
-     * @return The Tile at the specified location on the board
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     * @param tileType The new type of the tile
      */
-    public Tile getTileAtLocation(int x, int y) {
+    public void setTileTypeAtLocation(int x, int y, TileType tileType) {
+        if (!isValidLocation(x, y)) {
+            return;
+        }
+        int cellIndex = getCellIndex(x, y);
+        tileTypes[cellIndex] = (byte) tileType.ordinal();
+        mineProgress[cellIndex] = 0;
+        onCellChanged(cellIndex);
+        publishTileType(cellIndex, tileType);
+    }
+
+    /**
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     * @return How many times the resource tile at the location has been mined, 0 for any other tile
+     */
+    public int getMineProgressAtLocation(int x, int y) {
+        if (!isValidLocation(x, y) || !isResourceCell(getCellIndex(x, y))) {
+            return 0;
+        }
+        return mineProgress[getCellIndex(x, y)];
+    }
+
+    /**
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     * @return True if the tile at the location is an empty tile that has been mined
+     */
+    public boolean isCrackedAtLocation(int x, int y) {
+        if (!isValidLocation(x, y)) {
+            return false;
+        }
+        int cellIndex = getCellIndex(x, y);
+        return tileTypes[cellIndex] == TileType.EMPTY.ordinal() && mineProgress[cellIndex] != 0;
+    }
+
+    /**
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     * @return An unmodifiable list of the items on the ground at the location
+     */
+    public List<InventoryItem> getItemsAtLocation(int x, int y) {
+        if (!isValidLocation(x, y)) {
+            return Collections.emptyList();
+        }
+        InventoryItem[] items = itemsOnGround.copyItems(getCellIndex(x, y));
+        return (items == null) ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(items));
+    }
+
+    /**
+     * Drops an item on the ground at the specified location
+     *
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     * @param item The item to put on the tile
+     */
+    public void addItemAtLocation(int x, int y, InventoryItem item) {
         if (isValidLocation(x, y)) {
-            return board[(board.length - 1) - y][x];
+            addItem(getCellIndex(x, y), item);
+        }
+    }
+
+    /**
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     * @return The player standing on the tile at the location, or null if there is none
+     */
+    public MinePlayer getPlayerAtLocation(int x, int y) {
+        if (!isValidLocation(x, y)) {
+            return null;
         }
-        return null;
+        byte occupant = occupants[getCellIndex(x, y)];
+        return (occupant == NO_OCCUPANT) ? null : players[occupant - 1];
     }
 
     /**
-     * Updates the Tile at the parameter tile's location to be the parameter tile. This function handles
-     *  logic like calling Tile.onEnter() if necessary
+     * Puts a player on the board at their current location, as if they had just walked onto that tile
      *
-     * @param newTile The Tile that will be set at the Point specified by newTile.getLocation()
+     * @param player The player to add to the board
      */
-    public void setTileAtTileLocation(Tile newTile) {
-        // Because tiles know their location, we don't need to pass it in
-        int x = newTile.getLocation().x;
-        int y = newTile.getLocation().y;
+    public void addPlayer(MinePlayer player) {
+        byte occupant = player.isRedPlayer() ? RED_OCCUPANT : BLUE_OCCUPANT;
+        players[occupant - 1] = player;
+        Point location = player.getLocation();
+        enterCell(player, occupant, getCellIndex(location.x, location.y));
+    }
 
-        if (isValidLocation(x, y)) {
-            Tile oldTile = board[(board.length - 1) - y][x];
-            MinePlayer playerOnTile = oldTile.getPlayerOnTile();
+    /**
+     * Moves a player from their current tile onto the tile at the specified location. Callers are responsible for
+     *  checking the move is allowed
+     *
+     * @param player The player to move
+     * @param x The x coordinate of the tile to move to
+     * @param y The y coordinate of the tile to move to
+     */
+    public void movePlayer(MinePlayer player, int x, int y) {
+        Point location = player.getLocation();
+        int oldX = location.x;
+        int oldY = location.y;
+        int oldCellIndex = getCellIndex(oldX, oldY);
+        byte occupant = occupants[oldCellIndex];
+        occupants[oldCellIndex] = NO_OCCUPANT;
+
+        player.setLocation(x, y);
+        eventBus.firePlayerMoved(player.isRedPlayer(), oldX, oldY, x, y);
+        enterCell(player, occupant, getCellIndex(x, y));
+    }
+
+    private void enterCell(MinePlayer player, byte occupant, int cellIndex) {
+        occupants[cellIndex] = occupant;
+
+        // Players sell everything they carry as soon as they step on a market of their own color
+        int tileTypeOrdinal = tileTypes[cellIndex];
+        boolean isRedPlayerOnRedMarket = player.isRedPlayer() && tileTypeOrdinal == TileType.RED_MARKET.ordinal();
+        boolean isBluePlayerOnBlueMarket = !player.isRedPlayer() && tileTypeOrdinal == TileType.BLUE_MARKET.ordinal();
+        if (isRedPlayerOnRedMarket || isBluePlayerOnBlueMarket) {
+            player.sellItems();
+        }
+    }
+
+    /**
+     * Performs a TurnAction on the tile the player is standing on, like mining the tile or
+     *  picking up or placing an item
+     *
+     * @param player The player performing the action
+     * @param action The TurnAction being performed on the player's tile
+     */
+    public void interact(MinePlayer player, TurnAction action) {
+        Point location = player.getLocation();
+        int cellIndex = getCellIndex(location.x, location.y);
+
+        if (action == TurnAction.PLACE_AUTOMINER && !hasAutominer(cellIndex)) {
+            // Only one autominer can be on a tile
+            List<InventoryItem> playerInventory = player.getInventory();
+            for (int i = 0; i < playerInventory.size(); i++) {
+                InventoryItem playerAutominer = playerInventory.get(i);
+                if (playerAutominer.getItemType() == ItemType.AUTOMINER) {
+                    playerInventory.remove(i);
+                    addItem(cellIndex, playerAutominer);
+                    eventBus.fireAutominerPlaced(player.isRedPlayer(), location.x, location.y);
+                    break;
+                }
+            }
+        } else {
+            InventoryItem toPickUp = null;
+            if (action == TurnAction.PICK_UP_RESOURCE) {
+                toPickUp = itemsOnGround.findResource(cellIndex);
+            } else if (action == TurnAction.PICK_UP_AUTOMINER) {
+                toPickUp = itemsOnGround.findItemOfType(cellIndex, ItemType.AUTOMINER);
+            }
 
-            if (playerOnTile != null) {
-                oldTile.onExit(playerOnTile);
-                newTile.onEnter(playerOnTile);
-                playerOnTile.setCurrentTile(newTile);
+            if (toPickUp != null && player.addItemToInventory(toPickUp)) {
+                removeItem(cellIndex, toPickUp);
+                eventBus.fireItemPickedUp(player.isRedPlayer(), toPickUp.getItemType());
             }
-            board[(board.length - 1) - y][x] = newTile;
-            tileView[(board.length - 1) - y][x] = newTile.getType();
+        }
+
+        if (action == TurnAction.MINE) {
+            mineCell(cellIndex);
         }
     }
 
-    private boolean isValidLocation(Point location) {
-        return isValidLocation(location.x, location.y);
+    /**
+     * Mines the tile in a cell once. Empty tiles crack, and resource tiles turn into cracked empty tiles with
+     *  the resource on top once they have been mined enough times
+     */
+    private void mineCell(int cellIndex) {
+        int tileTypeOrdinal = tileTypes[cellIndex];
+        if (tileTypeOrdinal == TileType.EMPTY.ordinal()) {
+            // There's really no reason to do this, but sure you can mine empty tiles
+            mineProgress[cellIndex] = 1;
+            onCellChanged(cellIndex);
+            return;
+        }
+
+        if (!isResourceCell(cellIndex)) {
+            return;
+        }
+
+        ItemType tileResource = getResourceInCell(cellIndex);
+        mineProgress[cellIndex]++;
+        onCellChanged(cellIndex);
+        if (mineProgress[cellIndex] >= tileResource.getTurnsToMine()) {
+            tileTypes[cellIndex] = (byte) TileType.EMPTY.ordinal();
+            mineProgress[cellIndex] = 1;
+            publishTileType(cellIndex, TileType.EMPTY);
+            addItem(cellIndex, InventoryItem.of(tileResource));
+        }
+    }
+
+    private boolean isResourceCell(int cellIndex) {
+        return getResourceInCell(cellIndex) != null;
     }
 
-    private boolean isValidLocation(int x, int y) {
-        int xIndex = x;
-        int yIndex = (board.length - 1) - y;
+    private ItemType getResourceInCell(int cellIndex) {
+        return resourceByTileType[tileTypes[cellIndex]];
+    }
 
-        boolean xIndexInBounds = (xIndex >= 0 && xIndex < board.length);
-        boolean yIndexInBounds = (yIndex >= 0 && yIndex < board.length);
-        return xIndexInBounds && yIndexInBounds;
+    private void addItem(int cellIndex, InventoryItem item) {
+        boolean hadAutominer = hasAutominer(cellIndex);
+        itemsOnGround.addItem(cellIndex, item);
+        onItemsChanged(cellIndex, hadAutominer);
+    }
+
+    private void removeItem(int cellIndex, InventoryItem item) {
+        boolean hadAutominer = hasAutominer(cellIndex);
+        if (itemsOnGround.removeItem(cellIndex, item)) {
+            onItemsChanged(cellIndex, hadAutominer);
+        }
+    }
+
+    private boolean hasAutominer(int cellIndex) {
+        return itemsOnGround.findItemOfType(cellIndex, ItemType.AUTOMINER) != null;
+    }
+
+    private void onItemsChanged(int cellIndex, boolean hadAutominer) {
+        onCellChanged(cellIndex);
+        publishItems(cellIndex);
+
+        boolean hasAutominer = hasAutominer(cellIndex);
+        if (hadAutominer != hasAutominer) {
+            // Autominers only work on the tiles around them while they are on the ground
+            autominerScheduler.setAutominer(cellIndex, hasAutominer, this);
+        }
     }
 
     /**
-     * Called every turn for the board to update its internal state
+     * Gets a Tile that can render the tile at the specified location in Cartesian (x, y) coordinates with (0, 0)
+     *  as the bottom left tile and (boardSize - 1, boardSize - 1) as the top right tile
+     *
+     * @param location A Point representing (x, y) coordinates of the tile to get
+     * @return A Tile view of the specified location on the board
+     */
+    public Tile getTileAtLocation(Point location) {
+        return getTileAtLocation(location.x, location.y);
+    }
+
+    /**
+     * Gets a Tile that can render the tile at the specified location in Cartesian (x, y) coordinates with (0, 0)
+     *  as the bottom left tile and (boardSize - 1, boardSize - 1) as the top right tile
+     *
+     * @param x The x coordinate of the tile to get
+     * @param y The y coordinate of the tile to get
+     * @return A Tile view of the specified location on the board, or null if the location is outside the board
+     */
+    public Tile getTileAtLocation(int x, int y) {
+        if (!isValidLocation(x, y)) {
+            return null;
+        }
+
+        Point location = new Point(x, y);
+        int cellIndex = getCellIndex(x, y);
+        switch (allTileTypes[tileTypes[cellIndex]]) {
+            case RED_MARKET:
+                return new MarketTile(this, location, true);
+            case BLUE_MARKET:
+                return new MarketTile(this, location, false);
+            case RECHARGE:
+                return new RechargeTile(this, location);
+            case EMPTY:
+                return (mineProgress[cellIndex] != 0) ? new CrackedTile(this, location) : new EmptyTile(this, location);
+            default:
+                return new ResourceTile(this, location, getResourceInCell(cellIndex));
+        }
+    }
+
+    /**
+     * Called every turn for the board to update its internal state. Only tiles with a player on them
+     *  and tiles being worked on by an autominer are visited, the rest of the board is left alone
      */
     public void update() {
+        for (MinePlayer player : players) {
+            if (player == null) {
+                continue;
+            }
+            Point location = player.getLocation();
+            if (tileTypes[getCellIndex(location.x, location.y)] == TileType.RECHARGE.ordinal()) {
+                player.rechargeEnergy(RECHARGE_PERCENT_PER_TURN);
+            }
+        }
 
-        List<Point> autominers = new ArrayList<>();
+        autominerScheduler.runTurn(this);
+    }
 
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board.length; j++) {
-                Tile currentTile = board[i][j];
-                currentTile.update();
+    /**
+     * Sends the events of this board to a GameEngine's listeners
+     *
+     * @param eventBus The engine's event bus
+     */
+    void setEventBus(GameEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
 
-                if(currentTile.getItemsOnTile().stream().anyMatch(x -> x.getItemType() == ItemType.AUTOMINER)) {
-                    autominers.add(currentTile.getLocation());
-                }
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.write(tileTypes);
+        out.write(mineProgress);
+
+        out.writeInt(itemsOnGround.getNumCells());
+        ItemCellCursor itemCells = itemsOnGround.cursor();
+        while (itemCells.next()) {
+            out.writeInt(getCellIndex(itemCells.getX(), itemCells.getY()));
+            out.writeByte(itemCells.getItemCount());
+            for (int i = 0; i < itemCells.getItemCount(); i++) {
+                out.writeByte(itemCells.getItem(i).getItemType().ordinal());
             }
         }
+        autominerScheduler.writeState(out);
+    }
 
-        // All tiles that are affected by at least one autominer
-        List<Point> affectedTiles = new ArrayList<>();
+    /**
+     * Puts the board back in a state written by writeState(). The players must already be back where they were
+     *  in that state, the board only works out which tiles they are on
+     */
+    void readState(DataInput in) throws IOException {
+        if (in.readInt() != size) {
+            throw new IOException("Keyframe is for a board of a different size");
+        }
+        in.readFully(tileTypes);
+        in.readFully(mineProgress);
+
+        itemsOnGround.clear();
+        int numItemCells = in.readInt();
+        ItemType[] allItemTypes = ItemType.values();
+        for (int i = 0; i < numItemCells; i++) {
+            int cellIndex = in.readInt();
+            int numItems = in.readUnsignedByte();
+            for (int j = 0; j < numItems; j++) {
+                itemsOnGround.addItem(cellIndex, InventoryItem.of(allItemTypes[in.readUnsignedByte()]));
+            }
+        }
+        autominerScheduler.readState(in);
+        rehashAllCells();
+
+        Arrays.fill(occupants, NO_OCCUPANT);
+        for (MinePlayer player : players) {
+            if (player != null) {
+                Point location = player.getLocation();
+                occupants[getCellIndex(location.x, location.y)] = player.isRedPlayer() ? RED_OCCUPANT : BLUE_OCCUPANT;
+            }
+        }
 
-        for(Point miner : autominers) {
-            affectedTiles.add(new Point(miner.x, miner.y));
-            if(miner.x > 0) affectedTiles.add(new Point(miner.x - 1, miner.y));
-            if(miner.x < board.length - 1) affectedTiles.add(new Point(miner.x + 1, miner.y));
-            if(miner.y > 0) affectedTiles.add(new Point(miner.x, miner.y - 1));
-            if(miner.y < board.length - 1) affectedTiles.add(new Point(miner.x, miner.y + 1));
+        // Any cell may have changed, so every cell is published again. Only the ones that really changed end up in
+        //  the next snapshot and the players' lists of changed cells
+        for (int cellIndex = 0; cellIndex < tileTypes.length; cellIndex++) {
+            publishTileType(cellIndex, allTileTypes[tileTypes[cellIndex]]);
+            publishItems(cellIndex);
         }
+    }
 
-        for(Point p : affectedTiles) {
-            int turnsMined = autominerTiles.getOrDefault(p, 0);
+    /**
+     * Called by the AutominerScheduler the first turn an autominer works on a tile
+     *
+     * @param cellIndex The index of the tile, (y * boardSize) + x
+     */
+    void crackWithAutominer(int cellIndex) {
+        if (tileTypes[cellIndex] == TileType.EMPTY.ordinal()) {
+            mineCell(cellIndex);
+        }
+    }
 
-            Tile tile = getTileAtLocation(p);
+    /**
+     * @param cellIndex The index of the tile, (y * boardSize) + x
+     * @return True if autominers working on the tile can mine it
+     */
+    boolean isAutominerResourceTarget(int cellIndex) {
+        return isResourceCell(cellIndex);
+    }
 
-            if(tile instanceof EmptyTile) {
-                tile = tile.interact(null, TurnAction.MINE);
-            } else if(turnsMined > 0 && tile instanceof ResourceTile) {
-                if(turnsMined % AUTOMINER_MULTIPLIER == 0) {
-                    tile = tile.interact(null, TurnAction.MINE);
-                    trackItemsOnPoint(p, tile.getItemsOnTile());
-                }
+    /**
+     * Called by the AutominerScheduler on turns an autominer mines a resource tile
+     *
+     * @param cellIndex The index of the tile, (y * boardSize) + x
+     * @param timesToMine How many times the tile is mined this turn
+     * @return True if the tile is still a resource tile afterwards
+     */
+    boolean mineWithAutominer(int cellIndex, int timesToMine) {
+        for (int i = 0; i < timesToMine && isResourceCell(cellIndex); i++) {
+            mineCell(cellIndex);
+        }
+        return isResourceCell(cellIndex);
+    }
+
+    private int getCellIndex(int x, int y) {
+        return (y * size) + x;
+    }
+
+    private void initializeChangedCells(int numCells) {
+        for (int viewIndex = 0; viewIndex < changedCells.length; viewIndex++) {
+            changedCells[viewIndex] = new int[numCells];
+            isCellChanged[viewIndex] = new boolean[numCells];
+        }
+    }
+
+    private void publishTileType(int cellIndex, TileType tileType) {
+        if (snapshotBuilder.setTileType(cellIndex % size, cellIndex / size, tileType)) {
+            markCellChanged(cellIndex);
+        }
+    }
+
+    private void publishItems(int cellIndex) {
+        // The snapshot keeps its own copy, so strategies never see the index change under them
+        if (snapshotBuilder.setItems(cellIndex % size, cellIndex / size, itemsOnGround.copyItems(cellIndex))) {
+            markCellChanged(cellIndex);
+        }
+    }
+
+    private void markCellChanged(int cellIndex) {
+        for (int viewIndex = 0; viewIndex < changedCells.length; viewIndex++) {
+            if (!isCellChanged[viewIndex][cellIndex]) {
+                isCellChanged[viewIndex][cellIndex] = true;
+                changedCells[viewIndex][numChangedCells[viewIndex]++] = cellIndex;
             }
+        }
+    }
 
-            setTileAtTileLocation(tile);
+    private int[] takeChangedCells(int viewIndex) {
+        int numChanged = numChangedCells[viewIndex];
+        if (numChanged == 0) {
+            return NO_CHANGED_CELLS;
+        }
+        int[] takenCells = Arrays.copyOf(changedCells[viewIndex], numChanged);
+        for (int cellIndex : takenCells) {
+            isCellChanged[viewIndex][cellIndex] = false;
+        }
+        numChangedCells[viewIndex] = 0;
+        return takenCells;
+    }
+
+    /**
+     * @return A hash of every tile, its mining progress and the items on it. Players are not part of it
+     */
+    long getStateHash() {
+        return stateHash;
+    }
 
-            autominerTiles.put(p, turnsMined + 1);
+    private void rehashAllCells() {
+        stateHash = 0;
+        for (int cellIndex = 0; cellIndex < cellHashes.length; cellIndex++) {
+            cellHashes[cellIndex] = hashCell(cellIndex);
+            stateHash ^= cellHashes[cellIndex];
         }
+    }
 
+    private void onCellChanged(int cellIndex) {
+        stateHash ^= cellHashes[cellIndex];
+        cellHashes[cellIndex] = hashCell(cellIndex);
+        stateHash ^= cellHashes[cellIndex];
+        if (eventBus.hasListeners()) {
+            eventBus.fireTileChanged(cellIndex % size, cellIndex / size);
+        }
+    }
+
+    private long hashCell(int cellIndex) {
+        long cellHash = StateHash.combine(cellIndex, (tileTypes[cellIndex] << 8) | (mineProgress[cellIndex] & 0xFF));
+        int numItems = itemsOnGround.getItemCount(cellIndex);
+        for (int i = 0; i < numItems; i++) {
+            cellHash = StateHash.combine(cellHash, itemsOnGround.getItem(cellIndex, i).getItemType().ordinal());
+        }
+        return cellHash;
     }
 
     /**
@@ -195,9 +663,23 @@ public class GameBoard {
      *          player strategy is allowed to know
      */
     public PlayerBoardView convertToView(MinePlayer playerReceivingView, MinePlayer otherPlayer) {
-        Point otherPlayerLocation = otherPlayer.getCurrentTile().getLocation();
-        int otherPlayerScore = otherPlayer.getScore();
-        return this.convertToView(playerReceivingView, otherPlayerLocation, otherPlayerScore);
+        return this.convertToView(playerReceivingView, otherPlayer, null);
+    }
+
+    /**
+     * Converts this GameBoard into a restricted information view of the board relative to what one player is
+     *  allowed to know, through which the player can also fork the game
+     *
+     * @param playerReceivingView The player who will receive this restricted information view
+     * @param otherPlayer The other player, so the player receiving the view can know score information
+     * @param forwardModels Where the view gets forks of the game from, or null if it can't fork the game
+     * @return A PlayerBoardView that contains all the information about this GameBoard for this turn which a
+     *          player strategy is allowed to know
+     */
+    public PlayerBoardView convertToView(MinePlayer playerReceivingView, MinePlayer otherPlayer,
+                                         Supplier<ForwardModel> forwardModels) {
+        return this.convertToView(playerReceivingView, otherPlayer.getLocation(), otherPlayer.getScore(),
+                                  forwardModels);
     }
 
     /**
@@ -212,20 +694,40 @@ public class GameBoard {
      */
     public PlayerBoardView convertToView(MinePlayer playerReceivingView, Point otherPlayerLocation,
                                          int otherPlayerScore) {
-        // Because we're passing around references, we don't want one strategy to change what the other sees
-        //  so we need to be careful and make copies of data being passed by reference
-        Map<Point, List<InventoryItem>> itemsOnGroundCopy = new HashMap<>();
-        for (Point pointWithItem : itemsOnGround.keySet()) {
-            Point pointCopy = new Point(pointWithItem.x, pointWithItem.y);
-            itemsOnGroundCopy.put(pointCopy, new ArrayList<>(itemsOnGround.get(pointWithItem)));
+        return this.convertToView(playerReceivingView, otherPlayerLocation, otherPlayerScore, null);
+    }
+
+    private PlayerBoardView convertToView(MinePlayer playerReceivingView, Point otherPlayerLocation,
+                                          int otherPlayerScore, Supplier<ForwardModel> forwardModels) {
+        // The snapshot is immutable and every map of items it hands out is a fresh copy, so both strategies can
+        //  share it without seeing each other's changes. It only copies the parts of the board that changed since
+        //  the last time a view was made
+        BoardSnapshot boardSnapshot = snapshotBuilder.build();
+        Point playerLocation = playerReceivingView.getLocation();
+
+        // Views are immutable apart from their Points, so the last one can be reused if its contents, including
+        //  anything a strategy may have done to its Points, are exactly what a new view would hold. An unchanged
+        //  snapshot means nothing changed since the last view, so that view must not list any changes either
+        int viewIndex = playerReceivingView.isRedPlayer() ? RED_OCCUPANT - 1 : BLUE_OCCUPANT - 1;
+        PlayerBoardView lastView = lastViews[viewIndex];
+        if (lastView != null && lastView.getBoardSnapshot() == boardSnapshot
+                && lastView.getNumChangedCells() == 0
+                && lastView.getYourLocation().equals(playerLocation)
+                && lastView.getOtherPlayerLocation().equals(otherPlayerLocation)
+                && lastView.getOtherPlayerScore() == otherPlayerScore
+                && lastViewForwardModels[viewIndex] == forwardModels) {
+            return lastView;
         }
 
         // Make copies of these locations so they may not be modified by a strategy
-        Point playerLocation = playerReceivingView.getCurrentTile().getLocation();
         Point playerLocationCopy = new Point(playerLocation.x, playerLocation.y);
         Point otherLocationCopy = new Point(otherPlayerLocation.x, otherPlayerLocation.y);
-        // We don't need to copy tileView because it is never given to the strategy by reference
-        return new PlayerBoardView(tileView, itemsOnGroundCopy, playerLocationCopy, otherLocationCopy, otherPlayerScore);
+        PlayerBoardView boardView = new PlayerBoardView(boardSnapshot, playerLocationCopy, otherLocationCopy,
+                                                        otherPlayerScore, forwardModels,
+                                                        takeChangedCells(viewIndex));
+        lastViews[viewIndex] = boardView;
+        lastViewForwardModels[viewIndex] = forwardModels;
+        return boardView;
     }
 
     /**
@@ -235,10 +737,9 @@ public class GameBoard {
      * @param imageManager The ImageManager object that manages all images for the JPanel component rendering this GameBoard
      */
     public void paint(Graphics2D brush, ImageManager imageManager) {
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board[i].length; j++) {
-                Tile currentTile = board[i][j];
-                currentTile.paint(brush, board.length, imageManager);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                getTileAtLocation(x, y).paint(brush, size, imageManager);
             }
         }
     }
@@ -1,22 +1,40 @@
 package mineopoly_three.game;
 
 import mineopoly_three.action.Action;
+import mineopoly_three.action.ActionLog;
 import mineopoly_three.action.TurnAction;
 import mineopoly_three.item.ItemType;
+import mineopoly_three.metrics.TurnMetrics;
+import mineopoly_three.metrics.TurnPhase;
 import mineopoly_three.replay.Replay;
+import mineopoly_three.replay.ReplayWriter;
 import mineopoly_three.strategy.MinePlayerStrategy;
 import mineopoly_three.strategy.PlayerBoardView;
-import mineopoly_three.tiles.Tile;
+import mineopoly_three.strategy.SeekableStrategy;
+import mineopoly_three.util.StateHash;
 
 import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
 import java.util.Arrays;
-import java.util.Observable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
 @SuppressWarnings("unused")
-public class GameEngine extends Observable {
-    private static final int MAX_TURNS_PER_GAME = 1000;
+public class GameEngine {
+    static final int MAX_TURNS_PER_GAME = 1000;
     private static final double TURNS_PER_SECOND = 20;
+    private static final int KEYFRAME_VERSION = 1;
+    private static final int NO_SEEK = -1;
 
     private long randomSeed;
     private GameBoard board;
@@ -25,6 +43,33 @@ public class GameEngine extends Observable {
     private Economy economy;
     private boolean guiEnabled;
     private int minScoreToWin;
+    // Outlives reset(), so listeners keep hearing about every game this engine plays
+    private final GameEventBus eventBus = new GameEventBus();
+    // Null unless someone wants to know where the time in a game goes
+    private TurnMetrics turnMetrics;
+    // Null unless strategies should be run on supervised worker threads within a budget
+    private StrategyBudget strategyBudget;
+    private StrategySupervisor redSupervisor;
+    private StrategySupervisor blueSupervisor;
+    private StrategyUsage redStrategyUsage;
+    private StrategyUsage blueStrategyUsage;
+    // Null unless the next games should be written to a replay file as they are played
+    private String replayFilePath;
+    private ReplayWriter replayWriter;
+    private int turnNumber;
+    private boolean isRedTurn;
+    // Full copies of the game's state at the start of some turns, so the game can jump back and forth between turns
+    private final NavigableMap<Integer, byte[]> keyframes = new TreeMap<>();
+    private int keyframeInterval;
+    private volatile int requestedSeekTurn = NO_SEEK;
+    // The low 32 bits of getStateHash() after each turn, only kept when asked for since they make replays bigger
+    private boolean recordStateHashes;
+    private int[] stateHashes;
+    private int numStateHashes;
+    // Hands strategies forks of the game, but only while they are being asked for their turn action
+    private volatile MinePlayer playerBeingAsked;
+    private final Supplier<ForwardModel> redForwardModels = () -> forkForStrategy(true);
+    private final Supplier<ForwardModel> blueForwardModels = () -> forkForStrategy(false);
 
     // Variables to greatly simplify exception flow logic
     private MinePlayer playerWhoThrewException;
@@ -38,11 +83,12 @@ public class GameEngine extends Observable {
         // Generate a random GameBoard and set player start tiles
         this.setupEngineForGame(boardSize, randomSeed);
 
-        Tile redStartTile = board.getTileAtLocation(board.getRedStartTileLocation());
-        Tile blueStartTile = board.getTileAtLocation(board.getBlueStartTileLocation());
-        this.redPlayer = new MinePlayer(redPlayerStrategy, redStartTile, economy, randomSeed, true);
-        this.bluePlayer = new MinePlayer(bluePlayerStrategy, blueStartTile, economy, randomSeed, false);
+        Point redStartLocation = board.getRedStartTileLocation();
+        Point blueStartLocation = board.getBlueStartTileLocation();
+        this.redPlayer = new MinePlayer(redPlayerStrategy, redStartLocation, economy, randomSeed, true);
+        this.bluePlayer = new MinePlayer(bluePlayerStrategy, blueStartLocation, economy, randomSeed, false);
         this.guiEnabled = false;
+        this.attachEventBus();
     }
 
     private void setupEngineForGame(int boardSize, long randomSeed) {
@@ -50,10 +96,13 @@ public class GameEngine extends Observable {
         WorldGenerator worldGenerator = new WorldGenerator(randomSeed);
         this.board = worldGenerator.generateBoard(boardSize);
         this.economy = new Economy(Arrays.stream(ItemType.values()).filter(ItemType::isResource).toArray(ItemType[]::new));
-        this.minScoreToWin = 30 * boardSize * boardSize;
+        this.minScoreToWin = getMinScoreToWin(boardSize);
 
         this.playerWhoThrewException = null;
         this.exceptionThrown = null;
+        this.keyframes.clear();
+        this.requestedSeekTurn = NO_SEEK;
+        this.numStateHashes = 0;
     }
 
     /**
@@ -68,15 +117,23 @@ public class GameEngine extends Observable {
 
         MinePlayerStrategy redPlayerStrategy = this.redPlayer.getStrategy();
         MinePlayerStrategy bluePlayerStrategy = this.bluePlayer.getStrategy();
-        Tile redStartTile = board.getTileAtLocation(board.getRedStartTileLocation());
-        Tile blueStartTile = board.getTileAtLocation(board.getBlueStartTileLocation());
+        Point redStartLocation = board.getRedStartTileLocation();
+        Point blueStartLocation = board.getBlueStartTileLocation();
         if (swapPlayers) {
-            this.redPlayer = new MinePlayer(bluePlayerStrategy, redStartTile, economy, randomSeed, true);
-            this.bluePlayer = new MinePlayer(redPlayerStrategy, blueStartTile, economy, randomSeed, false);
+            this.redPlayer = new MinePlayer(bluePlayerStrategy, redStartLocation, economy, randomSeed, true);
+            this.bluePlayer = new MinePlayer(redPlayerStrategy, blueStartLocation, economy, randomSeed, false);
         } else {
-            this.redPlayer = new MinePlayer(redPlayerStrategy, redStartTile, economy, randomSeed, true);
-            this.bluePlayer = new MinePlayer(bluePlayerStrategy, blueStartTile, economy, randomSeed, false);
+            this.redPlayer = new MinePlayer(redPlayerStrategy, redStartLocation, economy, randomSeed, true);
+            this.bluePlayer = new MinePlayer(bluePlayerStrategy, blueStartLocation, economy, randomSeed, false);
         }
+        this.attachEventBus();
+    }
+
+    private void attachEventBus() {
+        board.setEventBus(eventBus);
+        economy.setEventBus(eventBus);
+        redPlayer.setEventBus(eventBus);
+        bluePlayer.setEventBus(eventBus);
     }
 
     public GameBoard getBoard() {
@@ -95,6 +152,24 @@ public class GameEngine extends Observable {
         return economy;
     }
 
+    /**
+     * Starts telling a listener about everything that happens in this engine's games, including games after a
+     *  reset(). Listeners may be added and removed from any thread
+     *
+     * @param listener The listener to add
+     */
+    public void addGameListener(GameListener listener) {
+        eventBus.addListener(listener);
+    }
+
+    /**
+     * @param listener The listener to stop telling about this engine's games
+     * @return True if the listener was listening
+     */
+    public boolean removeGameListener(GameListener listener) {
+        return eventBus.removeListener(listener);
+    }
+
     public int getRedPlayerScore() {
         return redPlayer.getScore();
     }
@@ -103,11 +178,30 @@ public class GameEngine extends Observable {
         return bluePlayer.getScore();
     }
 
+    /**
+     * @return The number of turns played so far in the current game
+     */
+    public int getTurnNumber() {
+        return turnNumber;
+    }
+
+    public int getMaxTurns() {
+        return MAX_TURNS_PER_GAME;
+    }
+
     public int getMinScoreToWin() {
         // The minimum score to immediately end the game without finishing 1000 turns
         return minScoreToWin;
     }
 
+    /**
+     * @param boardSize The size of a board
+     * @return The score a player needs to win a game on a board of that size
+     */
+    public static int getMinScoreToWin(int boardSize) {
+        return 30 * boardSize * boardSize;
+    }
+
     public Exception getExceptionThrown() {
         return exceptionThrown;
     }
@@ -124,11 +218,268 @@ public class GameEngine extends Observable {
         this.guiEnabled = guiEnabled;
     }
 
+    public TurnMetrics getTurnMetrics() {
+        return turnMetrics;
+    }
+
+    /**
+     * Times every phase of every turn of the next games into the given metrics. Without metrics the engine does
+     *  not even read the clock
+     *
+     * @param turnMetrics Where to record phase timings, or null to stop timing
+     */
+    public void setTurnMetrics(TurnMetrics turnMetrics) {
+        this.turnMetrics = turnMetrics;
+    }
+
+    public StrategyBudget getStrategyBudget() {
+        return strategyBudget;
+    }
+
+    /**
+     * Runs both strategies' getTurnAction on supervised worker threads in the next games, and ends the game the same
+     *  way as a thrown exception if a strategy goes over the budget. Without a budget strategies are called directly
+     *
+     * @param strategyBudget The limits for each strategy, or null to call strategies directly
+     */
+    public void setStrategyBudget(StrategyBudget strategyBudget) {
+        this.strategyBudget = strategyBudget;
+    }
+
+    /**
+     * @return What the red strategy used in the last game, or null if it was not run with a StrategyBudget
+     */
+    public StrategyUsage getRedStrategyUsage() {
+        return redStrategyUsage;
+    }
+
+    /**
+     * @return What the blue strategy used in the last game, or null if it was not run with a StrategyBudget
+     */
+    public StrategyUsage getBlueStrategyUsage() {
+        return blueStrategyUsage;
+    }
+
+    /**
+     * Copies the current state of the game into a ForwardModel that can be played ahead without changing this game.
+     *  The copy does not include either player's strategy or the turn actions taken so far
+     *
+     * @param isRedPlayer True if the model should be played from the red player's point of view
+     * @return A new ForwardModel of this game as it is right now
+     */
+    public ForwardModel fork(boolean isRedPlayer) {
+        return new ForwardModel(board, redPlayer, bluePlayer, economy, isRedPlayer, minScoreToWin, MAX_TURNS_PER_GAME,
+                                turnNumber, isRedTurn);
+    }
+
+    private ForwardModel forkForStrategy(boolean isRedPlayer) {
+        MinePlayer player = isRedPlayer ? redPlayer : bluePlayer;
+        if (playerBeingAsked != player) {
+            throw new IllegalStateException("A forward model can only be made while choosing a turn action");
+        }
+        return fork(isRedPlayer);
+    }
+
+    public String getReplayFilePath() {
+        return replayFilePath;
+    }
+
+    /**
+     * Writes the next games to a binary replay file turn by turn as they are played, instead of only keeping the
+     *  replay in memory for getReplay()
+     *
+     * @param replayFilePath The file to write replays to, overwritten by every game, or null to stop writing them
+     */
+    public void setReplayFilePath(String replayFilePath) {
+        this.replayFilePath = replayFilePath;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Keeps a keyframe of the game's full state every so many turns in the next games. Keyframes are written into
+     *  the replay file if there is one, and let a game between SeekableStrategies jump to any turn by playing at
+     *  most keyframeInterval - 1 turns
+     *
+     * @param keyframeInterval The number of turns between keyframes, or 0 to only keep the ones added by hand
+     */
+    public void setKeyframeInterval(int keyframeInterval) {
+        if (keyframeInterval < 0) {
+            throw new IllegalArgumentException("Keyframe interval can't be negative");
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Adds a keyframe, usually one from a replay, for the current game to seek to
+     *
+     * @param turnNumber The turn at whose start the keyframe was captured
+     * @param keyframe The keyframe, as returned by captureKeyframe()
+     * @throws IllegalArgumentException If the keyframe was captured by a version of the game that wrote keyframes
+     *                                  differently
+     */
+    public void addKeyframe(int turnNumber, byte[] keyframe) {
+        if (keyframe.length < Integer.BYTES || ByteBuffer.wrap(keyframe).getInt() != KEYFRAME_VERSION) {
+            throw new IllegalArgumentException("Keyframe for turn " + turnNumber + " has an unsupported version");
+        }
+        keyframes.put(turnNumber, keyframe);
+    }
+
+    /**
+     * @return Every keyframe of the current game so far, by the turn they were captured at the start of
+     */
+    public Map<Integer, byte[]> getKeyframes() {
+        return Collections.unmodifiableMap(keyframes);
+    }
+
+    public boolean isRecordingStateHashes() {
+        return recordStateHashes;
+    }
+
+    /**
+     * Keeps a hash of the game's state after every turn of the next games. The hashes go into the replay, where
+     *  ReplayVerifier can check a later run of the replay against them turn by turn
+     *
+     * @param recordStateHashes True to record state hashes
+     */
+    public void setRecordStateHashes(boolean recordStateHashes) {
+        this.recordStateHashes = recordStateHashes;
+        if (recordStateHashes && stateHashes == null) {
+            stateHashes = new int[MAX_TURNS_PER_GAME];
+        }
+    }
+
+    /**
+     * @return The state hash recorded after each turn played so far, or an empty array if they aren't being recorded
+     */
+    public int[] getStateHashes() {
+        return Arrays.copyOf(stateHashes == null ? new int[0] : stateHashes, numStateHashes);
+    }
+
+    /**
+     * Hashes everything a keyframe would hold except the random number generators: the board, both players, the
+     *  economy and whose turn it is. The board keeps its part of the hash up to date as it changes, so this only
+     *  costs as much as hashing the players and the economy
+     *
+     * @return A hash of the game's current state
+     */
+    public long getStateHash() {
+        return hashState(board, redPlayer, bluePlayer, economy, turnNumber, isRedTurn);
+    }
+
+    /**
+     * Hashes a game the way getStateHash() does, so a ForwardModel of a game hashes the same as the game would
+     */
+    static long hashState(GameBoard board, MinePlayer redPlayer, MinePlayer bluePlayer, Economy economy,
+                          int turnNumber, boolean isRedTurn) {
+        long hash = board.getStateHash();
+        hash = StateHash.combine(hash, turnNumber);
+        hash = StateHash.combine(hash, isRedTurn ? 1 : 0);
+        hash = redPlayer.hashState(hash);
+        hash = bluePlayer.hashState(hash);
+        return economy.hashState(hash);
+    }
+
+    /**
+     * Copies the full state of the game into a keyframe: the board, both players including their random number
+     *  generators, the economy and whose turn it is. Strategies and turn actions are not part of it
+     *
+     * @return The keyframe, which restoreKeyframe() can put the game back to
+     */
+    public byte[] captureKeyframe() {
+        ByteArrayOutputStream keyframeBytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(keyframeBytes)) {
+            out.writeInt(KEYFRAME_VERSION);
+            out.writeInt(turnNumber);
+            out.writeBoolean(isRedTurn);
+            economy.writeState(out);
+            redPlayer.writeState(out);
+            bluePlayer.writeState(out);
+            board.writeState(out);
+        } catch (IOException e) {
+            // Writing to memory can't fail
+            throw new IllegalStateException("Could not capture a keyframe", e);
+        }
+        return keyframeBytes.toByteArray();
+    }
+
+    /**
+     * Puts the game back in the state captured in a keyframe. Turn actions recorded after the keyframe's turn are
+     *  forgotten, and strategies are not told anything. Use requestSeek() to move a running game instead
+     *
+     * @param keyframe A keyframe of this game, as returned by captureKeyframe()
+     * @throws IllegalArgumentException If the keyframe is malformed or from a different kind of game
+     */
+    public void restoreKeyframe(byte[] keyframe) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(keyframe))) {
+            int version = in.readInt();
+            if (version != KEYFRAME_VERSION) {
+                throw new IllegalArgumentException("Unsupported keyframe version " + version);
+            }
+            turnNumber = in.readInt();
+            isRedTurn = in.readBoolean();
+            economy.readState(in);
+            redPlayer.readState(in);
+            bluePlayer.readState(in);
+            board.readState(in);
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed keyframe", e);
+        }
+        redPlayer.forgetTurnActionsAfter(turnNumber);
+        bluePlayer.forgetTurnActionsAfter(turnNumber);
+        numStateHashes = Math.min(numStateHashes, turnNumber);
+        eventBus.fireStateRestored(turnNumber);
+    }
+
+    /**
+     * @return True if both strategies are SeekableStrategies, so the game can jump between turns
+     */
+    public boolean canSeek() {
+        return redPlayer.getStrategy() instanceof SeekableStrategy
+               && bluePlayer.getStrategy() instanceof SeekableStrategy;
+    }
+
+    /**
+     * Asks the running game to jump to the start of a turn. The game restores the closest keyframe before that
+     *  turn and plays forward from there, unless playing forward from where it is now is shorter.
+     * This may be called from any thread, the jump happens between two turns on the thread running the game
+     *
+     * @param turnNumber The turn to jump to
+     * @throws IllegalStateException If the strategies are not seekable, or the game is being written to a replay
+     */
+    public void requestSeek(int turnNumber) {
+        if (!canSeek()) {
+            throw new IllegalStateException("Only games between SeekableStrategies can seek");
+        }
+        if (replayFilePath != null) {
+            throw new IllegalStateException("Can't seek while writing a replay");
+        }
+        requestedSeekTurn = Math.max(0, Math.min(turnNumber, MAX_TURNS_PER_GAME));
+    }
+
     public Replay getReplay() {
-        boolean redThrewException = (playerWhoThrewException == redPlayer);
-        boolean blueThrewException = (playerWhoThrewException == bluePlayer);
-        return new Replay(board.getSize(), randomSeed, redPlayer.getAllTurnActions(), bluePlayer.getAllTurnActions(),
-                          redThrewException, blueThrewException);
+        // Copied so the replay stays the same if this engine goes on to play more turns or another game
+        Replay replay = new Replay(board.getSize(), randomSeed, new ActionLog(redPlayer.getActionLog()),
+                                   new ActionLog(bluePlayer.getActionLog()), getStrategyName(redPlayer),
+                                   getStrategyName(bluePlayer), redPlayer.getScore(), bluePlayer.getScore());
+        for (Map.Entry<Integer, byte[]> keyframe : keyframes.entrySet()) {
+            replay.addKeyframe(keyframe.getKey(), keyframe.getValue());
+        }
+        if (recordStateHashes) {
+            replay.setStateHashes(getStateHashes());
+        }
+        return replay;
+    }
+
+    private static String getStrategyName(MinePlayer player) {
+        try {
+            return player.getStrategy().getName();
+        } catch (Exception e) {
+            // A strategy that can't say its name just doesn't get one in the replay
+            return null;
+        }
     }
 
     /**
@@ -140,18 +491,48 @@ public class GameEngine extends Observable {
         // Wait a few seconds at the start for graphical components to load
         delayBetweenGuiFrames(2000);
 
+        redStrategyUsage = null;
+        blueStrategyUsage = null;
+        if (strategyBudget != null) {
+            // Neither supervisor starts a thread until it is first used, so one being refused leaks nothing
+            StrategySupervisor red = new StrategySupervisor(redPlayer.getStrategy(), strategyBudget, "red-strategy");
+            StrategySupervisor blue = new StrategySupervisor(bluePlayer.getStrategy(), strategyBudget,
+                                                             "blue-strategy");
+            redSupervisor = red;
+            blueSupervisor = blue;
+            redPlayer.setNotifiedStrategy(redSupervisor);
+            bluePlayer.setNotifiedStrategy(blueSupervisor);
+        }
+        if (replayFilePath != null) {
+            openReplayWriter();
+        }
+
         try {
             runGameLoop();
         } catch (Exception e) {
             // It's generally bad practice to catch generic Exceptions, but because a strategy can throw an exception
             // of any type, it's unavoidable here
             playerWhoThrewException.setScore(-1);
+            playerWhoThrewException.getActionLog().addException();
             this.exceptionThrown = e;
 
-            // Let anything watching update
-            setChanged();
-            notifyObservers();
+            // Let anything listening update
+            eventBus.fireStrategyException(playerWhoThrewException.isRedPlayer(), e);
             e.printStackTrace();
+        } finally {
+            if (replayWriter != null) {
+                closeReplayWriter();
+            }
+            if (redSupervisor != null) {
+                redStrategyUsage = redSupervisor.getUsage();
+                blueStrategyUsage = blueSupervisor.getUsage();
+                redSupervisor.shutdown();
+                blueSupervisor.shutdown();
+                redPlayer.setNotifiedStrategy(null);
+                bluePlayer.setNotifiedStrategy(null);
+                redSupervisor = null;
+                blueSupervisor = null;
+            }
         }
     }
 
@@ -159,41 +540,96 @@ public class GameEngine extends Observable {
         initializePlayer(redPlayer, true);
         initializePlayer(bluePlayer, false);
 
-        int turnNumber = 0;
-        boolean isRedTurn = true;
-        MinePlayer firstPlayer;
-        MinePlayer secondPlayer;
-        boolean roundHasWinner = false;
+        turnNumber = 0;
+        isRedTurn = true;
+        while (turnNumber < MAX_TURNS_PER_GAME && !hasWinner()) {
+            int seekTurn = requestedSeekTurn;
+            if (seekTurn != NO_SEEK) {
+                requestedSeekTurn = NO_SEEK;
+                seekToTurn(seekTurn);
+                continue;
+            }
 
-        while (turnNumber < MAX_TURNS_PER_GAME && !roundHasWinner) {
             delayBetweenGuiFrames((long) (1000 / TURNS_PER_SECOND));
+            playTurn();
+        }
+        endRound();
+    }
 
-            if (isRedTurn) {
-                firstPlayer = redPlayer;
-                secondPlayer = bluePlayer;
-            } else {
-                firstPlayer = bluePlayer;
-                secondPlayer = redPlayer;
-            }
+    private boolean hasWinner() {
+        return (redPlayer.getScore() >= minScoreToWin) || (bluePlayer.getScore() >= minScoreToWin);
+    }
 
-            processTurn(firstPlayer, secondPlayer, isRedTurn);
-            processTurn(secondPlayer, firstPlayer, isRedTurn);
+    private void playTurn() {
+        boolean isKeyframeTurn = (keyframeInterval > 0 && turnNumber % keyframeInterval == 0);
+        if (isKeyframeTurn || (turnNumber == 0 && canSeek())) {
+            // A game that can seek always needs to be able to go back to its start
+            recordKeyframe();
+        }
 
-            board.update();
+        MinePlayer firstPlayer = isRedTurn ? redPlayer : bluePlayer;
+        MinePlayer secondPlayer = isRedTurn ? bluePlayer : redPlayer;
+        processTurn(firstPlayer, secondPlayer, isRedTurn);
+        processTurn(secondPlayer, firstPlayer, isRedTurn);
 
-            firstPlayer.setCurrentTile(board.getTileAtLocation(firstPlayer.getCurrentTile().getLocation()));
-            secondPlayer.setCurrentTile(board.getTileAtLocation(secondPlayer.getCurrentTile().getLocation()));
+        long phaseStartTime = startPhase();
+        board.update();
+        endPhase(TurnPhase.BOARD_UPDATE, true, phaseStartTime);
 
-            economy.increaseDemand();
+        phaseStartTime = startPhase();
+        economy.increaseDemand();
+        endPhase(TurnPhase.ECONOMY_UPDATE, true, phaseStartTime);
 
-            isRedTurn = !isRedTurn;
-            turnNumber++;
-            roundHasWinner = (redPlayer.getScore() >= minScoreToWin) || (bluePlayer.getScore() >= minScoreToWin);
-            // The state of the engine has changed, let anything observing it (like the GUI) know
-            this.setChanged();
-            this.notifyObservers();
+        isRedTurn = !isRedTurn;
+        turnNumber++;
+        if (recordStateHashes) {
+            stateHashes[turnNumber - 1] = (int) getStateHash();
+            numStateHashes = turnNumber;
+        }
+
+        // Let anything listening (like the GUI) know, including for the turns played forward while seeking
+        phaseStartTime = startPhase();
+        eventBus.fireTurnCompleted(turnNumber);
+        endPhase(TurnPhase.NOTIFY_LISTENERS, true, phaseStartTime);
+    }
+
+    private void recordKeyframe() {
+        byte[] keyframe = keyframes.get(turnNumber);
+        if (keyframe == null) {
+            keyframe = captureKeyframe();
+            keyframes.put(turnNumber, keyframe);
+        }
+        if (replayWriter != null) {
+            try {
+                replayWriter.writeKeyframe(turnNumber, keyframe);
+            } catch (IOException e) {
+                System.err.println("There was an error writing the game replay, the rest of this game will not be recorded");
+                e.printStackTrace();
+                abandonReplayWriter();
+            }
+        }
+    }
+
+    private void seekToTurn(int targetTurn) {
+        Map.Entry<Integer, byte[]> keyframe = keyframes.floorEntry(targetTurn);
+        boolean canPlayForward = (turnNumber <= targetTurn);
+        if (keyframe != null && (!canPlayForward || keyframe.getKey() > turnNumber)) {
+            restoreKeyframe(keyframe.getValue());
+        } else if (!canPlayForward) {
+            // Nothing to go back to
+            return;
+        }
+
+        SeekableStrategy redStrategy = (SeekableStrategy) redPlayer.getStrategy();
+        SeekableStrategy blueStrategy = (SeekableStrategy) bluePlayer.getStrategy();
+        // Jumping forward to a keyframe skips turns whose actions were never recorded
+        redPlayer.recordSkippedTurnActions(turnNumber, redStrategy);
+        bluePlayer.recordSkippedTurnActions(turnNumber, blueStrategy);
+        redStrategy.seekToTurn(turnNumber);
+        blueStrategy.seekToTurn(turnNumber);
+        while (turnNumber < targetTurn && !hasWinner()) {
+            playTurn();
         }
-        endRound();
     }
 
     private void initializePlayer(MinePlayer playerToInitialize, boolean isRedPlayer) {
@@ -202,55 +638,139 @@ public class GameEngine extends Observable {
         int boardSize = board.getSize();
         int maxInventorySize = MinePlayer.MAX_ITEMS;
         int maxCharge = MinePlayer.MAX_ENERGY;
-        Point playerStartLocation = playerToInitialize.getCurrentTile().getLocation();
+        Point playerStartLocation = playerToInitialize.getLocation();
         Point playerStartCopy = new Point(playerStartLocation.x, playerStartLocation.y);
 
-        // Figure out start tiles based on color
-        Point startTileLocation;
+        // Figure out the opponent's start tile based on color
         Point opponentStartTile;
         if (playerToInitialize.isRedPlayer()) {
-            startTileLocation = board.getRedStartTileLocation();
             opponentStartTile = board.getBlueStartTileLocation();
         } else {
-            startTileLocation = board.getBlueStartTileLocation();
             opponentStartTile = board.getRedStartTileLocation();
         }
 
         // Get the initial view of the board and finally initialize the strategy
         PlayerBoardView startingBoard = board.convertToView(playerToInitialize, opponentStartTile, 0);
-        playerToInitialize.getStrategy().initialize(boardSize, maxInventorySize, maxCharge, minScoreToWin,
+        getStrategyToCall(playerToInitialize).initialize(boardSize, maxInventorySize, maxCharge, minScoreToWin,
                                                     startingBoard, playerStartCopy, isRedPlayer, new Random(randomSeed));
-        board.getTileAtLocation(startTileLocation).onEnter(playerToInitialize);
+        board.addPlayer(playerToInitialize);
     }
 
     private void processTurn(MinePlayer currentPlayer, MinePlayer otherPlayer, boolean isRedTurn) {
         playerWhoThrewException = currentPlayer; // If an exception gets thrown, we know who did it
 
+        boolean isRedPlayer = currentPlayer.isRedPlayer();
+
         // Ask the player what they want to do
-        PlayerBoardView boardView = board.convertToView(currentPlayer, otherPlayer);
-        MinePlayerStrategy playerStrategy = currentPlayer.getStrategy();
+        long phaseStartTime = startPhase();
+        Supplier<ForwardModel> forwardModels = isRedPlayer ? redForwardModels : blueForwardModels;
+        PlayerBoardView boardView = board.convertToView(currentPlayer, otherPlayer, forwardModels);
+        endPhase(TurnPhase.CONVERT_TO_VIEW, isRedPlayer, phaseStartTime);
+
+        MinePlayerStrategy playerStrategy = getStrategyToCall(currentPlayer);
         int robotCharge = currentPlayer.getCurrentEnergy();
-        TurnAction playerAction = playerStrategy.getTurnAction(boardView, economy, robotCharge, isRedTurn);
+        phaseStartTime = startPhase();
+        TurnAction playerAction;
+        playerBeingAsked = currentPlayer;
+        try {
+            playerAction = playerStrategy.getTurnAction(boardView, economy, robotCharge, isRedTurn);
+        } finally {
+            playerBeingAsked = null;
+        }
+        endPhase(TurnPhase.GET_TURN_ACTION, isRedPlayer, phaseStartTime);
         currentPlayer.addTurnAction(playerAction);
+        if (replayWriter != null) {
+            writeToReplay(isRedPlayer, playerAction);
+        }
         if (playerAction == null) {
             return;
         }
 
         // Perform the player's selected action
         Action actionToPerform = playerAction.getActionToPerform();
+        phaseStartTime = startPhase();
         actionToPerform.performAction(board, currentPlayer, playerAction);
+        endPhase(TurnPhase.PERFORM_ACTION, isRedPlayer, phaseStartTime);
+    }
+
+    private void openReplayWriter() {
+        try {
+            replayWriter = new ReplayWriter(Paths.get(replayFilePath), board.getSize(), randomSeed,
+                                            getStrategyName(redPlayer), getStrategyName(bluePlayer));
+        } catch (IOException e) {
+            // A replay that can't be written is no reason to stop the game
+            System.err.println("Could not create the replay file, this game will not be recorded");
+            e.printStackTrace();
+        }
+    }
+
+    private void writeToReplay(boolean isRedPlayer, TurnAction playerAction) {
+        try {
+            replayWriter.writeAction(isRedPlayer, playerAction);
+        } catch (IOException e) {
+            System.err.println("There was an error writing the game replay, the rest of this game will not be recorded");
+            e.printStackTrace();
+            abandonReplayWriter();
+        }
+    }
+
+    private void closeReplayWriter() {
+        boolean redThrewException = (exceptionThrown != null && playerWhoThrewException == redPlayer);
+        boolean blueThrewException = (exceptionThrown != null && playerWhoThrewException == bluePlayer);
+        try {
+            if (recordStateHashes) {
+                replayWriter.writeStateHashes(stateHashes, numStateHashes);
+            }
+            replayWriter.finish(redPlayer.getScore(), bluePlayer.getScore(), redThrewException, blueThrewException);
+            replayWriter.close();
+        } catch (IOException e) {
+            System.err.println("There was an error finishing the game replay");
+            e.printStackTrace();
+            abandonReplayWriter();
+        }
+        replayWriter = null;
+    }
+
+    private void abandonReplayWriter() {
+        try {
+            replayWriter.close();
+        } catch (IOException e) {
+            // Already reported the error that got us here
+        }
+        replayWriter = null;
+    }
+
+    private long startPhase() {
+        return (turnMetrics != null) ? System.nanoTime() : 0;
+    }
+
+    private void endPhase(TurnPhase phase, boolean isRedPlayer, long phaseStartTime) {
+        if (turnMetrics != null) {
+            turnMetrics.record(phase, isRedPlayer, System.nanoTime() - phaseStartTime);
+        }
     }
 
     private void endRound() {
         int redPlayerScore = redPlayer.getScore();
         int bluePlayerScore = bluePlayer.getScore();
         playerWhoThrewException = redPlayer;
-        redPlayer.getStrategy().endRound(redPlayerScore, bluePlayerScore);
+        getStrategyToCall(redPlayer).endRound(redPlayerScore, bluePlayerScore);
         playerWhoThrewException = bluePlayer;
-        bluePlayer.getStrategy().endRound(bluePlayerScore, redPlayerScore);
+        getStrategyToCall(bluePlayer).endRound(bluePlayerScore, redPlayerScore);
         playerWhoThrewException = null;
     }
 
+    /**
+     * @param player One of the players in this game
+     * @return The player's StrategySupervisor if strategies are running under a budget, otherwise the strategy
+     */
+    private MinePlayerStrategy getStrategyToCall(MinePlayer player) {
+        if (redSupervisor == null) {
+            return player.getStrategy();
+        }
+        return (player == redPlayer) ? redSupervisor : blueSupervisor;
+    }
+
     private void delayBetweenGuiFrames(long millisecondsToWait) {
         if (!guiEnabled) {
             return;
@@ -0,0 +1,106 @@
+package mineopoly_three.game;
+
+import mineopoly_three.item.ItemType;
+
+import java.util.Arrays;
+
+/**
+ * Hands every event in a game to the GameListeners that want them. Listeners are kept in an array that is replaced
+ *  whenever one is added or removed, so listeners can come and go from any thread while a game runs, and sending
+ *  an event allocates nothing. With no listeners sending an event is a single branch.
+ */
+public final class GameEventBus {
+    private static final GameListener[] NO_LISTENERS = new GameListener[0];
+    // Used by boards, players and economies that don't belong to a GameEngine, like the ones in forked games
+    static final GameEventBus NONE = new GameEventBus();
+
+    private volatile GameListener[] listeners = NO_LISTENERS;
+
+    public synchronized void addListener(GameListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        GameListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = listener;
+        listeners = newListeners;
+    }
+
+    /**
+     * @param listener The listener to remove
+     * @return True if the listener was listening
+     */
+    public synchronized boolean removeListener(GameListener listener) {
+        GameListener[] currentListeners = listeners;
+        for (int i = 0; i < currentListeners.length; i++) {
+            if (currentListeners[i] == listener) {
+                GameListener[] newListeners = new GameListener[currentListeners.length - 1];
+                System.arraycopy(currentListeners, 0, newListeners, 0, i);
+                System.arraycopy(currentListeners, i + 1, newListeners, i, newListeners.length - i);
+                listeners = (newListeners.length == 0) ? NO_LISTENERS : newListeners;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return True if anything is listening, for callers that would have to work something out to send an event
+     */
+    public boolean hasListeners() {
+        return listeners.length > 0;
+    }
+
+    void fireTurnCompleted(int turnNumber) {
+        for (GameListener listener : listeners) {
+            listener.onTurnCompleted(turnNumber);
+        }
+    }
+
+    void fireTileChanged(int x, int y) {
+        for (GameListener listener : listeners) {
+            listener.onTileChanged(x, y);
+        }
+    }
+
+    void firePlayerMoved(boolean isRedPlayer, int fromX, int fromY, int toX, int toY) {
+        for (GameListener listener : listeners) {
+            listener.onPlayerMoved(isRedPlayer, fromX, fromY, toX, toY);
+        }
+    }
+
+    void fireItemPickedUp(boolean isRedPlayer, ItemType itemType) {
+        for (GameListener listener : listeners) {
+            listener.onItemPickedUp(isRedPlayer, itemType);
+        }
+    }
+
+    void fireInventorySold(boolean isRedPlayer, int totalSellPrice) {
+        for (GameListener listener : listeners) {
+            listener.onInventorySold(isRedPlayer, totalSellPrice);
+        }
+    }
+
+    void firePricesChanged(Economy economy) {
+        for (GameListener listener : listeners) {
+            listener.onPricesChanged(economy);
+        }
+    }
+
+    void fireAutominerPlaced(boolean isRedPlayer, int x, int y) {
+        for (GameListener listener : listeners) {
+            listener.onAutominerPlaced(isRedPlayer, x, y);
+        }
+    }
+
+    void fireStrategyException(boolean isRedPlayer, Exception exception) {
+        for (GameListener listener : listeners) {
+            listener.onStrategyException(isRedPlayer, exception);
+        }
+    }
+
+    void fireStateRestored(int turnNumber) {
+        for (GameListener listener : listeners) {
+            listener.onStateRestored(turnNumber);
+        }
+    }
+}
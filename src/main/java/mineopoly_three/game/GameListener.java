@@ -0,0 +1,87 @@
+package mineopoly_three.game;
+
+import mineopoly_three.item.ItemType;
+
+/**
+ * Hears about everything that changes in a game as it happens, so a GUI or anything else following the game only
+ *  has to look at what changed instead of the whole game after every turn. Every method does nothing by default,
+ *  so listeners only implement the events they care about.
+ * Listeners are called on the thread running the game, in the middle of the turn, so they should be quick and
+ *  must not change the game. Games forked for strategies never call listeners
+ */
+public interface GameListener {
+    /**
+     * Called after both players have acted and the board and economy have updated
+     *
+     * @param turnNumber The number of turns played so far
+     */
+    default void onTurnCompleted(int turnNumber) {
+    }
+
+    /**
+     * Called when a tile changes type, gets mined, or has items dropped on or picked up from it
+     *
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     */
+    default void onTileChanged(int x, int y) {
+    }
+
+    /**
+     * @param isRedPlayer True if the red player moved
+     * @param fromX The x coordinate of the tile the player left
+     * @param fromY The y coordinate of the tile the player left
+     * @param toX The x coordinate of the tile the player is on now
+     * @param toY The y coordinate of the tile the player is on now
+     */
+    default void onPlayerMoved(boolean isRedPlayer, int fromX, int fromY, int toX, int toY) {
+    }
+
+    /**
+     * @param isRedPlayer True if the red player picked up the item
+     * @param itemType The type of item picked up
+     */
+    default void onItemPickedUp(boolean isRedPlayer, ItemType itemType) {
+    }
+
+    /**
+     * @param isRedPlayer True if the red player sold their inventory
+     * @param totalSellPrice What the inventory sold for
+     */
+    default void onInventorySold(boolean isRedPlayer, int totalSellPrice) {
+    }
+
+    /**
+     * Called when at least one price changes, not on turns where every price is already at its maximum
+     *
+     * @param economy The game's economy, with the new prices
+     */
+    default void onPricesChanged(Economy economy) {
+    }
+
+    /**
+     * @param isRedPlayer True if the red player placed the autominer
+     * @param x The x coordinate of the tile the autominer was placed on
+     * @param y The y coordinate of the tile the autominer was placed on
+     */
+    default void onAutominerPlaced(boolean isRedPlayer, int x, int y) {
+    }
+
+    /**
+     * Called when a strategy throws an exception, which ends the game
+     *
+     * @param isRedPlayer True if the red player's strategy threw the exception
+     * @param exception The exception thrown
+     */
+    default void onStrategyException(boolean isRedPlayer, Exception exception) {
+    }
+
+    /**
+     * Called when the game is put back in the state of a keyframe. Any part of the game may have changed without
+     *  its own event, so listeners should look at the whole game again
+     *
+     * @param turnNumber The turn the game is at now
+     */
+    default void onStateRestored(int turnNumber) {
+    }
+}
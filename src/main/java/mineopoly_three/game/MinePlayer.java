@@ -1,12 +1,19 @@
 package mineopoly_three.game;
 
+import mineopoly_three.action.ActionLog;
 import mineopoly_three.action.TurnAction;
 import mineopoly_three.graphics.ImageManager;
 import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemType;
 import mineopoly_three.strategy.MinePlayerStrategy;
-import mineopoly_three.tiles.Tile;
+import mineopoly_three.strategy.SeekableStrategy;
+import mineopoly_three.util.CopyableRandom;
+import mineopoly_three.util.StateHash;
 
 import java.awt.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 import java.util.List;
 
@@ -26,40 +33,78 @@ public class MinePlayer {
     }
 
     private MinePlayerStrategy strategy;
+    // Where onReceiveItem and onSoldInventory calls go, the strategy itself or whatever is supervising it
+    private MinePlayerStrategy notifiedStrategy;
     private List<InventoryItem> inventory;
-    private Tile currentTile;
+    private Point location;
     private boolean isRedPlayer;
     private int score;
     private TurnAction lastMove;
-    private List<TurnAction> actions;
+    private ActionLog actions;
     private Economy economy;
     private int currentEnergy;
-    private Random randomNumberGenerator;
+    private CopyableRandom randomNumberGenerator;
+    private GameEventBus eventBus = GameEventBus.NONE;
 
-    protected MinePlayer(MinePlayerStrategy strategy, Tile startingTile, Economy economy,
+    protected MinePlayer(MinePlayerStrategy strategy, Point startingLocation, Economy economy,
                          long randomSeed, boolean isRedPlayer) {
         this.strategy = strategy;
+        this.notifiedStrategy = strategy;
         this.inventory = new ArrayList<>(MAX_ITEMS);
-        this.currentTile = startingTile;
+        this.location = new Point(startingLocation);
         this.isRedPlayer = isRedPlayer;
         this.score = 0;
         this.lastMove = TurnAction.MOVE_DOWN;
-        this.actions = new LinkedList<>();
+        // Room for a whole game up front, so recording a turn never allocates
+        this.actions = new ActionLog(GameEngine.MAX_TURNS_PER_GAME);
         this.economy = economy;
         this.currentEnergy = MAX_ENERGY;
-        this.randomNumberGenerator = new Random(randomSeed);
+        this.randomNumberGenerator = new CopyableRandom(randomSeed);
     }
 
+    /**
+     * Copies a player for a forked game. The copy has no strategy, its own inventory, location and random number
+     *  generator, and starts with an empty action history
+     *
+     * @param toCopy The player to copy
+     * @param economy The forked game's economy the copy sells to
+     */
+    protected MinePlayer(MinePlayer toCopy, Economy economy) {
+        this.strategy = null;
+        this.notifiedStrategy = null;
+        this.inventory = new ArrayList<>(toCopy.inventory);
+        this.location = new Point(toCopy.location);
+        this.isRedPlayer = toCopy.isRedPlayer;
+        this.score = toCopy.score;
+        this.lastMove = toCopy.lastMove;
+        this.actions = new ActionLog();
+        this.economy = economy;
+        this.currentEnergy = toCopy.currentEnergy;
+        this.randomNumberGenerator = new CopyableRandom(toCopy.randomNumberGenerator);
+    }
+
+    /**
+     * @return The strategy playing as this player, or null if this player is part of a forked game
+     */
     public MinePlayerStrategy getStrategy() {
         return strategy;
     }
 
-    public Tile getCurrentTile() {
-        return currentTile;
+    /**
+     * @return The player's current location on the board. This is the player's own Point, so don't modify it
+     */
+    public Point getLocation() {
+        return location;
     }
 
-    public void setCurrentTile(Tile newTile) {
-        this.currentTile = newTile;
+    /**
+     * Only the GameBoard should call this, as it also needs to know which tile the player is standing on
+     *
+     * @param x The player's new x coordinate
+     * @param y The player's new y coordinate
+     */
+    public void setLocation(int x, int y) {
+        location.setLocation(x, y);
     }
 
     public List<InventoryItem> getInventory() {
@@ -79,7 +124,9 @@ public class MinePlayer {
         }
 
         // Let the strategy know this player received an item
-        strategy.onReceiveItem(itemToAdd);
+        if (notifiedStrategy != null) {
+            notifiedStrategy.onReceiveItem(itemToAdd);
+        }
         inventory.add(itemToAdd);
         return true;
     }
@@ -90,11 +137,23 @@ public class MinePlayer {
 
         if (totalItemSellPrice > 0) {
             score += totalItemSellPrice;
+            eventBus.fireInventorySold(isRedPlayer, totalItemSellPrice);
             // Let the strategy know this player sold all items
-            strategy.onSoldInventory(totalItemSellPrice);
+            if (notifiedStrategy != null) {
+                notifiedStrategy.onSoldInventory(totalItemSellPrice);
+            }
         }
     }
 
+    /**
+     * Sends the strategy's item notifications through something that stands in for it, like a StrategySupervisor
+     *
+     * @param notifiedStrategy What to call instead of the strategy, or null to call the strategy directly again
+     */
+    void setNotifiedStrategy(MinePlayerStrategy notifiedStrategy) {
+        this.notifiedStrategy = (notifiedStrategy == null) ? strategy : notifiedStrategy;
+    }
+
     public boolean isRedPlayer() {
         return isRedPlayer;
     }
@@ -114,10 +173,87 @@ public class MinePlayer {
         }
     }
 
+    /**
+     * @return An unmodifiable view of every turn action so far, with null for turns the player did nothing
+     */
     public List<TurnAction> getAllTurnActions() {
+        return actions.asList();
+    }
+
+    public ActionLog getActionLog() {
         return actions;
     }
 
+    /**
+     * Forgets the turn actions recorded after a number of turns, for when a game is rewound
+     *
+     * @param numTurns The number of turn actions to keep
+     */
+    void forgetTurnActionsAfter(int numTurns) {
+        actions.truncate(Math.min(numTurns, actions.size()));
+    }
+
+    /**
+     * Records the actions of turns a game jumped over, for when a game is fast-forwarded. Unlike addTurnAction(),
+     *  this leaves the rest of the player as the keyframe it jumped to put it
+     *
+     * @param numTurns The number of turn actions there should be
+     * @param strategy The strategy to look the skipped actions up from
+     */
+    void recordSkippedTurnActions(int numTurns, SeekableStrategy strategy) {
+        while (actions.size() < numTurns) {
+            actions.add(strategy.getTurnActionOn(actions.size()));
+        }
+    }
+
+    /**
+     * Sends the events of this player to a GameEngine's listeners
+     *
+     * @param eventBus The engine's event bus
+     */
+    void setEventBus(GameEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(location.x);
+        out.writeInt(location.y);
+        out.writeInt(score);
+        out.writeInt(currentEnergy);
+        out.writeByte(lastMove.ordinal());
+        out.writeByte(inventory.size());
+        for (InventoryItem item : inventory) {
+            out.writeByte(item.getItemType().ordinal());
+        }
+        randomNumberGenerator.writeState(out);
+    }
+
+    long hashState(long hash) {
+        hash = StateHash.combine(hash, location.x);
+        hash = StateHash.combine(hash, location.y);
+        hash = StateHash.combine(hash, score);
+        hash = StateHash.combine(hash, currentEnergy);
+        hash = StateHash.combine(hash, lastMove.ordinal());
+        for (int i = 0; i < inventory.size(); i++) {
+            hash = StateHash.combine(hash, inventory.get(i).getItemType().ordinal());
+        }
+        // Keeps empty inventories from hashing like a shorter list of everything else
+        return StateHash.combine(hash, inventory.size());
+    }
+
+    void readState(DataInput in) throws IOException {
+        location.setLocation(in.readInt(), in.readInt());
+        score = in.readInt();
+        currentEnergy = in.readInt();
+        lastMove = TurnAction.values()[in.readUnsignedByte()];
+        inventory.clear();
+        int inventorySize = in.readUnsignedByte();
+        for (int i = 0; i < inventorySize; i++) {
+            inventory.add(InventoryItem.of(ItemType.values()[in.readUnsignedByte()]));
+        }
+        randomNumberGenerator.readState(in);
+    }
+
     public float getChargePercent() {
         return ((float) currentEnergy) / MAX_ENERGY;
     }
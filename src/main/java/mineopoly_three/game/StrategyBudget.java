@@ -0,0 +1,66 @@
+package mineopoly_three.game;
+
+/**
+ * Limits on how much wall time, thread CPU time and memory a strategy may use, both on a single call into the
+ *  strategy and added up over a whole game. The limits for a turn apply to every call, initialize and the item
+ *  notifications as much as getTurnAction. CPU time and memory count every thread the strategy starts during the
+ *  game, not just the one it is called on. A limit of 0 or less means that resource is not limited.
+ * A strategy that goes over any limit is stopped and treated exactly like a strategy that threw an exception.
+ */
+public class StrategyBudget {
+    private final long maxTurnWallNanos;
+    private final long maxTurnCpuNanos;
+    private final long maxTurnAllocatedBytes;
+    private final long maxGameWallNanos;
+    private final long maxGameCpuNanos;
+    private final long maxGameAllocatedBytes;
+
+    /**
+     * @param maxTurnWallNanos The most wall clock time one call into the strategy may take
+     * @param maxTurnCpuNanos The most CPU time one call into the strategy may use
+     * @param maxTurnAllocatedBytes The most memory one call into the strategy may allocate
+     * @param maxGameWallNanos The most wall clock time all calls in a game may take together
+     * @param maxGameCpuNanos The most CPU time the strategy's threads may use over a game
+     * @param maxGameAllocatedBytes The most memory the strategy's threads may allocate over a game
+     */
+    public StrategyBudget(long maxTurnWallNanos, long maxTurnCpuNanos, long maxTurnAllocatedBytes,
+                          long maxGameWallNanos, long maxGameCpuNanos, long maxGameAllocatedBytes) {
+        this.maxTurnWallNanos = maxTurnWallNanos;
+        this.maxTurnCpuNanos = maxTurnCpuNanos;
+        this.maxTurnAllocatedBytes = maxTurnAllocatedBytes;
+        this.maxGameWallNanos = maxGameWallNanos;
+        this.maxGameCpuNanos = maxGameCpuNanos;
+        this.maxGameAllocatedBytes = maxGameAllocatedBytes;
+    }
+
+    /**
+     * @return A budget that limits nothing, strategies still run supervised so their usage is measured
+     */
+    public static StrategyBudget unlimited() {
+        return new StrategyBudget(0, 0, 0, 0, 0, 0);
+    }
+
+    public long getMaxTurnWallNanos() {
+        return maxTurnWallNanos;
+    }
+
+    public long getMaxTurnCpuNanos() {
+        return maxTurnCpuNanos;
+    }
+
+    public long getMaxTurnAllocatedBytes() {
+        return maxTurnAllocatedBytes;
+    }
+
+    public long getMaxGameWallNanos() {
+        return maxGameWallNanos;
+    }
+
+    public long getMaxGameCpuNanos() {
+        return maxGameCpuNanos;
+    }
+
+    public long getMaxGameAllocatedBytes() {
+        return maxGameAllocatedBytes;
+    }
+}
@@ -0,0 +1,11 @@
+package mineopoly_three.game;
+
+/**
+ * Thrown in place of whatever a strategy returns when the strategy goes over its StrategyBudget, so the GameEngine
+ *  handles the breach the same way as any other exception from a strategy
+ */
+public class StrategyBudgetExceededException extends RuntimeException {
+    public StrategyBudgetExceededException(String message) {
+        super(message);
+    }
+}
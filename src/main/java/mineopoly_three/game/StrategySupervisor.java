@@ -0,0 +1,342 @@
+package mineopoly_three.game;
+
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.strategy.MinePlayerStrategy;
+import mineopoly_three.strategy.PlayerBoardView;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs every call into one strategy on a worker thread of its own while the engine thread watches it, so it can
+ *  stand in for the strategy anywhere the engine would call the strategy directly. The watchdog wakes up every
+ *  WATCHDOG_INTERVAL_NANOS to read the call's wall time and the CPU time and allocated bytes of the strategy's
+ *  threads, and gives up on the call as soon as any of them goes over the StrategyBudget.
+ * The worker is started in a ThreadGroup of its own, and threads the strategy starts from it, like the workers of
+ *  a ForkJoinPool it makes, join that group. All of their CPU time and allocations count against the budget,
+ *  including anything they do between calls. Work handed to threads that already existed, like the common
+ *  ForkJoinPool, is not measured.
+ * A strategy that goes over its budget is interrupted. If its worker is still running STOP_GRACE_MILLIS after the
+ *  game, it is left behind as a runaway at the lowest priority, since a thread can't be stopped from the outside.
+ *  Once MAX_RUNAWAY_WORKERS runaways are alive, no new supervisor can be made, so a long evaluation fails straight
+ *  away instead of slowing down with every game.
+ */
+class StrategySupervisor implements MinePlayerStrategy {
+    static final int MAX_RUNAWAY_WORKERS = 4;
+
+    private static final long WATCHDOG_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long STOP_GRACE_MILLIS = 100;
+    private static final long NOT_MEASURED = -1;
+    private static final int CPU_NANOS = 0;
+    private static final int ALLOCATED_BYTES = 1;
+
+    // Workers that didn't stop after their game, shared by every supervisor in the JVM
+    private static final List<Thread> runawayWorkers = new ArrayList<>();
+
+    private final MinePlayerStrategy strategy;
+    private final StrategyBudget budget;
+    private final String workerName;
+    private final ThreadMXBean threadBean;
+    private final com.sun.management.ThreadMXBean allocationBean;
+    private final ThreadGroup threadGroup;
+    private final ExecutorService worker;
+    private volatile Thread workerThread;
+
+    // What each of the strategy's threads had used the last time they were looked at, as {CPU nanos, bytes}
+    private final Map<Thread, long[]> lastThreadUsage = new HashMap<>();
+    private Thread[] groupThreads = new Thread[16];
+    private long groupCpuNanos;
+    private long groupAllocatedBytes;
+
+    private int numTurns;
+    private long totalWallNanos;
+
+    /**
+     * @throws IllegalStateException If MAX_RUNAWAY_WORKERS workers from earlier games are still running
+     */
+    StrategySupervisor(MinePlayerStrategy strategy, StrategyBudget budget, String workerName) {
+        int numRunawayWorkers = countRunawayWorkers();
+        if (numRunawayWorkers >= MAX_RUNAWAY_WORKERS) {
+            throw new IllegalStateException(numRunawayWorkers + " strategy workers kept running after going over "
+                                            + "their budget, refusing to start another");
+        }
+        this.strategy = strategy;
+        this.budget = budget;
+        this.workerName = workerName;
+
+        this.threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean.isThreadCpuTimeSupported() && !threadBean.isThreadCpuTimeEnabled()) {
+            threadBean.setThreadCpuTimeEnabled(true);
+        }
+
+        com.sun.management.ThreadMXBean allocationBean = null;
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (!allocationBean.isThreadAllocatedMemorySupported()) {
+                allocationBean = null;
+            } else if (!allocationBean.isThreadAllocatedMemoryEnabled()) {
+                allocationBean.setThreadAllocatedMemoryEnabled(true);
+            }
+        }
+        this.allocationBean = allocationBean;
+
+        this.threadGroup = new ThreadGroup(workerName);
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(threadGroup, runnable, workerName);
+            thread.setDaemon(true);
+            workerThread = thread;
+            return thread;
+        });
+    }
+
+    @Override
+    public void initialize(int boardSize, int maxInventorySize, int maxCharge, int winningScore,
+                           PlayerBoardView startingBoard, Point startTileLocation, boolean isRedPlayer, Random random) {
+        supervise(() -> {
+            strategy.initialize(boardSize, maxInventorySize, maxCharge, winningScore, startingBoard,
+                                startTileLocation, isRedPlayer, random);
+            return null;
+        }, false);
+    }
+
+    /**
+     * Calls the strategy's getTurnAction on the worker thread and waits for it within the budget
+     *
+     * @return The TurnAction the strategy chose
+     * @throws StrategyBudgetExceededException If the strategy went over any of its limits
+     */
+    @Override
+    public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                    boolean isRedTurn) {
+        return supervise(() -> strategy.getTurnAction(boardView, economy, currentCharge, isRedTurn), true);
+    }
+
+    @Override
+    public void onReceiveItem(InventoryItem itemReceived) {
+        supervise(() -> {
+            strategy.onReceiveItem(itemReceived);
+            return null;
+        }, false);
+    }
+
+    @Override
+    public void onSoldInventory(int totalSellPrice) {
+        supervise(() -> {
+            strategy.onSoldInventory(totalSellPrice);
+            return null;
+        }, false);
+    }
+
+    @Override
+    public String getName() {
+        return supervise(strategy::getName, false);
+    }
+
+    @Override
+    public void endRound(int pointsScored, int opponentPointsScored) {
+        supervise(() -> {
+            strategy.endRound(pointsScored, opponentPointsScored);
+            return null;
+        }, false);
+    }
+
+    /**
+     * @return What the strategy has used so far this game
+     */
+    StrategyUsage getUsage() {
+        long cpuNanos = threadBean.isThreadCpuTimeSupported() ? groupCpuNanos : NOT_MEASURED;
+        long allocatedBytes = (allocationBean != null) ? groupAllocatedBytes : NOT_MEASURED;
+        return new StrategyUsage(numTurns, totalWallNanos, cpuNanos, allocatedBytes);
+    }
+
+    /**
+     * Stops the worker thread, and leaves it behind as a runaway if it doesn't stop in time
+     */
+    void shutdown() {
+        worker.shutdownNow();
+        boolean hasStopped;
+        try {
+            hasStopped = worker.awaitTermination(STOP_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            hasStopped = false;
+        }
+
+        Thread stuckWorker = workerThread;
+        if (!hasStopped && stuckWorker != null && stuckWorker.isAlive()) {
+            stuckWorker.setPriority(Thread.MIN_PRIORITY);
+            synchronized (runawayWorkers) {
+                runawayWorkers.add(stuckWorker);
+            }
+        }
+    }
+
+    /**
+     * @return How many workers that were left behind after going over their budget are still running
+     */
+    static int countRunawayWorkers() {
+        synchronized (runawayWorkers) {
+            runawayWorkers.removeIf(runawayWorker -> !runawayWorker.isAlive());
+            return runawayWorkers.size();
+        }
+    }
+
+    private <T> T supervise(Callable<T> strategyCall, boolean isTurn) {
+        // The worker thread is only started by the first task, so make sure it exists before measuring it
+        if (workerThread == null) {
+            waitFor(worker.submit(() -> { }));
+        }
+        // Anything the strategy's threads did since the last call counts towards the game, but not this call
+        updateGroupUsage();
+        long startCpuNanos = groupCpuNanos;
+        long startAllocatedBytes = groupAllocatedBytes;
+        long startWallNanos = System.nanoTime();
+
+        Future<T> result = worker.submit(strategyCall);
+        while (true) {
+            try {
+                T value = result.get(WATCHDOG_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                // The call may have gone over a limit since the watchdog last looked
+                updateGroupUsage();
+                long callWallNanos = System.nanoTime() - startWallNanos;
+                recordCall(isTurn, callWallNanos);
+                checkBudget(callWallNanos, startCpuNanos, startAllocatedBytes, totalWallNanos);
+                return value;
+            } catch (TimeoutException e) {
+                updateGroupUsage();
+                long callWallNanos = System.nanoTime() - startWallNanos;
+                try {
+                    checkBudget(callWallNanos, startCpuNanos, startAllocatedBytes,
+                                totalWallNanos + callWallNanos);
+                } catch (StrategyBudgetExceededException budgetExceeded) {
+                    result.cancel(true);
+                    recordCall(isTurn, callWallNanos);
+                    throw budgetExceeded;
+                }
+            } catch (ExecutionException e) {
+                recordCall(isTurn, System.nanoTime() - startWallNanos);
+                throw rethrowStrategyException(e.getCause());
+            } catch (InterruptedException e) {
+                result.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a strategy", e);
+            }
+        }
+    }
+
+    private void checkBudget(long callWallNanos, long startCpuNanos, long startAllocatedBytes,
+                             long gameWallNanos) {
+        checkLimit("wall time for a call", callWallNanos, budget.getMaxTurnWallNanos());
+        checkLimit("CPU time for a call", groupCpuNanos - startCpuNanos, budget.getMaxTurnCpuNanos());
+        checkLimit("allocated bytes for a call", groupAllocatedBytes - startAllocatedBytes,
+                   budget.getMaxTurnAllocatedBytes());
+        checkLimit("wall time for the game", gameWallNanos, budget.getMaxGameWallNanos());
+        checkLimit("CPU time for the game", groupCpuNanos, budget.getMaxGameCpuNanos());
+        checkLimit("allocated bytes for the game", groupAllocatedBytes, budget.getMaxGameAllocatedBytes());
+    }
+
+    private void checkLimit(String limitName, long used, long limit) {
+        if (limit > 0 && used > limit) {
+            // Don't call into the strategy here, it may still be running on the worker
+            throw new StrategyBudgetExceededException(workerName + " used " + used + " of its " + limit + " "
+                                                      + limitName);
+        }
+    }
+
+    private void recordCall(boolean isTurn, long callWallNanos) {
+        if (isTurn) {
+            numTurns++;
+        }
+        totalWallNanos += callWallNanos;
+    }
+
+    /**
+     * Adds what every live thread of the strategy used since it was last looked at to the group's totals. A thread
+     *  that ends between two looks loses what it used since the last one, at most one watchdog interval's worth
+     */
+    private void updateGroupUsage() {
+        int numThreads = threadGroup.enumerate(groupThreads);
+        while (numThreads == groupThreads.length) {
+            // The array may have been too small to hold every thread
+            groupThreads = new Thread[groupThreads.length * 2];
+            numThreads = threadGroup.enumerate(groupThreads);
+        }
+
+        for (int i = 0; i < numThreads; i++) {
+            Thread thread = groupThreads[i];
+            long[] lastUsage = lastThreadUsage.get(thread);
+            if (lastUsage == null) {
+                // The thread started in the group, so everything it has used is the strategy's
+                lastUsage = new long[2];
+                lastThreadUsage.put(thread, lastUsage);
+            }
+            long threadId = thread.getId();
+            long cpuNanos = getCpuNanos(threadId);
+            long allocatedBytes = getAllocatedBytes(threadId);
+            groupCpuNanos += Math.max(0, cpuNanos - lastUsage[CPU_NANOS]);
+            groupAllocatedBytes += Math.max(0, allocatedBytes - lastUsage[ALLOCATED_BYTES]);
+            lastUsage[CPU_NANOS] = Math.max(lastUsage[CPU_NANOS], cpuNanos);
+            lastUsage[ALLOCATED_BYTES] = Math.max(lastUsage[ALLOCATED_BYTES], allocatedBytes);
+        }
+        Arrays.fill(groupThreads, 0, numThreads, null);
+
+        Iterator<Thread> trackedThreads = lastThreadUsage.keySet().iterator();
+        while (trackedThreads.hasNext()) {
+            if (!trackedThreads.next().isAlive()) {
+                trackedThreads.remove();
+            }
+        }
+    }
+
+    private long getCpuNanos(long threadId) {
+        if (!threadBean.isThreadCpuTimeSupported()) {
+            return 0;
+        }
+        return Math.max(0, threadBean.getThreadCpuTime(threadId));
+    }
+
+    private long getAllocatedBytes(long threadId) {
+        if (allocationBean == null) {
+            return 0;
+        }
+        return Math.max(0, allocationBean.getThreadAllocatedBytes(threadId));
+    }
+
+    private static void waitFor(Future<?> task) {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while starting a strategy worker", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not start a strategy worker", e.getCause());
+        }
+    }
+
+    private static RuntimeException rethrowStrategyException(Throwable strategyException) {
+        // Let the strategy's own exception through unchanged, like calling it directly would
+        if (strategyException instanceof RuntimeException) {
+            throw (RuntimeException) strategyException;
+        }
+        if (strategyException instanceof Error) {
+            throw (Error) strategyException;
+        }
+        throw new IllegalStateException("Strategy threw a checked exception", strategyException);
+    }
+}
@@ -0,0 +1,42 @@
+package mineopoly_three.game;
+
+/**
+ * How much a strategy used over a game, as measured by its StrategySupervisor. The number of turns counts
+ *  getTurnAction calls, the wall time adds up every call into the strategy, and the CPU time and allocated bytes
+ *  are of every thread the strategy ran on or started. They are -1 if the JVM cannot measure them per thread
+ */
+public class StrategyUsage {
+    private final int numTurns;
+    private final long wallNanos;
+    private final long cpuNanos;
+    private final long allocatedBytes;
+
+    public StrategyUsage(int numTurns, long wallNanos, long cpuNanos, long allocatedBytes) {
+        this.numTurns = numTurns;
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public int getNumTurns() {
+        return numTurns;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("turns=%d wall=%.1fms cpu=%.1fms allocated=%dKB", numTurns, wallNanos / 1e6,
+                             cpuNanos / 1e6, allocatedBytes / 1024);
+    }
+}
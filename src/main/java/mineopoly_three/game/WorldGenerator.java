@@ -2,11 +2,6 @@ package mineopoly_three.game;
 
 import mineopoly_three.item.InventoryItem;
 import mineopoly_three.item.ItemType;
-import mineopoly_three.tiles.EmptyTile;
-import mineopoly_three.tiles.MarketTile;
-import mineopoly_three.tiles.RechargeTile;
-import mineopoly_three.tiles.ResourceTile;
-import mineopoly_three.tiles.Tile;
 import mineopoly_three.tiles.TileType;
 
 import java.awt.Point;
@@ -35,18 +30,8 @@ public class WorldGenerator {
      * @return A GameBoard object ready for use in a round of Mine-opoly
      */
     protected GameBoard generateBoard(int boardSize) {
-        // Fill board with empty tiles to begin with
-        Tile[][] tilesOnBoard = new Tile[boardSize][boardSize];
-        for (int i = 0; i < tilesOnBoard.length; i++) {
-            for (int j = 0; j < tilesOnBoard[i].length; j++) {
-                // The top left corner is index (0, 0) but location (0, maxY)
-                // This is so MOVE_UP actually moves up relative to the bottom of the screen
-                Point tileLocation = new Point(j, (boardSize - 1) - i);
-                tilesOnBoard[i][j] = new EmptyTile(tileLocation);
-            }
-        }
-
-        GameBoard board = new GameBoard(tilesOnBoard);
+        // The board starts out filled with empty tiles
+        GameBoard board = new GameBoard(boardSize);
 
         this.addChargingTiles(board);
         this.addMarketTiles(board);
@@ -61,8 +46,7 @@ public class WorldGenerator {
         int halfBoardSize = board.getSize() / 2;
         for (int y = halfBoardSize - 1; y <= halfBoardSize; y++) {
             for (int x = halfBoardSize - 1; x <= halfBoardSize; x++) {
-                Point chargingSquareLocation = new Point(x, y);
-                board.setTileAtTileLocation(new RechargeTile(chargingSquareLocation));
+                board.setTileTypeAtLocation(x, y, TileType.RECHARGE);
             }
         }
     }
@@ -74,10 +58,10 @@ public class WorldGenerator {
         Point blueLowerMarketPoint = new Point(boardSize * 3 / 4, boardSize * 3 / 4);
         Point blueUpperMarketPoint = new Point(boardSize / 4, boardSize / 4);
 
-        board.setTileAtTileLocation(new MarketTile(redLowerMarketPoint, true));
-        board.setTileAtTileLocation(new MarketTile(redUpperMarketPoint, true));
-        board.setTileAtTileLocation(new MarketTile(blueLowerMarketPoint, false));
-        board.setTileAtTileLocation(new MarketTile(blueUpperMarketPoint, false));
+        board.setTileTypeAtLocation(redLowerMarketPoint.x, redLowerMarketPoint.y, TileType.RED_MARKET);
+        board.setTileTypeAtLocation(redUpperMarketPoint.x, redUpperMarketPoint.y, TileType.RED_MARKET);
+        board.setTileTypeAtLocation(blueLowerMarketPoint.x, blueLowerMarketPoint.y, TileType.BLUE_MARKET);
+        board.setTileTypeAtLocation(blueUpperMarketPoint.x, blueUpperMarketPoint.y, TileType.BLUE_MARKET);
 
         // Set the start points for both players to be their lower market
         board.setRedStartLocation(redLowerMarketPoint);
@@ -109,7 +93,7 @@ public class WorldGenerator {
                     randomY = (int) (randomRadius * Math.sin(randomAngle)) + halfBoardSize;
 
                     numAttempts++;
-                    tileEmpty = (board.getTileAtLocation(randomX, randomY).getType() == TileType.EMPTY);
+                    tileEmpty = (board.getTileTypeAtLocation(randomX, randomY) == TileType.EMPTY);
                 } while (!tileEmpty && (numAttempts <= MAX_EMPTY_TILE_SEARCHES));
 
                 if (!tileEmpty) {
@@ -125,9 +109,7 @@ public class WorldGenerator {
                 }
 
                 // Plop this resource down at the random empty tile
-                Point randomLocation = new Point(randomX, randomY);
-                Tile resourceTile = new ResourceTile(randomLocation, typeToSpawn);
-                board.setTileAtTileLocation(resourceTile);
+                board.setTileTypeAtLocation(randomX, randomY, typeToSpawn.getResourceTileType());
             }
         }
     }
@@ -139,8 +121,7 @@ public class WorldGenerator {
         };
 
         for(Point p : autominers) {
-            board.getTileAtLocation(p.x, p.y).getItemsOnTile().add(new InventoryItem(ItemType.AUTOMINER));
-            board.trackItemsOnPoint(p, board.getTileAtLocation(p.x, p.y).getItemsOnTile());
+            board.addItemAtLocation(p.x, p.y, InventoryItem.of(ItemType.AUTOMINER));
         }
     }
 }
@@ -20,6 +20,11 @@ public class EconomyDisplayPanel extends GameInfoDisplayPanel {
         imageManager.rescaleImages(RESOURCE_IMAGE_SIZE, RESOURCE_IMAGE_SIZE);
     }
 
+    @Override
+    public void onPricesChanged(Economy economy) {
+        repaint();
+    }
+
     @Override
     public void paint(Graphics g) {
         super.paint(g);
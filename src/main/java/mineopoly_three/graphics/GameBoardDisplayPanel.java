@@ -1,19 +1,27 @@
 package mineopoly_three.graphics;
 
 import mineopoly_three.game.GameBoard;
+import mineopoly_three.game.GameListener;
 
 import java.awt.*;
-import java.util.Observable;
-import java.util.Observer;
 import javax.swing.*;
 
 /**
- * A panel on the JFrame for the main.game which can display the current GameBoard
+ * A panel on the JFrame for the main.game which can display the current GameBoard. Only the tiles the engine says
+ *  changed are repainted, along with the tiles the players are on
  */
-public class GameBoardDisplayPanel extends JPanel implements Observer {
+public class GameBoardDisplayPanel extends JPanel implements GameListener {
+    private static final int RED_INDEX = 0;
+    private static final int BLUE_INDEX = 1;
+    private static final int UNKNOWN = -1;
+
     private GameBoard boardToRender;
     private ImageManager imageManager;
     private int preferredSize;
+    // Where each player was last seen moving to, so their tile can be repainted when they turn without moving.
+    //  Only touched on the engine's thread
+    private final int[] playerX = {UNKNOWN, UNKNOWN};
+    private final int[] playerY = {UNKNOWN, UNKNOWN};
 
     public GameBoardDisplayPanel(int preferredSize, GameBoard board, ImageManager imageManager) {
         super();
@@ -32,7 +40,25 @@ public class GameBoardDisplayPanel extends JPanel implements Observer {
     @Override
     public void paint(Graphics g) {
         super.paint(g);
-        boardToRender.paint((Graphics2D) g, imageManager);
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            boardToRender.paint((Graphics2D) g, imageManager);
+            return;
+        }
+
+        // Only paint the tiles that overlap the area being repainted
+        int boardSize = boardToRender.getSize();
+        int tileWidth = imageManager.getImageWidth();
+        int tileHeight = imageManager.getImageHeight();
+        int minX = Math.max(0, clip.x / tileWidth);
+        int maxX = Math.min(boardSize - 1, (clip.x + clip.width - 1) / tileWidth);
+        int minY = Math.max(0, (boardSize - 1) - (clip.y + clip.height - 1) / tileHeight);
+        int maxY = Math.min(boardSize - 1, (boardSize - 1) - clip.y / tileHeight);
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                boardToRender.getTileAtLocation(x, y).paint((Graphics2D) g, boardSize, imageManager);
+            }
+        }
     }
 
     @Override
@@ -41,7 +67,43 @@ public class GameBoardDisplayPanel extends JPanel implements Observer {
     }
 
     @Override
-    public void update(Observable o, Object arg) {
+    public void onTileChanged(int x, int y) {
+        repaintTile(x, y);
+    }
+
+    @Override
+    public void onPlayerMoved(boolean isRedPlayer, int fromX, int fromY, int toX, int toY) {
+        int playerIndex = isRedPlayer ? RED_INDEX : BLUE_INDEX;
+        playerX[playerIndex] = toX;
+        playerY[playerIndex] = toY;
+        repaintTile(fromX, fromY);
+        repaintTile(toX, toY);
+    }
+
+    @Override
+    public void onTurnCompleted(int turnNumber) {
+        // A player's robot faces the way it last tried to move, even if it couldn't
+        for (int playerIndex = RED_INDEX; playerIndex <= BLUE_INDEX; playerIndex++) {
+            if (playerX[playerIndex] == UNKNOWN) {
+                repaint();
+                return;
+            }
+            repaintTile(playerX[playerIndex], playerY[playerIndex]);
+        }
+    }
+
+    @Override
+    public void onStateRestored(int turnNumber) {
+        playerX[RED_INDEX] = UNKNOWN;
+        playerX[BLUE_INDEX] = UNKNOWN;
         repaint();
     }
+
+    private void repaintTile(int x, int y) {
+        // repaint() is safe to call from the engine's thread, Swing merges the areas and paints them on its own thread
+        int tileWidth = imageManager.getImageWidth();
+        int tileHeight = imageManager.getImageHeight();
+        int screenY = ((boardToRender.getSize() - 1) - y) * tileHeight;
+        repaint(x * tileWidth, screenY, tileWidth, tileHeight);
+    }
 }
@@ -1,11 +1,11 @@
 package mineopoly_three.graphics;
 
+import mineopoly_three.game.GameListener;
+
 import javax.swing.*;
 import java.awt.*;
-import java.util.Observable;
-import java.util.Observer;
 
-public abstract class GameInfoDisplayPanel extends JPanel implements Observer {
+public abstract class GameInfoDisplayPanel extends JPanel implements GameListener {
     private static final int DEFAULT_PANEL_HEIGHT = 110;
     protected int preferredWidth;
     protected ImageManager imageManager;
@@ -43,7 +43,8 @@ public abstract class GameInfoDisplayPanel extends JPanel implements Observer {
     }
 
     @Override
-    public void update(Observable o, Object arg) {
+    public void onStateRestored(int turnNumber) {
+        // repaint() is safe to call from the engine's thread, the painting itself happens on the Swing thread
         repaint();
     }
 }
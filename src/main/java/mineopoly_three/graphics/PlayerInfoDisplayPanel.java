@@ -22,6 +22,17 @@ public class PlayerInfoDisplayPanel extends GameInfoDisplayPanel {
         this.imageManager.rescaleImages(RESOURCE_IMAGE_SIZE, RESOURCE_IMAGE_SIZE);
     }
 
+    @Override
+    public void onTurnCompleted(int turnNumber) {
+        // Charge can change every turn, even for a player standing still
+        repaint();
+    }
+
+    @Override
+    public void onStrategyException(boolean isRedPlayer, Exception exception) {
+        repaint();
+    }
+
     @Override
     public void paint(Graphics g) {
         super.paint(g);
@@ -0,0 +1,70 @@
+package mineopoly_three.graphics;
+
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.game.GameListener;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * A scrubber under the board for games that can seek, like replays. It follows the turn the game is on, and
+ *  dragging it to a turn makes the game jump there.
+ */
+public class TimelinePanel extends JPanel implements GameListener {
+    private static final int DEFAULT_PANEL_HEIGHT = 50;
+    private static final int TURNS_PER_LABEL = 100;
+
+    private final GameEngine engine;
+    private final JSlider turnSlider;
+    private int preferredWidth;
+    // True while the slider is being moved to follow the game, so that doesn't count as the user seeking
+    private boolean followingGame;
+
+    public TimelinePanel(int preferredWidth, GameEngine engine) {
+        this.preferredWidth = preferredWidth;
+        this.engine = engine;
+        this.followingGame = false;
+
+        this.turnSlider = new JSlider(0, engine.getMaxTurns(), engine.getTurnNumber());
+        turnSlider.setMajorTickSpacing(TURNS_PER_LABEL);
+        turnSlider.setPaintTicks(true);
+        turnSlider.setPaintLabels(true);
+        turnSlider.addChangeListener(e -> {
+            // Only seek once the user lets go of the slider
+            if (!followingGame && !turnSlider.getValueIsAdjusting()) {
+                engine.requestSeek(turnSlider.getValue());
+            }
+        });
+
+        this.setLayout(new BorderLayout());
+        this.add(turnSlider, BorderLayout.CENTER);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(preferredWidth, DEFAULT_PANEL_HEIGHT);
+    }
+
+    @Override
+    public void onTurnCompleted(int turnNumber) {
+        followGame();
+    }
+
+    @Override
+    public void onStateRestored(int turnNumber) {
+        followGame();
+    }
+
+    private void followGame() {
+        // The engine calls listeners on its own thread, Swing components may only be touched on the event dispatch thread
+        SwingUtilities.invokeLater(() -> {
+            if (turnSlider.getValueIsAdjusting()) {
+                // Don't pull the slider out from under the user
+                return;
+            }
+            followingGame = true;
+            turnSlider.setValue(engine.getTurnNumber());
+            followingGame = false;
+        });
+    }
+}
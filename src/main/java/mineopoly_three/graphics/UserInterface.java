@@ -52,9 +52,16 @@ public class UserInterface {
 
         // Create the panel that actually renders the game board
         GameBoardDisplayPanel gameBoardDisplayPanel = new GameBoardDisplayPanel(preferredGuiWidth, board, boardImageManager);
-        engine.addObserver(gameBoardDisplayPanel);
+        engine.addGameListener(gameBoardDisplayPanel);
         gameDisplayFrame.add(gameBoardDisplayPanel);
 
+        // Games that can jump between turns, like replays, get a timeline to scrub through the game with
+        if (engine.canSeek()) {
+            TimelinePanel timelinePanel = new TimelinePanel(preferredGuiWidth, engine);
+            engine.addGameListener(timelinePanel);
+            gameDisplayFrame.add(timelinePanel);
+        }
+
         // Tell the application window to resize its contents to their preferred dimensions
         gameDisplayFrame.pack();
     }
@@ -99,9 +106,9 @@ public class UserInterface {
         topInfoDisplayPanel.add(blueDisplayPanel);
 
         // Set these panels to update when the engine tells them something changed
-        engine.addObserver(redDisplayPanel);
-        engine.addObserver(blueDisplayPanel);
-        engine.getEconomy().addObserver(economyDisplayPanel);
+        engine.addGameListener(redDisplayPanel);
+        engine.addGameListener(blueDisplayPanel);
+        engine.addGameListener(economyDisplayPanel);
         return topInfoDisplayPanel;
     }
 }
@@ -1,12 +1,30 @@
 package mineopoly_three.item;
 
 public class InventoryItem {
-    private ItemType itemType;
+    private static final InventoryItem[] canonicalItems = new InventoryItem[ItemType.values().length];
+    static {
+        for (ItemType itemType : ItemType.values()) {
+            canonicalItems[itemType.ordinal()] = new InventoryItem(itemType);
+        }
+    }
+
+    private final ItemType itemType;
 
     public InventoryItem(ItemType itemType) {
         this.itemType = itemType;
     }
 
+    /**
+     * Gets the one shared InventoryItem for an ItemType. Items carry nothing but their type, so the engine hands out
+     *  these instead of making a new item every time a resource is mined
+     *
+     * @param itemType The type of item to get
+     * @return The shared InventoryItem of that type
+     */
+    public static InventoryItem of(ItemType itemType) {
+        return canonicalItems[itemType.ordinal()];
+    }
+
     public ItemType getItemType() {
         return itemType;
     }
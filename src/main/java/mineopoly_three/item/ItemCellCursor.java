@@ -0,0 +1,44 @@
+package mineopoly_three.item;
+
+/**
+ * Walks over only the cells of a board that have items on the ground, without building a copy of them.
+ * A cursor starts before the first cell, so next() has to be called before reading anything:
+ *
+ * <pre>
+ * ItemCellCursor cursor = boardView.getItemCells();
+ * while (cursor.next()) {
+ *     for (int i = 0; i &lt; cursor.getItemCount(); i++) {
+ *         InventoryItem item = cursor.getItem(i);
+ *     }
+ * }
+ * </pre>
+ */
+public interface ItemCellCursor {
+    /**
+     * Moves the cursor to the next cell with items on it
+     *
+     * @return True if the cursor is on a cell with items, false once every cell has been visited
+     */
+    boolean next();
+
+    /**
+     * @return The x coordinate of the current cell
+     */
+    int getX();
+
+    /**
+     * @return The y coordinate of the current cell
+     */
+    int getY();
+
+    /**
+     * @return The number of items on the ground in the current cell, always at least 1
+     */
+    int getItemCount();
+
+    /**
+     * @param itemIndex The index of the item among the items in the current cell
+     * @return The item at that index
+     */
+    InventoryItem getItem(int itemIndex);
+}
@@ -0,0 +1,319 @@
+package mineopoly_three.item;
+
+import java.util.Arrays;
+
+/**
+ * The items on the ground of a board, stored only for the cells that actually have items on them.
+ * Cells are keyed by their index, (y * boardSize) + x, in an open addressing hash table with linear probing. Every
+ *  slot of the table has room for a fixed number of items and a count of how many it holds, so adding and removing
+ *  items never boxes a key or allocates unless the table or the room per cell has to grow.
+ */
+public final class ItemIndex {
+    private static final int NO_CELL = -1;
+    private static final int MIN_CAPACITY = 16;
+    // A cell rarely holds more than a mined resource and an autominer
+    private static final int INITIAL_ITEMS_PER_CELL = 2;
+
+    private final int boardSize;
+    private int[] slotCells;
+    private int[] slotItemCounts;
+    private InventoryItem[] slotItems;
+    private int itemsPerCell;
+    private int slotMask;
+    private int numCells;
+
+    /**
+     * @param boardSize The length and width of the board the items are on
+     * @param expectedCells How many cells are expected to hold items at the same time
+     */
+    public ItemIndex(int boardSize, int expectedCells) {
+        this.boardSize = boardSize;
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedCells * 2) {
+            capacity <<= 1;
+        }
+
+        this.itemsPerCell = INITIAL_ITEMS_PER_CELL;
+        allocate(capacity);
+        this.numCells = 0;
+    }
+
+    /**
+     * Creates an independent copy of another index. The items themselves are shared, they never change
+     *
+     * @param toCopy The index to copy
+     */
+    public ItemIndex(ItemIndex toCopy) {
+        this.boardSize = toCopy.boardSize;
+        this.slotCells = toCopy.slotCells.clone();
+        this.slotItemCounts = toCopy.slotItemCounts.clone();
+        this.slotItems = toCopy.slotItems.clone();
+        this.itemsPerCell = toCopy.itemsPerCell;
+        this.slotMask = toCopy.slotMask;
+        this.numCells = toCopy.numCells;
+    }
+
+    /**
+     * @return The number of cells with at least one item on them
+     */
+    public int getNumCells() {
+        return numCells;
+    }
+
+    /**
+     * @param cellIndex The index of the cell, (y * boardSize) + x
+     * @return The number of items on the cell
+     */
+    public int getItemCount(int cellIndex) {
+        int slot = findSlot(cellIndex);
+        return (slot < 0) ? 0 : slotItemCounts[slot];
+    }
+
+    /**
+     * @param cellIndex The index of the cell, (y * boardSize) + x
+     * @param itemIndex The index of the item among the items on the cell, in the order they were added
+     * @return The item at that index
+     */
+    public InventoryItem getItem(int cellIndex, int itemIndex) {
+        int slot = findSlot(cellIndex);
+        if (slot < 0 || itemIndex < 0 || itemIndex >= slotItemCounts[slot]) {
+            throw new IndexOutOfBoundsException("No item " + itemIndex + " on cell " + cellIndex);
+        }
+        return slotItems[(slot * itemsPerCell) + itemIndex];
+    }
+
+    /**
+     * @param cellIndex The index of the cell, (y * boardSize) + x
+     * @param itemType The type of item to look for
+     * @return The first item of that type on the cell, or null if there is none
+     */
+    public InventoryItem findItemOfType(int cellIndex, ItemType itemType) {
+        int slot = findSlot(cellIndex);
+        if (slot < 0) {
+            return null;
+        }
+
+        int firstItem = slot * itemsPerCell;
+        for (int i = firstItem; i < firstItem + slotItemCounts[slot]; i++) {
+            if (slotItems[i].getItemType() == itemType) {
+                return slotItems[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param cellIndex The index of the cell, (y * boardSize) + x
+     * @return The first resource on the cell, or null if there is none
+     */
+    public InventoryItem findResource(int cellIndex) {
+        int slot = findSlot(cellIndex);
+        if (slot < 0) {
+            return null;
+        }
+
+        int firstItem = slot * itemsPerCell;
+        for (int i = firstItem; i < firstItem + slotItemCounts[slot]; i++) {
+            if (slotItems[i].getItemType().isResource()) {
+                return slotItems[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Puts an item on a cell after any items already there
+     *
+     * @param cellIndex The index of the cell, (y * boardSize) + x
+     * @param item The item to add
+     */
+    public void addItem(int cellIndex, InventoryItem item) {
+        int slot = findSlot(cellIndex);
+        if (slot < 0) {
+            if ((numCells + 1) * 2 > slotCells.length) {
+                resize(slotCells.length * 2, itemsPerCell);
+            }
+            slot = insertSlot(cellIndex);
+            numCells++;
+        } else if (slotItemCounts[slot] == itemsPerCell) {
+            resize(slotCells.length, itemsPerCell * 2);
+            slot = findSlot(cellIndex);
+        }
+
+        slotItems[(slot * itemsPerCell) + slotItemCounts[slot]] = item;
+        slotItemCounts[slot]++;
+    }
+
+    /**
+     * Takes an item off a cell, keeping the order of the items left on it
+     *
+     * @param cellIndex The index of the cell, (y * boardSize) + x
+     * @param item The item to remove, compared by identity
+     * @return True if the item was on the cell
+     */
+    public boolean removeItem(int cellIndex, InventoryItem item) {
+        int slot = findSlot(cellIndex);
+        if (slot < 0) {
+            return false;
+        }
+
+        int firstItem = slot * itemsPerCell;
+        int lastItem = firstItem + slotItemCounts[slot] - 1;
+        for (int i = firstItem; i <= lastItem; i++) {
+            if (slotItems[i] == item) {
+                System.arraycopy(slotItems, i + 1, slotItems, i, lastItem - i);
+                slotItems[lastItem] = null;
+                slotItemCounts[slot]--;
+                if (slotItemCounts[slot] == 0) {
+                    deleteSlot(slot);
+                    numCells--;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param cellIndex The index of the cell, (y * boardSize) + x
+     * @return A new array holding the items on the cell, or null if there are none
+     */
+    public InventoryItem[] copyItems(int cellIndex) {
+        int slot = findSlot(cellIndex);
+        if (slot < 0) {
+            return null;
+        }
+        int firstItem = slot * itemsPerCell;
+        return Arrays.copyOfRange(slotItems, firstItem, firstItem + slotItemCounts[slot]);
+    }
+
+    /**
+     * Takes every item off every cell, keeping the room already allocated
+     */
+    public void clear() {
+        Arrays.fill(slotCells, NO_CELL);
+        Arrays.fill(slotItemCounts, 0);
+        Arrays.fill(slotItems, null);
+        numCells = 0;
+    }
+
+    /**
+     * Gets a cursor over the cells with items, in no particular order. The cursor must not be used after the index
+     *  is changed
+     *
+     * @return A new ItemCellCursor positioned before the first cell
+     */
+    public ItemCellCursor cursor() {
+        return new Cursor();
+    }
+
+    private static int hash(int cellIndex) {
+        // Fibonacci hashing spreads neighbouring cells over the whole table
+        int mixed = cellIndex * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    private int findSlot(int cellIndex) {
+        int slot = hash(cellIndex) & slotMask;
+        while (slotCells[slot] != NO_CELL) {
+            if (slotCells[slot] == cellIndex) {
+                return slot;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        return -1;
+    }
+
+    private int insertSlot(int cellIndex) {
+        int slot = hash(cellIndex) & slotMask;
+        while (slotCells[slot] != NO_CELL) {
+            slot = (slot + 1) & slotMask;
+        }
+        slotCells[slot] = cellIndex;
+        return slot;
+    }
+
+    private void deleteSlot(int slot) {
+        // Shift later entries of the same probe run back into the hole, so lookups never need tombstones
+        int hole = slot;
+        int next = (hole + 1) & slotMask;
+        while (slotCells[next] != NO_CELL) {
+            int home = hash(slotCells[next]) & slotMask;
+            if (((next - home) & slotMask) >= ((next - hole) & slotMask)) {
+                moveSlot(next, hole);
+                hole = next;
+            }
+            next = (next + 1) & slotMask;
+        }
+        slotCells[hole] = NO_CELL;
+        slotItemCounts[hole] = 0;
+    }
+
+    private void moveSlot(int fromSlot, int toSlot) {
+        slotCells[toSlot] = slotCells[fromSlot];
+        slotItemCounts[toSlot] = slotItemCounts[fromSlot];
+        System.arraycopy(slotItems, fromSlot * itemsPerCell, slotItems, toSlot * itemsPerCell, itemsPerCell);
+        Arrays.fill(slotItems, fromSlot * itemsPerCell, (fromSlot + 1) * itemsPerCell, null);
+    }
+
+    private void allocate(int capacity) {
+        this.slotCells = new int[capacity];
+        Arrays.fill(slotCells, NO_CELL);
+        this.slotItemCounts = new int[capacity];
+        this.slotItems = new InventoryItem[capacity * itemsPerCell];
+        this.slotMask = capacity - 1;
+    }
+
+    private void resize(int newCapacity, int newItemsPerCell) {
+        int[] oldCells = slotCells;
+        int[] oldCounts = slotItemCounts;
+        InventoryItem[] oldItems = slotItems;
+        int oldItemsPerCell = itemsPerCell;
+
+        itemsPerCell = newItemsPerCell;
+        allocate(newCapacity);
+        for (int oldSlot = 0; oldSlot < oldCells.length; oldSlot++) {
+            if (oldCells[oldSlot] != NO_CELL) {
+                int slot = insertSlot(oldCells[oldSlot]);
+                slotItemCounts[slot] = oldCounts[oldSlot];
+                System.arraycopy(oldItems, oldSlot * oldItemsPerCell, slotItems, slot * itemsPerCell,
+                                 oldCounts[oldSlot]);
+            }
+        }
+    }
+
+    private class Cursor implements ItemCellCursor {
+        private int slot = -1;
+
+        @Override
+        public boolean next() {
+            do {
+                slot++;
+            } while (slot < slotCells.length && slotCells[slot] == NO_CELL);
+            return slot < slotCells.length;
+        }
+
+        @Override
+        public int getX() {
+            return slotCells[slot] % boardSize;
+        }
+
+        @Override
+        public int getY() {
+            return slotCells[slot] / boardSize;
+        }
+
+        @Override
+        public int getItemCount() {
+            return slotItemCounts[slot];
+        }
+
+        @Override
+        public InventoryItem getItem(int itemIndex) {
+            if (itemIndex < 0 || itemIndex >= slotItemCounts[slot]) {
+                throw new IndexOutOfBoundsException("No item " + itemIndex + " on this cell");
+            }
+            return slotItems[(slot * itemsPerCell) + itemIndex];
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package mineopoly_three.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size histogram of durations in nanoseconds, in the style of an HdrHistogram. Values below
+ *  2 * SUB_BUCKET_COUNT are counted exactly, and every power of two above that is split into SUB_BUCKET_COUNT equal
+ *  buckets, so any recorded value is known to within about 3%. All counts are atomics, so any number of threads may
+ *  record into or merge into the same histogram without locking.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // Values are clamped to 2^46 - 1 ns, the top of the last bucket, which is over 19 hours
+    private static final int MAX_SHIFT = 40;
+    private static final int NUM_BUCKETS = (MAX_SHIFT + 2) * SUB_BUCKET_COUNT;
+    private static final long MAX_TRACKABLE_VALUE = getBucketHighestValue(NUM_BUCKETS - 1);
+
+    private final AtomicLongArray bucketCounts;
+    private final AtomicLong totalCount;
+    private final AtomicLong maxValue;
+
+    public LatencyHistogram() {
+        this.bucketCounts = new AtomicLongArray(NUM_BUCKETS);
+        this.totalCount = new AtomicLong();
+        this.maxValue = new AtomicLong();
+    }
+
+    /**
+     * Records one duration
+     *
+     * @param nanoseconds The duration to record, negative values are recorded as 0
+     */
+    public void recordValue(long nanoseconds) {
+        long value = Math.max(0, Math.min(nanoseconds, MAX_TRACKABLE_VALUE));
+        bucketCounts.incrementAndGet(getBucketIndex(value));
+        totalCount.incrementAndGet();
+        updateMax(value);
+    }
+
+    /**
+     * Adds every value recorded in another histogram to this one
+     *
+     * @param other The histogram to add to this one, it is not changed
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            long count = other.bucketCounts.get(i);
+            if (count != 0) {
+                bucketCounts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        updateMax(other.maxValue.get());
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    /**
+     * Gets the value at a percentile of everything recorded so far
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The highest value in the bucket holding the percentile, never more than the largest recorded value.
+     *          0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long numRecorded = totalCount.get();
+        if (numRecorded == 0) {
+            return 0;
+        }
+
+        double clampedPercentile = Math.max(0, Math.min(percentile, 100));
+        long countAtPercentile = Math.max(1, (long) Math.ceil((clampedPercentile / 100) * numRecorded));
+        long countSoFar = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            countSoFar += bucketCounts.get(i);
+            if (countSoFar >= countAtPercentile) {
+                return Math.min(getBucketHighestValue(i), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+
+    /**
+     * @return The 50th and 99th percentiles and the maximum of everything recorded so far
+     */
+    public LatencySummary getSummary() {
+        return new LatencySummary(getTotalCount(), getValueAtPercentile(50), getValueAtPercentile(99), getMaxValue());
+    }
+
+    private void updateMax(long value) {
+        long currentMax = maxValue.get();
+        while (value > currentMax && !maxValue.compareAndSet(currentMax, value)) {
+            currentMax = maxValue.get();
+        }
+    }
+
+    private static int getBucketIndex(long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        // Shift the value so only its SUB_BUCKET_BITS + 1 highest bits are left
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return ((shift + 1) * SUB_BUCKET_COUNT) + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    private static long getBucketHighestValue(int bucketIndex) {
+        if (bucketIndex < 2 * SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+
+        int shift = (bucketIndex / SUB_BUCKET_COUNT) - 1;
+        long subBucket = (bucketIndex % SUB_BUCKET_COUNT) + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,40 @@
+package mineopoly_three.metrics;
+
+/**
+ * The headline numbers of a LatencyHistogram at one point in time. All durations are in nanoseconds
+ */
+public class LatencySummary {
+    private final long count;
+    private final long p50;
+    private final long p99;
+    private final long max;
+
+    public LatencySummary(long count, long p50, long p99, long max) {
+        this.count = count;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d p50=%.1fus p99=%.1fus max=%.1fus", count, p50 / 1000.0, p99 / 1000.0,
+                             max / 1000.0);
+    }
+}
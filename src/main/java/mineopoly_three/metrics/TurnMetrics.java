@@ -0,0 +1,103 @@
+package mineopoly_three.metrics;
+
+/**
+ * How long each TurnPhase took, for one game or for any number of games added together. Phases done for each
+ *  player are kept per player color, which is what tells engine cost apart from strategy cost.
+ * Give a TurnMetrics to GameEngine.setTurnMetrics() to record a game, nothing is timed while a GameEngine has none.
+ */
+public class TurnMetrics {
+    private static final TurnPhase[] allPhases = TurnPhase.values();
+    private static final int RED_PLAYER = 0;
+    private static final int BLUE_PLAYER = 1;
+
+    // Indexed [phase ordinal][player], phases that are not per player only use the red player's slot
+    private final LatencyHistogram[][] histograms;
+
+    public TurnMetrics() {
+        this.histograms = new LatencyHistogram[allPhases.length][];
+        for (TurnPhase phase : allPhases) {
+            int numPlayerSlots = phase.isPerPlayer() ? 2 : 1;
+            LatencyHistogram[] phaseHistograms = new LatencyHistogram[numPlayerSlots];
+            for (int i = 0; i < numPlayerSlots; i++) {
+                phaseHistograms[i] = new LatencyHistogram();
+            }
+            histograms[phase.ordinal()] = phaseHistograms;
+        }
+    }
+
+    /**
+     * Records how long one phase took
+     *
+     * @param phase The phase that was timed
+     * @param isRedPlayer Which player the phase was for, ignored for phases that are not per player
+     * @param nanoseconds How long the phase took
+     */
+    public void record(TurnPhase phase, boolean isRedPlayer, long nanoseconds) {
+        getHistogram(phase, isRedPlayer).recordValue(nanoseconds);
+    }
+
+    /**
+     * Adds everything recorded in another TurnMetrics to this one. Safe to call from many threads at once, which is
+     *  how the metrics of a whole tournament are gathered
+     *
+     * @param other The metrics to add, they are not changed
+     */
+    public void add(TurnMetrics other) {
+        for (int phase = 0; phase < histograms.length; phase++) {
+            for (int player = 0; player < histograms[phase].length; player++) {
+                histograms[phase][player].add(other.histograms[phase][player]);
+            }
+        }
+    }
+
+    /**
+     * @param phase The phase to get a histogram for
+     * @param isRedPlayer Which player's histogram to get, ignored for phases that are not per player
+     * @return The live histogram for the phase
+     */
+    public LatencyHistogram getHistogram(TurnPhase phase, boolean isRedPlayer) {
+        LatencyHistogram[] phaseHistograms = histograms[phase.ordinal()];
+        int player = (phase.isPerPlayer() && !isRedPlayer) ? BLUE_PLAYER : RED_PLAYER;
+        return phaseHistograms[player];
+    }
+
+    /**
+     * @param phase The phase to summarize
+     * @param isRedPlayer Which player to summarize, ignored for phases that are not per player
+     * @return The p50, p99 and max of the phase for that player
+     */
+    public LatencySummary getPlayerSummary(TurnPhase phase, boolean isRedPlayer) {
+        return getHistogram(phase, isRedPlayer).getSummary();
+    }
+
+    /**
+     * @param phase The phase to summarize
+     * @return The p50, p99 and max of the phase across both players
+     */
+    public LatencySummary getSummary(TurnPhase phase) {
+        LatencyHistogram[] phaseHistograms = histograms[phase.ordinal()];
+        if (phaseHistograms.length == 1) {
+            return phaseHistograms[RED_PLAYER].getSummary();
+        }
+
+        LatencyHistogram bothPlayers = new LatencyHistogram();
+        for (LatencyHistogram playerHistogram : phaseHistograms) {
+            bothPlayers.add(playerHistogram);
+        }
+        return bothPlayers.getSummary();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (TurnPhase phase : allPhases) {
+            if (phase.isPerPlayer()) {
+                builder.append(phase).append(" (red): ").append(getPlayerSummary(phase, true)).append('\n');
+                builder.append(phase).append(" (blue): ").append(getPlayerSummary(phase, false)).append('\n');
+            } else {
+                builder.append(phase).append(": ").append(getSummary(phase)).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package mineopoly_three.metrics;
+
+/**
+ * The parts of a turn the GameEngine times separately. Phases done once for each player every turn are recorded
+ *  per player, the rest are recorded once per turn for the whole engine
+ */
+public enum TurnPhase {
+    CONVERT_TO_VIEW(true),
+    GET_TURN_ACTION(true),
+    PERFORM_ACTION(true),
+    BOARD_UPDATE(false),
+    ECONOMY_UPDATE(false),
+    NOTIFY_LISTENERS(false);
+
+    private final boolean perPlayer;
+
+    TurnPhase(boolean perPlayer) {
+        this.perPlayer = perPlayer;
+    }
+
+    /**
+     * @return True if this phase happens once for each player every turn
+     */
+    public boolean isPerPlayer() {
+        return perPlayer;
+    }
+}
@@ -1,33 +1,63 @@
 package mineopoly_three.replay;
 
+import mineopoly_three.action.ActionLog;
 import mineopoly_three.action.TurnAction;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 public class Replay {
+    /**The score of a player in a replay that did not record the result, like a text replay file*/
+    public static final int UNKNOWN_SCORE = Integer.MIN_VALUE;
     private static final TurnAction[] allTurnActions = TurnAction.values();
 
     private int boardSize;
     private long worldSeed;
-    private List<TurnAction> redPlayerActions;
-    private List<TurnAction> bluePlayerActions;
-    private boolean redThrewException;
-    private boolean blueThrewException;
+    private ActionLog redPlayerActions;
+    private ActionLog bluePlayerActions;
+    private String redPlayerName;
+    private String bluePlayerName;
+    private int redScore;
+    private int blueScore;
+    private SortedMap<Integer, byte[]> keyframes;
+    private int[] stateHashes;
 
     public Replay(int boardSize, long worldSeed, List<TurnAction> redPlayerActions, List<TurnAction> bluePlayerActions,
                   boolean redThrewException, boolean blueThrewException) {
+        this(boardSize, worldSeed, redPlayerActions, bluePlayerActions, redThrewException, blueThrewException,
+             null, null, UNKNOWN_SCORE, UNKNOWN_SCORE);
+    }
+
+    public Replay(int boardSize, long worldSeed, List<TurnAction> redPlayerActions, List<TurnAction> bluePlayerActions,
+                  boolean redThrewException, boolean blueThrewException, String redPlayerName,
+                  String bluePlayerName, int redScore, int blueScore) {
+        this(boardSize, worldSeed, ActionLog.of(redPlayerActions, redThrewException),
+             ActionLog.of(bluePlayerActions, blueThrewException), redPlayerName, bluePlayerName, redScore, blueScore);
+    }
+
+    /**
+     * Creates a replay around each player's action log. A log ending with an exception means that player's
+     *  strategy threw the exception that ended the game
+     */
+    public Replay(int boardSize, long worldSeed, ActionLog redPlayerActions, ActionLog bluePlayerActions,
+                  String redPlayerName, String bluePlayerName, int redScore, int blueScore) {
         this.boardSize = boardSize;
         this.worldSeed = worldSeed;
         this.redPlayerActions = redPlayerActions;
         this.bluePlayerActions = bluePlayerActions;
-        this.redThrewException = redThrewException;
-        this.blueThrewException = blueThrewException;
+        this.redPlayerName = redPlayerName;
+        this.bluePlayerName = bluePlayerName;
+        this.redScore = redScore;
+        this.blueScore = blueScore;
+        this.keyframes = new TreeMap<>();
     }
 
     /**
@@ -52,18 +82,15 @@ public class Replay {
         // Split and decode the red and blue player actions lists
         String[] redActionEncoding = replayFileReader.nextLine().trim().split(",");
         String[] blueActionEncoding = replayFileReader.nextLine().trim().split(",");
-        List<TurnAction> redActionList = decodeActionList(redActionEncoding);
-        List<TurnAction> blueActionList = decodeActionList(blueActionEncoding);
-
-        int lastRedAction = Integer.parseInt(redActionEncoding[redActionEncoding.length - 1]);
-        int lastBlueAction = Integer.parseInt(blueActionEncoding[blueActionEncoding.length - 1]);
-        boolean redThrewException = (lastRedAction < 0);
-        boolean blueThrewException = (lastBlueAction < 0);
-        return new Replay(boardSize, worldSeed, redActionList, blueActionList, redThrewException, blueThrewException);
+        ActionLog redActionLog = decodeActionList(redActionEncoding);
+        ActionLog blueActionLog = decodeActionList(blueActionEncoding);
+        return new Replay(boardSize, worldSeed, redActionLog, blueActionLog, null, null, UNKNOWN_SCORE,
+                          UNKNOWN_SCORE);
     }
 
     /**
-     * Writes a replay file from a given Replay object
+     * Writes a replay file in the original text format from a given Replay object. The text format has no room
+     *  for player names or scores
      *
      * @param replay The Replay object to encode into a replay file
      * @param replayFilePathToWrite The file path of the replay file that will be written, if a file exists at this
@@ -78,15 +105,16 @@ public class Replay {
 
     @Override
     public String toString() {
-        String encodedRedActions = encodeActionList(redPlayerActions, redThrewException);
-        String encodedBlueActions = encodeActionList(bluePlayerActions, blueThrewException);
+        String encodedRedActions = encodeActionList(redPlayerActions);
+        String encodedBlueActions = encodeActionList(bluePlayerActions);
         return String.join("\r\n", String.valueOf(boardSize), String.valueOf(worldSeed),
                            encodedRedActions, encodedBlueActions);
     }
 
-    private static String encodeActionList(List<TurnAction> actionList, boolean exceptionThrown) {
+    private static String encodeActionList(ActionLog actionLog) {
         StringBuilder actionListEncoder = new StringBuilder();
-        for (TurnAction action : actionList) {
+        for (int i = 0; i < actionLog.size(); i++) {
+            TurnAction action = actionLog.get(i);
             if (action == null) {
                 // There is no turn action at the length of the list, it will be treated as no action
                 actionListEncoder.append(allTurnActions.length);
@@ -96,7 +124,7 @@ public class Replay {
             actionListEncoder.append(',');
         }
 
-        if (exceptionThrown) {
+        if (actionLog.endsWithException()) {
             // A negative number indicates an exception
             actionListEncoder.append("-1");
         } else {
@@ -106,13 +134,14 @@ public class Replay {
         return actionListEncoder.toString();
     }
 
-    private static List<TurnAction> decodeActionList(String[] encodedList) {
-        List<TurnAction> turnActions = new LinkedList<>();
+    private static ActionLog decodeActionList(String[] encodedList) {
+        ActionLog turnActions = new ActionLog(encodedList.length);
 
         for (String encodedAction : encodedList) {
             int actionIndex = Integer.parseInt(encodedAction);
             if (actionIndex < 0) {
                 // Exception thrown on this turn
+                turnActions.addException();
                 break;
             }
 
@@ -135,19 +164,92 @@ public class Replay {
         return worldSeed;
     }
 
+    /**
+     * @return An unmodifiable view of the red player's actions, with null for turns the player did nothing
+     */
     public List<TurnAction> getRedPlayerActions() {
-        return redPlayerActions;
+        return redPlayerActions.asList();
     }
 
+    /**
+     * @return An unmodifiable view of the blue player's actions, with null for turns the player did nothing
+     */
     public List<TurnAction> getBluePlayerActions() {
+        return bluePlayerActions.asList();
+    }
+
+    public ActionLog getRedPlayerActionLog() {
+        return redPlayerActions;
+    }
+
+    public ActionLog getBluePlayerActionLog() {
         return bluePlayerActions;
     }
 
     public boolean redThrewException() {
-        return redThrewException;
+        return redPlayerActions.endsWithException();
     }
 
     public boolean blueThrewException() {
-        return blueThrewException;
+        return bluePlayerActions.endsWithException();
+    }
+
+    /**
+     * Adds a keyframe of the game's full state, which lets a replay jump to turns near it without playing every
+     *  turn before them
+     *
+     * @param turnNumber The turn at whose start the keyframe was captured
+     * @param keyframe The keyframe, as captured by GameEngine.captureKeyframe()
+     */
+    public void addKeyframe(int turnNumber, byte[] keyframe) {
+        keyframes.put(turnNumber, keyframe);
+    }
+
+    /**
+     * @return The keyframes in this replay by the turn they were captured at the start of, empty for replays
+     *          without any, like text replay files
+     */
+    public Map<Integer, byte[]> getKeyframes() {
+        return Collections.unmodifiableMap(keyframes);
+    }
+
+    /**
+     * @return The state hash recorded after each turn of the game, see GameEngine.getStateHashes(), or null if
+     *          the replay has none
+     */
+    public int[] getStateHashes() {
+        return stateHashes;
+    }
+
+    public void setStateHashes(int[] stateHashes) {
+        this.stateHashes = stateHashes;
+    }
+
+    /**
+     * @return The name of the red player's strategy, or null if the replay did not record it
+     */
+    public String getRedPlayerName() {
+        return redPlayerName;
+    }
+
+    /**
+     * @return The name of the blue player's strategy, or null if the replay did not record it
+     */
+    public String getBluePlayerName() {
+        return bluePlayerName;
+    }
+
+    /**
+     * @return The red player's final score, or UNKNOWN_SCORE if the replay did not record it
+     */
+    public int getRedScore() {
+        return redScore;
+    }
+
+    /**
+     * @return The blue player's final score, or UNKNOWN_SCORE if the replay did not record it
+     */
+    public int getBlueScore() {
+        return blueScore;
     }
 }
@@ -0,0 +1,191 @@
+package mineopoly_three.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Reads a replay archive written by a ReplayArchiveWriter. The index and each replay are memory mapped on their
+ *  own, so scanning the index or opening one replay only touches those parts of the file, however big the archive
+ *  is. The archive is read as it was when it was opened, replays added afterwards are not seen.
+ */
+public class ReplayArchive implements Closeable {
+    private final Path archiveFilePath;
+    private final FileChannel channel;
+    private final long archiveSize;
+    private final List<MappedByteBuffer> indexBlocks;
+    private final int numReplays;
+
+    /**
+     * Opens an archive for reading
+     *
+     * @param archiveFilePath The path of the archive file
+     * @throws IOException If the file could not be read, or is not a well formed replay archive
+     */
+    public ReplayArchive(Path archiveFilePath) throws IOException {
+        this.archiveFilePath = archiveFilePath;
+        this.channel = FileChannel.open(archiveFilePath, StandardOpenOption.READ);
+        this.indexBlocks = new ArrayList<>();
+        try {
+            this.archiveSize = channel.size();
+            this.numReplays = mapIndex();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private int mapIndex() throws IOException {
+        if (archiveSize < ReplayArchiveFormat.HEADER_SIZE + ReplayArchiveFormat.BLOCK_SIZE) {
+            throw new IOException(archiveFilePath + " is not a replay archive");
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, ReplayArchiveFormat.HEADER_SIZE);
+        byte[] magic = new byte[ReplayArchiveFormat.MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, ReplayArchiveFormat.MAGIC)) {
+            throw new IOException(archiveFilePath + " is not a replay archive");
+        }
+        int version = header.get();
+        if (version != ReplayArchiveFormat.VERSION) {
+            throw new IOException("Unsupported replay archive version " + version);
+        }
+
+        int numEntries = 0;
+        long blockOffset = ReplayArchiveFormat.HEADER_SIZE;
+        while (blockOffset != 0) {
+            if (blockOffset + ReplayArchiveFormat.BLOCK_SIZE > archiveSize) {
+                throw new IOException("Malformed replay archive " + archiveFilePath);
+            }
+            MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, blockOffset,
+                                                 ReplayArchiveFormat.BLOCK_SIZE);
+            int blockEntries = block.getInt(ReplayArchiveFormat.BLOCK_COUNT_OFFSET);
+            long nextBlockOffset = block.getLong(ReplayArchiveFormat.BLOCK_NEXT_OFFSET);
+            boolean isLastBlock = (nextBlockOffset == 0);
+            // Only the last block can have room left, the writer moves on to a new block once one is full
+            if (blockEntries < 0 || blockEntries > ReplayArchiveFormat.ENTRIES_PER_BLOCK
+                || (!isLastBlock && (blockEntries != ReplayArchiveFormat.ENTRIES_PER_BLOCK
+                                     || nextBlockOffset <= blockOffset))) {
+                throw new IOException("Malformed replay archive " + archiveFilePath);
+            }
+            indexBlocks.add(block);
+            numEntries += blockEntries;
+            blockOffset = nextBlockOffset;
+        }
+        return numEntries;
+    }
+
+    public Path getArchiveFilePath() {
+        return archiveFilePath;
+    }
+
+    /**
+     * @return The number of replays in the archive
+     */
+    public int getNumReplays() {
+        return numReplays;
+    }
+
+    /**
+     * Reads one game's entry from the index
+     *
+     * @param replayIndex The index of the game, from 0 to getNumReplays() - 1
+     * @return The game's entry
+     */
+    public ReplayArchiveEntry getEntry(int replayIndex) {
+        if (replayIndex < 0 || replayIndex >= numReplays) {
+            throw new IllegalArgumentException("No replay " + replayIndex + " in an archive of " + numReplays);
+        }
+        ByteBuffer block = indexBlocks.get(replayIndex / ReplayArchiveFormat.ENTRIES_PER_BLOCK);
+        int slot = replayIndex % ReplayArchiveFormat.ENTRIES_PER_BLOCK;
+        int entryPosition = ReplayArchiveFormat.BLOCK_HEADER_SIZE + slot * ReplayArchiveFormat.ENTRY_SIZE;
+        int resultFlags = block.getInt(entryPosition + ReplayArchiveFormat.FLAGS_OFFSET);
+        return new ReplayArchiveEntry(replayIndex,
+                                      block.getLong(entryPosition + ReplayArchiveFormat.SEED_OFFSET),
+                                      block.getInt(entryPosition + ReplayArchiveFormat.BOARD_SIZE_OFFSET),
+                                      getName(block, entryPosition + ReplayArchiveFormat.RED_NAME_OFFSET),
+                                      getName(block, entryPosition + ReplayArchiveFormat.BLUE_NAME_OFFSET),
+                                      block.getInt(entryPosition + ReplayArchiveFormat.RED_SCORE_OFFSET),
+                                      block.getInt(entryPosition + ReplayArchiveFormat.BLUE_SCORE_OFFSET),
+                                      (resultFlags & ReplayFormat.FLAG_RED_THREW_EXCEPTION) != 0,
+                                      (resultFlags & ReplayFormat.FLAG_BLUE_THREW_EXCEPTION) != 0,
+                                      block.getLong(entryPosition + ReplayArchiveFormat.REPLAY_OFFSET_OFFSET),
+                                      block.getInt(entryPosition + ReplayArchiveFormat.REPLAY_LENGTH_OFFSET));
+    }
+
+    /**
+     * Scans the index for the games matching a filter, for example
+     *  findEntries(entry -> entry.redThrewException()) or
+     *  findEntries(entry -> entry.getRedScore() < GameEngine.getMinScoreToWin(entry.getBoardSize()))
+     *
+     * @param filter Which entries to keep
+     * @return The matching entries, in the order the games were added
+     */
+    public List<ReplayArchiveEntry> findEntries(Predicate<ReplayArchiveEntry> filter) {
+        List<ReplayArchiveEntry> matchingEntries = new ArrayList<>();
+        for (int replayIndex = 0; replayIndex < numReplays; replayIndex++) {
+            ReplayArchiveEntry entry = getEntry(replayIndex);
+            if (filter.test(entry)) {
+                matchingEntries.add(entry);
+            }
+        }
+        return matchingEntries;
+    }
+
+    /**
+     * Reads one replay out of the archive
+     *
+     * @param replayIndex The index of the game, from 0 to getNumReplays() - 1
+     * @return The game's replay
+     * @throws IOException If the replay could not be read or is malformed
+     */
+    public Replay readReplay(int replayIndex) throws IOException {
+        return readReplay(getEntry(replayIndex));
+    }
+
+    /**
+     * Reads the replay of an entry found in this archive
+     *
+     * @param entry An entry from this archive
+     * @return The entry's replay
+     * @throws IOException If the replay could not be read or is malformed
+     */
+    public Replay readReplay(ReplayArchiveEntry entry) throws IOException {
+        long replayOffset = entry.getReplayOffset();
+        int replayLength = entry.getReplayLength();
+        String replaySource = entry.getIndex() + " in archive " + archiveFilePath;
+        if (replayOffset < ReplayArchiveFormat.HEADER_SIZE || replayLength < 0
+            || replayOffset + replayLength > archiveSize) {
+            throw new IOException("Malformed replay " + replaySource);
+        }
+        ByteBuffer replayBytes = channel.map(FileChannel.MapMode.READ_ONLY, replayOffset, replayLength);
+        return ReplayReader.readReplay(replayBytes, replaySource);
+    }
+
+    private static String getName(ByteBuffer block, int nameOffset) {
+        int nameLength = 0;
+        while (nameLength < ReplayArchiveFormat.NAME_BYTES && block.get(nameOffset + nameLength) != 0) {
+            nameLength++;
+        }
+        if (nameLength == 0) {
+            return null;
+        }
+        byte[] encodedName = new byte[nameLength];
+        for (int i = 0; i < nameLength; i++) {
+            encodedName[i] = block.get(nameOffset + i);
+        }
+        return new String(encodedName, ReplayFormat.NAME_CHARSET);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
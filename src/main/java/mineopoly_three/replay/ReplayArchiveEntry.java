@@ -0,0 +1,94 @@
+package mineopoly_three.replay;
+
+/**
+ * One game's line in a ReplayArchive's index: enough to pick games out of the archive without reading the
+ *  replays themselves
+ */
+public class ReplayArchiveEntry {
+    private final int index;
+    private final long worldSeed;
+    private final int boardSize;
+    private final String redPlayerName;
+    private final String bluePlayerName;
+    private final int redScore;
+    private final int blueScore;
+    private final boolean redThrewException;
+    private final boolean blueThrewException;
+    private final long replayOffset;
+    private final int replayLength;
+
+    ReplayArchiveEntry(int index, long worldSeed, int boardSize, String redPlayerName, String bluePlayerName,
+                       int redScore, int blueScore, boolean redThrewException, boolean blueThrewException,
+                       long replayOffset, int replayLength) {
+        this.index = index;
+        this.worldSeed = worldSeed;
+        this.boardSize = boardSize;
+        this.redPlayerName = redPlayerName;
+        this.bluePlayerName = bluePlayerName;
+        this.redScore = redScore;
+        this.blueScore = blueScore;
+        this.redThrewException = redThrewException;
+        this.blueThrewException = blueThrewException;
+        this.replayOffset = replayOffset;
+        this.replayLength = replayLength;
+    }
+
+    /**
+     * @return The position of this game in the archive, in the order games were added
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * @return The name of the red player's strategy, cut short to fit the index, or null if it is not known
+     */
+    public String getRedPlayerName() {
+        return redPlayerName;
+    }
+
+    /**
+     * @return The name of the blue player's strategy, cut short to fit the index, or null if it is not known
+     */
+    public String getBluePlayerName() {
+        return bluePlayerName;
+    }
+
+    /**
+     * @return The red player's final score, or Replay.UNKNOWN_SCORE if the replay did not record it
+     */
+    public int getRedScore() {
+        return redScore;
+    }
+
+    /**
+     * @return The blue player's final score, or Replay.UNKNOWN_SCORE if the replay did not record it
+     */
+    public int getBlueScore() {
+        return blueScore;
+    }
+
+    public boolean redThrewException() {
+        return redThrewException;
+    }
+
+    public boolean blueThrewException() {
+        return blueThrewException;
+    }
+
+    long getReplayOffset() {
+        return replayOffset;
+    }
+
+    int getReplayLength() {
+        return replayLength;
+    }
+}
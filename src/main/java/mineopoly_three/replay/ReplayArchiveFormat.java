@@ -0,0 +1,49 @@
+package mineopoly_three.replay;
+
+/**
+ * Constants for the replay archive format, which holds many binary replays in one file. All numbers are
+ *  big-endian. A file is laid out as:
+ * [magic "MRPA"][version byte][3 bytes of padding]
+ * followed by index blocks and replays, in the order they were added. Every index block is
+ * [entry count int][offset of the next index block long, 0 if there is none yet][ENTRIES_PER_BLOCK entries]
+ * and the first one starts right after the header. Each entry is ENTRY_SIZE bytes:
+ * [world seed long][replay offset long][board size int][replay length int][red score int][blue score int]
+ * [flags int][red name][blue name]
+ * where the flags are the ReplayFormat result flags and names are NAME_BYTES of UTF-8, cut short on a character
+ *  boundary if needed and padded with zeros. The replay an entry points to is a whole binary replay in
+ *  ReplayFormat, so the full names can always be read from there.
+ *
+ * Nothing already in the file is ever changed, an archive only grows. A replay is written in full before its
+ *  entry, and an entry before the count that includes it, so a reader never sees an entry for a replay that
+ *  isn't there yet.
+ */
+final class ReplayArchiveFormat {
+    static final byte[] MAGIC = {'M', 'R', 'P', 'A'};
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    static final int ENTRIES_PER_BLOCK = 1024;
+    static final int BLOCK_COUNT_OFFSET = 0;
+    static final int BLOCK_NEXT_OFFSET = Integer.BYTES;
+    static final int BLOCK_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+    static final int NAME_BYTES = 32;
+    static final int SEED_OFFSET = 0;
+    static final int REPLAY_OFFSET_OFFSET = 8;
+    static final int BOARD_SIZE_OFFSET = 16;
+    static final int REPLAY_LENGTH_OFFSET = 20;
+    static final int RED_SCORE_OFFSET = 24;
+    static final int BLUE_SCORE_OFFSET = 28;
+    static final int FLAGS_OFFSET = 32;
+    static final int RED_NAME_OFFSET = 36;
+    static final int BLUE_NAME_OFFSET = RED_NAME_OFFSET + NAME_BYTES;
+    static final int ENTRY_SIZE = BLUE_NAME_OFFSET + NAME_BYTES;
+    static final int BLOCK_SIZE = BLOCK_HEADER_SIZE + ENTRIES_PER_BLOCK * ENTRY_SIZE;
+
+    private ReplayArchiveFormat() {
+    }
+
+    static long getEntryPosition(long blockOffset, int slot) {
+        return blockOffset + BLOCK_HEADER_SIZE + (long) slot * ENTRY_SIZE;
+    }
+}
@@ -0,0 +1,205 @@
+package mineopoly_three.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Adds replays to the end of a replay archive, creating the archive if it doesn't exist yet. Many games can
+ *  share one writer, replays are added one at a time in whatever order the games finish.
+ */
+public class ReplayArchiveWriter implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer entryBuffer;
+    private long currentBlockOffset;
+    private int numEntriesInBlock;
+    private int numEntries;
+
+    /**
+     * Opens an archive to add replays to, keeping every replay already in it
+     *
+     * @param archiveFilePath The path of the archive file, which is created if it doesn't exist
+     * @throws IOException If the file could not be opened, or is something other than a replay archive
+     */
+    public ReplayArchiveWriter(Path archiveFilePath) throws IOException {
+        this.channel = FileChannel.open(archiveFilePath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE);
+        this.entryBuffer = ByteBuffer.allocate(ReplayArchiveFormat.ENTRY_SIZE);
+        try {
+            if (channel.size() == 0) {
+                createArchive();
+            } else {
+                findLastBlock(archiveFilePath);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void createArchive() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(ReplayArchiveFormat.HEADER_SIZE);
+        header.put(ReplayArchiveFormat.MAGIC);
+        header.put(ReplayArchiveFormat.VERSION);
+        header.flip();
+        writeFully(header, 0);
+        currentBlockOffset = ReplayArchiveFormat.HEADER_SIZE;
+        writeEmptyBlock(currentBlockOffset);
+        numEntriesInBlock = 0;
+        numEntries = 0;
+    }
+
+    private void findLastBlock(Path archiveFilePath) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(ReplayArchiveFormat.HEADER_SIZE);
+        readFully(header, 0);
+        byte[] magic = new byte[ReplayArchiveFormat.MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, ReplayArchiveFormat.MAGIC)) {
+            throw new IOException(archiveFilePath + " is not a replay archive");
+        }
+        int version = header.get();
+        if (version != ReplayArchiveFormat.VERSION) {
+            throw new IOException("Unsupported replay archive version " + version);
+        }
+
+        ByteBuffer blockHeader = ByteBuffer.allocate(ReplayArchiveFormat.BLOCK_HEADER_SIZE);
+        long blockOffset = ReplayArchiveFormat.HEADER_SIZE;
+        numEntries = 0;
+        while (true) {
+            blockHeader.clear();
+            readFully(blockHeader, blockOffset);
+            int blockEntries = blockHeader.getInt(ReplayArchiveFormat.BLOCK_COUNT_OFFSET);
+            long nextBlockOffset = blockHeader.getLong(ReplayArchiveFormat.BLOCK_NEXT_OFFSET);
+            if (blockEntries < 0 || blockEntries > ReplayArchiveFormat.ENTRIES_PER_BLOCK) {
+                throw new IOException("Malformed replay archive " + archiveFilePath);
+            }
+            numEntries += blockEntries;
+            if (nextBlockOffset == 0) {
+                currentBlockOffset = blockOffset;
+                numEntriesInBlock = blockEntries;
+                return;
+            }
+            // Appending after a block with room left would put entries out of order, the same as the reader checks
+            if (blockEntries != ReplayArchiveFormat.ENTRIES_PER_BLOCK || nextBlockOffset <= blockOffset) {
+                throw new IOException("Malformed replay archive " + archiveFilePath);
+            }
+            blockOffset = nextBlockOffset;
+        }
+    }
+
+    /**
+     * @return The number of replays in the archive, including the ones that were there before it was opened
+     */
+    public synchronized int getNumReplays() {
+        return numEntries;
+    }
+
+    /**
+     * Adds a replay to the end of the archive. Safe to call from several threads at once
+     *
+     * @param replay The replay to add
+     * @throws IOException If there is an issue writing to the file
+     */
+    public synchronized void append(Replay replay) throws IOException {
+        if (!channel.isOpen()) {
+            throw new IllegalStateException("The replay archive has been closed");
+        }
+        if (numEntriesInBlock == ReplayArchiveFormat.ENTRIES_PER_BLOCK) {
+            startNewBlock();
+        }
+
+        long replayOffset = channel.size();
+        channel.position(replayOffset);
+        try (ReplayWriter replayWriter = new ReplayWriter(channel, replay.getBoardSize(), replay.getWorldSeed(),
+                                                          replay.getRedPlayerName(), replay.getBluePlayerName())) {
+            replayWriter.writeWholeReplay(replay);
+        }
+        long replayLength = channel.size() - replayOffset;
+        if (replayLength > Integer.MAX_VALUE) {
+            throw new IOException("Replay is too long to add to an archive");
+        }
+
+        int resultFlags = ReplayFormat.FLAG_FINISHED;
+        if (replay.redThrewException()) {
+            resultFlags |= ReplayFormat.FLAG_RED_THREW_EXCEPTION;
+        }
+        if (replay.blueThrewException()) {
+            resultFlags |= ReplayFormat.FLAG_BLUE_THREW_EXCEPTION;
+        }
+        entryBuffer.clear();
+        entryBuffer.putLong(ReplayArchiveFormat.SEED_OFFSET, replay.getWorldSeed());
+        entryBuffer.putLong(ReplayArchiveFormat.REPLAY_OFFSET_OFFSET, replayOffset);
+        entryBuffer.putInt(ReplayArchiveFormat.BOARD_SIZE_OFFSET, replay.getBoardSize());
+        entryBuffer.putInt(ReplayArchiveFormat.REPLAY_LENGTH_OFFSET, (int) replayLength);
+        entryBuffer.putInt(ReplayArchiveFormat.RED_SCORE_OFFSET, replay.getRedScore());
+        entryBuffer.putInt(ReplayArchiveFormat.BLUE_SCORE_OFFSET, replay.getBlueScore());
+        entryBuffer.putInt(ReplayArchiveFormat.FLAGS_OFFSET, resultFlags);
+        putName(ReplayArchiveFormat.RED_NAME_OFFSET, replay.getRedPlayerName());
+        putName(ReplayArchiveFormat.BLUE_NAME_OFFSET, replay.getBluePlayerName());
+        writeFully(entryBuffer, ReplayArchiveFormat.getEntryPosition(currentBlockOffset, numEntriesInBlock));
+
+        // Only counting the entry once it's all there keeps a half written entry invisible to readers
+        numEntriesInBlock++;
+        numEntries++;
+        ByteBuffer blockCount = ByteBuffer.allocate(Integer.BYTES);
+        blockCount.putInt(numEntriesInBlock);
+        blockCount.flip();
+        writeFully(blockCount, currentBlockOffset + ReplayArchiveFormat.BLOCK_COUNT_OFFSET);
+    }
+
+    private void startNewBlock() throws IOException {
+        long newBlockOffset = channel.size();
+        writeEmptyBlock(newBlockOffset);
+        ByteBuffer nextBlock = ByteBuffer.allocate(Long.BYTES);
+        nextBlock.putLong(newBlockOffset);
+        nextBlock.flip();
+        writeFully(nextBlock, currentBlockOffset + ReplayArchiveFormat.BLOCK_NEXT_OFFSET);
+        currentBlockOffset = newBlockOffset;
+        numEntriesInBlock = 0;
+    }
+
+    private void writeEmptyBlock(long blockOffset) throws IOException {
+        writeFully(ByteBuffer.allocate(ReplayArchiveFormat.BLOCK_SIZE), blockOffset);
+    }
+
+    private void putName(int nameOffset, String playerName) {
+        byte[] encodedName = (playerName == null) ? new byte[0] : playerName.getBytes(ReplayFormat.NAME_CHARSET);
+        int nameLength = encodedName.length;
+        if (nameLength > ReplayArchiveFormat.NAME_BYTES) {
+            // Cut before a UTF-8 continuation byte so the name doesn't end in half a character
+            nameLength = ReplayArchiveFormat.NAME_BYTES;
+            while (nameLength > 0 && (encodedName[nameLength] & 0xC0) == 0x80) {
+                nameLength--;
+            }
+        }
+        for (int i = 0; i < ReplayArchiveFormat.NAME_BYTES; i++) {
+            entryBuffer.put(nameOffset + i, (i < nameLength) ? encodedName[i] : 0);
+        }
+    }
+
+    private void readFully(ByteBuffer toRead, long position) throws IOException {
+        while (toRead.hasRemaining()) {
+            int numRead = channel.read(toRead, position);
+            if (numRead < 0) {
+                throw new IOException("Replay archive ends early");
+            }
+            position += numRead;
+        }
+        toRead.flip();
+    }
+
+    private void writeFully(ByteBuffer toWrite, long position) throws IOException {
+        while (toWrite.hasRemaining()) {
+            position += channel.write(toWrite, position);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,74 @@
+package mineopoly_three.replay;
+
+import mineopoly_three.action.TurnAction;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants for the binary replay format. All numbers are big-endian. A file is laid out as:
+ * [magic "MRPL"][version byte][result flags byte][red score int][blue score int]
+ * [board size int][world seed long][red name][blue name]
+ * followed by frames until the end of the file, each of which is either an action frame
+ * [player byte, 0 for red and 1 for blue][payload length unsigned short][payload]
+ * or, since version 2, a keyframe frame holding a GameEngine keyframe captured at the start of a turn
+ * [KEYFRAME byte][turn number int][keyframe length int][keyframe]
+ * or, since version 3, a frame holding the GameEngine state hash recorded after each turn
+ * [STATE_HASHES byte][number of hashes int][hashes, one int each]
+ * Names are an unsigned short byte length followed by that many bytes of UTF-8.
+ *
+ * Joining one player's frame payloads in order gives that player's actions as a stream of 4-bit codes, high nibble
+ *  first. A code below NO_ACTION_CODE is a TurnAction ordinal, NO_ACTION_CODE is a turn without an action,
+ *  and RUN_CODE is followed by the code being repeated and then the number of repeats beyond MIN_RUN_LENGTH,
+ *  3 bits per nibble with the high bit set on every nibble but the last. END_CODE ends the stream.
+ * The result fields are only filled in once the game is over, until then the finished flag is not set.
+ */
+final class ReplayFormat {
+    static final byte[] MAGIC = {'M', 'R', 'P', 'L'};
+    static final byte VERSION = 3;
+    static final byte FIRST_VERSION = 1;
+    static final Charset NAME_CHARSET = StandardCharsets.UTF_8;
+
+    static final int RESULT_OFFSET = MAGIC.length + 1;
+    static final int FLAG_RED_THREW_EXCEPTION = 1;
+    static final int FLAG_BLUE_THREW_EXCEPTION = 1 << 1;
+    static final int FLAG_FINISHED = 1 << 7;
+
+    static final int RED_PLAYER = 0;
+    static final int BLUE_PLAYER = 1;
+    static final int KEYFRAME = 2;
+    static final int STATE_HASHES = 3;
+
+    static final int NO_ACTION_CODE = 0xC;
+    static final int RUN_CODE = 0xD;
+    static final int END_CODE = 0xF;
+    // Shorter runs take no more room written out one code at a time
+    static final int MIN_RUN_LENGTH = 3;
+    static final int RUN_LENGTH_BITS = 3;
+    static final int RUN_LENGTH_CONTINUES = 1 << RUN_LENGTH_BITS;
+
+    private static final TurnAction[] allTurnActions = TurnAction.values();
+
+    static {
+        if (allTurnActions.length > NO_ACTION_CODE) {
+            throw new IllegalStateException("Too many TurnActions to fit in a replay action code");
+        }
+    }
+
+    private ReplayFormat() {
+    }
+
+    static int encodeAction(TurnAction action) {
+        return (action == null) ? NO_ACTION_CODE : action.ordinal();
+    }
+
+    static TurnAction decodeAction(int actionCode) {
+        if (actionCode == NO_ACTION_CODE) {
+            return null;
+        }
+        if (actionCode >= allTurnActions.length) {
+            throw new IllegalArgumentException("Unknown action code " + actionCode);
+        }
+        return allTurnActions[actionCode];
+    }
+}
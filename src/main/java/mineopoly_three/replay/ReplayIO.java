@@ -3,8 +3,10 @@ package mineopoly_three.replay;
 import mineopoly_three.game.GameEngine;
 import mineopoly_three.strategy.MinePlayerStrategy;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
 
 public class ReplayIO {
     /**
@@ -12,13 +14,15 @@ public class ReplayIO {
      *
      * @param replayFilePath The path to the replay file of a past match
      * @return A GameEngine ready for runGame() to be called to replay the match
+     * @throws IllegalArgumentException If the replay has a keyframe written by a version of the game that wrote
+     *                                  keyframes differently
      */
     public static GameEngine setupEngineForReplay(String replayFilePath) {
         Replay gameReplay;
         try {
-            gameReplay = Replay.decodeReplayFile(replayFilePath);
-        } catch (FileNotFoundException e) {
-            System.err.println("Could not locate the replay file at the given path");
+            gameReplay = readReplayFromFile(replayFilePath);
+        } catch (IOException e) {
+            System.err.println("Could not read the replay file at the given path");
             e.printStackTrace();
             return null;
         } catch (NumberFormatException e) {
@@ -26,27 +30,57 @@ public class ReplayIO {
             e.printStackTrace();
             return null;
         }
+        return setupEngineForReplay(gameReplay);
+    }
 
+    /**
+     * Sets up a GameEngine to play a replay of a past match, like one read out of a ReplayArchive
+     *
+     * @param gameReplay The replay of a past match
+     * @return A GameEngine ready for runGame() to be called to replay the match
+     * @throws IllegalArgumentException If the replay has a keyframe written by a version of the game that wrote
+     *                                  keyframes differently
+     */
+    public static GameEngine setupEngineForReplay(Replay gameReplay) {
         int boardSize = gameReplay.getBoardSize();
         MinePlayerStrategy redPlayerReplay = new ReplayStrategy(gameReplay);
         MinePlayerStrategy bluePlayerReplay = new ReplayStrategy(gameReplay);
         long worldSeed = gameReplay.getWorldSeed();
 
         GameEngine replayEngine = new GameEngine(boardSize, redPlayerReplay, bluePlayerReplay, worldSeed);
+        for (Map.Entry<Integer, byte[]> keyframe : gameReplay.getKeyframes().entrySet()) {
+            replayEngine.addKeyframe(keyframe.getKey(), keyframe.getValue());
+        }
         replayEngine.setGuiEnabled(true); // I'm going to assume you're doing this to watch
         return replayEngine;
     }
 
     /**
-     * Writes a Replay object, probably retrieved from the GameEngine, to a file so it can be watched again in
-     *  the future. This will overwrite a file if a file already exists at the specified path
+     * Reads a replay file in either the binary format or the original text format, whichever the file is in
+     *
+     * @param replayFilePath The path to the replay file
+     * @return A Replay object consisting of the information read from the file
+     * @throws IOException If the file could not be read, or is a malformed binary replay
+     * @throws NumberFormatException If the file is a malformed text replay
+     */
+    public static Replay readReplayFromFile(String replayFilePath) throws IOException {
+        Path replayPath = Paths.get(replayFilePath);
+        if (ReplayReader.isBinaryReplay(replayPath)) {
+            return ReplayReader.readReplay(replayPath);
+        }
+        return Replay.decodeReplayFile(replayFilePath);
+    }
+
+    /**
+     * Writes a Replay object, probably retrieved from the GameEngine, to a binary replay file so it can be watched
+     *  again in the future. This will overwrite a file if a file already exists at the specified path
      *
      * @param replayToWrite The Replay object to write to a replay file
      * @param replayFilePath The file path at which to write the replay file
      */
     public static void writeReplayToFile(Replay replayToWrite, String replayFilePath) {
         try {
-            Replay.encodeReplayFile(replayToWrite, replayFilePath);
+            ReplayWriter.writeReplay(replayToWrite, Paths.get(replayFilePath));
         } catch (IOException e) {
             System.err.println("There was an error encoding the game replay");
             e.printStackTrace();
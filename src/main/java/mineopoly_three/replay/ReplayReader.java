@@ -0,0 +1,233 @@
+package mineopoly_three.replay;
+
+import mineopoly_three.action.ActionLog;
+import mineopoly_three.action.TurnAction;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads replays written in the binary ReplayFormat by a ReplayWriter
+ */
+final class ReplayReader {
+    private ReplayReader() {
+    }
+
+    /**
+     * Checks whether a file starts like a binary replay, without reading the rest of it
+     *
+     * @param replayFilePath The path of the file to check
+     * @return True if the file is a binary replay, false if it is anything else, like a text replay
+     * @throws IOException If the file could not be read
+     */
+    static boolean isBinaryReplay(Path replayFilePath) throws IOException {
+        byte[] fileStart = new byte[ReplayFormat.MAGIC.length];
+        int numRead = 0;
+        try (InputStream replayInput = Files.newInputStream(replayFilePath)) {
+            while (numRead < fileStart.length) {
+                int readNow = replayInput.read(fileStart, numRead, fileStart.length - numRead);
+                if (readNow < 0) {
+                    return false;
+                }
+                numRead += readNow;
+            }
+        }
+        return Arrays.equals(fileStart, ReplayFormat.MAGIC);
+    }
+
+    /**
+     * Reads a binary replay file into a Replay
+     *
+     * @param replayFilePath The path of the binary replay file
+     * @return The Replay the file holds
+     * @throws IOException If the file could not be read, is not a finished binary replay, or is malformed
+     */
+    static Replay readReplay(Path replayFilePath) throws IOException {
+        return readReplay(ByteBuffer.wrap(Files.readAllBytes(replayFilePath)), "file " + replayFilePath);
+    }
+
+    /**
+     * Reads a binary replay out of a buffer holding exactly that replay, like a replay inside a ReplayArchive
+     *
+     * @param replayBytes The bytes of the replay, from the buffer's position to its limit
+     * @param replaySource Where the replay came from, for error messages
+     * @return The Replay the buffer holds
+     * @throws IOException If the bytes are not a finished binary replay, or are malformed
+     */
+    static Replay readReplay(ByteBuffer replayBytes, String replaySource) throws IOException {
+        try {
+            return decode(replayBytes);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Malformed binary replay " + replaySource, e);
+        }
+    }
+
+    private static Replay decode(ByteBuffer replayBytes) throws IOException {
+        byte[] magic = new byte[ReplayFormat.MAGIC.length];
+        replayBytes.get(magic);
+        if (!Arrays.equals(magic, ReplayFormat.MAGIC)) {
+            throw new IOException("Not a binary replay file");
+        }
+        int version = replayBytes.get();
+        if (version < ReplayFormat.FIRST_VERSION || version > ReplayFormat.VERSION) {
+            throw new IOException("Unsupported binary replay version " + version);
+        }
+
+        int resultFlags = replayBytes.get() & 0xFF;
+        if ((resultFlags & ReplayFormat.FLAG_FINISHED) == 0) {
+            throw new IOException("The replay file was never finished");
+        }
+        boolean redThrewException = (resultFlags & ReplayFormat.FLAG_RED_THREW_EXCEPTION) != 0;
+        boolean blueThrewException = (resultFlags & ReplayFormat.FLAG_BLUE_THREW_EXCEPTION) != 0;
+        int redScore = replayBytes.getInt();
+        int blueScore = replayBytes.getInt();
+        int boardSize = replayBytes.getInt();
+        long worldSeed = replayBytes.getLong();
+        String redPlayerName = getName(replayBytes);
+        String bluePlayerName = getName(replayBytes);
+
+        // Pull each player's frames back together into one stream of codes
+        ByteBuffer redCodes = ByteBuffer.allocate(replayBytes.remaining());
+        ByteBuffer blueCodes = ByteBuffer.allocate(replayBytes.remaining());
+        List<Integer> keyframeTurns = new ArrayList<>();
+        List<byte[]> keyframes = new ArrayList<>();
+        int[] stateHashes = null;
+        while (replayBytes.hasRemaining()) {
+            int player = replayBytes.get();
+            if (player == ReplayFormat.STATE_HASHES) {
+                int numStateHashes = replayBytes.getInt();
+                if (numStateHashes < 0 || numStateHashes > replayBytes.remaining() / Integer.BYTES) {
+                    throw new IllegalArgumentException("Bad number of state hashes " + numStateHashes);
+                }
+                stateHashes = new int[numStateHashes];
+                replayBytes.asIntBuffer().get(stateHashes);
+                replayBytes.position(replayBytes.position() + numStateHashes * Integer.BYTES);
+                continue;
+            }
+            if (player == ReplayFormat.KEYFRAME) {
+                keyframeTurns.add(replayBytes.getInt());
+                int keyframeLength = replayBytes.getInt();
+                if (keyframeLength < 0) {
+                    throw new IllegalArgumentException("Negative keyframe length");
+                }
+                byte[] keyframe = new byte[keyframeLength];
+                replayBytes.get(keyframe);
+                keyframes.add(keyframe);
+                continue;
+            }
+
+            int payloadLength = replayBytes.getShort() & 0xFFFF;
+            ByteBuffer playerCodes;
+            if (player == ReplayFormat.RED_PLAYER) {
+                playerCodes = redCodes;
+            } else if (player == ReplayFormat.BLUE_PLAYER) {
+                playerCodes = blueCodes;
+            } else {
+                throw new IllegalArgumentException("Unknown player " + player + " in replay frame");
+            }
+
+            ByteBuffer payload = replayBytes.slice();
+            payload.limit(payloadLength);
+            playerCodes.put(payload);
+            replayBytes.position(replayBytes.position() + payloadLength);
+        }
+        redCodes.flip();
+        blueCodes.flip();
+
+        ActionLog redPlayerActions = decodeActions(redCodes);
+        ActionLog bluePlayerActions = decodeActions(blueCodes);
+        if (redThrewException) {
+            redPlayerActions.addException();
+        }
+        if (blueThrewException) {
+            bluePlayerActions.addException();
+        }
+        Replay replay = new Replay(boardSize, worldSeed, redPlayerActions, bluePlayerActions, redPlayerName,
+                                   bluePlayerName, redScore, blueScore);
+        for (int i = 0; i < keyframes.size(); i++) {
+            replay.addKeyframe(keyframeTurns.get(i), keyframes.get(i));
+        }
+        replay.setStateHashes(stateHashes);
+        return replay;
+    }
+
+    private static String getName(ByteBuffer replayBytes) {
+        int nameLength = replayBytes.getShort() & 0xFFFF;
+        if (nameLength == 0) {
+            return null;
+        }
+        byte[] encodedName = new byte[nameLength];
+        replayBytes.get(encodedName);
+        return new String(encodedName, ReplayFormat.NAME_CHARSET);
+    }
+
+    private static ActionLog decodeActions(ByteBuffer codes) {
+        // Most codes are a single action, so twice the number of bytes is a good guess at the number of actions
+        ActionLog actions = new ActionLog(codes.remaining() * 2);
+        CodeReader codeReader = new CodeReader(codes);
+        while (true) {
+            int code = codeReader.next();
+            if (code == ReplayFormat.END_CODE) {
+                return actions;
+            }
+
+            if (code == ReplayFormat.RUN_CODE) {
+                TurnAction repeatedAction = ReplayFormat.decodeAction(codeReader.next());
+                int runLength = ReplayFormat.MIN_RUN_LENGTH + readRunLength(codeReader);
+                for (int i = 0; i < runLength; i++) {
+                    actions.add(repeatedAction);
+                }
+            } else {
+                actions.add(ReplayFormat.decodeAction(code));
+            }
+        }
+    }
+
+    private static int readRunLength(CodeReader codeReader) {
+        int extraRepeats = 0;
+        int group;
+        do {
+            if (extraRepeats > (Integer.MAX_VALUE >>> ReplayFormat.RUN_LENGTH_BITS)) {
+                throw new IllegalArgumentException("Run of actions is too long");
+            }
+            group = codeReader.next();
+            extraRepeats = (extraRepeats << ReplayFormat.RUN_LENGTH_BITS)
+                           | (group & (ReplayFormat.RUN_LENGTH_CONTINUES - 1));
+        } while ((group & ReplayFormat.RUN_LENGTH_CONTINUES) != 0);
+        return extraRepeats;
+    }
+
+    /**
+     * Reads 4-bit codes out of bytes, high nibble first
+     */
+    private static class CodeReader {
+        private final ByteBuffer codes;
+        private int currentByte;
+        private boolean hasLowNibble;
+
+        private CodeReader(ByteBuffer codes) {
+            this.codes = codes;
+            this.hasLowNibble = false;
+        }
+
+        private int next() {
+            if (hasLowNibble) {
+                hasLowNibble = false;
+                return currentByte & 0xF;
+            }
+            if (!codes.hasRemaining()) {
+                throw new IllegalArgumentException("Replay actions end without an end code");
+            }
+            currentByte = codes.get();
+            hasLowNibble = true;
+            return (currentByte >>> 4) & 0xF;
+        }
+    }
+}
@@ -1,14 +1,13 @@
 package mineopoly_three.replay;
 
+import mineopoly_three.action.ActionLog;
 import mineopoly_three.game.Economy;
 import mineopoly_three.action.TurnAction;
 import mineopoly_three.item.InventoryItem;
 import mineopoly_three.strategy.PlayerBoardView;
-import mineopoly_three.strategy.MinePlayerStrategy;
+import mineopoly_three.strategy.SeekableStrategy;
 
 import java.awt.*;
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.Random;
 
 /**
@@ -16,10 +15,9 @@ import java.util.Random;
  * This class implements all the necessary functions for a MinePlayerStrategy, but when prompted for an action
  *  on its turn, it just returns the action performed on the same turn number in the game being replayed.
  */
-public class ReplayStrategy implements MinePlayerStrategy {
+public class ReplayStrategy implements SeekableStrategy {
     private Replay gameToReplay;
-    private Queue<TurnAction> actionsToReplay;
-    private boolean exceptionThrown;
+    private ActionLog.Cursor actionsToReplay;
     private boolean isRedPlayer;
 
     public ReplayStrategy(Replay gameToReplay) {
@@ -29,24 +27,33 @@ public class ReplayStrategy implements MinePlayerStrategy {
     @Override
     public void initialize(int boardSize, int maxInventorySize, int maxCharge, int winningScore,
                            PlayerBoardView startingBoard, Point startTileLocation, boolean isRedPlayer, Random random) {
-        if (isRedPlayer) {
-            actionsToReplay = new LinkedList<>(gameToReplay.getRedPlayerActions());
-            exceptionThrown = gameToReplay.redThrewException();
-        } else {
-            actionsToReplay = new LinkedList<>(gameToReplay.getBluePlayerActions());
-            exceptionThrown = gameToReplay.blueThrewException();
-        }
-
+        ActionLog actionLog = isRedPlayer ? gameToReplay.getRedPlayerActionLog() : gameToReplay.getBluePlayerActionLog();
+        this.actionsToReplay = actionLog.cursor();
         this.isRedPlayer = isRedPlayer;
     }
 
     @Override
     public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge, boolean isRedTurn) {
-        if (actionsToReplay.isEmpty() && exceptionThrown) {
+        if (actionsToReplay.isAtException()) {
             String exceptionPlayer = isRedPlayer ? "Red" : "Blue";
             throw new RuntimeException("An exception from the " + exceptionPlayer + " Player happened on this turn");
         }
-        return actionsToReplay.poll();
+        if (!actionsToReplay.hasNext()) {
+            return null;
+        }
+        return actionsToReplay.next();
+    }
+
+    @Override
+    public void seekToTurn(int turnNumber) {
+        // Every turn has exactly one action per player
+        actionsToReplay.setPosition(turnNumber);
+    }
+
+    @Override
+    public TurnAction getTurnActionOn(int turnNumber) {
+        ActionLog actionLog = isRedPlayer ? gameToReplay.getRedPlayerActionLog() : gameToReplay.getBluePlayerActionLog();
+        return (turnNumber < actionLog.size()) ? actionLog.get(turnNumber) : null;
     }
 
     @Override
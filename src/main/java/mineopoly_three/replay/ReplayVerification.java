@@ -0,0 +1,66 @@
+package mineopoly_three.replay;
+
+/**
+ * The outcome of playing one replay again with a ReplayVerifier
+ */
+public class ReplayVerification {
+    /**
+     * How a replayed game compared to the game that was recorded
+     */
+    public enum Outcome {
+        /**Every recorded state hash and the final scores came out the same*/
+        MATCHED,
+        /**The replayed game ended up in a different state than the recorded one*/
+        DIVERGED,
+        /**The replay has no state hashes or scores to check against, only that it played through is known*/
+        UNCHECKED,
+        /**The replay could not be read*/
+        UNREADABLE
+    }
+
+    /**Returned by getDivergentTurn() when there is no single turn to blame*/
+    public static final int NO_TURN = -1;
+
+    private final String replaySource;
+    private final Outcome outcome;
+    private final int divergentTurn;
+    private final String details;
+
+    ReplayVerification(String replaySource, Outcome outcome, int divergentTurn, String details) {
+        this.replaySource = replaySource;
+        this.outcome = outcome;
+        this.divergentTurn = divergentTurn;
+        this.details = details;
+    }
+
+    /**
+     * @return Where the replay came from, a file path or a position in an archive
+     */
+    public String getReplaySource() {
+        return replaySource;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return The first turn after which the replayed game's state differed from the recorded one, or NO_TURN if
+     *          the game did not diverge or the replay has no state hashes to tell when it did
+     */
+    public int getDivergentTurn() {
+        return divergentTurn;
+    }
+
+    /**
+     * @return A description of what went wrong, or null if nothing did
+     */
+    public String getDetails() {
+        return details;
+    }
+
+    @Override
+    public String toString() {
+        return replaySource + ": " + outcome + ((details == null) ? "" : " (" + details + ")");
+    }
+}
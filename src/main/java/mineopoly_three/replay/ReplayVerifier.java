@@ -0,0 +1,167 @@
+package mineopoly_three.replay;
+
+import mineopoly_three.game.GameEngine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Plays replays again without a GUI and checks they still come out the way they were recorded, so a change that
+ *  breaks determinism shows up right away. Replays recorded with state hashes are checked after every turn and
+ *  report the first turn that went differently, others can only have their final scores checked. Replays are
+ *  spread over every core of a ForkJoinPool.
+ */
+public class ReplayVerifier {
+    // Below this many replays a task stops splitting and just plays its replays on the current thread
+    private static final int REPLAYS_PER_LEAF_TASK = 4;
+
+    private final ForkJoinPool pool;
+
+    public ReplayVerifier() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ReplayVerifier(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Verifies every replay file directly inside a directory, in either replay file format
+     *
+     * @param replayDirectory The directory holding the replay files
+     * @return One ReplayVerification per file, in order of file name
+     * @throws IOException If the directory could not be listed
+     */
+    public List<ReplayVerification> verifyDirectory(Path replayDirectory) throws IOException {
+        List<Path> replayFiles;
+        try (Stream<Path> directoryFiles = Files.list(replayDirectory)) {
+            replayFiles = directoryFiles.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        return verifyAll(replayFiles.size(), fileIndex -> verifyFile(replayFiles.get(fileIndex)));
+    }
+
+    /**
+     * Verifies every replay in an archive
+     *
+     * @param replayArchive The archive holding the replays
+     * @return One ReplayVerification per replay, in the order they are in the archive
+     */
+    public List<ReplayVerification> verifyArchive(ReplayArchive replayArchive) {
+        return verifyAll(replayArchive.getNumReplays(), replayIndex -> {
+            String replaySource = "replay " + replayIndex + " in " + replayArchive.getArchiveFilePath();
+            try {
+                return verify(replayArchive.readReplay(replayIndex), replaySource);
+            } catch (IOException e) {
+                return new ReplayVerification(replaySource, ReplayVerification.Outcome.UNREADABLE,
+                                              ReplayVerification.NO_TURN, e.toString());
+            }
+        });
+    }
+
+    private ReplayVerification verifyFile(Path replayFile) {
+        String replaySource = replayFile.toString();
+        try {
+            return verify(ReplayIO.readReplayFromFile(replaySource), replaySource);
+        } catch (IOException | NumberFormatException e) {
+            return new ReplayVerification(replaySource, ReplayVerification.Outcome.UNREADABLE,
+                                          ReplayVerification.NO_TURN, e.toString());
+        }
+    }
+
+    private List<ReplayVerification> verifyAll(int numReplays, IntFunction<ReplayVerification> verifyReplay) {
+        ReplayVerification[] verifications = new ReplayVerification[numReplays];
+        pool.invoke(new ReplayRangeTask(verifyReplay, verifications, 0, numReplays));
+        return Arrays.asList(verifications);
+    }
+
+    /**
+     * Plays one replay again on the current thread and compares it to how it was recorded
+     *
+     * @param replay The replay to check
+     * @param replaySource Where the replay came from, to tell verifications apart
+     * @return How the replayed game compared to the recorded one
+     */
+    public static ReplayVerification verify(Replay replay, String replaySource) {
+        GameEngine replayEngine = new GameEngine(replay.getBoardSize(), new ReplayStrategy(replay),
+                                                 new ReplayStrategy(replay), replay.getWorldSeed());
+        replayEngine.setRecordStateHashes(true);
+        replayEngine.runGame();
+
+        int[] recordedHashes = replay.getStateHashes();
+        if (recordedHashes != null) {
+            int[] replayedHashes = replayEngine.getStateHashes();
+            int numTurnsToCompare = Math.min(recordedHashes.length, replayedHashes.length);
+            for (int turn = 0; turn < numTurnsToCompare; turn++) {
+                if (recordedHashes[turn] != replayedHashes[turn]) {
+                    return new ReplayVerification(replaySource, ReplayVerification.Outcome.DIVERGED, turn,
+                                                  "State differs after turn " + turn);
+                }
+            }
+            if (recordedHashes.length != replayedHashes.length) {
+                return new ReplayVerification(replaySource, ReplayVerification.Outcome.DIVERGED, numTurnsToCompare,
+                                              "Recorded game lasted " + recordedHashes.length
+                                              + " turns, replayed game lasted " + replayedHashes.length);
+            }
+        }
+
+        boolean scoresRecorded = (replay.getRedScore() != Replay.UNKNOWN_SCORE);
+        if (scoresRecorded && (replay.getRedScore() != replayEngine.getRedPlayerScore()
+                               || replay.getBlueScore() != replayEngine.getBluePlayerScore())) {
+            return new ReplayVerification(replaySource, ReplayVerification.Outcome.DIVERGED,
+                                          ReplayVerification.NO_TURN,
+                                          "Recorded score " + replay.getRedScore() + " to " + replay.getBlueScore()
+                                          + ", replayed score " + replayEngine.getRedPlayerScore() + " to "
+                                          + replayEngine.getBluePlayerScore());
+        }
+        if (recordedHashes == null && !scoresRecorded) {
+            return new ReplayVerification(replaySource, ReplayVerification.Outcome.UNCHECKED,
+                                          ReplayVerification.NO_TURN, "Nothing recorded to check against");
+        }
+        return new ReplayVerification(replaySource, ReplayVerification.Outcome.MATCHED, ReplayVerification.NO_TURN,
+                                      null);
+    }
+
+    /**
+     * Verifies the replays with indices [startReplay, endReplay), splitting in half until the range is small enough
+     *  to verify directly
+     */
+    private static class ReplayRangeTask extends RecursiveAction {
+        private final IntFunction<ReplayVerification> verifyReplay;
+        private final ReplayVerification[] verifications;
+        private final int startReplay;
+        private final int endReplay;
+
+        private ReplayRangeTask(IntFunction<ReplayVerification> verifyReplay, ReplayVerification[] verifications,
+                                int startReplay, int endReplay) {
+            this.verifyReplay = verifyReplay;
+            this.verifications = verifications;
+            this.startReplay = startReplay;
+            this.endReplay = endReplay;
+        }
+
+        @Override
+        protected void compute() {
+            if (endReplay - startReplay <= REPLAYS_PER_LEAF_TASK) {
+                for (int replayIndex = startReplay; replayIndex < endReplay; replayIndex++) {
+                    verifications[replayIndex] = verifyReplay.apply(replayIndex);
+                }
+                return;
+            }
+
+            int midReplay = startReplay + (endReplay - startReplay) / 2;
+            invokeAll(new ReplayRangeTask(verifyReplay, verifications, startReplay, midReplay),
+                      new ReplayRangeTask(verifyReplay, verifications, midReplay, endReplay));
+        }
+    }
+}
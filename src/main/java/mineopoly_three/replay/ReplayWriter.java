@@ -0,0 +1,361 @@
+package mineopoly_three.replay;
+
+import mineopoly_three.action.ActionLog;
+import mineopoly_three.action.TurnAction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Writes a replay in the binary ReplayFormat while the game is being played. Actions are packed into 4-bit codes
+ *  with repeated actions run-length encoded, and reach the file through a buffered FileChannel, so a game never
+ *  has to be held in memory to be saved. The result is filled into the header by finish().
+ */
+public class ReplayWriter implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int FRAME_HEADER_SIZE = 3;
+    // Small enough that a frame always fits in the buffer
+    private static final int FRAME_PAYLOAD_SIZE = 1024;
+
+    private final FileChannel channel;
+    private final long replayStart;
+    private final boolean ownsChannel;
+    private final ByteBuffer buffer;
+    private final ActionStream redActions;
+    private final ActionStream blueActions;
+    private boolean finished;
+
+    /**
+     * Creates the replay file, overwriting any file already at the path, and writes everything known before the
+     *  game starts
+     *
+     * @param replayFilePath The path of the replay file to write
+     * @param boardSize The size of the board the game is played on
+     * @param worldSeed The seed the world was generated with
+     * @param redPlayerName The name of the red player's strategy, or null if it is not known
+     * @param bluePlayerName The name of the blue player's strategy, or null if it is not known
+     * @throws IOException If the file could not be created or written to
+     */
+    public ReplayWriter(Path replayFilePath, int boardSize, long worldSeed, String redPlayerName,
+                        String bluePlayerName) throws IOException {
+        this(FileChannel.open(replayFilePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                              StandardOpenOption.TRUNCATE_EXISTING), true, boardSize, worldSeed, redPlayerName,
+             bluePlayerName);
+    }
+
+    /**
+     * Writes a replay into an already open file, starting at the channel's current position. Used to put replays
+     *  into a ReplayArchive, closing the writer leaves the channel open
+     */
+    ReplayWriter(FileChannel channel, int boardSize, long worldSeed, String redPlayerName, String bluePlayerName)
+            throws IOException {
+        this(channel, false, boardSize, worldSeed, redPlayerName, bluePlayerName);
+    }
+
+    private ReplayWriter(FileChannel channel, boolean ownsChannel, int boardSize, long worldSeed,
+                         String redPlayerName, String bluePlayerName) throws IOException {
+        this.channel = channel;
+        this.replayStart = channel.position();
+        this.ownsChannel = ownsChannel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.redActions = new ActionStream(ReplayFormat.RED_PLAYER);
+        this.blueActions = new ActionStream(ReplayFormat.BLUE_PLAYER);
+        this.finished = false;
+
+        byte[] redName = encodeName(redPlayerName);
+        byte[] blueName = encodeName(bluePlayerName);
+        buffer.put(ReplayFormat.MAGIC);
+        buffer.put(ReplayFormat.VERSION);
+        // The result is not known yet, it gets written over by finish()
+        buffer.put((byte) 0);
+        buffer.putInt(0);
+        buffer.putInt(0);
+        buffer.putInt(boardSize);
+        buffer.putLong(worldSeed);
+        putName(redName);
+        putName(blueName);
+    }
+
+    /**
+     * Writes a whole Replay to a binary replay file at once
+     *
+     * @param replay The Replay to write
+     * @param replayFilePath The path of the replay file to write, overwriting any file already there
+     * @throws IOException If there is an issue writing to the file
+     */
+    public static void writeReplay(Replay replay, Path replayFilePath) throws IOException {
+        try (ReplayWriter replayWriter = new ReplayWriter(replayFilePath, replay.getBoardSize(), replay.getWorldSeed(),
+                                                          replay.getRedPlayerName(), replay.getBluePlayerName())) {
+            replayWriter.writeWholeReplay(replay);
+        }
+    }
+
+    /**
+     * Writes everything in a Replay and finishes this writer with its result
+     */
+    void writeWholeReplay(Replay replay) throws IOException {
+        writeActions(true, replay.getRedPlayerActionLog());
+        writeActions(false, replay.getBluePlayerActionLog());
+        for (Map.Entry<Integer, byte[]> keyframe : replay.getKeyframes().entrySet()) {
+            writeKeyframe(keyframe.getKey(), keyframe.getValue());
+        }
+        if (replay.getStateHashes() != null) {
+            writeStateHashes(replay.getStateHashes(), replay.getStateHashes().length);
+        }
+        finish(replay.getRedScore(), replay.getBlueScore(), replay.redThrewException(), replay.blueThrewException());
+    }
+
+    private void writeActions(boolean isRedPlayer, ActionLog actions) throws IOException {
+        for (int i = 0; i < actions.size(); i++) {
+            writeAction(isRedPlayer, actions.get(i));
+        }
+    }
+
+    /**
+     * Records the action one player took on its turn
+     *
+     * @param isRedPlayer True if the action was taken by the red player
+     * @param action The action taken, or null if the player did nothing
+     * @throws IOException If there is an issue writing to the file
+     */
+    public void writeAction(boolean isRedPlayer, TurnAction action) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("The replay has already been finished");
+        }
+        ActionStream actionStream = isRedPlayer ? redActions : blueActions;
+        actionStream.addAction(ReplayFormat.encodeAction(action));
+    }
+
+    /**
+     * Records a keyframe of the game's full state
+     *
+     * @param turnNumber The turn at whose start the keyframe was captured
+     * @param keyframe The keyframe, as captured by GameEngine.captureKeyframe()
+     * @throws IOException If there is an issue writing to the file
+     */
+    public void writeKeyframe(int turnNumber, byte[] keyframe) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("The replay has already been finished");
+        }
+        ensureRoom(1 + 2 * Integer.BYTES);
+        buffer.put((byte) ReplayFormat.KEYFRAME);
+        buffer.putInt(turnNumber);
+        buffer.putInt(keyframe.length);
+        if (keyframe.length <= buffer.remaining()) {
+            buffer.put(keyframe);
+        } else {
+            flushBuffer();
+            writeFully(ByteBuffer.wrap(keyframe));
+        }
+    }
+
+    /**
+     * Records the state hash of the game after each turn
+     *
+     * @param stateHashes The hashes, as recorded by the GameEngine
+     * @param numStateHashes How many hashes at the start of the array to write
+     * @throws IOException If there is an issue writing to the file
+     */
+    public void writeStateHashes(int[] stateHashes, int numStateHashes) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("The replay has already been finished");
+        }
+        ensureRoom(1 + Integer.BYTES);
+        buffer.put((byte) ReplayFormat.STATE_HASHES);
+        buffer.putInt(numStateHashes);
+        for (int i = 0; i < numStateHashes; i++) {
+            ensureRoom(Integer.BYTES);
+            buffer.putInt(stateHashes[i]);
+        }
+    }
+
+    /**
+     * Writes out everything still buffered and fills in the result of the game. No more actions can be written
+     *  afterwards
+     *
+     * @param redScore The red player's final score
+     * @param blueScore The blue player's final score
+     * @param redThrewException True if the red player's strategy threw an exception that ended the game
+     * @param blueThrewException True if the blue player's strategy threw an exception that ended the game
+     * @throws IOException If there is an issue writing to the file
+     */
+    public void finish(int redScore, int blueScore, boolean redThrewException, boolean blueThrewException)
+            throws IOException {
+        if (finished) {
+            throw new IllegalStateException("The replay has already been finished");
+        }
+        finished = true;
+        redActions.end();
+        blueActions.end();
+        flushBuffer();
+
+        int resultFlags = ReplayFormat.FLAG_FINISHED;
+        if (redThrewException) {
+            resultFlags |= ReplayFormat.FLAG_RED_THREW_EXCEPTION;
+        }
+        if (blueThrewException) {
+            resultFlags |= ReplayFormat.FLAG_BLUE_THREW_EXCEPTION;
+        }
+        ByteBuffer result = ByteBuffer.allocate(1 + 2 * Integer.BYTES);
+        result.put((byte) resultFlags);
+        result.putInt(redScore);
+        result.putInt(blueScore);
+        result.flip();
+        long position = replayStart + ReplayFormat.RESULT_OFFSET;
+        while (result.hasRemaining()) {
+            position += channel.write(result, position);
+        }
+    }
+
+    /**
+     * Writes out anything still buffered and closes the file. A replay closed without being finished is left
+     *  without a result, and cannot be read back
+     *
+     * @throws IOException If there is an issue writing to the file
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            if (ownsChannel) {
+                channel.close();
+            }
+        }
+    }
+
+    private byte[] encodeName(String playerName) {
+        byte[] encodedName = (playerName == null) ? new byte[0] : playerName.getBytes(ReplayFormat.NAME_CHARSET);
+        if (encodedName.length > 0xFFFF) {
+            throw new IllegalArgumentException("Player name is too long to write to a replay");
+        }
+        return encodedName;
+    }
+
+    private void putName(byte[] encodedName) throws IOException {
+        ensureRoom(Short.BYTES + encodedName.length);
+        buffer.putShort((short) encodedName.length);
+        if (encodedName.length <= buffer.remaining()) {
+            buffer.put(encodedName);
+        } else {
+            // A name longer than the whole buffer skips it
+            flushBuffer();
+            writeFully(ByteBuffer.wrap(encodedName));
+        }
+    }
+
+    private void ensureRoom(int numBytes) throws IOException {
+        if (buffer.remaining() < numBytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer toWrite) throws IOException {
+        while (toWrite.hasRemaining()) {
+            channel.write(toWrite);
+        }
+    }
+
+    /**
+     * One player's actions on their way into frames. The current run of a repeated action is held back until a
+     *  different action ends it, and packed codes are held back until a frame's worth has built up.
+     */
+    private class ActionStream {
+        private final int player;
+        private final byte[] payload;
+        private int numCodes;
+        private int runCode;
+        private int runLength;
+
+        private ActionStream(int player) {
+            this.player = player;
+            this.payload = new byte[FRAME_PAYLOAD_SIZE];
+            this.numCodes = 0;
+            this.runCode = -1;
+            this.runLength = 0;
+        }
+
+        private void addAction(int actionCode) throws IOException {
+            if (actionCode == runCode) {
+                runLength++;
+                return;
+            }
+            writeRun();
+            runCode = actionCode;
+            runLength = 1;
+        }
+
+        private void end() throws IOException {
+            writeRun();
+            writeCode(ReplayFormat.END_CODE);
+            if (numCodes % 2 != 0) {
+                // Pad out the last byte, nothing after the end code is read
+                writeCode(0);
+            }
+            writeFrame();
+        }
+
+        private void writeRun() throws IOException {
+            if (runLength < ReplayFormat.MIN_RUN_LENGTH) {
+                for (int i = 0; i < runLength; i++) {
+                    writeCode(runCode);
+                }
+            } else {
+                writeCode(ReplayFormat.RUN_CODE);
+                writeCode(runCode);
+                writeRunLength(runLength - ReplayFormat.MIN_RUN_LENGTH);
+            }
+            runLength = 0;
+        }
+
+        private void writeRunLength(int extraRepeats) throws IOException {
+            // Most significant group first, so the reader can shift each group in as it comes
+            int numGroups = 1;
+            while ((extraRepeats >>> (numGroups * ReplayFormat.RUN_LENGTH_BITS)) != 0) {
+                numGroups++;
+            }
+            int groupMask = ReplayFormat.RUN_LENGTH_CONTINUES - 1;
+            for (int group = numGroups - 1; group >= 0; group--) {
+                int groupBits = (extraRepeats >>> (group * ReplayFormat.RUN_LENGTH_BITS)) & groupMask;
+                writeCode((group > 0) ? (groupBits | ReplayFormat.RUN_LENGTH_CONTINUES) : groupBits);
+            }
+        }
+
+        private void writeCode(int code) throws IOException {
+            if (numCodes == payload.length * 2) {
+                writeFrame();
+            }
+            int byteIndex = numCodes / 2;
+            if (numCodes % 2 == 0) {
+                payload[byteIndex] = (byte) (code << 4);
+            } else {
+                payload[byteIndex] |= (byte) code;
+            }
+            numCodes++;
+        }
+
+        private void writeFrame() throws IOException {
+            // Frames only ever hold whole bytes, both callers make sure of that
+            int payloadLength = numCodes / 2;
+            if (payloadLength == 0) {
+                return;
+            }
+            ensureRoom(FRAME_HEADER_SIZE + payloadLength);
+            buffer.put((byte) player);
+            buffer.putShort((short) payloadLength);
+            buffer.put(payload, 0, payloadLength);
+            numCodes = 0;
+        }
+    }
+}
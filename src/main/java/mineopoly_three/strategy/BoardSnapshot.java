@@ -0,0 +1,502 @@
+package mineopoly_three.strategy;
+
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemCellCursor;
+import mineopoly_three.tiles.TileType;
+import mineopoly_three.util.Bitboards;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, versioned picture of the tile types and items on the GameBoard at one point in time.
+ * The board is split into fixed size chunks of cells, and a new snapshot only copies the chunks that changed since
+ *  the previous one. All other chunks are shared between the two snapshots, so taking a snapshot costs time
+ *  proportional to what changed rather than to the size of the board. Because nothing in a snapshot ever changes
+ *  after it is built, a strategy holding on to an old snapshot always sees the board as it was on that turn.
+ */
+public final class BoardSnapshot {
+    private static final TileType[] allTileTypes = TileType.values();
+    private static final InventoryItem[] NO_ITEMS = new InventoryItem[0];
+
+    // Each chunk covers 2^CHUNK_SHIFT consecutive cell indices, which is also exactly one word of a bitboard
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final int size;
+    private final long version;
+    private final Chunk[] chunks;
+
+    private BoardSnapshot(int size, long version, Chunk[] chunks) {
+        this.size = size;
+        this.version = version;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Builds a standalone snapshot from a full grid of tile types and a map of items
+     *
+     * @param tiles The tile types on the board, indexed [(size - 1) - y][x] as the GameBoard stores them
+     * @param itemsOnGround A map from locations to the items on the ground there, may be null
+     * @return A BoardSnapshot with version 0 holding a copy of the given data
+     */
+    public static BoardSnapshot fromTiles(TileType[][] tiles, Map<Point, List<InventoryItem>> itemsOnGround) {
+        int size = tiles.length;
+        Builder builder = new Builder(size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                builder.setTileType(x, y, tiles[(size - 1) - y][x]);
+            }
+        }
+
+        if (itemsOnGround != null) {
+            for (Map.Entry<Point, List<InventoryItem>> itemsOnPoint : itemsOnGround.entrySet()) {
+                Point location = itemsOnPoint.getKey();
+                if (location != null && builder.isValidLocation(location.x, location.y)) {
+                    builder.setItems(location.x, location.y, itemsOnPoint.getValue());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return A number that increases every time the board changes, two snapshots from the same game with the
+     *          same version hold exactly the same data
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the type of tile at the specified (x, y) coordinates
+     *
+     * @param x The x coordinate of the tile to get
+     * @param y The y coordinate of the tile to get
+     * @return The type of tile at the (x, y) Cartesian coordinates, or null if the coordinates are outside the board
+     */
+    public TileType getTileType(int x, int y) {
+        if (!isValidLocation(x, y)) {
+            return null;
+        }
+
+        int cellIndex = (y * size) + x;
+        byte typeOrdinal = chunks[cellIndex >>> CHUNK_SHIFT].tileTypes[cellIndex & CHUNK_MASK];
+        return (typeOrdinal < 0) ? null : allTileTypes[typeOrdinal];
+    }
+
+    /**
+     * Copies the type of every tile into an array the caller owns, so the whole board can be scanned without a
+     *  method call per tile
+     *
+     * @param destination Where to copy the tile types, with room for at least getSize() * getSize() cells. Cell
+     *                     (x, y) gets the ordinal of its TileType at index (y * getSize()) + x, or -1 if it has none
+     */
+    public void copyTileTypes(byte[] destination) {
+        int numCells = size * size;
+        if (destination == null || destination.length < numCells) {
+            throw new IllegalArgumentException("Destination needs room for " + numCells + " tile types");
+        }
+        for (int chunkIndex = 0; chunkIndex < chunks.length; chunkIndex++) {
+            int firstCellIndex = chunkIndex << CHUNK_SHIFT;
+            int numChunkCells = Math.min(CHUNK_SIZE, numCells - firstCellIndex);
+            System.arraycopy(chunks[chunkIndex].tileTypes, 0, destination, firstCellIndex, numChunkCells);
+        }
+    }
+
+    /**
+     * Gets a bitboard of every tile of one type. Bitboards can be combined with a few word operations, and read
+     *  with the helpers in Bitboards
+     *
+     * @param tileType The type of tile to find
+     * @return A new bitboard with bit (y * getSize()) + x set for every tile of that type
+     */
+    public long[] getTileTypeBits(TileType tileType) {
+        long[] tileTypeBits = new long[Bitboards.getNumWords(size * size)];
+        copyTileTypeBits(tileType, tileTypeBits);
+        return tileTypeBits;
+    }
+
+    /**
+     * Fills a bitboard the caller owns with every tile of one type, without allocating anything
+     *
+     * @param tileType The type of tile to find
+     * @param destination The bitboard to fill, with at least Bitboards.getNumWords(getSize() * getSize()) words
+     */
+    public void copyTileTypeBits(TileType tileType, long[] destination) {
+        if (destination == null || destination.length < chunks.length) {
+            throw new IllegalArgumentException("Destination needs room for " + chunks.length + " words");
+        }
+        int typeOrdinal = tileType.ordinal();
+        for (int chunkIndex = 0; chunkIndex < chunks.length; chunkIndex++) {
+            destination[chunkIndex] = chunks[chunkIndex].getTileTypeWords()[typeOrdinal];
+        }
+    }
+
+    /**
+     * @param tileType The type of tile to count
+     * @return The number of tiles of that type on the board
+     */
+    public int countTileType(TileType tileType) {
+        int typeOrdinal = tileType.ordinal();
+        int numTiles = 0;
+        for (Chunk chunk : chunks) {
+            numTiles += Long.bitCount(chunk.getTileTypeWords()[typeOrdinal]);
+        }
+        return numTiles;
+    }
+
+    /**
+     * Gets the items on the ground at the specified (x, y) coordinates
+     *
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     * @return An unmodifiable list of the items on the tile, empty if there are none or the location is invalid
+     */
+    public List<InventoryItem> getItems(int x, int y) {
+        if (!isValidLocation(x, y)) {
+            return Collections.emptyList();
+        }
+
+        int cellIndex = (y * size) + x;
+        InventoryItem[] items = chunks[cellIndex >>> CHUNK_SHIFT].items[cellIndex & CHUNK_MASK];
+        if (items == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(items));
+    }
+
+    /**
+     * Gets a map from every Point on the board to the items on the ground there, which is an empty list where there
+     *  are none. Every call builds a new map with its own Points and lists, so whoever asked for it can change it
+     *  without anyone else seeing
+     *
+     * @return A new mapping for all locations on the board to the InventoryItems on the ground there
+     */
+    public Map<Point, List<InventoryItem>> getItemsOnGround() {
+        int numCells = size * size;
+        Map<Point, List<InventoryItem>> groundItems = new HashMap<>(((numCells * 4) / 3) + 1);
+        for (int cellIndex = 0; cellIndex < numCells; cellIndex++) {
+            InventoryItem[] items = chunks[cellIndex >>> CHUNK_SHIFT].items[cellIndex & CHUNK_MASK];
+            List<InventoryItem> itemsOnCell = new ArrayList<>();
+            if (items != null) {
+                Collections.addAll(itemsOnCell, items);
+            }
+            groundItems.put(new Point(cellIndex % size, cellIndex / size), itemsOnCell);
+        }
+        return groundItems;
+    }
+
+    /**
+     * Gets a cursor over only the cells with items on the ground. Parts of the board without any items are
+     *  skipped a whole chunk at a time, and nothing is copied
+     *
+     * @return A new ItemCellCursor positioned before the first cell with items
+     */
+    public ItemCellCursor getItemCells() {
+        return new ChunkItemCursor();
+    }
+
+    /**
+     * @return The number of cells with at least one item on the ground
+     */
+    public int getNumCellsWithItems() {
+        int numCellsWithItems = 0;
+        for (Chunk chunk : chunks) {
+            numCellsWithItems += chunk.numCellsWithItems;
+        }
+        return numCellsWithItems;
+    }
+
+    private boolean isValidLocation(int x, int y) {
+        return (x >= 0 && x < size) && (y >= 0 && y < size);
+    }
+
+    /**
+     * Visits the cells with items chunk by chunk, in increasing cell index order
+     */
+    private final class ChunkItemCursor implements ItemCellCursor {
+        private int chunkIndex = 0;
+        private int offset = -1;
+        private InventoryItem[] items;
+
+        @Override
+        public boolean next() {
+            while (chunkIndex < chunks.length) {
+                Chunk chunk = chunks[chunkIndex];
+                if (chunk.numCellsWithItems > 0) {
+                    for (offset++; offset < CHUNK_SIZE; offset++) {
+                        if (chunk.items[offset] != null) {
+                            items = chunk.items[offset];
+                            return true;
+                        }
+                    }
+                }
+                chunkIndex++;
+                offset = -1;
+            }
+            items = null;
+            return false;
+        }
+
+        @Override
+        public int getX() {
+            return getCellIndex() % size;
+        }
+
+        @Override
+        public int getY() {
+            return getCellIndex() / size;
+        }
+
+        @Override
+        public int getItemCount() {
+            return items.length;
+        }
+
+        @Override
+        public InventoryItem getItem(int itemIndex) {
+            return items[itemIndex];
+        }
+
+        private int getCellIndex() {
+            return (chunkIndex << CHUNK_SHIFT) + offset;
+        }
+
+        private InventoryItem[] getItems() {
+            return items;
+        }
+    }
+
+    /**
+     * A fixed size run of cells. Once a chunk is part of a built snapshot it is never modified again
+     */
+    private static final class Chunk {
+        private final byte[] tileTypes;
+        private final InventoryItem[][] items;
+        private int numCellsWithItems;
+        // This chunk's word of the bitboard of each TileType, by ordinal. Worked out when the chunk is built into a
+        //  snapshot, before the snapshot can reach another thread, and shared by every snapshot the chunk is part of
+        private long[] tileTypeWords;
+
+        private Chunk() {
+            this.tileTypes = new byte[CHUNK_SIZE];
+            this.items = new InventoryItem[CHUNK_SIZE][];
+            Arrays.fill(tileTypes, (byte) -1);
+        }
+
+        private Chunk(Chunk toCopy) {
+            this.tileTypes = toCopy.tileTypes.clone();
+            this.items = toCopy.items.clone();
+            this.numCellsWithItems = toCopy.numCellsWithItems;
+        }
+
+        private long[] getTileTypeWords() {
+            return tileTypeWords;
+        }
+
+        private void computeTileTypeWords() {
+            long[] words = new long[allTileTypes.length];
+            for (int offset = 0; offset < CHUNK_SIZE; offset++) {
+                byte typeOrdinal = tileTypes[offset];
+                if (typeOrdinal >= 0) {
+                    words[typeOrdinal] |= 1L << offset;
+                }
+            }
+            tileTypeWords = words;
+        }
+    }
+
+    /**
+     * The mutable side of a BoardSnapshot, owned by whatever is changing the board. Changes are written into
+     *  private copies of the affected chunks, which become shared and read only again once build() is called
+     */
+    public static final class Builder {
+        private final int size;
+        private Chunk[] chunks;
+        private final boolean[] chunkIsPrivate;
+        private final int[] privateChunkIndices;
+        private int numPrivateChunks;
+        private BoardSnapshot lastBuiltSnapshot;
+
+        public Builder(int size) {
+            this.size = size;
+            int numChunks = ((size * size) + CHUNK_MASK) >>> CHUNK_SHIFT;
+            this.chunks = new Chunk[numChunks];
+            for (int i = 0; i < numChunks; i++) {
+                chunks[i] = new Chunk();
+            }
+            this.chunkIsPrivate = new boolean[numChunks];
+            this.privateChunkIndices = new int[numChunks];
+            this.numPrivateChunks = 0;
+            this.lastBuiltSnapshot = null;
+        }
+
+        /**
+         * Creates a builder that starts out holding an existing snapshot. The snapshot's chunks are shared until
+         *  they are written to, so this costs almost nothing however big the board is
+         *
+         * @param startingSnapshot The snapshot to start from, build() returns it until something changes
+         */
+        public Builder(BoardSnapshot startingSnapshot) {
+            this.size = startingSnapshot.size;
+            this.chunks = startingSnapshot.chunks.clone();
+            int numChunks = chunks.length;
+            this.chunkIsPrivate = new boolean[numChunks];
+            this.privateChunkIndices = new int[numChunks];
+            this.numPrivateChunks = 0;
+            this.lastBuiltSnapshot = startingSnapshot;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Sets the type of tile at the specified (x, y) coordinates
+         *
+         * @param x The x coordinate of the tile
+         * @param y The y coordinate of the tile
+         * @param tileType The new type of the tile
+         * @return True if the tile was a different type before
+         */
+        public boolean setTileType(int x, int y, TileType tileType) {
+            int cellIndex = (y * size) + x;
+            byte typeOrdinal = (tileType == null) ? -1 : (byte) tileType.ordinal();
+            Chunk chunk = chunks[cellIndex >>> CHUNK_SHIFT];
+            if (chunk.tileTypes[cellIndex & CHUNK_MASK] == typeOrdinal) {
+                return false;
+            }
+            getWritableChunk(cellIndex).tileTypes[cellIndex & CHUNK_MASK] = typeOrdinal;
+            return true;
+        }
+
+        /**
+         * Sets the items on the ground at the specified (x, y) coordinates. The list is copied, so later changes to
+         *  it will not show up in the snapshot
+         *
+         * @param x The x coordinate of the tile
+         * @param y The y coordinate of the tile
+         * @param itemsOnPoint The items now on the tile
+         * @return True if the tile had different items before
+         */
+        public boolean setItems(int x, int y, List<InventoryItem> itemsOnPoint) {
+            int cellIndex = (y * size) + x;
+            InventoryItem[] currentItems = chunks[cellIndex >>> CHUNK_SHIFT].items[cellIndex & CHUNK_MASK];
+            if (sameItems(currentItems, itemsOnPoint)) {
+                return false;
+            }
+
+            boolean hasItems = (itemsOnPoint != null && !itemsOnPoint.isEmpty());
+            putItems(cellIndex, hasItems ? itemsOnPoint.toArray(NO_ITEMS) : null);
+            return true;
+        }
+
+        /**
+         * Sets the items on the ground at the specified (x, y) coordinates. The array is not copied, so it must
+         *  never be modified after being passed in
+         *
+         * @param x The x coordinate of the tile
+         * @param y The y coordinate of the tile
+         * @param itemsOnPoint The items now on the tile
+         * @return True if the tile had different items before
+         */
+        public boolean setItems(int x, int y, InventoryItem[] itemsOnPoint) {
+            int cellIndex = (y * size) + x;
+            InventoryItem[] currentItems = chunks[cellIndex >>> CHUNK_SHIFT].items[cellIndex & CHUNK_MASK];
+            boolean hasItems = (itemsOnPoint != null && itemsOnPoint.length > 0);
+            if ((currentItems == null) ? !hasItems : Arrays.equals(currentItems, itemsOnPoint)) {
+                return false;
+            }
+
+            putItems(cellIndex, hasItems ? itemsOnPoint : null);
+            return true;
+        }
+
+        private void putItems(int cellIndex, InventoryItem[] items) {
+            int chunkOffset = cellIndex & CHUNK_MASK;
+            Chunk chunk = getWritableChunk(cellIndex);
+            boolean hadItems = (chunk.items[chunkOffset] != null);
+            boolean hasItems = (items != null);
+            chunk.items[chunkOffset] = items;
+            if (hadItems != hasItems) {
+                chunk.numCellsWithItems += hasItems ? 1 : -1;
+            }
+        }
+
+        /**
+         * Publishes all changes made since the last call as a new snapshot
+         *
+         * @return A snapshot of the board as it currently is, or the previously built snapshot if nothing changed
+         */
+        public BoardSnapshot build() {
+            if (lastBuiltSnapshot != null && numPrivateChunks == 0) {
+                return lastBuiltSnapshot;
+            }
+
+            // Chunks that have never been built into a snapshot get their bitboard words now, while only this
+            //  thread can see them. The snapshot's final fields then publish the words along with everything else
+            if (lastBuiltSnapshot == null) {
+                for (Chunk chunk : chunks) {
+                    chunk.computeTileTypeWords();
+                }
+            } else {
+                for (int i = 0; i < numPrivateChunks; i++) {
+                    chunks[privateChunkIndices[i]].computeTileTypeWords();
+                }
+            }
+
+            long nextVersion = (lastBuiltSnapshot == null) ? 0 : lastBuiltSnapshot.version + 1;
+            lastBuiltSnapshot = new BoardSnapshot(size, nextVersion, chunks);
+
+            // Every chunk now belongs to the snapshot, the next write to any of them needs a new copy
+            chunks = chunks.clone();
+            for (int i = 0; i < numPrivateChunks; i++) {
+                chunkIsPrivate[privateChunkIndices[i]] = false;
+            }
+            numPrivateChunks = 0;
+            return lastBuiltSnapshot;
+        }
+
+        private Chunk getWritableChunk(int cellIndex) {
+            int chunkIndex = cellIndex >>> CHUNK_SHIFT;
+            if (!chunkIsPrivate[chunkIndex]) {
+                if (lastBuiltSnapshot != null) {
+                    chunks[chunkIndex] = new Chunk(chunks[chunkIndex]);
+                }
+                chunkIsPrivate[chunkIndex] = true;
+                privateChunkIndices[numPrivateChunks++] = chunkIndex;
+            }
+            return chunks[chunkIndex];
+        }
+
+        private boolean isValidLocation(int x, int y) {
+            return (x >= 0 && x < size) && (y >= 0 && y < size);
+        }
+
+        private static boolean sameItems(InventoryItem[] currentItems, List<InventoryItem> newItems) {
+            int numCurrentItems = (currentItems == null) ? 0 : currentItems.length;
+            int numNewItems = (newItems == null) ? 0 : newItems.size();
+            if (numCurrentItems != numNewItems) {
+                return false;
+            }
+
+            for (int i = 0; i < numCurrentItems; i++) {
+                if (currentItems[i] != newItems.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,724 @@
+package mineopoly_three.strategy;
+
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.game.Economy;
+import mineopoly_three.game.ForwardModel;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemType;
+import mineopoly_three.tiles.TileType;
+import mineopoly_three.util.Bitboards;
+import mineopoly_three.util.DistanceField;
+import mineopoly_three.util.NearestStationTable;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class implements a strategy that picks every action with a Monte Carlo tree search over ForwardModels of the
+ *  game. Each turn, worker threads on a fork-join pool play as many games ahead as the time budget allows: down
+ *  the tree by UCT, then on with a quick rollout policy, then back up the tree with how well it went.
+ * All workers share one tree. Nodes are only ever added with compare-and-set and their statistics are atomic, so no
+ *  locks are taken. A visit is counted as soon as a worker passes through a node but its reward only when the
+ *  rollout finishes, so workers see paths other workers are exploring as worse for a moment and spread out.
+ * The tree is open loop, a node is a sequence of this player's actions, and the opponent is assumed to stand still.
+ *  That lets the subtree under the chosen action be kept for the next turn whatever the opponent did. Actions that
+ *  can't do anything where a rollout has got to, like mining a tile with no resource, are not tried.
+ * Rollouts follow the same greedy plan as CompetitionStrategy: recharge when running low, sell when full, and
+ *  otherwise mine the resource with the best price for the turns it takes to reach and mine. Points are discounted
+ *  by how many turns away they are, so the tree prefers the same points sooner, and every rollout ends the same
+ *  number of turns after the root. With the opponent standing still a game plays out the same way every time, so
+ *  the action played is the one with the best single rollout, not the best average. Where each resource is comes from
+ *  a DistanceField per resource, patched with the cells that changed since the last turn. Each worker copies them
+ *  and removes tiles from its copy as its rollouts mine them out.
+ * The worker threads only live for one search, so nothing is left running if the game ends without endRound().
+ * Rollouts per second are kept for the last turn and the whole game, to measure how the search scales with threads.
+ */
+public class MctsStrategy implements MinePlayerStrategy {
+    public static final long DEFAULT_TURN_BUDGET_NANOS = 20_000_000L;
+    public static final int DEFAULT_ROLLOUT_DEPTH = 60;
+
+    // What the tree chooses between, the moves in the same order as MOVES. Autominers are left out, they take longer
+    //  to pay off than a search looks ahead
+    private static final TurnAction[] ACTIONS = {TurnAction.MOVE_UP, TurnAction.MOVE_DOWN, TurnAction.MOVE_RIGHT,
+            TurnAction.MOVE_LEFT, TurnAction.MINE, TurnAction.PICK_UP_RESOURCE, null};
+    private static final int MINE_INDEX = 4;
+    private static final int PICK_UP_INDEX = 5;
+    private static final int DO_NOTHING_INDEX = 6;
+    private static final TurnAction[] MOVES = {TurnAction.MOVE_UP, TurnAction.MOVE_DOWN, TurnAction.MOVE_RIGHT,
+            TurnAction.MOVE_LEFT};
+    private static final int[] MOVE_DX = {0, 0, 1, -1};
+    private static final int[] MOVE_DY = {1, -1, 0, 0};
+    private static final int MAX_TREE_DEPTH = 64;
+    private static final double EXPLORATION = 0.05;
+    // How much a point is worth for each turn it is further away
+    private static final double DISCOUNT = 0.98;
+    // How many turns of travel each turn of mining is worth when rollouts pick a resource, as in CompetitionStrategy
+    private static final double MINE_TIME_WEIGHT = 4;
+    // Rewards are summed as fixed point numbers so they can be added to atomically
+    private static final double REWARD_UNITS = 1_000_000;
+
+    private static final ItemType[] allItemTypes = ItemType.values();
+    private static final TileType[] allTileTypes = TileType.values();
+    // The resource each tile type can be mined for, indexed by TileType ordinal, null for tiles that can't be mined
+    private static final ItemType[] resourceByTileType = new ItemType[allTileTypes.length];
+    static {
+        for (ItemType itemType : allItemTypes) {
+            if (itemType.getResourceTileType() != null) {
+                resourceByTileType[itemType.getResourceTileType().ordinal()] = itemType;
+            }
+        }
+    }
+
+    private final long turnBudgetNanos;
+    private final int parallelism;
+    private final int rolloutDepth;
+
+    // Fixed information about the game
+    private int boardSize;
+    private int maxInventorySize;
+    private int maxCharge;
+    private double rewardScale;
+    private NearestStationTable markets;
+    private NearestStationTable recharges;
+    // How far every tile is from each resource at the start of this turn, indexed by ItemType ordinal and only read
+    //  while searching
+    private DistanceField[] resourceFields;
+    private BoardSnapshot lastSeenBoard;
+    private long[] tileTypeBits;
+    // What each worker thread searches with, kept for the whole game
+    private Workspace[] workspaces;
+
+    // The tree kept between turns
+    private Node root;
+    private int rootTurnNumber;
+    private int lastActionIndex;
+    private int lastActionVisits;
+    private int reusedRootVisits;
+
+    private long lastTurnRollouts;
+    private long lastTurnNanos;
+    private long totalRollouts;
+    private long totalNanos;
+
+    /**
+     * Creates a strategy that searches for DEFAULT_TURN_BUDGET_NANOS each turn on every available processor
+     */
+    public MctsStrategy() {
+        this(DEFAULT_TURN_BUDGET_NANOS, Runtime.getRuntime().availableProcessors(), DEFAULT_ROLLOUT_DEPTH);
+    }
+
+    /**
+     * @param turnBudgetNanos How long to search for each turn, in nanoseconds
+     * @param parallelism How many threads to search with
+     * @param rolloutDepth How many turns each rollout plays past the tree
+     */
+    public MctsStrategy(long turnBudgetNanos, int parallelism, int rolloutDepth) {
+        if (turnBudgetNanos < 0) {
+            throw new IllegalArgumentException("Turn budget is negative");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism is non-positive");
+        }
+        if (rolloutDepth < 0) {
+            throw new IllegalArgumentException("Rollout depth is negative");
+        }
+        this.turnBudgetNanos = turnBudgetNanos;
+        this.parallelism = parallelism;
+        this.rolloutDepth = rolloutDepth;
+    }
+
+    @Override
+    public void initialize(int boardSize, int maxInventorySize, int maxCharge, int winningScore,
+                           PlayerBoardView startingBoard, Point startTileLocation, boolean isRedPlayer, Random random) {
+        if (startingBoard == null) {
+            throw new IllegalArgumentException("Starting board cannot be null");
+        }
+        this.boardSize = boardSize;
+        this.maxInventorySize = maxInventorySize;
+        this.maxCharge = maxCharge;
+        int maxPrice = 1;
+        for (ItemType itemType : allItemTypes) {
+            maxPrice = Math.max(maxPrice, itemType.getMaxPrice());
+        }
+        this.rewardScale = Math.max(1, maxInventorySize) * (double) maxPrice;
+        TileType myMarketType = isRedPlayer ? TileType.RED_MARKET : TileType.BLUE_MARKET;
+        this.markets = NearestStationTable.fromBoard(startingBoard, myMarketType);
+        this.recharges = NearestStationTable.fromBoard(startingBoard, TileType.RECHARGE);
+        this.resourceFields = createResourceFields(boardSize);
+        this.lastSeenBoard = null;
+        this.tileTypeBits = new long[Bitboards.getNumWords(boardSize * boardSize)];
+        this.workspaces = new Workspace[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            workspaces[i] = new Workspace(createResourceFields(boardSize));
+        }
+        updateResourceFields(startingBoard);
+        this.root = null;
+        this.lastActionVisits = 0;
+        this.reusedRootVisits = 0;
+        this.lastTurnRollouts = 0;
+        this.lastTurnNanos = 0;
+        this.totalRollouts = 0;
+        this.totalNanos = 0;
+    }
+
+    @Override
+    public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge, boolean isRedTurn) {
+        ForwardModel model = boardView.getForwardModel();
+        if (model == null) {
+            return null; // There is nothing to search without a running game
+        }
+        // The game's own view lists the cells that changed since the last one, a forward model's view doesn't
+        updateResourceFields(boardView);
+        return searchFrom(model);
+    }
+
+    /**
+     * Searches from a game state for this strategy's time budget and picks the action whose rollouts did best
+     *
+     * @param model The state of the game to search from, from this player's point of view. It is not changed
+     * @return The chosen action
+     */
+    public TurnAction search(ForwardModel model) {
+        updateResourceFields(model.getBoardView());
+        return searchFrom(model);
+    }
+
+    private TurnAction searchFrom(ForwardModel model) {
+        Node reusedRoot = (root != null && model.getTurnNumber() == rootTurnNumber + 1)
+                          ? root.children.get(lastActionIndex) : null;
+        root = (reusedRoot != null) ? reusedRoot : new Node(DO_NOTHING_INDEX);
+        reusedRootVisits = root.visits.get();
+        // The opponent has moved since the kept subtree was searched, so its best rollouts may not be possible any
+        //  more. Its visits still guide which actions are tried first
+        root.clearBestRewards();
+        rootTurnNumber = model.getTurnNumber();
+        PlayerBoardView boardView = model.getBoardView();
+        Point location = boardView.getYourLocation();
+        boolean hasItemsUnderfoot = !boardView.getBoardSnapshot().getItems(location.x, location.y).isEmpty();
+        int rootActions = getUsefulActions(model, hasItemsUnderfoot);
+
+        long startTime = System.nanoTime();
+        long deadline = startTime + turnBudgetNanos;
+        // Every worker gets its own copy to fork rollouts from, made here since the model itself isn't thread safe
+        SearchTask[] tasks = new SearchTask[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            workspaces[i].startSearch(resourceFields);
+            tasks[i] = new SearchTask(model.fork(), workspaces[i], root, rootActions, deadline,
+                                      model.getYourScore());
+        }
+        runTasks(tasks);
+        long turnRollouts = 0;
+        for (SearchTask task : tasks) {
+            turnRollouts += task.numRollouts;
+        }
+
+        lastTurnNanos = System.nanoTime() - startTime;
+        lastTurnRollouts = turnRollouts;
+        totalNanos += lastTurnNanos;
+        totalRollouts += turnRollouts;
+
+        lastActionIndex = root.getBestChild(rootActions);
+        Node chosenChild = root.children.get(lastActionIndex);
+        lastActionVisits = (chosenChild == null) ? 0 : chosenChild.visits.get();
+        return ACTIONS[lastActionIndex];
+    }
+
+    /**
+     * Runs a single task on the calling thread, and more than one on a pool that is shut down before returning, so
+     *  no thread outlives the search even if a task throws
+     */
+    private void runTasks(SearchTask[] tasks) {
+        if (tasks.length == 1) {
+            tasks[0].invoke();
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(tasks.length);
+        try {
+            for (SearchTask task : tasks) {
+                pool.execute(task);
+            }
+            for (SearchTask task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @param simulation The state to act in
+     * @param mayPickUp True if there could be a resource on the ground under the player
+     * @return A bit for each index of ACTIONS that would do something in the simulation's current state
+     */
+    private int getUsefulActions(ForwardModel simulation, boolean mayPickUp) {
+        Point location = simulation.getYourLocation();
+        int usefulActions = 0;
+        for (int move = 0; move < MOVES.length; move++) {
+            if (isOnBoard(location.x + MOVE_DX[move], location.y + MOVE_DY[move])) {
+                usefulActions |= 1 << move;
+            }
+        }
+        TileType tileType = simulation.getTileTypeAtLocation(location.x, location.y);
+        if (resourceByTileType[tileType.ordinal()] != null) {
+            usefulActions |= 1 << MINE_INDEX;
+        } else if (mayPickUp && simulation.getYourInventory().size() < maxInventorySize) {
+            usefulActions |= 1 << PICK_UP_INDEX;
+        }
+        if ((tileType == TileType.RECHARGE && simulation.getYourEnergy() < maxCharge) || usefulActions == 0) {
+            usefulActions |= 1 << DO_NOTHING_INDEX;
+        }
+        return usefulActions;
+    }
+
+    private boolean isOnBoard(int x, int y) {
+        return x >= 0 && x < boardSize && y >= 0 && y < boardSize;
+    }
+
+    /**
+     * @return A DistanceField for every ItemType that is mined from a tile, indexed by ItemType ordinal
+     */
+    private static DistanceField[] createResourceFields(int boardSize) {
+        DistanceField[] fields = new DistanceField[allItemTypes.length];
+        for (ItemType itemType : allItemTypes) {
+            if (itemType.getResourceTileType() != null) {
+                fields[itemType.ordinal()] = new DistanceField(boardSize);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Brings the resource DistanceFields up to date with a board. Boards from the game list the tiles that changed
+     *  since the last one, so only those are patched; any other new board is read in full
+     * @param boardView The board to be read
+     */
+    private void updateResourceFields(PlayerBoardView boardView) {
+        BoardSnapshot snapshot = boardView.getBoardSnapshot();
+        if (snapshot == lastSeenBoard) {
+            return;
+        }
+        boolean isFirstBoard = lastSeenBoard == null;
+        lastSeenBoard = snapshot;
+
+        int numChangedCells = boardView.getNumChangedCells();
+        if (isFirstBoard || numChangedCells == 0) {
+            for (ItemType itemType : allItemTypes) {
+                if (resourceFields[itemType.ordinal()] != null) {
+                    boardView.copyTileTypeBits(itemType.getResourceTileType(), tileTypeBits);
+                    resourceFields[itemType.ordinal()].setSources(tileTypeBits);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < numChangedCells; i++) {
+            int x = boardView.getChangedCellX(i);
+            int y = boardView.getChangedCellY(i);
+            if (!isOnBoard(x, y)) {
+                continue;
+            }
+            ItemType resourceType = resourceByTileType[snapshot.getTileType(x, y).ordinal()];
+            for (ItemType itemType : allItemTypes) {
+                DistanceField resourceField = resourceFields[itemType.ordinal()];
+                if (resourceField == null) {
+                    continue;
+                }
+                if (itemType == resourceType) {
+                    resourceField.addSource(x, y);
+                } else {
+                    resourceField.removeSource(x, y);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onReceiveItem(InventoryItem itemReceived) {
+
+    }
+
+    @Override
+    public void onSoldInventory(int totalSellPrice) {
+
+    }
+
+    @Override
+    public String getName() {
+        return "MctsStrategy";
+    }
+
+    @Override
+    public void endRound(int pointsScored, int opponentPointsScored) {
+        root = null;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return How many rollouts had already gone through the root of the last search before it started, from the
+     *          subtree kept from the turn before. 0 if nothing was kept
+     */
+    public int getReusedRootVisits() {
+        return reusedRootVisits;
+    }
+
+    /**
+     * @return How many rollouts went through the action the last search chose
+     */
+    public int getLastActionVisits() {
+        return lastActionVisits;
+    }
+
+    /**
+     * @return How many rollouts the last turn's search played
+     */
+    public long getLastTurnRollouts() {
+        return lastTurnRollouts;
+    }
+
+    /**
+     * @return How many rollouts per second the last turn's search played
+     */
+    public double getLastTurnRolloutsPerSecond() {
+        return (lastTurnNanos == 0) ? 0 : lastTurnRollouts * 1e9 / lastTurnNanos;
+    }
+
+    /**
+     * @return How many rollouts have been played since the strategy was initialized
+     */
+    public long getTotalRollouts() {
+        return totalRollouts;
+    }
+
+    /**
+     * @return How many rollouts per second have been played since the strategy was initialized
+     */
+    public double getRolloutsPerSecond() {
+        return (totalNanos == 0) ? 0 : totalRollouts * 1e9 / totalNanos;
+    }
+
+    /**
+     * What one worker searches with: its own copy of the resource DistanceFields, which its rollouts remove mined out
+     *  tiles from, and its path down the tree
+     */
+    private static final class Workspace {
+        private final DistanceField[] resourceFields;
+        private final Node[] path = new Node[MAX_TREE_DEPTH + 1];
+        // The discounted reward a rollout had collected on reaching each node of its path
+        private final double[] pathRewards = new double[MAX_TREE_DEPTH + 1];
+        private DistanceField[] searchFields;
+        private boolean areFieldsChanged;
+
+        private Workspace(DistanceField[] resourceFields) {
+            this.resourceFields = resourceFields;
+        }
+
+        private void startSearch(DistanceField[] searchFields) {
+            this.searchFields = searchFields;
+            this.areFieldsChanged = true;
+        }
+
+        /**
+         * Puts back every tile the last rollout removed, by copying the fields the search started from
+         */
+        private void resetFields() {
+            if (!areFieldsChanged) {
+                return;
+            }
+            for (int i = 0; i < resourceFields.length; i++) {
+                if (resourceFields[i] != null) {
+                    resourceFields[i].copyFrom(searchFields[i]);
+                }
+            }
+            areFieldsChanged = false;
+        }
+
+        /**
+         * @return The nearest tile of a resource that still has it in the simulation, or DistanceField.NO_SOURCE.
+         *          Tiles found mined out are removed from this worker's field on the way
+         */
+        private int findNearestResource(ForwardModel simulation, ItemType resourceType, int x, int y) {
+            DistanceField resourceField = resourceFields[resourceType.ordinal()];
+            int size = resourceField.getSize();
+            while (resourceField.getNumSources() > 0) {
+                int resourceCell = resourceField.getNearestSource(x, y);
+                int resourceX = resourceCell % size;
+                int resourceY = resourceCell / size;
+                if (simulation.getTileTypeAtLocation(resourceX, resourceY) == resourceType.getResourceTileType()) {
+                    return resourceCell;
+                }
+                resourceField.removeSource(resourceX, resourceY);
+                areFieldsChanged = true;
+            }
+            return DistanceField.NO_SOURCE;
+        }
+    }
+
+    /**
+     * One worker's share of a turn's search, playing rollouts until the deadline
+     */
+    private final class SearchTask extends RecursiveAction {
+        private final ForwardModel workerModel;
+        private final Workspace workspace;
+        private final Node searchRoot;
+        private final int rootActions;
+        private final long deadline;
+        private final int startingScore;
+        private long numRollouts;
+
+        private SearchTask(ForwardModel workerModel, Workspace workspace, Node searchRoot, int rootActions,
+                           long deadline, int startingScore) {
+            this.workerModel = workerModel;
+            this.workspace = workspace;
+            this.searchRoot = searchRoot;
+            this.rootActions = rootActions;
+            this.deadline = deadline;
+            this.startingScore = startingScore;
+        }
+
+        @Override
+        protected void compute() {
+            do {
+                playRollout();
+                numRollouts++;
+            } while (System.nanoTime() < deadline);
+        }
+
+        private void playRollout() {
+            ForwardModel simulation = workerModel.fork();
+            workspace.resetFields();
+            Node[] path = workspace.path;
+            double[] pathRewards = workspace.pathRewards;
+            double reward = 0;
+            int lastScore = startingScore;
+            double discount = 1;
+
+            // Down the tree to a node this search hasn't scored yet, adding it if it's new
+            Node node = searchRoot;
+            node.visits.incrementAndGet();
+            path[0] = node;
+            pathRewards[0] = 0;
+            int pathLength = 1;
+            boolean isLeaf = false;
+            int usefulActions = rootActions;
+            // Every rollout ends the same number of turns after the root, however deep the tree goes
+            int maxTreeDepth = Math.min(MAX_TREE_DEPTH, rolloutDepth);
+            while (!isLeaf && pathLength <= maxTreeDepth && !simulation.isGameOver()) {
+                int actionIndex = node.selectChild(usefulActions);
+                Node child = node.children.get(actionIndex);
+                if (child == null) {
+                    Node newChild = new Node(actionIndex);
+                    child = node.children.compareAndSet(actionIndex, null, newChild)
+                            ? newChild : node.children.get(actionIndex);
+                }
+                isLeaf = !child.isScored();
+                child.visits.incrementAndGet();
+                simulation.step(ACTIONS[actionIndex], null);
+                reward += discount * (simulation.getYourScore() - lastScore);
+                lastScore = simulation.getYourScore();
+                discount *= DISCOUNT;
+                pathRewards[pathLength] = reward;
+                path[pathLength++] = child;
+                node = child;
+                // A resource can only be on the ground if this player just mined it out
+                usefulActions = getUsefulActions(simulation, actionIndex == MINE_INDEX);
+            }
+
+            // Past the tree, with the greedy policy
+            TurnAction lastAction = (pathLength > 1) ? ACTIONS[node.parentActionIndex] : null;
+            for (int turn = pathLength - 1; turn < rolloutDepth && !simulation.isGameOver(); turn++) {
+                lastAction = getRolloutAction(simulation, lastAction, workspace);
+                simulation.step(lastAction, null);
+                reward += discount * (simulation.getYourScore() - lastScore);
+                lastScore = simulation.getYourScore();
+                discount *= DISCOUNT;
+            }
+            reward += discount * getCarriedValue(simulation);
+
+            // Each node is scored from its parent's state, so a subtree kept for the next turn is scored from its new
+            //  root, like the nodes searched after it
+            double parentDiscount = 1;
+            for (int i = 0; i < pathLength; i++) {
+                double rewardFromParent = (reward - pathRewards[Math.max(0, i - 1)]) / parentDiscount;
+                long rewardUnits = Math.round(rewardFromParent / rewardScale * REWARD_UNITS);
+                path[i].totalReward.addAndGet(rewardUnits);
+                path[i].bestReward.accumulateAndGet(rewardUnits, Math::max);
+                path[i] = null;
+                parentDiscount *= (i > 0) ? DISCOUNT : 1;
+            }
+        }
+    }
+
+    /**
+     * @return What the items being carried would sell for if the robot walked straight to a market, discounted by
+     *          how long the walk takes
+     */
+    private double getCarriedValue(ForwardModel simulation) {
+        if (simulation.getYourInventory().isEmpty() || markets.getNumStations() == 0) {
+            return 0;
+        }
+        Point location = simulation.getYourLocation();
+        int marketDistance = markets.getDistance(location.x, location.y);
+        return Math.pow(DISCOUNT, marketDistance)
+               * simulation.getEconomy().getForecastRevenue(simulation.getYourInventory(), marketDistance);
+    }
+
+    /**
+     * Recharges when the robot is about to run out, sells when the inventory is full, mines whatever it stands on,
+     *  and otherwise heads for the resource with the best price for the turns it takes to reach and mine it
+     */
+    private TurnAction getRolloutAction(ForwardModel simulation, TurnAction lastAction, Workspace workspace) {
+        Point location = simulation.getYourLocation();
+        int energy = simulation.getYourEnergy();
+        if (recharges.getNumStations() > 0) {
+            int rechargeDistance = recharges.getDistance(location.x, location.y);
+            if (rechargeDistance == 0 && energy < maxCharge) {
+                return null;
+            }
+            if (energy <= rechargeDistance + 1) {
+                return moveTowards(location, recharges.getNearestStation(location));
+            }
+        }
+        int numItems = simulation.getYourInventory().size();
+        if (numItems >= maxInventorySize && markets.getNumStations() > 0) {
+            return moveTowards(location, markets.getNearestStation(location));
+        }
+
+        TileType tileType = simulation.getTileTypeAtLocation(location.x, location.y);
+        if (resourceByTileType[tileType.ordinal()] != null) {
+            return TurnAction.MINE;
+        }
+        if (lastAction == TurnAction.MINE) {
+            return TurnAction.PICK_UP_RESOURCE; // The tile was mined out last turn, the resource is on the ground
+        }
+
+        Economy economy = simulation.getEconomy();
+        double bestValue = 0;
+        int bestCell = DistanceField.NO_SOURCE;
+        for (ItemType itemType : allItemTypes) {
+            if (resourceFields[itemType.ordinal()] == null || !economy.isSellable(itemType)) {
+                continue;
+            }
+            int resourceCell = workspace.findNearestResource(simulation, itemType, location.x, location.y);
+            if (resourceCell == DistanceField.NO_SOURCE) {
+                continue;
+            }
+            int distance = Math.abs(resourceCell % boardSize - location.x) + Math.abs(resourceCell / boardSize
+                                                                                        - location.y);
+            double value = economy.getPrice(itemType) / (distance + MINE_TIME_WEIGHT * itemType.getTurnsToMine());
+            if (value > bestValue) {
+                bestValue = value;
+                bestCell = resourceCell;
+            }
+        }
+        if (bestCell != DistanceField.NO_SOURCE) {
+            return moveTowards(location, new Point(bestCell % boardSize, bestCell / boardSize));
+        }
+        if (numItems > 0 && markets.getNumStations() > 0) {
+            return moveTowards(location, markets.getNearestStation(location));
+        }
+        return null;
+    }
+
+    private static TurnAction moveTowards(Point origin, Point destination) {
+        int xDifference = destination.x - origin.x;
+        int yDifference = destination.y - origin.y;
+        if (xDifference != 0) {
+            return (xDifference > 0) ? TurnAction.MOVE_RIGHT : TurnAction.MOVE_LEFT;
+        }
+        return (yDifference > 0) ? TurnAction.MOVE_UP : TurnAction.MOVE_DOWN;
+    }
+
+    /**
+     * A sequence of this player's actions from the root. Visits are counted on the way down and rewards on the way
+     *  back up, so a node being explored by another worker looks worse until its rollout finishes. Rewards are
+     *  counted from the parent's state, and the best one is only kept for the search that found it
+     */
+    private static final class Node {
+        private final AtomicReferenceArray<Node> children = new AtomicReferenceArray<>(ACTIONS.length);
+        private final AtomicInteger visits = new AtomicInteger();
+        private final AtomicLong totalReward = new AtomicLong();
+        private final AtomicLong bestReward = new AtomicLong(Long.MIN_VALUE);
+        // The index in ACTIONS of the action that leads here from the parent, DO_NOTHING_INDEX for a new root
+        private final int parentActionIndex;
+
+        private Node(int parentActionIndex) {
+            this.parentActionIndex = parentActionIndex;
+        }
+
+        private boolean isScored() {
+            return bestReward.get() != Long.MIN_VALUE;
+        }
+
+        private void clearBestRewards() {
+            if (!isScored()) {
+                return; // Nothing under a node can have been scored before it was
+            }
+            bestReward.set(Long.MIN_VALUE);
+            for (int i = 0; i < ACTIONS.length; i++) {
+                Node child = children.get(i);
+                if (child != null) {
+                    child.clearBestRewards();
+                }
+            }
+        }
+
+        /**
+         * @param usefulActions A bit for each index of ACTIONS that can be chosen
+         * @return The first action that has not been scored in this search, or the one with the best UCT score
+         */
+        private int selectChild(int usefulActions) {
+            double logVisits = Math.log(Math.max(1, visits.get()));
+            int bestIndex = DO_NOTHING_INDEX;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < ACTIONS.length; i++) {
+                if ((usefulActions & (1 << i)) == 0) {
+                    continue;
+                }
+                Node child = children.get(i);
+                if (child == null || !child.isScored()) {
+                    return i;
+                }
+                int childVisits = child.visits.get();
+                double meanReward = child.totalReward.get() / REWARD_UNITS / childVisits;
+                double score = meanReward + EXPLORATION * Math.sqrt(logVisits / childVisits);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestIndex = i;
+                }
+            }
+            return bestIndex;
+        }
+
+        /**
+         * @param usefulActions A bit for each index of ACTIONS that can be chosen
+         * @return The action with the best rollout in this search, the most visited of those that tie, or
+         *          DO_NOTHING_INDEX if nothing was searched
+         */
+        private int getBestChild(int usefulActions) {
+            int bestIndex = DO_NOTHING_INDEX;
+            long bestChildReward = Long.MIN_VALUE;
+            int bestVisits = 0;
+            for (int i = 0; i < ACTIONS.length; i++) {
+                Node child = children.get(i);
+                if ((usefulActions & (1 << i)) == 0 || child == null || !child.isScored()) {
+                    continue;
+                }
+                int childVisits = child.visits.get();
+                long childReward = child.bestReward.get();
+                if (childReward > bestChildReward || (childReward == bestChildReward && childVisits > bestVisits)) {
+                    bestChildReward = childReward;
+                    bestVisits = childVisits;
+                    bestIndex = i;
+                }
+            }
+            return bestIndex;
+        }
+    }
+}
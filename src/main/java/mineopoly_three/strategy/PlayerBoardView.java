@@ -1,27 +1,54 @@
 package mineopoly_three.strategy;
 
+import mineopoly_three.game.ForwardModel;
 import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemCellCursor;
 import mineopoly_three.tiles.TileType;
 
 import java.awt.*;
 import java.util.Map;
 import java.util.List;
+import java.util.function.Supplier;
 
 @SuppressWarnings("unused")
 public class PlayerBoardView {
-    private TileType[][] tiles;
-    private Map<Point, List<InventoryItem>> itemsOnGround;
+    private static final int[] NO_CHANGED_CELLS = new int[0];
+
+    private BoardSnapshot board;
     private Point thisPlayerLocation;
     private Point otherPlayerLocation;
     private int otherPlayerScore;
+    private Supplier<ForwardModel> forwardModels;
+    private int[] changedCellIndices;
 
     public PlayerBoardView(TileType[][] tiles, Map<Point, List<InventoryItem>> itemsOnGround,
                            Point thisPlayerLocation, Point otherPlayerLocation, int otherPlayerScore) {
-        this.tiles = tiles;
-        this.itemsOnGround = itemsOnGround;
+        this(BoardSnapshot.fromTiles(tiles, itemsOnGround), thisPlayerLocation, otherPlayerLocation, otherPlayerScore);
+    }
+
+    public PlayerBoardView(BoardSnapshot board, Point thisPlayerLocation, Point otherPlayerLocation,
+                           int otherPlayerScore) {
+        this(board, thisPlayerLocation, otherPlayerLocation, otherPlayerScore, null);
+    }
+
+    public PlayerBoardView(BoardSnapshot board, Point thisPlayerLocation, Point otherPlayerLocation,
+                           int otherPlayerScore, Supplier<ForwardModel> forwardModels) {
+        this(board, thisPlayerLocation, otherPlayerLocation, otherPlayerScore, forwardModels, NO_CHANGED_CELLS);
+    }
+
+    /**
+     * @param changedCellIndices The (y * boardSize) + x index of every cell whose tile type or items changed since
+     *                            the player's previous view. The array is not copied, so it must never be modified
+     *                            after being passed in
+     */
+    public PlayerBoardView(BoardSnapshot board, Point thisPlayerLocation, Point otherPlayerLocation,
+                           int otherPlayerScore, Supplier<ForwardModel> forwardModels, int[] changedCellIndices) {
+        this.board = board;
         this.thisPlayerLocation = thisPlayerLocation;
         this.otherPlayerLocation = otherPlayerLocation;
         this.otherPlayerScore = otherPlayerScore;
+        this.forwardModels = forwardModels;
+        this.changedCellIndices = (changedCellIndices == null) ? NO_CHANGED_CELLS : changedCellIndices;
     }
 
     /**
@@ -42,26 +69,106 @@ public class PlayerBoardView {
      * @return The type of tile at the (x, y) Cartesian coordinates, or null if the coordinates are outside the board
      */
     public TileType getTileTypeAtLocation(int x, int y) {
-        // The index on the board, and the Cartesian coordinates are mirror opposites in the y direction
-        int xIndex = x;
-        int yIndex = (tiles.length - 1) - y;
-
-        boolean xIndexInBounds = (xIndex >= 0 && xIndex < tiles.length);
-        boolean yIndexInBounds = (yIndex >= 0 && yIndex < tiles.length);
-        if (xIndexInBounds && yIndexInBounds) {
-            return tiles[yIndex][xIndex];
-        }
+        return board.getTileType(x, y);
+    }
 
-        return null;
+    /**
+     * Copies the type of every tile into an array you own, so the whole board can be scanned without a method
+     *  call and bounds check per tile
+     *
+     * @param destination Where to copy the tile types, with room for at least boardSize * boardSize cells. Cell
+     *                     (x, y) gets the ordinal of its TileType at index (y * boardSize) + x
+     */
+    public void copyTileTypes(byte[] destination) {
+        board.copyTileTypes(destination);
     }
 
     /**
-     * Gets a map from every Point with an item on the ground to the InventoryItem on theground
+     * Gets a bitboard of every tile of one type, for example every diamond tile. Bitboards of different types can
+     *  be combined with a few word operations, and read with the helpers in Bitboards
      *
-     * @return The mapping for all locations with InventoryItems to those items
+     * @param tileType The type of tile to find
+     * @return A new bitboard with bit (y * boardSize) + x set for every tile of that type
+     */
+    public long[] getTileTypeBits(TileType tileType) {
+        return board.getTileTypeBits(tileType);
+    }
+
+    /**
+     * Fills a bitboard you own with every tile of one type, so it can be done every turn without allocating
+     *
+     * @param tileType The type of tile to find
+     * @param destination The bitboard to fill, with at least Bitboards.getNumWords(boardSize * boardSize) words
+     */
+    public void copyTileTypeBits(TileType tileType, long[] destination) {
+        board.copyTileTypeBits(tileType, destination);
+    }
+
+    /**
+     * @param tileType The type of tile to count
+     * @return The number of tiles of that type on the board
+     */
+    public int countTileType(TileType tileType) {
+        return board.countTileType(tileType);
+    }
+
+    /**
+     * Gets a map from every Point on the board to the InventoryItems on the ground there, which is an empty list
+     *  where there are none. Every call builds a new copy that belongs to you, so you can change it without
+     *  affecting anything else
+     *
+     * @return The mapping for all locations on the board to the items on the ground there
      */
     public Map<Point, List<InventoryItem>> getItemsOnGround() {
-        return itemsOnGround;
+        return board.getItemsOnGround();
+    }
+
+    /**
+     * Walks over only the cells that have items on the ground, without building a map of every item like
+     *  getItemsOnGround() does
+     *
+     * @return A cursor positioned before the first cell with items on it
+     */
+    public ItemCellCursor getItemCells() {
+        return board.getItemCells();
+    }
+
+    /**
+     * Gets how many cells had their tile type or items change since the last view you were given, so you can keep
+     *  anything you worked out from the board up to date without scanning all of it again. The first view you are
+     *  given, the one passed to initialize(), lists every cell set up since the board was made.
+     * A cell is listed once however many times it changed, and may be back to how it was
+     *
+     * @return The number of changed cells
+     */
+    public int getNumChangedCells() {
+        return changedCellIndices.length;
+    }
+
+    /**
+     * @param changeIndex Which changed cell to get, from 0 to getNumChangedCells() - 1
+     * @return The x coordinate of the changed cell
+     */
+    public int getChangedCellX(int changeIndex) {
+        return changedCellIndices[changeIndex] % board.getSize();
+    }
+
+    /**
+     * @param changeIndex Which changed cell to get, from 0 to getNumChangedCells() - 1
+     * @return The y coordinate of the changed cell
+     */
+    public int getChangedCellY(int changeIndex) {
+        return changedCellIndices[changeIndex] / board.getSize();
+    }
+
+    /**
+     * Gets the immutable snapshot of the board this view was made from. Snapshots from later turns share
+     *  whatever did not change with this one, so keeping old snapshots around is cheap
+     *
+     * @return The BoardSnapshot backing this view
+     */
+    public BoardSnapshot getBoardSnapshot() {
+        return board;
     }
 
     /**
@@ -92,4 +199,18 @@ public class PlayerBoardView {
     public int getOtherPlayerScore() {
         return otherPlayerScore;
     }
-}
\ No newline at end of file
+
+    /**
+     * Forks the game as it is right now into a ForwardModel you can play turns ahead in, without changing the real
+     *  game. Only works while your strategy is choosing its turn action
+     *
+     * @return A new ForwardModel from your point of view, or null if this view does not come from a running game
+     * @throws IllegalStateException If your strategy is not currently choosing a turn action
+     */
+    public ForwardModel getForwardModel() {
+        if (forwardModels == null) {
+            return null;
+        }
+        return forwardModels.get();
+    }
+}
@@ -0,0 +1,26 @@
+package mineopoly_three.strategy;
+
+import mineopoly_three.action.TurnAction;
+
+/**
+ * A strategy whose turn actions only depend on the turn number, like a replay of a past game. A GameEngine whose
+ *  strategies are both seekable can jump to any turn of the game instead of playing every turn before it.
+ */
+public interface SeekableStrategy extends MinePlayerStrategy {
+    /**
+     * Called when the game jumps to a different turn, after it has been put back in the state it was in at the
+     *  start of that turn
+     *
+     * @param turnNumber The turn the next call to getTurnAction will be for, starting from 0
+     */
+    void seekToTurn(int turnNumber);
+
+    /**
+     * Looks up the action taken on a turn without moving to it. A game that jumps forward uses this to record the
+     *  actions of the turns it skipped
+     *
+     * @param turnNumber A turn before the one the game is at, starting from 0
+     * @return The action this strategy takes on that turn, or null if it does nothing
+     */
+    TurnAction getTurnActionOn(int turnNumber);
+}
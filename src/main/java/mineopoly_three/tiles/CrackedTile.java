@@ -1,13 +1,14 @@
 package mineopoly_three.tiles;
 
+import mineopoly_three.game.GameBoard;
 import mineopoly_three.graphics.ImageManager;
 import mineopoly_three.graphics.TileRenderLayer;
 
 import java.awt.*;
 
 public class CrackedTile extends StoneTile {
-    public CrackedTile(Point tileLocation) {
-        super(tileLocation);
+    public CrackedTile(GameBoard board, Point tileLocation) {
+        super(board, tileLocation);
     }
 
     @Override
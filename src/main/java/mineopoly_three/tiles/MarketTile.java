@@ -1,6 +1,6 @@
 package mineopoly_three.tiles;
 
-import mineopoly_three.game.MinePlayer;
+import mineopoly_three.game.GameBoard;
 import mineopoly_three.graphics.ImageManager;
 import mineopoly_three.graphics.TileRenderLayer;
 
@@ -8,10 +8,10 @@ import javax.swing.*;
 import java.awt.*;
 
 public class MarketTile extends Tile {
-    private boolean isRedMarket;
+    private final boolean isRedMarket;
 
-    public MarketTile(Point tileLocation, boolean isRedMarket) {
-        super(tileLocation);
+    public MarketTile(GameBoard board, Point tileLocation, boolean isRedMarket) {
+        super(board, tileLocation);
         this.isRedMarket = isRedMarket;
     }
 
@@ -20,17 +20,6 @@ public class MarketTile extends Tile {
         return (isRedMarket) ? (TileType.RED_MARKET) : (TileType.BLUE_MARKET);
     }
 
-    @Override
-    public void onEnter(MinePlayer playerEnteringTile) {
-        super.onEnter(playerEnteringTile);
-
-        boolean isRedPlayerOnRedMarket = isRedMarket && playerEnteringTile.isRedPlayer();
-        boolean isBluePlayerOnBlueMarket = !isRedMarket && !playerEnteringTile.isRedPlayer();
-        if (isRedPlayerOnRedMarket || isBluePlayerOnBlueMarket) {
-            playerEnteringTile.sellItems();
-        }
-    }
-
     @Override
     protected Image[] getImageOverlays(ImageManager imageManager) {
         Image[] imageOverlays = super.getImageOverlays(imageManager);
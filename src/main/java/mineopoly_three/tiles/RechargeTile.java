@@ -1,15 +1,14 @@
 package mineopoly_three.tiles;
 
+import mineopoly_three.game.GameBoard;
 import mineopoly_three.graphics.ImageManager;
 import mineopoly_three.graphics.TileRenderLayer;
 
 import java.awt.*;
 
 public class RechargeTile extends StoneTile {
-    private static final float RECHARGE_PERCENT_PER_TURN = 0.1f;
-
-    public RechargeTile(Point tileLocation) {
-        super(tileLocation);
+    public RechargeTile(GameBoard board, Point tileLocation) {
+        super(board, tileLocation);
     }
 
     @Override
@@ -17,13 +16,6 @@ public class RechargeTile extends StoneTile {
         return TileType.RECHARGE;
     }
 
-    @Override
-    public void update() {
-        if (super.playerOnTile != null) {
-            super.playerOnTile.rechargeEnergy(RECHARGE_PERCENT_PER_TURN);
-        }
-    }
-
     @Override
     protected Image[] getImageOverlays(ImageManager imageManager) {
         Image[] imageOverlays = super.getImageOverlays(imageManager);
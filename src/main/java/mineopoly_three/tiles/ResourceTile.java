@@ -1,23 +1,19 @@
 package mineopoly_three.tiles;
 
-import mineopoly_three.game.MinePlayer;
-import mineopoly_three.action.TurnAction;
+import mineopoly_three.game.GameBoard;
 import mineopoly_three.graphics.ImageManager;
 import mineopoly_three.graphics.TileRenderLayer;
-import mineopoly_three.item.InventoryItem;
 import mineopoly_three.item.ItemType;
 
 import java.awt.*;
 
 public class ResourceTile extends StoneTile {
-    private ItemType tileResource;
-    private int numTimesMined;
+    private final ItemType tileResource;
 
-    public ResourceTile(Point tileLocation, ItemType tileResource) {
-        super(tileLocation);
+    public ResourceTile(GameBoard board, Point tileLocation, ItemType tileResource) {
+        super(board, tileLocation);
         assert(tileResource.isResource());
         this.tileResource = tileResource;
-        this.numTimesMined = 0;
     }
 
     @Override
@@ -29,24 +25,6 @@ public class ResourceTile extends StoneTile {
         return tileResource;
     }
 
-    @Override
-    public Tile interact(MinePlayer playerOnTile, TurnAction actionOnTile) {
-        super.interact(playerOnTile, actionOnTile);
-
-        if (actionOnTile == TurnAction.MINE) {
-            numTimesMined++;
-
-            if (numTimesMined >= tileResource.getTurnsToMine()) {
-                Tile minedTile = new CrackedTile(location);
-                minedTile.getItemsOnTile().addAll(getItemsOnTile());
-                minedTile.getItemsOnTile().add(new InventoryItem(tileResource));
-                return minedTile;
-            }
-        }
-
-        return this;
-    }
-
     @Override
     protected Image[] getImageOverlays(ImageManager imageManager) {
         Image[] imageOverlays = super.getImageOverlays(imageManager);
@@ -57,6 +35,7 @@ public class ResourceTile extends StoneTile {
         imageOverlays[resourceTypeLayerIndex] = resourceTileOverlay;
 
         // Add crack textures if this has been mined
+        int numTimesMined = board.getMineProgressAtLocation(location.x, location.y);
         Image crackOverlay = imageManager.getScaledImage("crack_" + numTimesMined);
         int crackLayerIndex = TileRenderLayer.LAYER_CRACK.ordinal();
         imageOverlays[crackLayerIndex] = crackOverlay;
@@ -1,5 +1,6 @@
 package mineopoly_three.tiles;
 
+import mineopoly_three.game.GameBoard;
 import mineopoly_three.graphics.ImageManager;
 import mineopoly_three.graphics.TileRenderLayer;
 
@@ -8,8 +9,8 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 
 public abstract class StoneTile extends Tile {
-    public StoneTile(Point tileLocation) {
-        super(tileLocation);
+    public StoneTile(GameBoard board, Point tileLocation) {
+        super(board, tileLocation);
     }
 
     @Override
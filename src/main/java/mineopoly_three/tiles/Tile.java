@@ -1,39 +1,43 @@
 package mineopoly_three.tiles;
 
+import mineopoly_three.game.GameBoard;
 import mineopoly_three.game.MinePlayer;
-import mineopoly_three.action.TurnAction;
 import mineopoly_three.graphics.ImageManager;
 import mineopoly_three.graphics.TileRenderLayer;
 import mineopoly_three.item.InventoryItem;
 import mineopoly_three.item.ItemType;
 
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
 
 
+/**
+ * A read only view of one tile on a GameBoard, used to render it. The GameBoard owns all of the tile's state,
+ *  so a Tile never changes on its own and a new one can be asked for whenever the board changes
+ */
 public abstract class Tile {
     private static final int NUM_RENDER_LAYERS = TileRenderLayer.values().length;
-    protected MinePlayer playerOnTile;
-    protected List<InventoryItem> itemsOnTile;
-    protected Point location;
+    protected final GameBoard board;
+    protected final Point location;
 
-    protected Tile(Point tileLocation) {
-        this.playerOnTile = null;
-        this.itemsOnTile = new ArrayList<>();
+    protected Tile(GameBoard board, Point tileLocation) {
+        this.board = board;
         this.location = tileLocation;
     }
 
     public MinePlayer getPlayerOnTile() {
-        return playerOnTile;
+        return board.getPlayerAtLocation(location.x, location.y);
     }
 
     public Point getLocation() {
         return location;
     }
 
+    /**
+     * @return An unmodifiable list of the items on the ground on this tile
+     */
     public List<InventoryItem> getItemsOnTile() {
-        return itemsOnTile;
+        return board.getItemsAtLocation(location.x, location.y);
     }
 
     /**
@@ -41,71 +45,6 @@ public abstract class Tile {
      */
     public abstract TileType getType();
 
-    /**
-     * Called when an action is performed on a Tile by a player to determine
-     *  A. What happens for that action and B. What changes are made to the Tile as a result of that action
-     *
-     * @param playerOnTile The player performing the action on this tile
-     * @param actionOnTile The TurnAction being performed on this tile
-     * @return A Tile representing what the Tile at this location on the game board should be set to after this turn.
-     *          Return this Tile if no change should happen
-     *          Return a new Tile of the next type if the action does result in a change on the tile
-     */
-    public Tile interact(MinePlayer playerOnTile, TurnAction actionOnTile) {
-
-        InventoryItem resource = itemsOnTile.stream().filter(x -> x.getItemType().isResource()).findFirst().orElse(null);
-        InventoryItem autominer = itemsOnTile.stream().filter(x -> x.getItemType() == ItemType.AUTOMINER).findFirst().orElse(null);
-
-        // Ensure there already is not an autominer here
-        if(actionOnTile == TurnAction.PLACE_AUTOMINER && autominer == null) {
-            InventoryItem playerAutominer = playerOnTile.getInventory().stream().filter(x -> x.getItemType() == ItemType.AUTOMINER).findFirst().orElse(null);
-
-            if(playerAutominer != null) {
-                playerOnTile.getInventory().remove(playerAutominer);
-                itemsOnTile.add(playerAutominer);
-            }
-        } else {
-            InventoryItem toPickUp = null;
-
-            if (actionOnTile == TurnAction.PICK_UP_RESOURCE && resource != null) {
-                toPickUp = resource;
-            } else if(actionOnTile == TurnAction.PICK_UP_AUTOMINER && autominer != null) {
-                toPickUp = autominer;
-            }
-
-            if(toPickUp != null && playerOnTile.addItemToInventory(toPickUp))
-                itemsOnTile.remove(toPickUp);
-        }
-
-
-        return this;
-    }
-
-    /**
-     * Called every turn for tiles to update their internal state, if they need to do so
-     */
-    public void update() {
-        // By default tiles don't do anything
-    }
-
-    /**
-     * Called when a player enters this tile on a turn
-     *
-     * @param playerEnteringTile The player entering the tile
-     */
-    public void onEnter(MinePlayer playerEnteringTile) {
-        playerOnTile = playerEnteringTile;
-    }
-
-    /**
-     * Called when a player exits a tile on a turn.
-     *
-     * @param playerExitingTile The player leaving the tile.
-     */
-    public void onExit(MinePlayer playerExitingTile) {
-        playerOnTile = null;
-    }
-
     /**
      * Gets the Image[] that encodes how to render this Tile
      * Images with later TileRenderLayer values will be rendered on top of Images with earlier values
@@ -117,6 +56,7 @@ public abstract class Tile {
         Image[] imageOverlays = new Image[NUM_RENDER_LAYERS];
 
         // Draw players if they're standing on this tile
+        MinePlayer playerOnTile = getPlayerOnTile();
         if (playerOnTile != null) {
             Image playerImage = playerOnTile.getImage(imageManager);
             int playerOverlayIndex = TileRenderLayer.LAYER_PLAYER.ordinal();
@@ -124,7 +64,7 @@ public abstract class Tile {
         }
 
         // Draw the items that could be on this tile
-        for(InventoryItem item : itemsOnTile) {
+        for(InventoryItem item : getItemsOnTile()) {
             String itemImageName = item.getItemType().getItemImageName();
             Image itemImage = imageManager.getScaledImage(itemImageName);
             int itemOverlayIndex = item.getItemType() == ItemType.AUTOMINER ?
@@ -0,0 +1,67 @@
+package mineopoly_three.util;
+
+/**
+ * Helpers for bitboards, sets of board cells packed into a long[] with one bit per cell. Cell (x, y) is bit
+ *  (y * boardSize) + x, so bit i is bit (i % 64) of word (i / 64)
+ */
+public final class Bitboards {
+    private Bitboards() {
+    }
+
+    /**
+     * @param numCells The number of cells on the board
+     * @return How many longs a bitboard needs for that many cells
+     */
+    public static int getNumWords(int numCells) {
+        return (numCells + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * @param bits A bitboard
+     * @param cellIndex The index of a cell, (y * boardSize) + x
+     * @return True if the cell is in the bitboard
+     */
+    public static boolean isSet(long[] bits, int cellIndex) {
+        return (bits[cellIndex >>> 6] & (1L << cellIndex)) != 0;
+    }
+
+    /**
+     * @param bits A bitboard
+     * @return The number of cells in the bitboard
+     */
+    public static int count(long[] bits) {
+        int numSetBits = 0;
+        for (long word : bits) {
+            numSetBits += Long.bitCount(word);
+        }
+        return numSetBits;
+    }
+
+    /**
+     * Finds the next cell in a bitboard, skipping empty words 64 cells at a time. Every cell can be visited with
+     *  for (int i = nextSetBit(bits, 0); i >= 0; i = nextSetBit(bits, i + 1))
+     *
+     * @param bits A bitboard
+     * @param fromIndex The cell index to start looking from, inclusive
+     * @return The index of the first cell in the bitboard at or after fromIndex, or -1 if there is none
+     */
+    public static int nextSetBit(long[] bits, int fromIndex) {
+        if (fromIndex < 0) {
+            throw new IllegalArgumentException("Index can't be negative");
+        }
+        int wordIndex = fromIndex >>> 6;
+        if (wordIndex >= bits.length) {
+            return -1;
+        }
+
+        long word = bits[wordIndex] & (-1L << fromIndex);
+        while (word == 0) {
+            wordIndex++;
+            if (wordIndex == bits.length) {
+                return -1;
+            }
+            word = bits[wordIndex];
+        }
+        return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+    }
+}
@@ -0,0 +1,98 @@
+package mineopoly_three.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * A Random that produces exactly the same numbers as java.util.Random for the same seed, but whose state can be
+ *  copied. Copies continue the sequence from the same point independently of each other, which is what lets a
+ *  forked game make the same random decisions the original game would have made.
+ * Unlike java.util.Random this class is not safe to share between threads.
+ */
+public class CopyableRandom extends Random {
+    // The same linear congruential generator java.util.Random is specified to use
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    // Not initialized here on purpose, the Random constructor sets it through setSeed() before field initializers run
+    private long state;
+    private double nextNextGaussian;
+    private boolean haveNextNextGaussian;
+
+    public CopyableRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Creates a generator that continues from the same point in the sequence as another one
+     *
+     * @param toCopy The generator to copy, it is not changed
+     */
+    public CopyableRandom(CopyableRandom toCopy) {
+        super(0);
+        this.state = toCopy.state;
+        this.nextNextGaussian = toCopy.nextNextGaussian;
+        this.haveNextNextGaussian = toCopy.haveNextNextGaussian;
+    }
+
+    /**
+     * Writes where this generator is in its sequence, so readState() can continue from the same point later
+     *
+     * @param out Where to write the state
+     * @throws IOException If out could not be written to
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(state);
+        out.writeBoolean(haveNextNextGaussian);
+        out.writeDouble(nextNextGaussian);
+    }
+
+    /**
+     * Moves this generator to a point in its sequence written by writeState()
+     *
+     * @param in Where to read the state from
+     * @throws IOException If in could not be read from
+     */
+    public void readState(DataInput in) throws IOException {
+        state = in.readLong() & MASK;
+        haveNextNextGaussian = in.readBoolean();
+        nextNextGaussian = in.readDouble();
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        state = (seed ^ MULTIPLIER) & MASK;
+        haveNextNextGaussian = false;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    @Override
+    public synchronized double nextGaussian() {
+        // java.util.Random keeps the spare value of each pair in private fields, so this repeats its algorithm
+        if (haveNextNextGaussian) {
+            haveNextNextGaussian = false;
+            return nextNextGaussian;
+        }
+
+        double v1;
+        double v2;
+        double s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+        nextNextGaussian = v2 * multiplier;
+        haveNextNextGaussian = true;
+        return v1 * multiplier;
+    }
+}
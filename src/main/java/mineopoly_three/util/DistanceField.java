@@ -0,0 +1,339 @@
+package mineopoly_three.util;
+
+import java.util.Arrays;
+
+/**
+ * The number of moves from every cell of a square board to the nearest of a set of source cells, like every diamond
+ *  tile or every market. Any cell can be walked through, one cell up, down, left or right per move.
+ * Distances are worked out with a breadth first search from all sources at once into arrays allocated up front, so
+ *  nothing is allocated after construction. Adding or removing a source afterwards only revisits the cells whose
+ *  distance changes. Cells are given by their index, (y * size) + x.
+ */
+public class DistanceField {
+    /**Returned by getDistance() when there are no sources*/
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    /**Returned instead of a cell index when there are no sources*/
+    public static final int NO_SOURCE = -1;
+
+    // Neighbors are always visited right, left, up, down, so searches break ties the same way every time
+    private static final int[] NEIGHBOR_DX = {1, -1, 0, 0};
+    private static final int[] NEIGHBOR_DY = {0, 0, 1, -1};
+
+    private final int size;
+    private final int[] distances;
+    private final int[] nearestSources;
+    private final long[] sourceBits;
+    private int numSources;
+
+    // The queue for every search. No cell is queued twice in one search, so it never needs to wrap around
+    private final int[] queue;
+    // The cells next to the cells a removed source was nearest to, as (distance << 32) | cell so they sort by distance
+    private final long[] removalSeeds;
+    // Cells are marked with the number of the search that visited them, so marks never have to be cleared
+    private final int[] visitMarks;
+    private int searchNumber;
+
+    /**
+     * Creates a field with no sources, where every cell is unreachable
+     *
+     * @param size The length and width of the board
+     */
+    public DistanceField(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Board size is non-positive");
+        }
+        this.size = size;
+        int numCells = size * size;
+        this.distances = new int[numCells];
+        this.nearestSources = new int[numCells];
+        this.sourceBits = new long[Bitboards.getNumWords(numCells)];
+        this.queue = new int[numCells];
+        this.removalSeeds = new long[numCells];
+        this.visitMarks = new int[numCells];
+        this.searchNumber = 0;
+        clearSources();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumSources() {
+        return numSources;
+    }
+
+    /**
+     * Removes every source, leaving every cell unreachable
+     */
+    public void clearSources() {
+        Arrays.fill(distances, UNREACHABLE);
+        Arrays.fill(nearestSources, NO_SOURCE);
+        Arrays.fill(sourceBits, 0);
+        numSources = 0;
+    }
+
+    /**
+     * Replaces the sources with the cells in a bitboard and works out every distance again
+     *
+     * @param sourceCells A bitboard of the source cells, with at least Bitboards.getNumWords(size * size) words
+     */
+    public void setSources(long[] sourceCells) {
+        clearSources();
+        int tail = 0;
+        for (int cellIndex = Bitboards.nextSetBit(sourceCells, 0); cellIndex >= 0 && cellIndex < distances.length;
+             cellIndex = Bitboards.nextSetBit(sourceCells, cellIndex + 1)) {
+            tail = seedSource(cellIndex, tail);
+        }
+        search(0, tail);
+    }
+
+    /**
+     * Replaces the sources with a list of cells and works out every distance again. When a cell is equally far from
+     *  several sources, the one earliest in the list is its nearest
+     *
+     * @param sourceCells The indices of the source cells, in order of priority
+     * @param numSourceCells How many entries of sourceCells to use
+     */
+    public void setSources(int[] sourceCells, int numSourceCells) {
+        clearSources();
+        int tail = 0;
+        for (int i = 0; i < numSourceCells; i++) {
+            int cellIndex = sourceCells[i];
+            if (cellIndex < 0 || cellIndex >= distances.length) {
+                throw new IllegalArgumentException("Cell " + cellIndex + " is not on the board");
+            }
+            if (!Bitboards.isSet(sourceBits, cellIndex)) {
+                tail = seedSource(cellIndex, tail);
+            }
+        }
+        search(0, tail);
+    }
+
+    /**
+     * Makes this field the same as another, with the same sources, distances and nearest sources, without
+     *  searching again
+     *
+     * @param other A field for a board of the same size
+     */
+    public void copyFrom(DistanceField other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException("Cannot copy a field of size " + other.size + " into size " + size);
+        }
+        System.arraycopy(other.distances, 0, distances, 0, distances.length);
+        System.arraycopy(other.nearestSources, 0, nearestSources, 0, nearestSources.length);
+        System.arraycopy(other.sourceBits, 0, sourceBits, 0, sourceBits.length);
+        numSources = other.numSources;
+    }
+
+    private int seedSource(int cellIndex, int tail) {
+        sourceBits[cellIndex >>> 6] |= 1L << cellIndex;
+        numSources++;
+        distances[cellIndex] = 0;
+        nearestSources[cellIndex] = cellIndex;
+        queue[tail] = cellIndex;
+        return tail + 1;
+    }
+
+    /**
+     * Makes a cell a source, and brings every cell that is now closer to it up to date
+     *
+     * @param x The x coordinate of the cell
+     * @param y The y coordinate of the cell
+     * @return True if the cell was not a source already
+     */
+    public boolean addSource(int x, int y) {
+        int cellIndex = getCellIndex(x, y);
+        if (Bitboards.isSet(sourceBits, cellIndex)) {
+            return false;
+        }
+        int tail = seedSource(cellIndex, 0);
+        search(0, tail);
+        return true;
+    }
+
+    /**
+     * Stops a cell being a source, like a resource tile that has been mined out. Only the cells it was the nearest
+     *  source of are worked out again, from the cells around them
+     *
+     * @param x The x coordinate of the cell
+     * @param y The y coordinate of the cell
+     * @return True if the cell was a source
+     */
+    public boolean removeSource(int x, int y) {
+        int removedCell = getCellIndex(x, y);
+        if (!Bitboards.isSet(sourceBits, removedCell)) {
+            return false;
+        }
+        sourceBits[removedCell >>> 6] &= ~(1L << removedCell);
+        numSources--;
+        if (numSources == 0) {
+            clearSources();
+            return true;
+        }
+
+        // Forget every cell the removed source was nearest to, and remember the cells around them that still have
+        //  a distance, since those are where the new distances come from
+        int mark = nextSearchNumber();
+        int numSeeds = 0;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = removedCell;
+        distances[removedCell] = UNREACHABLE;
+        nearestSources[removedCell] = NO_SOURCE;
+        while (head < tail) {
+            int cellIndex = queue[head++];
+            int cellX = cellIndex % size;
+            int cellY = cellIndex / size;
+            for (int direction = 0; direction < NEIGHBOR_DX.length; direction++) {
+                int neighborX = cellX + NEIGHBOR_DX[direction];
+                int neighborY = cellY + NEIGHBOR_DY[direction];
+                if (!isOnBoard(neighborX, neighborY)) {
+                    continue;
+                }
+                int neighborIndex = (neighborY * size) + neighborX;
+                if (nearestSources[neighborIndex] == removedCell) {
+                    distances[neighborIndex] = UNREACHABLE;
+                    nearestSources[neighborIndex] = NO_SOURCE;
+                    queue[tail++] = neighborIndex;
+                } else if (nearestSources[neighborIndex] != NO_SOURCE && visitMarks[neighborIndex] != mark) {
+                    visitMarks[neighborIndex] = mark;
+                    removalSeeds[numSeeds++] = ((long) distances[neighborIndex] << 32) | neighborIndex;
+                }
+            }
+        }
+
+        // The seeds already have their final distances, so merging them in order of distance with the search's own
+        //  queue visits cells in order of distance, and every cell gets its final distance the first time it's reached
+        Arrays.sort(removalSeeds, 0, numSeeds);
+        int seedIndex = 0;
+        head = 0;
+        tail = 0;
+        while (seedIndex < numSeeds || head < tail) {
+            int cellIndex;
+            if (head == tail || (seedIndex < numSeeds
+                                 && (int) (removalSeeds[seedIndex] >>> 32) <= distances[queue[head]])) {
+                cellIndex = (int) removalSeeds[seedIndex++];
+            } else {
+                cellIndex = queue[head++];
+            }
+            tail = relaxNeighbors(cellIndex, tail);
+        }
+        return true;
+    }
+
+    private void search(int head, int tail) {
+        while (head < tail) {
+            tail = relaxNeighbors(queue[head++], tail);
+        }
+    }
+
+    private int relaxNeighbors(int cellIndex, int tail) {
+        int neighborDistance = distances[cellIndex] + 1;
+        int cellX = cellIndex % size;
+        int cellY = cellIndex / size;
+        for (int direction = 0; direction < NEIGHBOR_DX.length; direction++) {
+            int neighborX = cellX + NEIGHBOR_DX[direction];
+            int neighborY = cellY + NEIGHBOR_DY[direction];
+            if (!isOnBoard(neighborX, neighborY)) {
+                continue;
+            }
+            int neighborIndex = (neighborY * size) + neighborX;
+            if (neighborDistance < distances[neighborIndex]) {
+                distances[neighborIndex] = neighborDistance;
+                nearestSources[neighborIndex] = nearestSources[cellIndex];
+                queue[tail++] = neighborIndex;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * @param x The x coordinate of the cell
+     * @param y The y coordinate of the cell
+     * @return True if the cell is a source
+     */
+    public boolean isSource(int x, int y) {
+        return Bitboards.isSet(sourceBits, getCellIndex(x, y));
+    }
+
+    /**
+     * @param x The x coordinate of the cell
+     * @param y The y coordinate of the cell
+     * @return The number of moves from the cell to the nearest source, or UNREACHABLE if there are no sources
+     */
+    public int getDistance(int x, int y) {
+        return distances[getCellIndex(x, y)];
+    }
+
+    /**
+     * @param x The x coordinate of the cell
+     * @param y The y coordinate of the cell
+     * @return The index of the cell's nearest source, or NO_SOURCE if there are no sources. Between sources that are
+     *          equally near, this is one of them, but which one can depend on the order sources were added in
+     */
+    public int getNearestSource(int x, int y) {
+        return nearestSources[getCellIndex(x, y)];
+    }
+
+    /**
+     * Searches outwards from a cell for the first source, visiting neighbors right, left, up, down. Unlike
+     *  getNearestSource(), which of several equally near sources is found only depends on where the search starts.
+     *  The search stops as soon as it finds a source, so it only visits the cells closer than that source
+     *
+     * @param x The x coordinate of the cell to search from
+     * @param y The y coordinate of the cell to search from
+     * @return The index of the first source found, or NO_SOURCE if there are no sources
+     */
+    public int findNearestSource(int x, int y) {
+        int originCell = getCellIndex(x, y);
+        if (numSources == 0) {
+            return NO_SOURCE;
+        }
+
+        int mark = nextSearchNumber();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = originCell;
+        visitMarks[originCell] = mark;
+        while (head < tail) {
+            int cellIndex = queue[head++];
+            if (Bitboards.isSet(sourceBits, cellIndex)) {
+                return cellIndex;
+            }
+            int cellX = cellIndex % size;
+            int cellY = cellIndex / size;
+            for (int direction = 0; direction < NEIGHBOR_DX.length; direction++) {
+                int neighborX = cellX + NEIGHBOR_DX[direction];
+                int neighborY = cellY + NEIGHBOR_DY[direction];
+                if (!isOnBoard(neighborX, neighborY)) {
+                    continue;
+                }
+                int neighborIndex = (neighborY * size) + neighborX;
+                if (visitMarks[neighborIndex] != mark) {
+                    visitMarks[neighborIndex] = mark;
+                    queue[tail++] = neighborIndex;
+                }
+            }
+        }
+        return NO_SOURCE;
+    }
+
+    private int nextSearchNumber() {
+        if (searchNumber == Integer.MAX_VALUE) {
+            Arrays.fill(visitMarks, 0);
+            searchNumber = 0;
+        }
+        return ++searchNumber;
+    }
+
+    private boolean isOnBoard(int x, int y) {
+        return (x >= 0 && x < size) && (y >= 0 && y < size);
+    }
+
+    private int getCellIndex(int x, int y) {
+        if (!isOnBoard(x, y)) {
+            throw new IllegalArgumentException("(" + x + ", " + y + ") is not on the board");
+        }
+        return (y * size) + x;
+    }
+}
@@ -0,0 +1,131 @@
+package mineopoly_three.util;
+
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.tiles.TileType;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The nearest of a fixed set of stations, like markets or recharge tiles, for every cell of a square board, worked
+ *  out once so that each lookup is two array reads. When a cell is equally far from several stations, its nearest
+ *  station is the one that came first when the table was built, the same one a search for the minimum distance
+ *  over the stations in that order would keep
+ */
+public final class NearestStationTable {
+    private static final int NO_STATION = -1;
+
+    private final int boardSize;
+    private final Point[] stations;
+    private final int[] nearestStationIndices;
+    private final int[] distances;
+
+    /**
+     * @param boardSize The length and width of the board
+     * @param stations The Points of the stations, in the order ties should be broken in. The Points themselves are
+     *                  what getNearestStation() returns, so they should not be changed afterwards
+     */
+    public NearestStationTable(int boardSize, Collection<Point> stations) {
+        if (boardSize <= 0) {
+            throw new IllegalArgumentException("Board size is non-positive");
+        }
+        if (stations == null) {
+            throw new IllegalArgumentException("Stations cannot be null");
+        }
+        this.boardSize = boardSize;
+        this.stations = stations.toArray(new Point[0]);
+        int numCells = boardSize * boardSize;
+        this.nearestStationIndices = new int[numCells];
+        this.distances = new int[numCells];
+
+        // Seeding a breadth first search in priority order gives every cell the first of its equally near stations
+        int[] stationCells = new int[this.stations.length];
+        int[] stationIndicesByCell = new int[numCells];
+        Arrays.fill(stationIndicesByCell, NO_STATION);
+        for (int i = 0; i < this.stations.length; i++) {
+            Point station = this.stations[i];
+            if (station == null || station.x < 0 || station.x >= boardSize || station.y < 0 || station.y >= boardSize) {
+                throw new IllegalArgumentException("Station " + station + " is not on the board");
+            }
+            int cellIndex = (station.y * boardSize) + station.x;
+            stationCells[i] = cellIndex;
+            if (stationIndicesByCell[cellIndex] == NO_STATION) {
+                stationIndicesByCell[cellIndex] = i;
+            }
+        }
+
+        DistanceField distanceField = new DistanceField(boardSize);
+        distanceField.setSources(stationCells, stationCells.length);
+        for (int cellIndex = 0; cellIndex < numCells; cellIndex++) {
+            int x = cellIndex % boardSize;
+            int y = cellIndex / boardSize;
+            int nearestCell = distanceField.getNearestSource(x, y);
+            nearestStationIndices[cellIndex] =
+                    (nearestCell == DistanceField.NO_SOURCE) ? NO_STATION : stationIndicesByCell[nearestCell];
+            distances[cellIndex] = distanceField.getDistance(x, y);
+        }
+    }
+
+    /**
+     * Builds a table of every tile of one type on a board, breaking ties by cell index, (y * boardSize) + x
+     *
+     * @param board The board to find the stations on
+     * @param stationType The type of tile the stations are
+     * @return A new table
+     */
+    public static NearestStationTable fromBoard(PlayerBoardView board, TileType stationType) {
+        int boardSize = board.getBoardSnapshot().getSize();
+        long[] stationBits = board.getTileTypeBits(stationType);
+        Point[] stations = new Point[Bitboards.count(stationBits)];
+        int numStations = 0;
+        for (int cellIndex = Bitboards.nextSetBit(stationBits, 0); cellIndex >= 0;
+             cellIndex = Bitboards.nextSetBit(stationBits, cellIndex + 1)) {
+            stations[numStations++] = new Point(cellIndex % boardSize, cellIndex / boardSize);
+        }
+        return new NearestStationTable(boardSize, Arrays.asList(stations));
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getNumStations() {
+        return stations.length;
+    }
+
+    /**
+     * @param location A Point on the board
+     * @return The nearest station to the location, or null if there are no stations
+     */
+    public Point getNearestStation(Point location) {
+        return getNearestStation(location.x, location.y);
+    }
+
+    /**
+     * @param x The x coordinate of a cell on the board
+     * @param y The y coordinate of a cell on the board
+     * @return The nearest station to the cell, or null if there are no stations
+     */
+    public Point getNearestStation(int x, int y) {
+        int stationIndex = nearestStationIndices[getCellIndex(x, y)];
+        return (stationIndex == NO_STATION) ? null : stations[stationIndex];
+    }
+
+    /**
+     * @param x The x coordinate of a cell on the board
+     * @param y The y coordinate of a cell on the board
+     * @return The manhattan distance from the cell to its nearest station, or DistanceField.UNREACHABLE if there
+     *          are no stations
+     */
+    public int getDistance(int x, int y) {
+        return distances[getCellIndex(x, y)];
+    }
+
+    private int getCellIndex(int x, int y) {
+        if (x < 0 || x >= boardSize || y < 0 || y >= boardSize) {
+            throw new IllegalArgumentException("(" + x + ", " + y + ") is not on the board");
+        }
+        return (y * boardSize) + x;
+    }
+}
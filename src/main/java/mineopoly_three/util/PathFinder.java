@@ -0,0 +1,574 @@
+package mineopoly_three.util;
+
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemCellCursor;
+import mineopoly_three.item.ItemType;
+import mineopoly_three.strategy.BoardSnapshot;
+import mineopoly_three.strategy.PlayerBoardView;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the cheapest path between two cells of a square board with A*, for strategies that want to walk around
+ *  things instead of straight at them. Every move costs 1, plus the extra cost of the cell moved into. Extra costs
+ *  come from the cells next to the opponent, the tiles autominers are working on, and anything a strategy adds with
+ *  setExtraCost(). Extra costs are never negative, so the manhattan distance never overestimates and paths are
+ *  always the cheapest. A move never costs more than getMaxMoveCost(), any higher total is counted as that, which
+ *  keeps the cost of every path inside the open set's packed entries.
+ * Paths are cached by target. A cached path is used for any origin on it, so following a path costs one search,
+ *  not one per turn. A cached path is thrown away as soon as a cell on it changes or its extra cost changes; changes
+ *  anywhere else leave it alone, even when a cell elsewhere gets cheaper and a new search would find a cheaper path.
+ *  Searches work in arrays allocated up front, so finding a path allocates nothing.
+ */
+public class PathFinder {
+    public static final int DEFAULT_OPPONENT_CELL_COST = 8;
+    public static final int DEFAULT_NEXT_TO_OPPONENT_COST = 2;
+    public static final int DEFAULT_AUTOMINER_COST = 2;
+    public static final int DEFAULT_MAX_CACHED_PATHS = 8;
+
+    // Neighbors are always visited right, left, up, down, so equally cheap paths are picked the same way every time
+    private static final int[] NEIGHBOR_DX = {1, -1, 0, 0};
+    private static final int[] NEIGHBOR_DY = {0, 0, 1, -1};
+    private static final int NO_CELL = -1;
+
+    private static final int MAX_CELLS = 1 << 21;
+
+    private final int size;
+    // Open set entries pack (f << fShift) | (h << hShift) | cell into a long, so the heap orders by lowest f, then
+    //  lowest h, then lowest cell without comparing anything but longs. The cell and h fields are as wide as the
+    //  board needs, and f gets the rest
+    private final int hShift;
+    private final int fShift;
+    private final long cellMask;
+    private final int maxMoveCost;
+    private final int opponentCellCost;
+    private final int nextToOpponentCost;
+    private final int autominerCost;
+
+    // The extra cost of moving into each cell, split by where it comes from so each part can change on its own
+    private final int[] strategyCosts;
+    private final int[] autominerCounts;
+    private final boolean[] hasAutominer;
+    private int opponentCell;
+
+    // Search state. Cells are only looked at if they were reached in the current search
+    private final int[] costsFromOrigin;
+    private final int[] parents;
+    private final int[] searchMarks;
+    private final int[] closedMarks;
+    private int searchNumber;
+    private final long[] openSet;
+    private int openSetSize;
+
+    private final CachedPath[] cachedPaths;
+    private long lastUseCounter;
+    private BoardSnapshot lastSeenBoard;
+
+    // The path found by the last call to findPath()
+    private CachedPath currentPath;
+    private int currentPathOffset;
+
+    private int numSearches;
+    private int numCacheHits;
+
+    /**
+     * Creates a path finder with the default costs
+     *
+     * @param size The length and width of the board
+     */
+    public PathFinder(int size) {
+        this(size, DEFAULT_OPPONENT_CELL_COST, DEFAULT_NEXT_TO_OPPONENT_COST, DEFAULT_AUTOMINER_COST,
+             DEFAULT_MAX_CACHED_PATHS);
+    }
+
+    /**
+     * @param size The length and width of the board
+     * @param opponentCellCost The extra cost of moving into the opponent's cell
+     * @param nextToOpponentCost The extra cost of moving into a cell next to the opponent
+     * @param autominerCost The extra cost of moving into a tile an autominer is working on, for each autominer
+     * @param maxCachedPaths How many paths to remember, the least recently used is forgotten first
+     */
+    public PathFinder(int size, int opponentCellCost, int nextToOpponentCost, int autominerCost, int maxCachedPaths) {
+        if (size <= 0 || (long) size * size > MAX_CELLS) {
+            throw new IllegalArgumentException("Board size " + size + " is not supported");
+        }
+        if (opponentCellCost < 0 || nextToOpponentCost < 0 || autominerCost < 0) {
+            throw new IllegalArgumentException("Costs cannot be negative");
+        }
+        if (maxCachedPaths <= 0) {
+            throw new IllegalArgumentException("At least one path must be cached");
+        }
+        this.size = size;
+        this.opponentCellCost = opponentCellCost;
+        this.nextToOpponentCost = nextToOpponentCost;
+        this.autominerCost = autominerCost;
+
+        int numCells = size * size;
+        int maxHeuristic = 2 * (size - 1);
+        this.hShift = getBitsToHold(numCells - 1);
+        this.fShift = hShift + getBitsToHold(maxHeuristic);
+        this.cellMask = (1L << hShift) - 1;
+        // Parents never lead back to a cell, so a path makes at most numCells - 1 moves, and its cost from the
+        //  origin plus the heuristic has to fit in both f and an int
+        long maxF = Math.min(Integer.MAX_VALUE, (1L << (Long.SIZE - 1 - fShift)) - 1);
+        this.maxMoveCost = (int) ((maxF - maxHeuristic) / Math.max(1, numCells - 1));
+
+        this.strategyCosts = new int[numCells];
+        this.autominerCounts = new int[numCells];
+        this.hasAutominer = new boolean[numCells];
+        this.opponentCell = NO_CELL;
+
+        this.costsFromOrigin = new int[numCells];
+        this.parents = new int[numCells];
+        this.searchMarks = new int[numCells];
+        this.closedMarks = new int[numCells];
+        this.searchNumber = 0;
+        // A cell is only expanded once, and each expansion adds at most 4 entries
+        this.openSet = new long[(4 * numCells) + 1];
+        this.openSetSize = 0;
+
+        this.cachedPaths = new CachedPath[maxCachedPaths];
+        for (int i = 0; i < maxCachedPaths; i++) {
+            cachedPaths[i] = new CachedPath(numCells);
+        }
+        this.lastUseCounter = 0;
+    }
+
+    private static int getBitsToHold(int value) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(value);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The most a single move can cost, higher costs count as this much. At least 512 on the largest
+     *          supported board, and far more on smaller ones
+     */
+    public int getMaxMoveCost() {
+        return maxMoveCost;
+    }
+
+    /**
+     * Brings the opponent's location, autominers and cached paths up to date with a board. Boards from the game list
+     *  the cells that changed since the last one, so only paths through those cells are thrown away; after any other
+     *  new board every path is thrown away and every autominer is found again
+     *
+     * @param board The newest view of the board
+     */
+    public void update(PlayerBoardView board) {
+        BoardSnapshot snapshot = board.getBoardSnapshot();
+        if (snapshot != lastSeenBoard) {
+            lastSeenBoard = snapshot;
+            int numChangedCells = board.getNumChangedCells();
+            if (numChangedCells == 0) {
+                reloadAutominers(snapshot);
+            } else {
+                for (int i = 0; i < numChangedCells; i++) {
+                    int x = board.getChangedCellX(i);
+                    int y = board.getChangedCellY(i);
+                    if (isOnBoard(x, y)) {
+                        invalidateCell((y * size) + x);
+                        setAutominer(x, y, containsAutominer(snapshot.getItems(x, y)));
+                    }
+                }
+            }
+        }
+
+        if (board.getOtherPlayerLocation() != null) {
+            setOpponentLocation(board.getOtherPlayerLocation().x, board.getOtherPlayerLocation().y);
+        }
+    }
+
+    private void reloadAutominers(BoardSnapshot snapshot) {
+        invalidateAll();
+        Arrays.fill(autominerCounts, 0);
+        Arrays.fill(hasAutominer, false);
+        ItemCellCursor itemCells = snapshot.getItemCells();
+        while (itemCells.next()) {
+            for (int i = 0; i < itemCells.getItemCount(); i++) {
+                if (itemCells.getItem(i).getItemType() == ItemType.AUTOMINER
+                    && isOnBoard(itemCells.getX(), itemCells.getY())) {
+                    setAutominer(itemCells.getX(), itemCells.getY(), true);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean containsAutominer(List<InventoryItem> items) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getItemType() == ItemType.AUTOMINER) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the extra cost of the opponent's cell and the cells next to it
+     *
+     * @param x The x coordinate of the opponent
+     * @param y The y coordinate of the opponent
+     */
+    public void setOpponentLocation(int x, int y) {
+        int newOpponentCell = isOnBoard(x, y) ? (y * size) + x : NO_CELL;
+        if (newOpponentCell == opponentCell) {
+            return;
+        }
+        invalidateAround(opponentCell);
+        opponentCell = newOpponentCell;
+        invalidateAround(opponentCell);
+    }
+
+    /**
+     * Adds or removes an autominer, which makes its own tile and the four next to it cost more to walk through
+     *
+     * @param x The x coordinate of the autominer
+     * @param y The y coordinate of the autominer
+     * @param isPresent True if there is an autominer on the tile
+     */
+    public void setAutominer(int x, int y, boolean isPresent) {
+        int cellIndex = getCellIndex(x, y);
+        if (hasAutominer[cellIndex] == isPresent) {
+            return;
+        }
+        hasAutominer[cellIndex] = isPresent;
+        int change = isPresent ? 1 : -1;
+        autominerCounts[cellIndex] += change;
+        for (int direction = 0; direction < NEIGHBOR_DX.length; direction++) {
+            int neighborX = x + NEIGHBOR_DX[direction];
+            int neighborY = y + NEIGHBOR_DY[direction];
+            if (isOnBoard(neighborX, neighborY)) {
+                autominerCounts[(neighborY * size) + neighborX] += change;
+            }
+        }
+        invalidateAround(cellIndex);
+    }
+
+    /**
+     * Sets a strategy's own extra cost for moving into a cell, on top of the opponent and autominer costs
+     *
+     * @param x The x coordinate of the cell
+     * @param y The y coordinate of the cell
+     * @param extraCost The extra cost, 0 for none. The move cost it adds up to is capped at getMaxMoveCost()
+     */
+    public void setExtraCost(int x, int y, int extraCost) {
+        if (extraCost < 0) {
+            throw new IllegalArgumentException("Costs cannot be negative");
+        }
+        int cellIndex = getCellIndex(x, y);
+        if (strategyCosts[cellIndex] != extraCost) {
+            strategyCosts[cellIndex] = extraCost;
+            invalidateCell(cellIndex);
+        }
+    }
+
+    /**
+     * @param x The x coordinate of the cell
+     * @param y The y coordinate of the cell
+     * @return The total cost of moving into the cell, at least 1 and at most getMaxMoveCost()
+     */
+    public int getMoveCost(int x, int y) {
+        return getMoveCost(getCellIndex(x, y));
+    }
+
+    private int getMoveCost(int cellIndex) {
+        long moveCost = 1L + strategyCosts[cellIndex] + ((long) autominerCounts[cellIndex] * autominerCost);
+        if (opponentCell != NO_CELL) {
+            if (cellIndex == opponentCell) {
+                moveCost += opponentCellCost;
+            } else if (areNeighbors(cellIndex, opponentCell)) {
+                moveCost += nextToOpponentCost;
+            }
+        }
+        return (int) Math.min(moveCost, maxMoveCost);
+    }
+
+    private boolean areNeighbors(int firstCell, int secondCell) {
+        int xDistance = Math.abs((firstCell % size) - (secondCell % size));
+        int yDistance = Math.abs((firstCell / size) - (secondCell / size));
+        return xDistance + yDistance == 1;
+    }
+
+    /**
+     * Finds the cheapest path from one cell to another, from the cache if a cached path to the target passes
+     *  through the origin. Every cell can be walked through, so there is always a path. The cells on the path can
+     *  be read with getPathX() and getPathY() until the next call
+     *
+     * @param fromX The x coordinate of the origin
+     * @param fromY The y coordinate of the origin
+     * @param toX The x coordinate of the target
+     * @param toY The y coordinate of the target
+     * @return The number of moves on the path, 0 if the origin is the target
+     */
+    public int findPath(int fromX, int fromY, int toX, int toY) {
+        int originCell = getCellIndex(fromX, fromY);
+        int targetCell = getCellIndex(toX, toY);
+
+        for (CachedPath cachedPath : cachedPaths) {
+            if (cachedPath.isValid && cachedPath.targetCell == targetCell
+                && Bitboards.isSet(cachedPath.cellBits, originCell)) {
+                int offset = cachedPath.indexOf(originCell);
+                if (offset >= 0) {
+                    cachedPath.lastUse = ++lastUseCounter;
+                    numCacheHits++;
+                    return usePath(cachedPath, offset);
+                }
+            }
+        }
+
+        CachedPath newPath = getLeastRecentlyUsedPath();
+        search(originCell, targetCell, newPath);
+        newPath.lastUse = ++lastUseCounter;
+        numSearches++;
+        return usePath(newPath, 0);
+    }
+
+    private int usePath(CachedPath path, int offset) {
+        currentPath = path;
+        currentPathOffset = offset;
+        return path.numCells - 1 - offset;
+    }
+
+    /**
+     * @param step How many moves along the last path found, 0 for the origin
+     * @return The x coordinate of the cell at that step
+     */
+    public int getPathX(int step) {
+        return getPathCell(step) % size;
+    }
+
+    /**
+     * @param step How many moves along the last path found, 0 for the origin
+     * @return The y coordinate of the cell at that step
+     */
+    public int getPathY(int step) {
+        return getPathCell(step) / size;
+    }
+
+    private int getPathCell(int step) {
+        if (currentPath == null) {
+            throw new IllegalStateException("No path has been found yet");
+        }
+        int pathIndex = currentPathOffset + step;
+        if (step < 0 || pathIndex >= currentPath.numCells) {
+            throw new IllegalArgumentException("Step " + step + " is not on the path");
+        }
+        return currentPath.cells[pathIndex];
+    }
+
+    /**
+     * @return How many times a path had to be searched for
+     */
+    public int getNumSearches() {
+        return numSearches;
+    }
+
+    /**
+     * @return How many times a path came from the cache
+     */
+    public int getNumCacheHits() {
+        return numCacheHits;
+    }
+
+    /**
+     * Throws away every cached path
+     */
+    public void invalidateAll() {
+        for (CachedPath cachedPath : cachedPaths) {
+            cachedPath.isValid = false;
+        }
+    }
+
+    private void invalidateAround(int cellIndex) {
+        if (cellIndex == NO_CELL) {
+            return;
+        }
+        invalidateCell(cellIndex);
+        int x = cellIndex % size;
+        int y = cellIndex / size;
+        for (int direction = 0; direction < NEIGHBOR_DX.length; direction++) {
+            int neighborX = x + NEIGHBOR_DX[direction];
+            int neighborY = y + NEIGHBOR_DY[direction];
+            if (isOnBoard(neighborX, neighborY)) {
+                invalidateCell((neighborY * size) + neighborX);
+            }
+        }
+    }
+
+    private void invalidateCell(int cellIndex) {
+        for (CachedPath cachedPath : cachedPaths) {
+            if (cachedPath.isValid && Bitboards.isSet(cachedPath.cellBits, cellIndex)) {
+                cachedPath.isValid = false;
+            }
+        }
+    }
+
+    private CachedPath getLeastRecentlyUsedPath() {
+        CachedPath leastRecentlyUsed = cachedPaths[0];
+        for (CachedPath cachedPath : cachedPaths) {
+            if (!cachedPath.isValid) {
+                return cachedPath;
+            }
+            if (cachedPath.lastUse < leastRecentlyUsed.lastUse) {
+                leastRecentlyUsed = cachedPath;
+            }
+        }
+        return leastRecentlyUsed;
+    }
+
+    private void search(int originCell, int targetCell, CachedPath result) {
+        int mark = nextSearchNumber();
+        int targetX = targetCell % size;
+        int targetY = targetCell / size;
+        openSetSize = 0;
+
+        costsFromOrigin[originCell] = 0;
+        parents[originCell] = NO_CELL;
+        searchMarks[originCell] = mark;
+        pushOpenSet(originCell, 0, getHeuristic(originCell, targetX, targetY));
+
+        while (openSetSize > 0) {
+            int cellIndex = popOpenSet();
+            if (closedMarks[cellIndex] == mark) {
+                continue; // An older, more expensive entry for a cell that was already expanded
+            }
+            closedMarks[cellIndex] = mark;
+            if (cellIndex == targetCell) {
+                break;
+            }
+
+            int cellX = cellIndex % size;
+            int cellY = cellIndex / size;
+            for (int direction = 0; direction < NEIGHBOR_DX.length; direction++) {
+                int neighborX = cellX + NEIGHBOR_DX[direction];
+                int neighborY = cellY + NEIGHBOR_DY[direction];
+                if (!isOnBoard(neighborX, neighborY)) {
+                    continue;
+                }
+                int neighborIndex = (neighborY * size) + neighborX;
+                if (closedMarks[neighborIndex] == mark) {
+                    continue;
+                }
+                int neighborCost = costsFromOrigin[cellIndex] + getMoveCost(neighborIndex);
+                if (searchMarks[neighborIndex] != mark || neighborCost < costsFromOrigin[neighborIndex]) {
+                    searchMarks[neighborIndex] = mark;
+                    costsFromOrigin[neighborIndex] = neighborCost;
+                    parents[neighborIndex] = cellIndex;
+                    pushOpenSet(neighborIndex, neighborCost, getHeuristic(neighborIndex, targetX, targetY));
+                }
+            }
+        }
+
+        result.setPath(targetCell, parents);
+    }
+
+    private int getHeuristic(int cellIndex, int targetX, int targetY) {
+        return DistanceUtil.getManhattanDistance(cellIndex % size, cellIndex / size, targetX, targetY);
+    }
+
+    private void pushOpenSet(int cellIndex, int costFromOrigin, int heuristic) {
+        long entry = ((long) (costFromOrigin + heuristic) << fShift) | ((long) heuristic << hShift) | cellIndex;
+        int index = openSetSize++;
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            if (openSet[parentIndex] <= entry) {
+                break;
+            }
+            openSet[index] = openSet[parentIndex];
+            index = parentIndex;
+        }
+        openSet[index] = entry;
+    }
+
+    private int popOpenSet() {
+        long top = openSet[0];
+        long last = openSet[--openSetSize];
+        int index = 0;
+        int half = openSetSize >>> 1;
+        while (index < half) {
+            int childIndex = (index << 1) + 1;
+            if (childIndex + 1 < openSetSize && openSet[childIndex + 1] < openSet[childIndex]) {
+                childIndex++;
+            }
+            if (last <= openSet[childIndex]) {
+                break;
+            }
+            openSet[index] = openSet[childIndex];
+            index = childIndex;
+        }
+        if (openSetSize > 0) {
+            openSet[index] = last;
+        }
+        return (int) (top & cellMask);
+    }
+
+    private int nextSearchNumber() {
+        if (searchNumber == Integer.MAX_VALUE) {
+            Arrays.fill(searchMarks, 0);
+            Arrays.fill(closedMarks, 0);
+            searchNumber = 0;
+        }
+        return ++searchNumber;
+    }
+
+    private boolean isOnBoard(int x, int y) {
+        return (x >= 0 && x < size) && (y >= 0 && y < size);
+    }
+
+    private int getCellIndex(int x, int y) {
+        if (!isOnBoard(x, y)) {
+            throw new IllegalArgumentException("(" + x + ", " + y + ") is not on the board");
+        }
+        return (y * size) + x;
+    }
+
+    /**
+     * A path from some origin to a target, from the origin's cell to the target's cell, along with a bitboard of
+     *  its cells to quickly tell whether a changed cell is on it
+     */
+    private static final class CachedPath {
+        private final int[] cells;
+        private final long[] cellBits;
+        private int numCells;
+        private int targetCell;
+        private boolean isValid;
+        private long lastUse;
+
+        private CachedPath(int numBoardCells) {
+            this.cells = new int[numBoardCells];
+            this.cellBits = new long[Bitboards.getNumWords(numBoardCells)];
+            this.isValid = false;
+        }
+
+        private void setPath(int targetCell, int[] parents) {
+            Arrays.fill(cellBits, 0);
+            int pathLength = 0;
+            for (int cellIndex = targetCell; cellIndex != NO_CELL; cellIndex = parents[cellIndex]) {
+                cells[pathLength++] = cellIndex;
+                cellBits[cellIndex >>> 6] |= 1L << cellIndex;
+            }
+            // Parents lead from the target back to the origin, the cache keeps them origin first
+            for (int low = 0, high = pathLength - 1; low < high; low++, high--) {
+                int swap = cells[low];
+                cells[low] = cells[high];
+                cells[high] = swap;
+            }
+            this.numCells = pathLength;
+            this.targetCell = targetCell;
+            this.isValid = true;
+        }
+
+        private int indexOf(int cellIndex) {
+            for (int i = 0; i < numCells; i++) {
+                if (cells[i] == cellIndex) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
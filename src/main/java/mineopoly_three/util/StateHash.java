@@ -0,0 +1,35 @@
+package mineopoly_three.util;
+
+/**
+ * Helpers for hashing game state, so two runs of a game can be compared turn by turn without keeping either
+ *  run's full state around
+ */
+public final class StateHash {
+    private StateHash() {
+    }
+
+    /**
+     * Scrambles the bits of a value, so that nearby inputs give completely unrelated outputs
+     *
+     * @param value The value to scramble
+     * @return The scrambled value
+     */
+    public static long mix(long value) {
+        // The SplitMix64 finalizer
+        value += 0x9E3779B97F4A7C15L;
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Folds one more value into a hash. The order values are folded in matters
+     *
+     * @param hash The hash so far
+     * @param value The value to add to the hash
+     * @return The new hash
+     */
+    public static long combine(long hash, long value) {
+        return mix(hash ^ mix(value));
+    }
+}
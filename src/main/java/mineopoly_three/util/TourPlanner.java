@@ -0,0 +1,504 @@
+package mineopoly_three.util;
+
+import mineopoly_three.game.Economy;
+import mineopoly_three.item.ItemType;
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.tiles.TileType;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Plans a whole trip of mining several resources, then selling them at a market, instead of one mine at a time.
+ *  A tour is worth the forecast revenue of everything sold at the end, divided by the turns it takes, and a tour is
+ *  only allowed if the robot still has the charge to get from the market to its nearest recharge tile.
+ * Tours are found with a beam search, one mine per level, that is run again with a wider beam for as long as the
+ *  time budget lasts, so the best tour found so far can be returned at any time. The tour planned last time is
+ *  checked first, so a plan is never dropped for a worse one just because the budget ran out.
+ * Every move takes 1 turn and 1 charge, and a resource takes its turns to mine plus a turn to pick up. Market and
+ *  recharge distances come from NearestStationTables built once for the game.
+ */
+public class TourPlanner {
+    public static final int MAX_BEAM_WIDTH = 64;
+
+    private static final ItemType[] allItemTypes = ItemType.values();
+    private static final int NO_MARKET = -1;
+
+    private final int boardSize;
+    private final int maxStops;
+    private final NearestStationTable markets;
+    private final NearestStationTable recharges;
+
+    // Every resource tile on the board this plan, as a cell index and the ordinal of the ItemType it gives
+    private int[] mineCells;
+    private int[] mineItemOrdinals;
+    private int numMines;
+    private final long[] tileBits;
+
+    // Two beams of states, the one being expanded and the one being filled. A state is a partly planned tour
+    private Beam currentBeam;
+    private Beam nextBeam;
+    private final int[] countsBuffer;
+
+    // Inputs to the plan being worked on
+    private Economy economy;
+    private int charge;
+    private int turnsSpent;
+
+    // The best tour found in this plan
+    private int bestNumStops;
+    private final int[] bestStops;
+    private int bestMarketCell;
+    private int bestTurns;
+    private int bestRevenue;
+    private double bestValue;
+
+    private int[] lastTourMineCells;
+    private int numStatesEvaluated;
+    private int lastBeamWidth;
+
+    /**
+     * @param boardSize The length and width of the board
+     * @param maxStops The most resources a tour can mine, usually the inventory size
+     * @param markets The markets the player can sell at
+     * @param recharges The recharge tiles on the board
+     */
+    public TourPlanner(int boardSize, int maxStops, NearestStationTable markets, NearestStationTable recharges) {
+        if (boardSize <= 0) {
+            throw new IllegalArgumentException("Board size is non-positive");
+        }
+        if (maxStops < 0) {
+            throw new IllegalArgumentException("Max stops is negative");
+        }
+        if (markets == null || recharges == null) {
+            throw new IllegalArgumentException("Station tables cannot be null");
+        }
+        if (markets.getBoardSize() != boardSize || recharges.getBoardSize() != boardSize) {
+            throw new IllegalArgumentException("Station tables are for a different board size");
+        }
+        this.boardSize = boardSize;
+        this.maxStops = maxStops;
+        this.markets = markets;
+        this.recharges = recharges;
+
+        int numCells = boardSize * boardSize;
+        this.mineCells = new int[16];
+        this.mineItemOrdinals = new int[16];
+        this.tileBits = new long[Bitboards.getNumWords(numCells)];
+        this.currentBeam = new Beam(MAX_BEAM_WIDTH, maxStops);
+        this.nextBeam = new Beam(MAX_BEAM_WIDTH, maxStops);
+        this.countsBuffer = new int[allItemTypes.length];
+        this.bestStops = new int[maxStops];
+        this.lastTourMineCells = new int[0];
+    }
+
+    /**
+     * Plans the best tour that can be found within a time budget, for a player that has spent no turns on what it
+     *  is carrying
+     *
+     * @see #plan(PlayerBoardView, Economy, Point, int[], int, int, int, long)
+     */
+    public Tour plan(PlayerBoardView board, Economy economy, Point origin, int[] heldCounts, int inventorySpace,
+                     int charge, long budgetNanos) {
+        return plan(board, economy, origin, heldCounts, inventorySpace, charge, 0, budgetNanos);
+    }
+
+    /**
+     * Plans the best tour that can be found within a time budget
+     *
+     * @param board The current board
+     * @param economy The current economy, for forecast prices
+     * @param origin Where the tour starts
+     * @param heldCounts How many of each item type the player is carrying, indexed by ItemType ordinal
+     * @param inventorySpace How many more items the player can carry
+     * @param charge How much charge the robot has
+     * @param turnsSpent How many turns went into the items being carried. They are added to the turns of every
+     *                    tour, so a part done trip is valued as a whole and not sold early just because the turns
+     *                    that went into it are behind it
+     * @param budgetNanos How long to search for, in nanoseconds. At least the tour planned last time and a tour
+     *                     of the single best next mine are always looked at
+     * @return The best tour found, or null if there are no markets or no tour can reach one with enough charge
+     *          left to reach a recharge tile
+     */
+    public Tour plan(PlayerBoardView board, Economy economy, Point origin, int[] heldCounts, int inventorySpace,
+                     int charge, int turnsSpent, long budgetNanos) {
+        if (board == null || economy == null || origin == null || heldCounts == null) {
+            throw new IllegalArgumentException("Planning arguments cannot be null");
+        }
+        if (board.getBoardSnapshot().getSize() != boardSize) {
+            throw new IllegalArgumentException("Board is not " + boardSize + " tiles wide");
+        }
+        long deadline = System.nanoTime() + budgetNanos;
+        this.economy = economy;
+        this.charge = charge;
+        this.turnsSpent = Math.max(0, turnsSpent);
+        numStatesEvaluated = 0;
+        lastBeamWidth = 0;
+        bestValue = Double.NEGATIVE_INFINITY;
+        bestMarketCell = NO_MARKET;
+        if (markets.getNumStations() == 0) {
+            return null;
+        }
+
+        findMines(board, economy);
+        int maxDepth = Math.max(0, Math.min(maxStops, inventorySpace));
+        int originCell = (origin.y * boardSize) + origin.x;
+
+        // Selling what is already held is always a candidate, then whatever is left of the last tour
+        currentBeam.clear();
+        currentBeam.addRoot(originCell, heldCounts);
+        evaluateCompletion(currentBeam, 0);
+        replayLastTour(originCell, heldCounts, maxDepth);
+
+        for (int beamWidth = 1; beamWidth <= MAX_BEAM_WIDTH; beamWidth *= 2) {
+            lastBeamWidth = beamWidth;
+            if (!runBeamSearch(originCell, heldCounts, maxDepth, beamWidth, deadline)) {
+                break;
+            }
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+
+        if (bestMarketCell == NO_MARKET) {
+            lastTourMineCells = new int[0];
+            return null;
+        }
+        lastTourMineCells = Arrays.copyOf(bestStops, bestNumStops);
+        return new Tour(boardSize, lastTourMineCells, bestMarketCell, bestTurns, bestRevenue);
+    }
+
+    /**
+     * @return How many partly planned tours the last plan looked at
+     */
+    public int getNumStatesEvaluated() {
+        return numStatesEvaluated;
+    }
+
+    /**
+     * @return The widest beam the last plan started, which shows how far the time budget went
+     */
+    public int getLastBeamWidth() {
+        return lastBeamWidth;
+    }
+
+    private void findMines(PlayerBoardView board, Economy economy) {
+        numMines = 0;
+        for (ItemType itemType : allItemTypes) {
+            TileType resourceTileType = itemType.getResourceTileType();
+            if (resourceTileType == null || !economy.isSellable(itemType)) {
+                continue;
+            }
+            board.copyTileTypeBits(resourceTileType, tileBits);
+            for (int cellIndex = Bitboards.nextSetBit(tileBits, 0); cellIndex >= 0;
+                 cellIndex = Bitboards.nextSetBit(tileBits, cellIndex + 1)) {
+                if (numMines == mineCells.length) {
+                    mineCells = Arrays.copyOf(mineCells, numMines * 2);
+                    mineItemOrdinals = Arrays.copyOf(mineItemOrdinals, numMines * 2);
+                }
+                mineCells[numMines] = cellIndex;
+                mineItemOrdinals[numMines] = itemType.ordinal();
+                numMines++;
+            }
+        }
+    }
+
+    private void replayLastTour(int originCell, int[] heldCounts, int maxDepth) {
+        // Follows the last tour from the current position, skipping stops that have been mined out since
+        nextBeam.clear();
+        nextBeam.addRoot(originCell, heldCounts);
+        int depth = 0;
+        for (int lastStop : lastTourMineCells) {
+            if (depth == maxDepth) {
+                break;
+            }
+            int mineIndex = findMineIndex(lastStop);
+            if (mineIndex < 0) {
+                continue;
+            }
+            if (!nextBeam.extend(0, mineIndex, this)) {
+                break;
+            }
+            depth++;
+            evaluateCompletion(nextBeam, 0);
+        }
+    }
+
+    private int findMineIndex(int cellIndex) {
+        for (int i = 0; i < numMines; i++) {
+            if (mineCells[i] == cellIndex) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return False if the deadline passed before the search finished
+     */
+    private boolean runBeamSearch(int originCell, int[] heldCounts, int maxDepth, int beamWidth, long deadline) {
+        currentBeam.clear();
+        currentBeam.addRoot(originCell, heldCounts);
+        for (int depth = 0; depth < maxDepth && currentBeam.size > 0; depth++) {
+            nextBeam.clear();
+            nextBeam.width = beamWidth;
+            for (int stateIndex = 0; stateIndex < currentBeam.size; stateIndex++) {
+                if (System.nanoTime() >= deadline && !(beamWidth == 1 && depth == 0)) {
+                    return false;
+                }
+                for (int mineIndex = 0; mineIndex < numMines; mineIndex++) {
+                    if (!currentBeam.hasStop(stateIndex, mineCells[mineIndex])) {
+                        nextBeam.offerChild(currentBeam, stateIndex, mineIndex, this);
+                    }
+                }
+            }
+            for (int stateIndex = 0; stateIndex < nextBeam.size; stateIndex++) {
+                evaluateCompletion(nextBeam, stateIndex);
+            }
+            Beam swap = currentBeam;
+            currentBeam = nextBeam;
+            nextBeam = swap;
+        }
+        return true;
+    }
+
+    /**
+     * Works out what a state is worth if the player sells at the nearest market next, or NEGATIVE_INFINITY if the
+     *  robot would run out of charge
+     */
+    private double getCompletionValue(int cellIndex, int turns, int moves, int[] counts) {
+        int x = cellIndex % boardSize;
+        int y = cellIndex / boardSize;
+        int marketDistance = markets.getDistance(x, y);
+        int totalMoves = moves + marketDistance;
+        Point market = markets.getNearestStation(x, y);
+        int rechargeDistance = (recharges.getNumStations() == 0) ? 0 : recharges.getDistance(market.x, market.y);
+        if (totalMoves + rechargeDistance > charge) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        int totalTurns = turns + marketDistance;
+        int revenue = economy.getForecastRevenue(counts, Math.max(0, totalTurns - 1));
+        numStatesEvaluated++;
+        return (turnsSpent + totalTurns == 0) ? 0 : ((double) revenue) / (turnsSpent + totalTurns);
+    }
+
+    private void evaluateCompletion(Beam beam, int stateIndex) {
+        int cellIndex = beam.cells[stateIndex];
+        int turns = beam.turns[stateIndex];
+        int[] counts = beam.copyCounts(stateIndex, countsBuffer);
+        double value = getCompletionValue(cellIndex, turns, beam.moves[stateIndex], counts);
+        if (value <= bestValue) {
+            return;
+        }
+        int x = cellIndex % boardSize;
+        int y = cellIndex / boardSize;
+        Point market = markets.getNearestStation(x, y);
+        int totalTurns = turns + markets.getDistance(x, y);
+        bestValue = value;
+        bestNumStops = beam.copyStops(stateIndex, bestStops);
+        bestMarketCell = (market.y * boardSize) + market.x;
+        bestTurns = totalTurns;
+        bestRevenue = economy.getForecastRevenue(counts, Math.max(0, totalTurns - 1));
+    }
+
+    /**
+     * A fixed number of partly planned tours in flat arrays, kept sorted best first while it is filled
+     */
+    private static final class Beam {
+        private final int maxStops;
+        private final int[] cells;
+        private final int[] turns;
+        private final int[] moves;
+        private final int[] numStops;
+        private final int[] stops;
+        private final int[] counts;
+        private final double[] values;
+        private int size;
+        private int width;
+
+        private Beam(int capacity, int maxStops) {
+            this.maxStops = maxStops;
+            this.cells = new int[capacity];
+            this.turns = new int[capacity];
+            this.moves = new int[capacity];
+            this.numStops = new int[capacity];
+            this.stops = new int[capacity * Math.max(1, maxStops)];
+            this.counts = new int[capacity * allItemTypes.length];
+            this.values = new double[capacity];
+            this.size = 0;
+            this.width = capacity;
+        }
+
+        private void clear() {
+            size = 0;
+            width = cells.length;
+        }
+
+        private void addRoot(int originCell, int[] heldCounts) {
+            cells[0] = originCell;
+            turns[0] = 0;
+            moves[0] = 0;
+            numStops[0] = 0;
+            int countsOffset = 0;
+            for (int ordinal = 0; ordinal < allItemTypes.length; ordinal++) {
+                counts[countsOffset + ordinal] = (ordinal < heldCounts.length) ? heldCounts[ordinal] : 0;
+            }
+            values[0] = 0;
+            size = 1;
+        }
+
+        private boolean hasStop(int stateIndex, int cellIndex) {
+            int stopsOffset = stateIndex * maxStops;
+            for (int i = 0; i < numStops[stateIndex]; i++) {
+                if (stops[stopsOffset + i] == cellIndex) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int[] copyCounts(int stateIndex, int[] destination) {
+            System.arraycopy(counts, stateIndex * allItemTypes.length, destination, 0, allItemTypes.length);
+            return destination;
+        }
+
+        private int copyStops(int stateIndex, int[] destination) {
+            System.arraycopy(stops, stateIndex * maxStops, destination, 0, numStops[stateIndex]);
+            return numStops[stateIndex];
+        }
+
+        /**
+         * Adds a mine to the end of a state in place, for following an old tour
+         *
+         * @return False if the robot would run out of charge
+         */
+        private boolean extend(int stateIndex, int mineIndex, TourPlanner planner) {
+            if (numStops[stateIndex] == maxStops) {
+                return false;
+            }
+            int mineCell = planner.mineCells[mineIndex];
+            int distance = planner.getDistance(cells[stateIndex], mineCell);
+            int itemOrdinal = planner.mineItemOrdinals[mineIndex];
+            int newMoves = moves[stateIndex] + distance;
+            if (newMoves > planner.charge) {
+                return false;
+            }
+            counts[(stateIndex * allItemTypes.length) + itemOrdinal]++;
+            int newTurns = turns[stateIndex] + distance + allItemTypes[itemOrdinal].getTurnsToMine() + 1;
+            stops[(stateIndex * maxStops) + numStops[stateIndex]] = mineCell;
+            numStops[stateIndex]++;
+            cells[stateIndex] = mineCell;
+            turns[stateIndex] = newTurns;
+            moves[stateIndex] = newMoves;
+            return true;
+        }
+
+        /**
+         * Adds a parent state plus one more mine to this beam, if it is better than the worst state already in it
+         */
+        private void offerChild(Beam parentBeam, int parentIndex, int mineIndex, TourPlanner planner) {
+            int mineCell = planner.mineCells[mineIndex];
+            int itemOrdinal = planner.mineItemOrdinals[mineIndex];
+            int distance = planner.getDistance(parentBeam.cells[parentIndex], mineCell);
+            int newTurns = parentBeam.turns[parentIndex] + distance + allItemTypes[itemOrdinal].getTurnsToMine() + 1;
+            int newMoves = parentBeam.moves[parentIndex] + distance;
+            int[] newCounts = parentBeam.copyCounts(parentIndex, planner.countsBuffer);
+            newCounts[itemOrdinal]++;
+            double value = planner.getCompletionValue(mineCell, newTurns, newMoves, newCounts);
+            // A mine too far from a market to sell at next can still lead on to one nearer a market, so only
+            //  running out of charge on the way to it rules a state out
+            if (newMoves > planner.charge || (size == width && value <= values[size - 1])) {
+                return;
+            }
+
+            // Insertion sort, the beam is small
+            int insertIndex = (size == width) ? size - 1 : size++;
+            while (insertIndex > 0 && values[insertIndex - 1] < value) {
+                copyState(this, insertIndex - 1, insertIndex);
+                insertIndex--;
+            }
+            cells[insertIndex] = mineCell;
+            turns[insertIndex] = newTurns;
+            moves[insertIndex] = newMoves;
+            values[insertIndex] = value;
+            int parentStops = parentBeam.numStops[parentIndex];
+            System.arraycopy(parentBeam.stops, parentIndex * maxStops, stops, insertIndex * maxStops, parentStops);
+            stops[(insertIndex * maxStops) + parentStops] = mineCell;
+            numStops[insertIndex] = parentStops + 1;
+            System.arraycopy(newCounts, 0, counts, insertIndex * allItemTypes.length, allItemTypes.length);
+        }
+
+        private static void copyState(Beam beam, int from, int to) {
+            beam.cells[to] = beam.cells[from];
+            beam.turns[to] = beam.turns[from];
+            beam.moves[to] = beam.moves[from];
+            beam.values[to] = beam.values[from];
+            beam.numStops[to] = beam.numStops[from];
+            System.arraycopy(beam.stops, from * beam.maxStops, beam.stops, to * beam.maxStops, beam.numStops[from]);
+            System.arraycopy(beam.counts, from * allItemTypes.length, beam.counts, to * allItemTypes.length,
+                             allItemTypes.length);
+        }
+    }
+
+    private int getDistance(int firstCell, int secondCell) {
+        return DistanceUtil.getManhattanDistance(firstCell % boardSize, firstCell / boardSize,
+                                                 secondCell % boardSize, secondCell / boardSize);
+    }
+
+    /**
+     * A planned trip: mine each stop in order, then sell everything at the market
+     */
+    public static final class Tour {
+        private final int boardSize;
+        private final int[] mineCells;
+        private final int marketCell;
+        private final int turns;
+        private final int revenue;
+
+        private Tour(int boardSize, int[] mineCells, int marketCell, int turns, int revenue) {
+            this.boardSize = boardSize;
+            this.mineCells = mineCells;
+            this.marketCell = marketCell;
+            this.turns = turns;
+            this.revenue = revenue;
+        }
+
+        public int getNumMines() {
+            return mineCells.length;
+        }
+
+        public int getMineX(int mineIndex) {
+            return mineCells[mineIndex] % boardSize;
+        }
+
+        public int getMineY(int mineIndex) {
+            return mineCells[mineIndex] / boardSize;
+        }
+
+        public int getMarketX() {
+            return marketCell % boardSize;
+        }
+
+        public int getMarketY() {
+            return marketCell / boardSize;
+        }
+
+        /**
+         * @return The turns from the start of the tour until everything is sold
+         */
+        public int getTurns() {
+            return turns;
+        }
+
+        /**
+         * @return The forecast price of everything sold at the end of the tour
+         */
+        public int getRevenue() {
+            return revenue;
+        }
+
+        public double getValuePerTurn() {
+            return (turns == 0) ? 0 : ((double) revenue) / turns;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+import mineopoly_three.action.ActionLog;
+import mineopoly_three.action.TurnAction;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ActionLogTest {
+    private static final TurnAction[] allTurnActions = TurnAction.values();
+
+    @Test
+    public void matchesListOfActions() {
+        Random random = new Random(15);
+        List<TurnAction> expected = new ArrayList<>();
+        ActionLog actionLog = new ActionLog(1);
+        for (int turn = 0; turn < 1000; turn++) {
+            TurnAction action = randomAction(random);
+            actionLog.add(action);
+            expected.add(action);
+        }
+
+        assertEquals(expected, actionLog.asList());
+        assertFalse(actionLog.endsWithException());
+        assertEquals(expected, ActionLog.of(expected, false).asList());
+    }
+
+    @Test
+    public void truncatingForgetsTheException() {
+        ActionLog actionLog = ActionLog.of(Arrays.asList(TurnAction.MOVE_UP, null, TurnAction.MINE), true);
+        assertTrue(actionLog.endsWithException());
+
+        // Nothing after the last action is forgotten, so the exception stays
+        actionLog.truncate(4);
+        assertEquals(3, actionLog.size());
+        assertTrue(actionLog.endsWithException());
+
+        actionLog.truncate(3);
+        assertEquals(3, actionLog.size());
+        assertFalse(actionLog.endsWithException());
+
+        actionLog.addException();
+        actionLog.truncate(1);
+        assertEquals(Arrays.asList(TurnAction.MOVE_UP), actionLog.asList());
+        assertFalse(actionLog.endsWithException());
+
+        // With the exception gone the game can go on from there
+        actionLog.add(TurnAction.MOVE_LEFT);
+        assertEquals(Arrays.asList(TurnAction.MOVE_UP, TurnAction.MOVE_LEFT), actionLog.asList());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addingAfterTheExceptionThrows() {
+        ActionLog actionLog = new ActionLog();
+        actionLog.add(TurnAction.MOVE_DOWN);
+        actionLog.addException();
+        actionLog.add(TurnAction.MOVE_DOWN);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatingToNegativeSizeThrows() {
+        new ActionLog().truncate(-1);
+    }
+
+    @Test
+    public void cursorReachesTheException() {
+        ActionLog actionLog = ActionLog.of(Arrays.asList(TurnAction.MOVE_RIGHT, null), true);
+        ActionLog.Cursor cursor = actionLog.cursor();
+
+        assertFalse(cursor.isAtException());
+        assertEquals(TurnAction.MOVE_RIGHT, cursor.next());
+        assertFalse(cursor.isAtException());
+        assertNull(cursor.next());
+        assertFalse(cursor.hasNext());
+        assertTrue(cursor.isAtException());
+        assertEquals(2, cursor.getPosition());
+
+        ActionLog.Cursor cursorWithoutException = ActionLog.of(Arrays.asList(TurnAction.MOVE_RIGHT), false).cursor();
+        cursorWithoutException.next();
+        assertFalse(cursorWithoutException.hasNext());
+        assertFalse(cursorWithoutException.isAtException());
+    }
+
+    @Test
+    public void cursorCanBeMovedAnywhere() {
+        List<TurnAction> actions = Arrays.asList(TurnAction.MOVE_UP, TurnAction.MINE, null, TurnAction.PLACE_AUTOMINER);
+        ActionLog actionLog = ActionLog.of(actions, true);
+        ActionLog.Cursor cursor = actionLog.cursor();
+
+        for (int position : new int[] {3, 0, 2, 1, 3}) {
+            cursor.setPosition(position);
+            assertEquals(position, cursor.getPosition());
+            assertTrue(cursor.hasNext());
+            assertFalse(cursor.isAtException());
+            assertEquals(actions.get(position), cursor.next());
+            assertEquals(position + 1, cursor.getPosition());
+        }
+
+        // Past the end is allowed, a seek can get there before the game does
+        cursor.setPosition(10);
+        assertFalse(cursor.hasNext());
+        assertTrue(cursor.isAtException());
+        cursor.setPosition(0);
+        assertFalse(cursor.isAtException());
+        try {
+            cursor.setPosition(-1);
+            fail("Moved a cursor before the first action");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void cursorSeesActionsAddedLater() {
+        ActionLog actionLog = new ActionLog();
+        ActionLog.Cursor cursor = actionLog.cursor();
+        assertFalse(cursor.hasNext());
+
+        actionLog.add(TurnAction.MOVE_LEFT);
+        assertTrue(cursor.hasNext());
+        assertEquals(TurnAction.MOVE_LEFT, cursor.next());
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void readingPastTheEndThrows() {
+        ActionLog.Cursor cursor = ActionLog.of(Arrays.asList(TurnAction.MINE), false).cursor();
+        cursor.next();
+        cursor.next();
+    }
+
+    @Test
+    public void copiesGrowIndependently() {
+        Random random = new Random(16);
+        // The copy of an empty log starts with as little room as possible
+        for (int numStartingActions : new int[] {0, 1, 5, 16, 100}) {
+            List<TurnAction> expectedOriginal = new ArrayList<>();
+            ActionLog original = new ActionLog(numStartingActions);
+            for (int i = 0; i < numStartingActions; i++) {
+                TurnAction action = randomAction(random);
+                original.add(action);
+                expectedOriginal.add(action);
+            }
+
+            ActionLog copy = new ActionLog(original);
+            List<TurnAction> expectedCopy = new ArrayList<>(expectedOriginal);
+            for (int i = 0; i < 300; i++) {
+                TurnAction action = randomAction(random);
+                copy.add(action);
+                expectedCopy.add(action);
+            }
+            original.add(TurnAction.MOVE_DOWN);
+            expectedOriginal.add(TurnAction.MOVE_DOWN);
+
+            assertEquals(expectedCopy, copy.asList());
+            assertEquals(expectedOriginal, original.asList());
+        }
+
+        ActionLog originalWithException = ActionLog.of(Arrays.asList(TurnAction.MINE), true);
+        assertTrue(new ActionLog(originalWithException).endsWithException());
+    }
+
+    private static TurnAction randomAction(Random random) {
+        int actionIndex = random.nextInt(allTurnActions.length + 1);
+        return (actionIndex == allTurnActions.length) ? null : allTurnActions[actionIndex];
+    }
+}
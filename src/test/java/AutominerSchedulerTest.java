@@ -0,0 +1,209 @@
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.game.GameBoard;
+import mineopoly_three.game.MinePlayer;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemType;
+import mineopoly_three.tiles.TileType;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AutominerSchedulerTest {
+    private static final int NUM_BOARDS = 400;
+    private static final int TURNS_PER_BOARD = 300;
+    private static final ItemType[] resourceTypes = {ItemType.DIAMOND, ItemType.EMERALD, ItemType.RUBY};
+
+    @Test
+    public void placingAndPickingUpMatchesCountingEveryTurn() {
+        Random random = new Random(4);
+        for (int boardNumber = 0; boardNumber < NUM_BOARDS; boardNumber++) {
+            int boardSize = 3 + random.nextInt(8);
+            GameBoard board = new GameBoard(boardSize);
+            CountingBoard expected = new CountingBoard(boardSize);
+            for (int y = 0; y < boardSize; y++) {
+                for (int x = 0; x < boardSize; x++) {
+                    if (random.nextBoolean()) {
+                        ItemType resourceType = resourceTypes[random.nextInt(resourceTypes.length)];
+                        board.setTileTypeAtLocation(x, y, resourceType.getResourceTileType());
+                        expected.resources[(y * boardSize) + x] = resourceType;
+                    }
+                }
+            }
+            AutominerCarrier carrier = new AutominerCarrier(board);
+            // Busy boards keep autominers coming and going, quiet ones leave them working for a long time
+            int changeChance = 1 + random.nextInt(12);
+
+            for (int turn = 0; turn < TURNS_PER_BOARD; turn++) {
+                while (random.nextInt(changeChance) == 0) {
+                    int x = random.nextInt(boardSize);
+                    int y = random.nextInt(boardSize);
+                    int cellIndex = (y * boardSize) + x;
+                    // Picking up is picked a bit less often, and sometimes a second autominer goes on the same tile
+                    if (expected.numAutominers[cellIndex] > 0 && random.nextInt(5) < 2) {
+                        carrier.pickUpAutominer(x, y);
+                        expected.numAutominers[cellIndex]--;
+                    } else {
+                        board.addItemAtLocation(x, y, new InventoryItem(ItemType.AUTOMINER));
+                        expected.numAutominers[cellIndex]++;
+                    }
+                    if (random.nextInt(3) == 0) {
+                        break;
+                    }
+                }
+
+                board.update();
+                expected.update();
+                expected.assertMatches(board, "board " + boardNumber + " turn " + turn);
+            }
+        }
+    }
+
+    @Test
+    public void severalAutominersMineOnSameTurn() {
+        // Five autominers work on the middle tile, so its total passes two multiples of 4 on some turns
+        GameBoard board = new GameBoard(3);
+        CountingBoard expected = new CountingBoard(3);
+        board.setTileTypeAtLocation(1, 1, TileType.RESOURCE_DIAMOND);
+        expected.resources[4] = ItemType.DIAMOND;
+        for (int cellIndex : new int[] {1, 3, 4, 5, 7}) {
+            board.addItemAtLocation(cellIndex % 3, cellIndex / 3, new InventoryItem(ItemType.AUTOMINER));
+            expected.numAutominers[cellIndex]++;
+        }
+
+        for (int turn = 0; turn < 10; turn++) {
+            board.update();
+            expected.update();
+            expected.assertMatches(board, "turn " + turn);
+        }
+        assertEquals(TileType.EMPTY, board.getTileTypeAtLocation(1, 1));
+        assertEquals(1, expected.countResources(4));
+    }
+
+    /**
+     * A board that lets every autominer work on every tile around it every turn, the way the game did before
+     *  autominers were scheduled
+     */
+    private static class CountingBoard {
+        private final int boardSize;
+        private final ItemType[] resources;
+        private final boolean[] isCracked;
+        private final int[] mineProgress;
+        private final int[] turnsWorked;
+        private final int[] numAutominers;
+        private final List<List<ItemType>> itemsDropped;
+
+        private CountingBoard(int boardSize) {
+            this.boardSize = boardSize;
+            int numCells = boardSize * boardSize;
+            this.resources = new ItemType[numCells];
+            this.isCracked = new boolean[numCells];
+            this.mineProgress = new int[numCells];
+            this.turnsWorked = new int[numCells];
+            this.numAutominers = new int[numCells];
+            this.itemsDropped = new ArrayList<>();
+            for (int i = 0; i < numCells; i++) {
+                itemsDropped.add(new ArrayList<>());
+            }
+        }
+
+        private void update() {
+            // Autominers this turn are the ones on the ground when the turn starts, mining can't add or remove any
+            boolean[] hasAutominer = new boolean[numAutominers.length];
+            for (int cellIndex = 0; cellIndex < numAutominers.length; cellIndex++) {
+                hasAutominer[cellIndex] = numAutominers[cellIndex] > 0;
+            }
+
+            for (int cellIndex = 0; cellIndex < hasAutominer.length; cellIndex++) {
+                if (!hasAutominer[cellIndex]) {
+                    continue;
+                }
+                int x = cellIndex % boardSize;
+                int y = cellIndex / boardSize;
+                work(cellIndex);
+                if (x > 0) {
+                    work(cellIndex - 1);
+                }
+                if (x < boardSize - 1) {
+                    work(cellIndex + 1);
+                }
+                if (y > 0) {
+                    work(cellIndex - boardSize);
+                }
+                if (y < boardSize - 1) {
+                    work(cellIndex + boardSize);
+                }
+            }
+        }
+
+        private void work(int cellIndex) {
+            int turnsMined = turnsWorked[cellIndex];
+            if (resources[cellIndex] == null) {
+                isCracked[cellIndex] = true;
+            } else if (turnsMined > 0 && turnsMined % GameBoard.AUTOMINER_MULTIPLIER == 0) {
+                mineProgress[cellIndex]++;
+                if (mineProgress[cellIndex] >= resources[cellIndex].getTurnsToMine()) {
+                    itemsDropped.get(cellIndex).add(resources[cellIndex]);
+                    resources[cellIndex] = null;
+                    mineProgress[cellIndex] = 0;
+                    isCracked[cellIndex] = true;
+                }
+            }
+            turnsWorked[cellIndex] = turnsMined + 1;
+        }
+
+        private int countResources(int cellIndex) {
+            return itemsDropped.get(cellIndex).size();
+        }
+
+        private void assertMatches(GameBoard board, String message) {
+            for (int y = 0; y < boardSize; y++) {
+                for (int x = 0; x < boardSize; x++) {
+                    int cellIndex = (y * boardSize) + x;
+                    String cellMessage = message + " at " + x + "," + y;
+                    ItemType resource = resources[cellIndex];
+                    TileType expectedTileType = (resource == null) ? TileType.EMPTY : resource.getResourceTileType();
+                    assertEquals(cellMessage, expectedTileType, board.getTileTypeAtLocation(x, y));
+                    assertEquals(cellMessage, mineProgress[cellIndex], board.getMineProgressAtLocation(x, y));
+                    assertEquals(cellMessage, isCracked[cellIndex], board.isCrackedAtLocation(x, y));
+
+                    List<ItemType> resourcesOnGround = new ArrayList<>();
+                    int autominersOnGround = 0;
+                    for (InventoryItem item : board.getItemsAtLocation(x, y)) {
+                        if (item.getItemType() == ItemType.AUTOMINER) {
+                            autominersOnGround++;
+                        } else {
+                            resourcesOnGround.add(item.getItemType());
+                        }
+                    }
+                    assertEquals(cellMessage, itemsDropped.get(cellIndex), resourcesOnGround);
+                    assertEquals(cellMessage, numAutominers[cellIndex], autominersOnGround);
+                }
+            }
+        }
+    }
+
+    /**
+     * A player with no strategy, only used to pick autominers up off the board
+     */
+    private static class AutominerCarrier extends MinePlayer {
+        private final GameBoard board;
+
+        private AutominerCarrier(GameBoard board) {
+            super(null, new Point(0, 0), null, 0, true);
+            this.board = board;
+            board.addPlayer(this);
+        }
+
+        private void pickUpAutominer(int x, int y) {
+            board.movePlayer(this, x, y);
+            board.interact(this, TurnAction.PICK_UP_AUTOMINER);
+            assertEquals(1, getInventory().size());
+            getInventory().clear();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.game.Economy;
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.strategy.MinePlayerStrategy;
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.strategy.RandomStrategy;
+import mineopoly_three.tiles.TileType;
+import mineopoly_three.util.Bitboards;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BitboardsTest {
+    // Boards that leave the last word partly used, and boards that fill whole words exactly
+    private static final int[] BOARD_SIZES = {10, 14, 16, 24};
+    private static final TileType[] allTileTypes = TileType.values();
+
+    @Test
+    public void nextSetBitFindsBitsAroundWordBoundaries() {
+        long[] bits = new long[3];
+        for (int cellIndex : new int[] {0, 63, 64, 127, 130}) {
+            bits[cellIndex >>> 6] |= 1L << cellIndex;
+        }
+
+        assertEquals(0, Bitboards.nextSetBit(bits, 0));
+        assertEquals(63, Bitboards.nextSetBit(bits, 1));
+        assertEquals(63, Bitboards.nextSetBit(bits, 63));
+        assertEquals(64, Bitboards.nextSetBit(bits, 64));
+        assertEquals(127, Bitboards.nextSetBit(bits, 65));
+        assertEquals(130, Bitboards.nextSetBit(bits, 128));
+        assertEquals(-1, Bitboards.nextSetBit(bits, 131));
+        // Past the last word, including right at its end and far beyond it
+        assertEquals(-1, Bitboards.nextSetBit(bits, 3 * 64));
+        assertEquals(-1, Bitboards.nextSetBit(bits, 10000));
+        assertEquals(-1, Bitboards.nextSetBit(new long[0], 0));
+        assertEquals(5, Bitboards.count(bits));
+        assertEquals(0, Bitboards.count(new long[0]));
+
+        long[] onlyLastBit = {0, 0, Long.MIN_VALUE};
+        assertEquals(191, Bitboards.nextSetBit(onlyLastBit, 0));
+        assertEquals(191, Bitboards.nextSetBit(onlyLastBit, 191));
+        assertEquals(-1, Bitboards.nextSetBit(onlyLastBit, 192));
+        assertEquals(1, Bitboards.count(onlyLastBit));
+        assertEquals(3 * 64, Bitboards.count(new long[] {-1L, -1L, -1L}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nextSetBitFromNegativeIndexThrows() {
+        Bitboards.nextSetBit(new long[1], -1);
+    }
+
+    @Test
+    public void randomBitboardsMatchArrayOfBooleans() {
+        Random random = new Random(20);
+        for (int board = 0; board < 2000; board++) {
+            int numCells = 1 + random.nextInt(300);
+            // Sparse boards skip whole words, dense ones set bits next to each other
+            int density = 1 + random.nextInt(40);
+            boolean[] isSet = new boolean[numCells];
+            long[] bits = new long[Bitboards.getNumWords(numCells)];
+            int expectedCount = 0;
+            for (int cellIndex = 0; cellIndex < numCells; cellIndex++) {
+                if (random.nextInt(density) == 0) {
+                    isSet[cellIndex] = true;
+                    bits[cellIndex >>> 6] |= 1L << cellIndex;
+                    expectedCount++;
+                }
+            }
+
+            assertEquals(expectedCount, Bitboards.count(bits));
+            for (int fromIndex = 0; fromIndex <= bits.length * 64; fromIndex++) {
+                int expectedNext = -1;
+                for (int cellIndex = fromIndex; cellIndex < numCells; cellIndex++) {
+                    if (isSet[cellIndex]) {
+                        expectedNext = cellIndex;
+                        break;
+                    }
+                }
+                assertEquals("board " + board + " from " + fromIndex, expectedNext,
+                             Bitboards.nextSetBit(bits, fromIndex));
+                if (fromIndex < numCells) {
+                    assertEquals(isSet[fromIndex], Bitboards.isSet(bits, fromIndex));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void tileTypeBitsMatchTileTypesOnGeneratedBoards() {
+        for (int boardSize : BOARD_SIZES) {
+            for (long seed = 1; seed <= 2; seed++) {
+                TileTypeChecker redChecker = new TileTypeChecker(new RandomStrategy());
+                TileTypeChecker blueChecker = new TileTypeChecker(new RandomStrategy());
+                GameEngine engine = new GameEngine(boardSize, redChecker, blueChecker, seed);
+                engine.runGame();
+
+                assertNull(engine.getExceptionThrown());
+                assertTrue(redChecker.numViewsChecked > 1);
+                assertTrue(blueChecker.numViewsChecked > 1);
+            }
+        }
+    }
+
+    /**
+     * Checks the bitboards of every view it is given against reading the tile types one cell at a time
+     */
+    private static class TileTypeChecker implements MinePlayerStrategy {
+        private final MinePlayerStrategy strategy;
+        private int boardSize;
+        private int numViewsChecked;
+
+        private TileTypeChecker(MinePlayerStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public void initialize(int boardSize, int maxInventorySize, int maxCharge, int winningScore,
+                               PlayerBoardView startingBoard, Point startTileLocation, boolean isRedPlayer,
+                               Random random) {
+            this.boardSize = boardSize;
+            checkView(startingBoard);
+            strategy.initialize(boardSize, maxInventorySize, maxCharge, winningScore, startingBoard,
+                                startTileLocation, isRedPlayer, random);
+        }
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                        boolean isRedTurn) {
+            checkView(boardView);
+            return strategy.getTurnAction(boardView, economy, currentCharge, isRedTurn);
+        }
+
+        private void checkView(PlayerBoardView boardView) {
+            int numCells = boardSize * boardSize;
+            int numWords = Bitboards.getNumWords(numCells);
+            int numTilesCounted = 0;
+            for (TileType tileType : allTileTypes) {
+                long[] tileTypeBits = boardView.getTileTypeBits(tileType);
+                assertEquals(numWords, tileTypeBits.length);
+
+                // Copying overwrites whatever was there, and leaves words past the board alone
+                long[] copiedBits = new long[numWords + 1];
+                Arrays.fill(copiedBits, -1L);
+                boardView.copyTileTypeBits(tileType, copiedBits);
+                assertArrayEquals(tileTypeBits, Arrays.copyOf(copiedBits, numWords));
+                assertEquals(-1L, copiedBits[numWords]);
+
+                int expectedCount = 0;
+                for (int y = 0; y < boardSize; y++) {
+                    for (int x = 0; x < boardSize; x++) {
+                        boolean isTileType = boardView.getTileTypeAtLocation(x, y) == tileType;
+                        assertEquals(tileType + " at " + x + "," + y, isTileType,
+                                     Bitboards.isSet(tileTypeBits, (y * boardSize) + x));
+                        expectedCount += isTileType ? 1 : 0;
+                    }
+                }
+                // Nothing may be set in the unused end of the last word
+                assertEquals(-1, Bitboards.nextSetBit(tileTypeBits, numCells));
+                assertEquals(expectedCount, Bitboards.count(tileTypeBits));
+                assertEquals(expectedCount, boardView.countTileType(tileType));
+                numTilesCounted += expectedCount;
+            }
+            assertEquals(numCells, numTilesCounted);
+
+            try {
+                boardView.copyTileTypeBits(TileType.EMPTY, new long[numWords - 1]);
+                fail("Copied tile type bits into a bitboard that is too small");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+            numViewsChecked++;
+        }
+
+        @Override
+        public void onReceiveItem(InventoryItem itemReceived) {
+            strategy.onReceiveItem(itemReceived);
+        }
+
+        @Override
+        public void onSoldInventory(int totalSellPrice) {
+            strategy.onSoldInventory(totalSellPrice);
+        }
+
+        @Override
+        public String getName() {
+            return strategy.getName();
+        }
+
+        @Override
+        public void endRound(int pointsScored, int opponentPointsScored) {
+            strategy.endRound(pointsScored, opponentPointsScored);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.competition.CompetitionStrategy;
+import mineopoly_three.game.Economy;
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.game.GameListener;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemType;
+import mineopoly_three.strategy.BoardSnapshot;
+import mineopoly_three.strategy.MinePlayerStrategy;
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.strategy.RandomStrategy;
+import mineopoly_three.tiles.TileType;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BoardChangesTest {
+    private static final int BOARD_SIZE = 14;
+
+    @Test
+    public void changeListsHoldTheCellsChangedSinceEachPlayersLastView() {
+        for (long seed = 1; seed <= 3; seed++) {
+            TouchedCells touchedCells = new TouchedCells();
+            ChangeChecker redChecker = new ChangeChecker(new CompetitionStrategy(), touchedCells);
+            ChangeChecker blueChecker = new ChangeChecker(new RandomStrategy(), touchedCells);
+            GameEngine engine = new GameEngine(BOARD_SIZE, redChecker, blueChecker, seed);
+            engine.addGameListener(touchedCells);
+            engine.runGame();
+
+            assertNull(engine.getExceptionThrown());
+            assertTrue(redChecker.numViewsChecked > 1);
+            assertTrue(blueChecker.numViewsChecked > 1);
+            assertTrue("Nothing on the board changed in game " + seed, redChecker.numChangesListed > 0);
+        }
+    }
+
+    @Test
+    public void reusedViewReportsNoChanges() {
+        TouchedCells touchedCells = new TouchedCells();
+        ChangeChecker redChecker = new ChangeChecker(new IdleStrategy(), touchedCells);
+        ChangeChecker blueChecker = new ChangeChecker(new IdleStrategy(), touchedCells);
+        GameEngine engine = new GameEngine(BOARD_SIZE, redChecker, blueChecker, 5);
+        engine.addGameListener(touchedCells);
+        engine.runGame();
+
+        assertNull(engine.getExceptionThrown());
+        // Nothing ever changes, so after the first turn each player keeps getting the same view back
+        assertTrue(redChecker.numViewsReused > 0);
+        assertTrue(blueChecker.numViewsReused > 0);
+    }
+
+    /**
+     * Remembers which cells the engine said changed since each player's last view, as a bound on what the
+     *  player's next change list may hold
+     */
+    private static class TouchedCells implements GameListener {
+        private final boolean[][] isTouched = new boolean[2][BOARD_SIZE * BOARD_SIZE];
+
+        @Override
+        public void onTileChanged(int x, int y) {
+            isTouched[0][(y * BOARD_SIZE) + x] = true;
+            isTouched[1][(y * BOARD_SIZE) + x] = true;
+        }
+
+        private boolean wasTouched(boolean isRedPlayer, int x, int y) {
+            return isTouched[isRedPlayer ? 0 : 1][(y * BOARD_SIZE) + x];
+        }
+
+        private void clear(boolean isRedPlayer) {
+            boolean[] playerTouched = isTouched[isRedPlayer ? 0 : 1];
+            for (int i = 0; i < playerTouched.length; i++) {
+                playerTouched[i] = false;
+            }
+        }
+    }
+
+    /**
+     * Checks every view it is given against the one before it: every cell that differs has to be listed, every
+     *  listed cell has to be one the engine changed, no cell is listed twice, and a view handed out again lists
+     *  nothing
+     */
+    private static class ChangeChecker implements MinePlayerStrategy {
+        private final MinePlayerStrategy strategy;
+        private final TouchedCells touchedCells;
+        private boolean isRedPlayer;
+        private PlayerBoardView lastView;
+        private int numViewsChecked;
+        private int numViewsReused;
+        private int numChangesListed;
+
+        private ChangeChecker(MinePlayerStrategy strategy, TouchedCells touchedCells) {
+            this.strategy = strategy;
+            this.touchedCells = touchedCells;
+        }
+
+        @Override
+        public void initialize(int boardSize, int maxInventorySize, int maxCharge, int winningScore,
+                               PlayerBoardView startingBoard, Point startTileLocation, boolean isRedPlayer,
+                               Random random) {
+            this.isRedPlayer = isRedPlayer;
+            checkView(startingBoard);
+            strategy.initialize(boardSize, maxInventorySize, maxCharge, winningScore, startingBoard,
+                                startTileLocation, isRedPlayer, random);
+        }
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                        boolean isRedTurn) {
+            checkView(boardView);
+            return strategy.getTurnAction(boardView, economy, currentCharge, isRedTurn);
+        }
+
+        private void checkView(PlayerBoardView boardView) {
+            boolean[] isListed = new boolean[BOARD_SIZE * BOARD_SIZE];
+            for (int i = 0; i < boardView.getNumChangedCells(); i++) {
+                int x = boardView.getChangedCellX(i);
+                int y = boardView.getChangedCellY(i);
+                int cellIndex = (y * BOARD_SIZE) + x;
+                assertFalse("Cell " + x + "," + y + " listed twice", isListed[cellIndex]);
+                isListed[cellIndex] = true;
+                // The first view lists everything set up with the board, before the engine said anything
+                if (lastView != null) {
+                    assertTrue("Cell " + x + "," + y + " listed without changing",
+                               touchedCells.wasTouched(isRedPlayer, x, y));
+                }
+            }
+
+            if (boardView == lastView) {
+                assertEquals("A reused view lists changes", 0, boardView.getNumChangedCells());
+                numViewsReused++;
+            }
+            BoardSnapshot currentBoard = boardView.getBoardSnapshot();
+            BoardSnapshot lastBoard = (lastView == null) ? null : lastView.getBoardSnapshot();
+            for (int y = 0; y < BOARD_SIZE; y++) {
+                for (int x = 0; x < BOARD_SIZE; x++) {
+                    TileType lastTileType = (lastBoard == null) ? TileType.EMPTY : lastBoard.getTileType(x, y);
+                    List<ItemType> lastItems = (lastBoard == null) ? new ArrayList<>()
+                                                                   : getItemTypes(lastBoard, x, y);
+                    boolean isDifferent = lastTileType != currentBoard.getTileType(x, y)
+                                          || !lastItems.equals(getItemTypes(currentBoard, x, y));
+                    if (isDifferent) {
+                        assertTrue("Cell " + x + "," + y + " changed without being listed",
+                                   isListed[(y * BOARD_SIZE) + x]);
+                    }
+                }
+            }
+
+            touchedCells.clear(isRedPlayer);
+            numChangesListed += (lastView == null) ? 0 : boardView.getNumChangedCells();
+            numViewsChecked++;
+            lastView = boardView;
+        }
+
+        private static List<ItemType> getItemTypes(BoardSnapshot board, int x, int y) {
+            List<ItemType> itemTypes = new ArrayList<>();
+            for (InventoryItem item : board.getItems(x, y)) {
+                itemTypes.add(item.getItemType());
+            }
+            return itemTypes;
+        }
+
+        @Override
+        public void onReceiveItem(InventoryItem itemReceived) {
+            strategy.onReceiveItem(itemReceived);
+        }
+
+        @Override
+        public void onSoldInventory(int totalSellPrice) {
+            strategy.onSoldInventory(totalSellPrice);
+        }
+
+        @Override
+        public String getName() {
+            return strategy.getName();
+        }
+
+        @Override
+        public void endRound(int pointsScored, int opponentPointsScored) {
+            strategy.endRound(pointsScored, opponentPointsScored);
+        }
+    }
+
+    private static class IdleStrategy implements MinePlayerStrategy {
+        @Override
+        public void initialize(int boardSize, int maxInventorySize, int maxCharge, int winningScore,
+                               PlayerBoardView startingBoard, Point startTileLocation, boolean isRedPlayer,
+                               Random random) {
+        }
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                        boolean isRedTurn) {
+            return null;
+        }
+
+        @Override
+        public void onReceiveItem(InventoryItem itemReceived) {
+        }
+
+        @Override
+        public void onSoldInventory(int totalSellPrice) {
+        }
+
+        @Override
+        public String getName() {
+            return "Idle";
+        }
+
+        @Override
+        public void endRound(int pointsScored, int opponentPointsScored) {
+        }
+    }
+}
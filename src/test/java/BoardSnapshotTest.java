@@ -0,0 +1,84 @@
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemType;
+import mineopoly_three.strategy.BoardSnapshot;
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.tiles.TileType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BoardSnapshotTest {
+    private static final int BOARD_SIZE = 10;
+
+    private BoardSnapshot.Builder builder;
+
+    @Before
+    public void setUp() {
+        builder = new BoardSnapshot.Builder(BOARD_SIZE);
+        for (int y = 0; y < BOARD_SIZE; y++) {
+            for (int x = 0; x < BOARD_SIZE; x++) {
+                builder.setTileType(x, y, TileType.EMPTY);
+            }
+        }
+        List<InventoryItem> items = new ArrayList<>();
+        items.add(new InventoryItem(ItemType.RUBY));
+        builder.setItems(2, 3, items);
+    }
+
+    @Test
+    public void itemMapHasAnEntryForEveryCell() {
+        Map<Point, List<InventoryItem>> itemsOnGround = builder.build().getItemsOnGround();
+
+        assertEquals(BOARD_SIZE * BOARD_SIZE, itemsOnGround.size());
+        for (int y = 0; y < BOARD_SIZE; y++) {
+            for (int x = 0; x < BOARD_SIZE; x++) {
+                List<InventoryItem> items = itemsOnGround.get(new Point(x, y));
+                assertNotNull("No entry for (" + x + ", " + y + ")", items);
+                assertEquals(x == 2 && y == 3, !items.isEmpty());
+            }
+        }
+        assertEquals(ItemType.RUBY, itemsOnGround.get(new Point(2, 3)).get(0).getItemType());
+        assertNull(itemsOnGround.get(new Point(BOARD_SIZE, 0)));
+    }
+
+    @Test
+    public void viewsSharingSnapshotGetTheirOwnItemMaps() {
+        BoardSnapshot snapshot = builder.build();
+        PlayerBoardView redView = new PlayerBoardView(snapshot, new Point(0, 0), new Point(1, 0), 0);
+        PlayerBoardView blueView = new PlayerBoardView(snapshot, new Point(1, 0), new Point(0, 0), 0);
+
+        Map<Point, List<InventoryItem>> redItems = redView.getItemsOnGround();
+        redItems.get(new Point(2, 3)).clear();
+        redItems.get(new Point(4, 4)).add(new InventoryItem(ItemType.DIAMOND));
+        for (Point redKey : redItems.keySet()) {
+            redKey.translate(1, 1);
+        }
+
+        Map<Point, List<InventoryItem>> blueItems = blueView.getItemsOnGround();
+        assertEquals(BOARD_SIZE * BOARD_SIZE, blueItems.size());
+        assertEquals(1, blueItems.get(new Point(2, 3)).size());
+        assertEquals(ItemType.RUBY, blueItems.get(new Point(2, 3)).get(0).getItemType());
+        assertTrue(blueItems.get(new Point(4, 4)).isEmpty());
+        assertEquals(1, redView.getItemsOnGround().get(new Point(2, 3)).size());
+    }
+
+    @Test
+    public void tileTypeBitsFollowChangedChunks() {
+        BoardSnapshot firstSnapshot = builder.build();
+        builder.setTileType(9, 9, TileType.RESOURCE_DIAMOND);
+        BoardSnapshot secondSnapshot = builder.build();
+
+        assertEquals(0, firstSnapshot.countTileType(TileType.RESOURCE_DIAMOND));
+        assertEquals(1, secondSnapshot.countTileType(TileType.RESOURCE_DIAMOND));
+        assertEquals(BOARD_SIZE * BOARD_SIZE - 1, secondSnapshot.countTileType(TileType.EMPTY));
+        long[] diamondBits = secondSnapshot.getTileTypeBits(TileType.RESOURCE_DIAMOND);
+        int diamondCell = (9 * BOARD_SIZE) + 9;
+        assertEquals(1L << (diamondCell & 63), diamondBits[diamondCell >>> 6]);
+    }
+}
@@ -0,0 +1,165 @@
+import mineopoly_three.util.DistanceField;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DistanceFieldTest {
+    private static final int NUM_BOARDS = 3000;
+    private static final int MAX_BOARD_SIZE = 20;
+    private static final int CHANGES_PER_BOARD = 40;
+    // Right, left, up, down, the order DistanceField promises its searches visit neighbors in
+    private static final int[] NEIGHBOR_DX = {1, -1, 0, 0};
+    private static final int[] NEIGHBOR_DY = {0, 0, 1, -1};
+
+    @Test
+    public void addingAndRemovingSourcesMatchesSearchingFromScratch() {
+        Random random = new Random(5);
+        for (int boardNumber = 0; boardNumber < NUM_BOARDS; boardNumber++) {
+            int size = 1 + random.nextInt(MAX_BOARD_SIZE);
+            int numCells = size * size;
+            DistanceField distanceField = new DistanceField(size);
+            boolean[] isSource = new boolean[numCells];
+            int[] sourceCells = new int[numCells];
+            int numSourceCells = 0;
+            for (int cellIndex = 0; cellIndex < numCells; cellIndex++) {
+                if (random.nextInt(10) == 0) {
+                    isSource[cellIndex] = true;
+                    sourceCells[numSourceCells++] = cellIndex;
+                }
+            }
+            distanceField.setSources(sourceCells, numSourceCells);
+
+            for (int change = 0; change < CHANGES_PER_BOARD; change++) {
+                assertMatchesSearch(distanceField, isSource, false, "board " + boardNumber + " change " + change);
+
+                int cellIndex = random.nextInt(numCells);
+                int x = cellIndex % size;
+                int y = cellIndex / size;
+                // Removing is picked more often, so boards also run out of sources now and then
+                if (random.nextInt(3) != 0) {
+                    assertEquals(isSource[cellIndex], distanceField.removeSource(x, y));
+                    isSource[cellIndex] = false;
+                } else {
+                    assertEquals(!isSource[cellIndex], distanceField.addSource(x, y));
+                    isSource[cellIndex] = true;
+                }
+            }
+            assertMatchesSearch(distanceField, isSource, true, "board " + boardNumber + " after every change");
+        }
+    }
+
+    @Test
+    public void removingTheOnlySourceLeavesEverythingUnreachable() {
+        DistanceField distanceField = new DistanceField(6);
+        assertTrue(distanceField.addSource(2, 3));
+        assertTrue(distanceField.removeSource(2, 3));
+        assertFalse(distanceField.removeSource(2, 3));
+        assertEquals(0, distanceField.getNumSources());
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 6; x++) {
+                assertEquals(DistanceField.UNREACHABLE, distanceField.getDistance(x, y));
+                assertEquals(DistanceField.NO_SOURCE, distanceField.getNearestSource(x, y));
+                assertEquals(DistanceField.NO_SOURCE, distanceField.findNearestSource(x, y));
+            }
+        }
+    }
+
+    /**
+     * @param checkFoundSources True to also search from every cell with findNearestSource(), which only depends on
+     *                          the current sources and is by far the slowest part to check
+     */
+    private static void assertMatchesSearch(DistanceField distanceField, boolean[] isSource,
+                                            boolean checkFoundSources, String message) {
+        int size = distanceField.getSize();
+        int[] expectedDistances = searchFromAllSources(isSource, size);
+        int numSources = 0;
+        for (boolean cellIsSource : isSource) {
+            numSources += cellIsSource ? 1 : 0;
+        }
+        assertEquals(message, numSources, distanceField.getNumSources());
+
+        for (int cellIndex = 0; cellIndex < isSource.length; cellIndex++) {
+            int x = cellIndex % size;
+            int y = cellIndex / size;
+            int nearestSource = distanceField.getNearestSource(x, y);
+            boolean isNearestSourceRight = (numSources == 0)
+                                           ? nearestSource == DistanceField.NO_SOURCE
+                                           : isSource[nearestSource] && expectedDistances[cellIndex]
+                                             == Math.abs(nearestSource % size - x) + Math.abs(nearestSource / size - y);
+            // Messages are only built for a cell that is wrong, building one for every cell would be most of the work
+            if (isSource[cellIndex] != distanceField.isSource(x, y)
+                    || expectedDistances[cellIndex] != distanceField.getDistance(x, y) || !isNearestSourceRight
+                    || (checkFoundSources
+                        && searchFromCell(isSource, size, cellIndex) != distanceField.findNearestSource(x, y))) {
+                fail(message + " cell " + x + "," + y + ": distance " + distanceField.getDistance(x, y)
+                     + " instead of " + expectedDistances[cellIndex] + ", nearest source " + nearestSource
+                     + ", found source " + distanceField.findNearestSource(x, y) + " instead of "
+                     + searchFromCell(isSource, size, cellIndex));
+            }
+        }
+    }
+
+    /**
+     * A plain breadth first search from every source at once, with nothing kept between calls
+     */
+    private static int[] searchFromAllSources(boolean[] isSource, int size) {
+        int[] distances = new int[isSource.length];
+        Arrays.fill(distances, DistanceField.UNREACHABLE);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int cellIndex = 0; cellIndex < isSource.length; cellIndex++) {
+            if (isSource[cellIndex]) {
+                distances[cellIndex] = 0;
+                queue.add(cellIndex);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int cellIndex = queue.poll();
+            for (int direction = 0; direction < NEIGHBOR_DX.length; direction++) {
+                int neighborX = cellIndex % size + NEIGHBOR_DX[direction];
+                int neighborY = cellIndex / size + NEIGHBOR_DY[direction];
+                if (neighborX < 0 || neighborY < 0 || neighborX >= size || neighborY >= size) {
+                    continue;
+                }
+                int neighborIndex = (neighborY * size) + neighborX;
+                if (distances[neighborIndex] == DistanceField.UNREACHABLE) {
+                    distances[neighborIndex] = distances[cellIndex] + 1;
+                    queue.add(neighborIndex);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * A plain breadth first search from one cell to the first source it reaches
+     */
+    private static int searchFromCell(boolean[] isSource, int size, int originCell) {
+        boolean[] isSeen = new boolean[isSource.length];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(originCell);
+        isSeen[originCell] = true;
+        while (!queue.isEmpty()) {
+            int cellIndex = queue.poll();
+            if (isSource[cellIndex]) {
+                return cellIndex;
+            }
+            for (int direction = 0; direction < NEIGHBOR_DX.length; direction++) {
+                int neighborX = cellIndex % size + NEIGHBOR_DX[direction];
+                int neighborY = cellIndex / size + NEIGHBOR_DY[direction];
+                if (neighborX < 0 || neighborY < 0 || neighborX >= size || neighborY >= size) {
+                    continue;
+                }
+                int neighborIndex = (neighborY * size) + neighborX;
+                if (!isSeen[neighborIndex]) {
+                    isSeen[neighborIndex] = true;
+                    queue.add(neighborIndex);
+                }
+            }
+        }
+        return DistanceField.NO_SOURCE;
+    }
+}
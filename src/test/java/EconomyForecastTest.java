@@ -0,0 +1,123 @@
+import mineopoly_three.game.Economy;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class EconomyForecastTest {
+    private static final ItemType[] RESOURCE_TYPES = {ItemType.DIAMOND, ItemType.EMERALD, ItemType.RUBY};
+    // Long enough for every price to reach its maximum from any starting point
+    private static final int MAX_TURNS_AHEAD = 250;
+
+    @Test
+    public void forecastPriceMatchesIncreasingDemandUpToTheCap() {
+        SteppableEconomy economy = new SteppableEconomy(new Economy(RESOURCE_TYPES));
+        // Knock every price down first, so the forecasts start from somewhere other than the starting prices
+        List<InventoryItem> itemsToSell = new ArrayList<>();
+        for (ItemType resourceType : RESOURCE_TYPES) {
+            itemsToSell.add(InventoryItem.of(resourceType));
+            itemsToSell.add(InventoryItem.of(resourceType));
+            itemsToSell.add(InventoryItem.of(resourceType));
+        }
+        economy.sell(itemsToSell);
+
+        for (ItemType itemType : ItemType.values()) {
+            SteppableEconomy steppedEconomy = new SteppableEconomy(economy);
+            boolean reachedMaxPrice = false;
+            for (int turnsAhead = 0; turnsAhead <= MAX_TURNS_AHEAD; turnsAhead++) {
+                assertEquals(itemType + " " + turnsAhead + " turns ahead", steppedEconomy.getPrice(itemType),
+                             economy.getForecastPrice(itemType, turnsAhead));
+                reachedMaxPrice |= (itemType.isResource()
+                                    && steppedEconomy.getPrice(itemType) == itemType.getMaxPrice());
+                steppedEconomy.step();
+            }
+            assertEquals(itemType.isResource(), reachedMaxPrice);
+        }
+        assertEquals(ItemType.DIAMOND.getMaxPrice(), economy.getForecastPrice(ItemType.DIAMOND, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void forecastRevenueMatchesSellingThatManyTurnsAhead() {
+        Random random = new Random(3);
+        ItemType[] allItemTypes = ItemType.values();
+        SteppableEconomy economy = new SteppableEconomy(new Economy(RESOURCE_TYPES));
+        for (int round = 0; round < 300; round++) {
+            int turnsAhead = random.nextInt(MAX_TURNS_AHEAD);
+            List<InventoryItem> itemsToSell = new ArrayList<>();
+            int[] numToSellByType = new int[allItemTypes.length];
+            int numItems = random.nextInt(10);
+            for (int i = 0; i < numItems; i++) {
+                ItemType itemType = allItemTypes[random.nextInt(allItemTypes.length)];
+                itemsToSell.add(InventoryItem.of(itemType));
+                numToSellByType[itemType.ordinal()]++;
+            }
+            int forecastRevenue = economy.getForecastRevenue(itemsToSell, turnsAhead);
+            assertEquals(forecastRevenue, economy.getForecastRevenue(numToSellByType, turnsAhead));
+            int[] forecastPricesAfterSelling = new int[allItemTypes.length];
+            for (ItemType resourceType : RESOURCE_TYPES) {
+                forecastPricesAfterSelling[resourceType.ordinal()] =
+                        economy.getForecastPriceAfterSelling(resourceType, numToSellByType[resourceType.ordinal()],
+                                                             turnsAhead);
+            }
+
+            SteppableEconomy steppedEconomy = new SteppableEconomy(economy);
+            for (int turn = 0; turn < turnsAhead; turn++) {
+                steppedEconomy.step();
+            }
+            assertEquals("Revenue " + turnsAhead + " turns ahead", steppedEconomy.sell(itemsToSell), forecastRevenue);
+            for (ItemType resourceType : RESOURCE_TYPES) {
+                assertEquals(forecastPricesAfterSelling[resourceType.ordinal()], steppedEconomy.getPrice(resourceType));
+            }
+
+            // Move the economy on a little, selling now and then, so later rounds start from other prices
+            int turnsToPlay = random.nextInt(5);
+            for (int turn = 0; turn < turnsToPlay; turn++) {
+                economy.step();
+            }
+            if (random.nextInt(3) == 0) {
+                economy.sell(itemsToSell);
+            }
+        }
+    }
+
+    @Test
+    public void forecastingThePastIsRejected() {
+        Economy economy = new Economy(RESOURCE_TYPES);
+        try {
+            economy.getForecastPrice(ItemType.RUBY, -1);
+            fail("Forecast a price in the past");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            economy.getForecastRevenue(Collections.singletonList(InventoryItem.of(ItemType.RUBY)), -1);
+            fail("Forecast revenue in the past");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * An Economy whose turns and sales can be played without a game
+     */
+    private static class SteppableEconomy extends Economy {
+        private SteppableEconomy(Economy toCopy) {
+            super(toCopy);
+        }
+
+        private void step() {
+            increaseDemand();
+        }
+
+        private int sell(Collection<InventoryItem> itemsToSell) {
+            return sellResources(itemsToSell);
+        }
+    }
+}
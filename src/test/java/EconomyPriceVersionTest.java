@@ -0,0 +1,124 @@
+import mineopoly_three.game.Economy;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class EconomyPriceVersionTest {
+    private static final ItemType[] RESOURCE_TYPES = {ItemType.DIAMOND, ItemType.EMERALD, ItemType.RUBY};
+    private static final ItemType[] allItemTypes = ItemType.values();
+
+    @Test
+    public void versionChangesExactlyWhenAPriceChanges() {
+        Random random = new Random(16);
+        SteppableEconomy economy = new SteppableEconomy(new Economy(RESOURCE_TYPES));
+        int[] pricesBefore = new int[allItemTypes.length];
+        int[] pricesAfter = new int[allItemTypes.length];
+        int numVersionChanges = 0;
+        int numUnchangedVersions = 0;
+        for (int turn = 0; turn < 5000; turn++) {
+            economy.copyPrices(pricesBefore);
+            long versionBefore = economy.getPriceVersion();
+            // Long quiet stretches let prices reach their maximum and sit there
+            if (random.nextInt(40) == 0) {
+                economy.sell(randomItems(random));
+            } else {
+                economy.step();
+            }
+            economy.copyPrices(pricesAfter);
+            long versionAfter = economy.getPriceVersion();
+
+            boolean pricesChanged = !Arrays.equals(pricesBefore, pricesAfter);
+            assertEquals("turn " + turn, pricesChanged, versionAfter != versionBefore);
+            // A version is never handed out twice, so an old version can't look current again
+            assertTrue("turn " + turn, versionAfter >= versionBefore);
+            numVersionChanges += pricesChanged ? 1 : 0;
+            numUnchangedVersions += pricesChanged ? 0 : 1;
+        }
+        assertTrue(numVersionChanges > 100);
+        assertTrue(numUnchangedVersions > 100);
+    }
+
+    @Test
+    public void pricesAtTheirMaximumKeepTheVersion() {
+        SteppableEconomy economy = new SteppableEconomy(new Economy(RESOURCE_TYPES));
+        while (!isEveryPriceAtMax(economy)) {
+            long versionBefore = economy.getPriceVersion();
+            economy.step();
+            assertNotEquals(versionBefore, economy.getPriceVersion());
+        }
+
+        long versionAtMax = economy.getPriceVersion();
+        for (int turn = 0; turn < 100; turn++) {
+            economy.step();
+        }
+        // Selling nothing, or only things that aren't resources, doesn't move any price either
+        economy.sell(Collections.emptyList());
+        economy.sell(Collections.singletonList(new InventoryItem(ItemType.AUTOMINER)));
+        assertEquals(versionAtMax, economy.getPriceVersion());
+
+        economy.sell(Collections.singletonList(InventoryItem.of(ItemType.RUBY)));
+        assertNotEquals(versionAtMax, economy.getPriceVersion());
+    }
+
+    @Test
+    public void copyStartsAtTheSameVersionAndCountsOnByItself() {
+        SteppableEconomy original = new SteppableEconomy(new Economy(RESOURCE_TYPES));
+        original.sell(Collections.singletonList(InventoryItem.of(ItemType.DIAMOND)));
+        SteppableEconomy copy = new SteppableEconomy(original);
+        assertEquals(original.getPriceVersion(), copy.getPriceVersion());
+
+        long copiedVersion = copy.getPriceVersion();
+        copy.step();
+        assertNotEquals(copiedVersion, copy.getPriceVersion());
+        assertEquals(copiedVersion, original.getPriceVersion());
+
+        // Different prices under the same version, which is why versions from two Economies can't be compared
+        original.sell(Collections.singletonList(InventoryItem.of(ItemType.EMERALD)));
+        assertEquals(original.getPriceVersion(), copy.getPriceVersion());
+        assertNotEquals(original.getCurrentPrices(), copy.getCurrentPrices());
+    }
+
+    private static boolean isEveryPriceAtMax(Economy economy) {
+        for (ItemType resourceType : RESOURCE_TYPES) {
+            if (economy.getPrice(resourceType) != resourceType.getMaxPrice()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<InventoryItem> randomItems(Random random) {
+        List<InventoryItem> items = new ArrayList<>();
+        int numItems = random.nextInt(6);
+        for (int i = 0; i < numItems; i++) {
+            items.add(InventoryItem.of(allItemTypes[random.nextInt(allItemTypes.length)]));
+        }
+        return items;
+    }
+
+    /**
+     * An Economy whose turns and sales can be played without a game
+     */
+    private static class SteppableEconomy extends Economy {
+        private SteppableEconomy(Economy toCopy) {
+            super(toCopy);
+        }
+
+        private void step() {
+            increaseDemand();
+        }
+
+        private int sell(Collection<InventoryItem> itemsToSell) {
+            return sellResources(itemsToSell);
+        }
+    }
+}
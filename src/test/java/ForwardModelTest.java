@@ -0,0 +1,128 @@
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.competition.CompetitionStrategy;
+import mineopoly_three.game.ForwardModel;
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.game.GameListener;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemType;
+import mineopoly_three.strategy.RandomStrategy;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ForwardModelTest {
+    private static final int BOARD_SIZE = 20;
+
+    @Test
+    public void forkSteppedWithEngineActionsMatchesEngine() {
+        for (long seed = 1; seed <= 5; seed++) {
+            GameEngine engine = new GameEngine(BOARD_SIZE, new CompetitionStrategy(), new RandomStrategy(), seed);
+            ForkChecker forkChecker = new ForkChecker(engine);
+            engine.addGameListener(forkChecker);
+            engine.runGame();
+
+            assertNull(engine.getExceptionThrown());
+            assertTrue(forkChecker.numTurnsChecked > 100);
+        }
+    }
+
+    @Test
+    public void steppingForkLeavesEngineUnchanged() {
+        GameEngine engine = new GameEngine(BOARD_SIZE, new RandomStrategy(), new RandomStrategy(), 11);
+        ForwardModel startingModel = engine.fork(true);
+        ForwardModel model = engine.fork(true);
+        long startingHash = engine.getStateHash();
+        assertSameGame("Fresh fork", startingModel, model);
+        assertEquals(startingHash, model.getStateHash());
+
+        for (int turn = 0; turn < 50 && !model.isGameOver(); turn++) {
+            model.step(TurnAction.MOVE_UP, TurnAction.MOVE_LEFT);
+        }
+        assertEquals(50, model.getTurnNumber());
+        assertNotEquals(startingModel.getYourLocation(), model.getYourLocation());
+        assertNotEquals(startingHash, model.getStateHash());
+        assertSameGame("Engine after stepping a fork", startingModel, engine.fork(true));
+        assertEquals(startingHash, engine.getStateHash());
+    }
+
+    /**
+     * Checks two models of a game are in the same state, as far as the player they were forked for can tell
+     */
+    private static void assertSameGame(String message, ForwardModel expected, ForwardModel actual) {
+        assertEquals(message, expected.isRedPlayer(), actual.isRedPlayer());
+        assertEquals(message, expected.getTurnNumber(), actual.getTurnNumber());
+        assertEquals(message, expected.isRedTurn(), actual.isRedTurn());
+        assertEquals(message, expected.getYourScore(), actual.getYourScore());
+        assertEquals(message, expected.getOtherPlayerScore(), actual.getOtherPlayerScore());
+        assertEquals(message, expected.getYourLocation(), actual.getYourLocation());
+        assertEquals(message, expected.getOtherPlayerLocation(), actual.getOtherPlayerLocation());
+        assertEquals(message, expected.getYourEnergy(), actual.getYourEnergy());
+        assertEquals(message, getItemTypes(expected.getYourInventory()), getItemTypes(actual.getYourInventory()));
+        assertEquals(message, expected.getEconomy().getCurrentPrices(), actual.getEconomy().getCurrentPrices());
+        for (int x = 0; x < BOARD_SIZE; x++) {
+            for (int y = 0; y < BOARD_SIZE; y++) {
+                assertEquals(message, expected.getTileTypeAtLocation(x, y), actual.getTileTypeAtLocation(x, y));
+            }
+        }
+        assertEquals(message, getItemTypesOnGround(expected), getItemTypesOnGround(actual));
+    }
+
+    private static List<ItemType> getItemTypes(List<InventoryItem> items) {
+        List<ItemType> itemTypes = new ArrayList<>();
+        for (InventoryItem item : items) {
+            itemTypes.add(item.getItemType());
+        }
+        return itemTypes;
+    }
+
+    private static Map<Point, List<ItemType>> getItemTypesOnGround(ForwardModel model) {
+        Map<Point, List<ItemType>> itemTypesOnGround = new HashMap<>();
+        for (Map.Entry<Point, List<InventoryItem>> cell : model.getBoardView().getItemsOnGround().entrySet()) {
+            if (!cell.getValue().isEmpty()) {
+                itemTypesOnGround.put(cell.getKey(), getItemTypes(cell.getValue()));
+            }
+        }
+        return itemTypesOnGround;
+    }
+
+    /**
+     * Forks the game after every turn, alternating between the two players' points of view, then steps the fork
+     *  with the actions both players actually took on the next turn and checks it ended up where the game did
+     */
+    private static class ForkChecker implements GameListener {
+        private final GameEngine engine;
+        private ForwardModel lastFork;
+        private int numTurnsChecked;
+
+        private ForkChecker(GameEngine engine) {
+            this.engine = engine;
+        }
+
+        @Override
+        public void onTurnCompleted(int turnNumber) {
+            if (lastFork != null) {
+                TurnAction redAction = getLastAction(engine.getRedPlayer().getAllTurnActions());
+                TurnAction blueAction = getLastAction(engine.getBluePlayer().getAllTurnActions());
+                if (lastFork.isRedPlayer()) {
+                    lastFork.step(redAction, blueAction);
+                } else {
+                    lastFork.step(blueAction, redAction);
+                }
+                assertSameGame("Turn " + turnNumber, engine.fork(lastFork.isRedPlayer()), lastFork);
+                assertEquals("Turn " + turnNumber, engine.getStateHash(), lastFork.getStateHash());
+                numTurnsChecked++;
+            }
+            lastFork = engine.fork(turnNumber % 2 == 0);
+        }
+
+        private static TurnAction getLastAction(List<TurnAction> turnActions) {
+            return turnActions.get(turnActions.size() - 1);
+        }
+    }
+}
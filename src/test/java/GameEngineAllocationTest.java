@@ -0,0 +1,263 @@
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.game.Economy;
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.strategy.MinePlayerStrategy;
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.tiles.TileType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class GameEngineAllocationTest {
+    private static final int BOARD_SIZE = 20;
+    private static final long RANDOM_SEED = 42;
+    // A few stray bytes are tolerated, anything allocated every turn adds up to far more than this over 1000 turns
+    private static final long MAX_ENGINE_BYTES_PER_GAME = 4096;
+    // Every view is a new object with its own Points over the latest snapshot, and mining or picking something up
+    //  copies the chunk of the snapshot it is in. Two miners cost the engine about 480 bytes a turn together
+    private static final long MAX_ENGINE_BYTES_PER_BUSY_TURN = 576;
+
+    private com.sun.management.ThreadMXBean allocationBean;
+
+    @Before
+    public void setUp() {
+        Object threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void turnLoopDoesNotAllocate() {
+        // The first game pays for class loading and anything the engine sets up lazily
+        new GameEngine(BOARD_SIZE, new NoOpStrategy(), new NoOpStrategy(), RANDOM_SEED).runGame();
+
+        NoOpStrategy redStrategy = new NoOpStrategy();
+        NoOpStrategy blueStrategy = new NoOpStrategy();
+        GameEngine engine = new GameEngine(BOARD_SIZE, redStrategy, blueStrategy, RANDOM_SEED);
+        engine.runGame();
+
+        assertNull(engine.getExceptionThrown());
+        assertEquals(1000, redStrategy.numTurns);
+        long engineBytes = redStrategy.allocatedBytesAtEnd - redStrategy.allocatedBytesAtFirstTurn;
+        assertTrue("The engine allocated " + engineBytes + " bytes in 1000 turns",
+                   engineBytes <= MAX_ENGINE_BYTES_PER_GAME);
+    }
+
+    @Test
+    public void miningAndSellingAllocateLittle() {
+        new GameEngine(BOARD_SIZE, new MiningStrategy(), new MiningStrategy(), RANDOM_SEED).runGame();
+
+        for (long seed = 1; seed <= 3; seed++) {
+            MiningStrategy redStrategy = new MiningStrategy();
+            MiningStrategy blueStrategy = new MiningStrategy();
+            GameEngine engine = new GameEngine(BOARD_SIZE, redStrategy, blueStrategy, seed);
+            engine.runGame();
+
+            assertNull(engine.getExceptionThrown());
+            assertTrue("Seed " + seed + " only sold " + redStrategy.numSales + " times", redStrategy.numSales >= 5);
+            long engineBytes = redStrategy.allocatedBytesAtEnd - redStrategy.allocatedBytesAtFirstTurn;
+            long maxEngineBytes = MAX_ENGINE_BYTES_PER_GAME + (redStrategy.numTurns * MAX_ENGINE_BYTES_PER_BUSY_TURN);
+            assertTrue("Seed " + seed + ": the engine allocated " + engineBytes + " bytes in "
+                       + redStrategy.numTurns + " turns", engineBytes <= maxEngineBytes);
+        }
+    }
+
+    /**
+     * Mines the market it starts on every turn, which changes nothing, and reads how much its thread allocated at
+     *  its first turn and at the end of the game
+     */
+    private class NoOpStrategy implements MinePlayerStrategy {
+        private int numTurns;
+        private long allocatedBytesAtFirstTurn;
+        private long allocatedBytesAtEnd;
+
+        @Override
+        public void initialize(int boardSize, int maxInventorySize, int maxCharge, int winningScore,
+                               PlayerBoardView startingBoard, Point startTileLocation, boolean isRedPlayer,
+                               Random random) {
+            numTurns = 0;
+        }
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                        boolean isRedTurn) {
+            if (numTurns == 0) {
+                allocatedBytesAtFirstTurn = getAllocatedBytes();
+            }
+            numTurns++;
+            return TurnAction.MINE;
+        }
+
+        @Override
+        public void onReceiveItem(InventoryItem itemReceived) {
+        }
+
+        @Override
+        public void onSoldInventory(int totalSellPrice) {
+        }
+
+        @Override
+        public String getName() {
+            return "NoOp";
+        }
+
+        @Override
+        public void endRound(int pointsScored, int opponentPointsScored) {
+            allocatedBytesAtEnd = getAllocatedBytes();
+        }
+
+        private long getAllocatedBytes() {
+            return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+
+    /**
+     * Mines the nearest resource, picks it up, and sells when its inventory is full, recharging on the way when it
+     *  runs low. It never allocates after initialize, so anything allocated on its thread during the game is the
+     *  engine's. Like NoOpStrategy, it reads how much its thread allocated at its first turn and at the end
+     */
+    private class MiningStrategy implements MinePlayerStrategy {
+        private int boardSize;
+        private int maxInventorySize;
+        private int maxCharge;
+        private int marketX;
+        private int marketY;
+        private int rechargeX;
+        private int rechargeY;
+        private int numItems;
+        private TurnAction lastAction;
+        private int numTurns;
+        private int numSales;
+        private long allocatedBytesAtFirstTurn;
+        private long allocatedBytesAtEnd;
+
+        @Override
+        public void initialize(int boardSize, int maxInventorySize, int maxCharge, int winningScore,
+                               PlayerBoardView startingBoard, Point startTileLocation, boolean isRedPlayer,
+                               Random random) {
+            this.boardSize = boardSize;
+            this.maxInventorySize = maxInventorySize;
+            this.maxCharge = maxCharge;
+            TileType marketType = isRedPlayer ? TileType.RED_MARKET : TileType.BLUE_MARKET;
+            int marketCell = findNearest(startingBoard, startTileLocation.x, startTileLocation.y, marketType);
+            marketX = marketCell % boardSize;
+            marketY = marketCell / boardSize;
+            int rechargeCell = findNearest(startingBoard, marketX, marketY, TileType.RECHARGE);
+            rechargeX = rechargeCell % boardSize;
+            rechargeY = rechargeCell / boardSize;
+            numItems = 0;
+            lastAction = null;
+            numTurns = 0;
+            numSales = 0;
+        }
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                        boolean isRedTurn) {
+            if (numTurns == 0) {
+                allocatedBytesAtFirstTurn = getAllocatedBytes();
+            }
+            numTurns++;
+            lastAction = chooseAction(boardView, currentCharge);
+            return lastAction;
+        }
+
+        private TurnAction chooseAction(PlayerBoardView boardView, int currentCharge) {
+            Point location = boardView.getYourLocation();
+            TileType tileType = boardView.getTileTypeAtLocation(location.x, location.y);
+            if (lastAction == TurnAction.MINE && !isResource(tileType) && numItems < maxInventorySize) {
+                return TurnAction.PICK_UP_RESOURCE;
+            }
+            if (tileType == TileType.RECHARGE && currentCharge < maxCharge) {
+                return null;
+            }
+            if (currentCharge < maxCharge / 4) {
+                return moveTowards(location, rechargeX, rechargeY);
+            }
+            if (numItems >= maxInventorySize) {
+                return moveTowards(location, marketX, marketY);
+            }
+            if (isResource(tileType)) {
+                return TurnAction.MINE;
+            }
+            int resourceCell = findNearest(boardView, location.x, location.y, null);
+            if (resourceCell < 0) {
+                return moveTowards(location, marketX, marketY);
+            }
+            return moveTowards(location, resourceCell % boardSize, resourceCell / boardSize);
+        }
+
+        /**
+         * @param tileType The type of tile to find, or null for any resource
+         * @return The cell index of the nearest tile of that type, or -1 if there are none
+         */
+        private int findNearest(PlayerBoardView boardView, int fromX, int fromY, TileType tileType) {
+            int nearestCell = -1;
+            int nearestDistance = Integer.MAX_VALUE;
+            for (int y = 0; y < boardSize; y++) {
+                for (int x = 0; x < boardSize; x++) {
+                    TileType candidate = boardView.getTileTypeAtLocation(x, y);
+                    boolean isMatch = (tileType == null) ? isResource(candidate) : (candidate == tileType);
+                    int distance = Math.abs(x - fromX) + Math.abs(y - fromY);
+                    if (isMatch && distance < nearestDistance) {
+                        nearestCell = (y * boardSize) + x;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+            return nearestCell;
+        }
+
+        private boolean isResource(TileType tileType) {
+            return tileType == TileType.RESOURCE_DIAMOND || tileType == TileType.RESOURCE_EMERALD
+                   || tileType == TileType.RESOURCE_RUBY;
+        }
+
+        private TurnAction moveTowards(Point location, int toX, int toY) {
+            if (location.x < toX) {
+                return TurnAction.MOVE_RIGHT;
+            } else if (location.x > toX) {
+                return TurnAction.MOVE_LEFT;
+            } else if (location.y < toY) {
+                return TurnAction.MOVE_UP;
+            } else if (location.y > toY) {
+                return TurnAction.MOVE_DOWN;
+            }
+            return null;
+        }
+
+        @Override
+        public void onReceiveItem(InventoryItem itemReceived) {
+            numItems++;
+        }
+
+        @Override
+        public void onSoldInventory(int totalSellPrice) {
+            numItems = 0;
+            numSales++;
+        }
+
+        @Override
+        public String getName() {
+            return "Mining";
+        }
+
+        @Override
+        public void endRound(int pointsScored, int opponentPointsScored) {
+            allocatedBytesAtEnd = getAllocatedBytes();
+        }
+
+        private long getAllocatedBytes() {
+            return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.item.ItemCellCursor;
+import mineopoly_three.item.ItemIndex;
+import mineopoly_three.item.ItemType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ItemIndexTest {
+    private static final int BOARD_SIZE = 32;
+    private static final int NUM_SEQUENCES = 300;
+    private static final int CHANGES_PER_SEQUENCE = 400;
+    private static final ItemType[] allItemTypes = ItemType.values();
+
+    @Test
+    public void randomChangesMatchMapOfLists() {
+        Random random = new Random(6);
+        int[] clusteredCells = findClusteredCells(BOARD_SIZE * BOARD_SIZE);
+        for (int sequence = 0; sequence < NUM_SEQUENCES; sequence++) {
+            // Start small so the table and the room per cell both have to grow
+            ItemIndex itemIndex = new ItemIndex(BOARD_SIZE, 1);
+            Map<Integer, List<InventoryItem>> expected = new HashMap<>();
+            boolean useClusteredCells = (sequence % 2 == 0);
+            // A handful of cells piles up items on the same cell, hundreds spread them out
+            int numCellsUsed = (sequence % 3 == 0) ? 6 : 200;
+
+            for (int change = 0; change < CHANGES_PER_SEQUENCE; change++) {
+                int cellIndex = useClusteredCells ? clusteredCells[random.nextInt(clusteredCells.length)]
+                                                  : random.nextInt(numCellsUsed);
+                List<InventoryItem> expectedItems = expected.get(cellIndex);
+                // Removing is picked a bit less often than adding, so the index fills up over the sequence
+                if (expectedItems != null && random.nextInt(5) < 2) {
+                    InventoryItem item = expectedItems.get(random.nextInt(expectedItems.size()));
+                    assertTrue(itemIndex.removeItem(cellIndex, item));
+                    expectedItems.remove(item);
+                    if (expectedItems.isEmpty()) {
+                        expected.remove(cellIndex);
+                    }
+                } else if (random.nextInt(10) == 0) {
+                    // An item that was never put on this cell
+                    assertFalse(itemIndex.removeItem(cellIndex, new InventoryItem(ItemType.RUBY)));
+                } else {
+                    InventoryItem item = randomItem(random);
+                    itemIndex.addItem(cellIndex, item);
+                    expected.computeIfAbsent(cellIndex, key -> new ArrayList<>()).add(item);
+                }
+
+                if (change % 20 == 0) {
+                    assertSameItems(expected, itemIndex, "sequence " + sequence + " change " + change);
+                }
+            }
+            assertSameItems(expected, itemIndex, "sequence " + sequence + " at the end");
+        }
+    }
+
+    @Test
+    public void copyIsIndependentAndCanGrow() {
+        Random random = new Random(7);
+        ItemIndex original = new ItemIndex(BOARD_SIZE, 1);
+        Map<Integer, List<InventoryItem>> expectedOriginal = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            int cellIndex = random.nextInt(10);
+            InventoryItem item = randomItem(random);
+            original.addItem(cellIndex, item);
+            expectedOriginal.computeIfAbsent(cellIndex, key -> new ArrayList<>()).add(item);
+        }
+
+        ItemIndex copy = new ItemIndex(original);
+        Map<Integer, List<InventoryItem>> expectedCopy = new HashMap<>();
+        for (Map.Entry<Integer, List<InventoryItem>> cell : expectedOriginal.entrySet()) {
+            expectedCopy.put(cell.getKey(), new ArrayList<>(cell.getValue()));
+        }
+        assertSameItems(expectedOriginal, copy, "fresh copy");
+
+        // Enough new cells and items per cell that the copy has to grow both ways
+        for (int i = 0; i < 300; i++) {
+            int cellIndex = random.nextInt(BOARD_SIZE * BOARD_SIZE);
+            InventoryItem item = randomItem(random);
+            copy.addItem(cellIndex, item);
+            expectedCopy.computeIfAbsent(cellIndex, key -> new ArrayList<>()).add(item);
+        }
+        for (int i = 0; i < 12; i++) {
+            InventoryItem item = randomItem(random);
+            copy.addItem(3, item);
+            expectedCopy.computeIfAbsent(3, key -> new ArrayList<>()).add(item);
+        }
+        for (Map.Entry<Integer, List<InventoryItem>> cell : expectedOriginal.entrySet()) {
+            InventoryItem item = cell.getValue().get(0);
+            assertTrue(copy.removeItem(cell.getKey(), item));
+            expectedCopy.get(cell.getKey()).remove(item);
+            if (expectedCopy.get(cell.getKey()).isEmpty()) {
+                expectedCopy.remove(cell.getKey());
+            }
+        }
+
+        assertSameItems(expectedCopy, copy, "copy after changes");
+        assertSameItems(expectedOriginal, original, "original after changing the copy");
+    }
+
+    @Test
+    public void clearKeepsWorking() {
+        ItemIndex itemIndex = new ItemIndex(BOARD_SIZE, 1);
+        for (int cellIndex = 0; cellIndex < 100; cellIndex++) {
+            itemIndex.addItem(cellIndex, InventoryItem.of(ItemType.DIAMOND));
+        }
+        itemIndex.clear();
+        assertSameItems(new HashMap<>(), itemIndex, "after clear");
+
+        Map<Integer, List<InventoryItem>> expected = new HashMap<>();
+        InventoryItem item = InventoryItem.of(ItemType.EMERALD);
+        itemIndex.addItem(5, item);
+        expected.computeIfAbsent(5, key -> new ArrayList<>()).add(item);
+        assertSameItems(expected, itemIndex, "after adding to a cleared index");
+    }
+
+    private static InventoryItem randomItem(Random random) {
+        ItemType itemType = allItemTypes[random.nextInt(allItemTypes.length)];
+        // Shared items show up on many cells at once, so removing one must only take it off the cell asked for
+        return random.nextBoolean() ? InventoryItem.of(itemType) : new InventoryItem(itemType);
+    }
+
+    /**
+     * Finds cells that all start probing at the same few slots of a small table, using the same Fibonacci hash as
+     *  ItemIndex, so removing from the middle of a long probe run is exercised
+     */
+    private static int[] findClusteredCells(int numCells) {
+        List<Integer> cells = new ArrayList<>();
+        for (int cellIndex = 0; cellIndex < numCells && cells.size() < 24; cellIndex++) {
+            int mixed = cellIndex * 0x9E3779B9;
+            if (((mixed ^ (mixed >>> 16)) & 15) < 2) {
+                cells.add(cellIndex);
+            }
+        }
+        int[] clusteredCells = new int[cells.size()];
+        for (int i = 0; i < clusteredCells.length; i++) {
+            clusteredCells[i] = cells.get(i);
+        }
+        return clusteredCells;
+    }
+
+    private static void assertSameItems(Map<Integer, List<InventoryItem>> expected, ItemIndex itemIndex,
+                                        String message) {
+        assertEquals(message, expected.size(), itemIndex.getNumCells());
+        for (int cellIndex = 0; cellIndex < BOARD_SIZE * BOARD_SIZE; cellIndex++) {
+            List<InventoryItem> expectedItems = expected.get(cellIndex);
+            if (expectedItems == null) {
+                assertEquals(message, 0, itemIndex.getItemCount(cellIndex));
+                assertNull(message, itemIndex.copyItems(cellIndex));
+                continue;
+            }
+
+            assertEquals(message, expectedItems.size(), itemIndex.getItemCount(cellIndex));
+            InventoryItem[] copiedItems = itemIndex.copyItems(cellIndex);
+            assertEquals(message, expectedItems.size(), copiedItems.length);
+            for (int i = 0; i < expectedItems.size(); i++) {
+                assertSame(message, expectedItems.get(i), itemIndex.getItem(cellIndex, i));
+                assertSame(message, expectedItems.get(i), copiedItems[i]);
+            }
+        }
+
+        Map<Integer, Integer> visitedCells = new HashMap<>();
+        ItemCellCursor cursor = itemIndex.cursor();
+        while (cursor.next()) {
+            int cellIndex = (cursor.getY() * BOARD_SIZE) + cursor.getX();
+            assertNull(message + ", cursor visited a cell twice", visitedCells.put(cellIndex, cursor.getItemCount()));
+            List<InventoryItem> expectedItems = expected.get(cellIndex);
+            assertNotNull(message + ", cursor visited an empty cell", expectedItems);
+            assertEquals(message, expectedItems.size(), cursor.getItemCount());
+            for (int i = 0; i < expectedItems.size(); i++) {
+                assertSame(message, expectedItems.get(i), cursor.getItem(i));
+            }
+        }
+        assertEquals(message, expected.keySet(), visitedCells.keySet());
+    }
+}
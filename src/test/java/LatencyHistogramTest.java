@@ -0,0 +1,114 @@
+import mineopoly_three.metrics.LatencyHistogram;
+import mineopoly_three.metrics.LatencySummary;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+    private static final long MAX_TRACKABLE_VALUE = (1L << 46) - 1;
+
+    @Test
+    public void bucketsHoldTheirOwnHighestValue() {
+        // Every value up to 2^14 and around every power of two above it
+        for (long value = 0; value < MAX_TRACKABLE_VALUE; value = getNextValueToCheck(value)) {
+            long bucketHighestValue = getBucketHighestValue(value);
+            assertTrue(value + " is above its bucket", bucketHighestValue >= value);
+            assertEquals(bucketHighestValue, getBucketHighestValue(bucketHighestValue));
+            if (bucketHighestValue < MAX_TRACKABLE_VALUE) {
+                assertTrue(getBucketHighestValue(bucketHighestValue + 1) > bucketHighestValue);
+            }
+
+            if (value < 64) {
+                assertEquals(value, bucketHighestValue);
+            } else {
+                assertTrue(value + " was put in a bucket " + bucketHighestValue + " high",
+                           bucketHighestValue - value < value / 32);
+            }
+        }
+        assertEquals(MAX_TRACKABLE_VALUE, getBucketHighestValue(MAX_TRACKABLE_VALUE));
+    }
+
+    @Test
+    public void valuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(Long.MAX_VALUE);
+        assertEquals(MAX_TRACKABLE_VALUE, histogram.getMaxValue());
+        assertEquals(MAX_TRACKABLE_VALUE, histogram.getValueAtPercentile(100));
+
+        LatencyHistogram negativeHistogram = new LatencyHistogram();
+        negativeHistogram.recordValue(-5);
+        assertEquals(1, negativeHistogram.getTotalCount());
+        assertEquals(0, negativeHistogram.getMaxValue());
+        assertEquals(0, negativeHistogram.getValueAtPercentile(50));
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(50));
+    }
+
+    @Test
+    public void summaryIsWithinBucketErrorOfExactPercentiles() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            int numValues = 1 + random.nextInt(2000);
+            long[] values = new long[numValues];
+            LatencyHistogram histogram = new LatencyHistogram();
+            LatencyHistogram firstHalf = new LatencyHistogram();
+            LatencyHistogram secondHalf = new LatencyHistogram();
+            for (int i = 0; i < numValues; i++) {
+                // Spread over every order of magnitude a turn could plausibly take
+                values[i] = (long) Math.pow(2, random.nextDouble() * 40);
+                histogram.recordValue(values[i]);
+                (i % 2 == 0 ? firstHalf : secondHalf).recordValue(values[i]);
+            }
+            Arrays.sort(values);
+            firstHalf.add(secondHalf);
+
+            for (LatencyHistogram checkedHistogram : new LatencyHistogram[] {histogram, firstHalf}) {
+                LatencySummary summary = checkedHistogram.getSummary();
+                String message = "trial " + trial;
+                assertEquals(message, numValues, summary.getCount());
+                assertEquals(message, values[numValues - 1], summary.getMax());
+                assertWithinBucketError(message + " p50", getExactPercentile(values, 50), summary.getP50());
+                assertWithinBucketError(message + " p99", getExactPercentile(values, 99), summary.getP99());
+            }
+        }
+    }
+
+    /**
+     * The value a single recording of the given value is reported as, found by recording something far larger
+     *  next to it so the median is not cut down to the largest recorded value
+     */
+    private static long getBucketHighestValue(long value) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(value);
+        histogram.recordValue(MAX_TRACKABLE_VALUE);
+        return histogram.getValueAtPercentile(50);
+    }
+
+    private static long getNextValueToCheck(long value) {
+        if (value < (1 << 14)) {
+            return value + 1;
+        }
+        long powerOfTwo = Long.highestOneBit(value);
+        if (value == powerOfTwo + 64) {
+            return (2 * powerOfTwo) - 64;
+        }
+        return value + 1;
+    }
+
+    /**
+     * The smallest recorded value that at least the given percent of all recorded values are no larger than
+     */
+    private static long getExactPercentile(long[] sortedValues, double percentile) {
+        long countAtPercentile = Math.max(1, (long) Math.ceil((percentile / 100) * sortedValues.length));
+        return sortedValues[(int) countAtPercentile - 1];
+    }
+
+    private static void assertWithinBucketError(String message, long exactValue, long reportedValue) {
+        assertTrue(message + " of " + reportedValue + " is below the exact " + exactValue,
+                   reportedValue >= exactValue);
+        assertTrue(message + " of " + reportedValue + " is too far above the exact " + exactValue,
+                   reportedValue - exactValue <= exactValue / 32);
+    }
+}
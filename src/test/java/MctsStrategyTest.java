@@ -0,0 +1,186 @@
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.game.Economy;
+import mineopoly_three.game.ForwardModel;
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.strategy.MctsStrategy;
+import mineopoly_three.strategy.MinePlayerStrategy;
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.strategy.RandomStrategy;
+import mineopoly_three.tiles.TileType;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MctsStrategyTest {
+    private static final int BOARD_SIZE = 14;
+    private static final int INVENTORY_SIZE = 5;
+    private static final int MAX_CHARGE = 80;
+    // Short enough to play whole games quickly, long enough for a few hundred rollouts a turn
+    private static final long TURN_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Test
+    public void everyActionCanBeTakenAndRandomIsBeaten() {
+        for (long seed = 1; seed <= 3; seed++) {
+            ActionChecker mctsChecker = new ActionChecker(createStrategy(1), false);
+            GameEngine engine = new GameEngine(BOARD_SIZE, mctsChecker, new RandomStrategy(), seed);
+            engine.runGame();
+
+            assertNull(engine.getExceptionThrown());
+            assertTrue(mctsChecker.numActionsChecked > 100);
+            assertTrue(engine.getRedPlayerScore() > engine.getBluePlayerScore());
+        }
+    }
+
+    @Test
+    public void chosenSubtreeIsKeptForTheNextTurn() {
+        GameEngine engine = new GameEngine(BOARD_SIZE, new RandomStrategy(), new RandomStrategy(), 4);
+        ForwardModel model = engine.fork(true);
+        MctsStrategy strategy = createStrategy(1);
+        strategy.initialize(BOARD_SIZE, INVENTORY_SIZE, MAX_CHARGE, engine.getMinScoreToWin(),
+                            model.getBoardView(), model.getYourLocation(), true, new Random(4));
+
+        for (int turn = 0; turn < 10; turn++) {
+            TurnAction action = strategy.search(model);
+            int chosenActionVisits = strategy.getLastActionVisits();
+            assertTrue(chosenActionVisits > 0);
+
+            model.step(action, null);
+            strategy.search(model);
+            assertEquals(chosenActionVisits, strategy.getReusedRootVisits());
+        }
+
+        // Searching the same turn again starts over
+        strategy.search(model);
+        assertEquals(0, strategy.getReusedRootVisits());
+    }
+
+    @Test
+    public void noWorkerOutlivesAGameThatEndsInAnException() throws InterruptedException {
+        Set<Thread> threadsBefore = new HashSet<>(Thread.getAllStackTraces().keySet());
+        ActionChecker mctsChecker = new ActionChecker(createStrategy(2), false);
+        ActionChecker failingChecker = new ActionChecker(new RandomStrategy(), true);
+        GameEngine engine = new GameEngine(BOARD_SIZE, mctsChecker, failingChecker, 5);
+        engine.runGame();
+        assertNotNull(engine.getExceptionThrown());
+        assertTrue(mctsChecker.numActionsChecked > 0);
+
+        // Shut down workers can take a moment to finish exiting
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Set<Thread> newWorkers = getNewWorkers(threadsBefore);
+        while (!newWorkers.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            newWorkers = getNewWorkers(threadsBefore);
+        }
+        assertEquals(new HashSet<Thread>(), newWorkers);
+    }
+
+    private static MctsStrategy createStrategy(int parallelism) {
+        return new MctsStrategy(TURN_BUDGET_NANOS, parallelism, MctsStrategy.DEFAULT_ROLLOUT_DEPTH);
+    }
+
+    private static Set<Thread> getNewWorkers(Set<Thread> threadsBefore) {
+        Set<Thread> newWorkers = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && !threadsBefore.contains(thread) && thread.getName().startsWith("ForkJoinPool-")) {
+                newWorkers.add(thread);
+            }
+        }
+        return newWorkers;
+    }
+
+    /**
+     * Checks every action a strategy picks does something where the player is: moves stay on the board, mining
+     *  happens on a resource tile and picking up happens with something on the ground. Can also throw partway
+     *  through the game, to end it with an exception
+     */
+    private static class ActionChecker implements MinePlayerStrategy {
+        private static final int TURNS_BEFORE_FAILING = 20;
+
+        private final MinePlayerStrategy strategy;
+        private final boolean isFailing;
+        private int boardSize;
+        private int numActionsChecked;
+
+        private ActionChecker(MinePlayerStrategy strategy, boolean isFailing) {
+            this.strategy = strategy;
+            this.isFailing = isFailing;
+        }
+
+        @Override
+        public void initialize(int boardSize, int maxInventorySize, int maxCharge, int winningScore,
+                               PlayerBoardView startingBoard, Point startTileLocation, boolean isRedPlayer,
+                               Random random) {
+            this.boardSize = boardSize;
+            strategy.initialize(boardSize, maxInventorySize, maxCharge, winningScore, startingBoard,
+                                startTileLocation, isRedPlayer, random);
+        }
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                        boolean isRedTurn) {
+            if (isFailing && numActionsChecked == TURNS_BEFORE_FAILING) {
+                throw new IllegalStateException("Failing on purpose");
+            }
+            TurnAction action = strategy.getTurnAction(boardView, economy, currentCharge, isRedTurn);
+            numActionsChecked++;
+            if (action == null || isFailing) {
+                return action;
+            }
+
+            Point location = boardView.getYourLocation();
+            TileType tileType = boardView.getTileTypeAtLocation(location);
+            String message = action + " at " + location.x + "," + location.y + " on " + tileType;
+            switch (action) {
+                case MOVE_UP:
+                    assertTrue(message, location.y + 1 < boardSize);
+                    break;
+                case MOVE_DOWN:
+                    assertTrue(message, location.y > 0);
+                    break;
+                case MOVE_RIGHT:
+                    assertTrue(message, location.x + 1 < boardSize);
+                    break;
+                case MOVE_LEFT:
+                    assertTrue(message, location.x > 0);
+                    break;
+                case MINE:
+                    assertTrue(message, tileType == TileType.RESOURCE_DIAMOND || tileType == TileType.RESOURCE_EMERALD
+                                        || tileType == TileType.RESOURCE_RUBY);
+                    break;
+                case PICK_UP_RESOURCE:
+                    assertFalse(message, boardView.getBoardSnapshot().getItems(location.x, location.y).isEmpty());
+                    break;
+                default:
+                    fail(message);
+            }
+            return action;
+        }
+
+        @Override
+        public void onReceiveItem(InventoryItem itemReceived) {
+            strategy.onReceiveItem(itemReceived);
+        }
+
+        @Override
+        public void onSoldInventory(int totalSellPrice) {
+            strategy.onSoldInventory(totalSellPrice);
+        }
+
+        @Override
+        public String getName() {
+            return strategy.getName();
+        }
+
+        @Override
+        public void endRound(int pointsScored, int opponentPointsScored) {
+            strategy.endRound(pointsScored, opponentPointsScored);
+        }
+    }
+}
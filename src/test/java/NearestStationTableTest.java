@@ -0,0 +1,141 @@
+import mineopoly_three.strategy.BoardSnapshot;
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.tiles.TileType;
+import mineopoly_three.util.DistanceField;
+import mineopoly_three.util.NearestStationTable;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NearestStationTableTest {
+    private static final int NUM_BOARDS = 3000;
+    private static final int MAX_BOARD_SIZE = 20;
+
+    @Test
+    public void nearestStationMatchesMinimumOverStations() {
+        Random random = new Random(22);
+        for (int boardNumber = 0; boardNumber < NUM_BOARDS; boardNumber++) {
+            int boardSize = 1 + random.nextInt(MAX_BOARD_SIZE);
+            List<Point> stations = new ArrayList<>();
+            int numStations = random.nextInt(9);
+            for (int i = 0; i < numStations; i++) {
+                // Now and then a second station on a cell that already has one, so only the first may be returned
+                if (!stations.isEmpty() && random.nextInt(6) == 0) {
+                    Point otherStation = stations.get(random.nextInt(stations.size()));
+                    stations.add(new Point(otherStation));
+                } else {
+                    stations.add(new Point(random.nextInt(boardSize), random.nextInt(boardSize)));
+                }
+            }
+
+            NearestStationTable table = new NearestStationTable(boardSize, stations);
+            assertEquals(boardSize, table.getBoardSize());
+            assertEquals(stations.size(), table.getNumStations());
+            assertMatchesMinimum(table, stations, "board " + boardNumber);
+        }
+    }
+
+    @Test
+    public void tiesGoToTheStationGivenFirst() {
+        // Every cell in column 2 is as far from one station as from the other
+        Point left = new Point(0, 2);
+        Point right = new Point(4, 2);
+        NearestStationTable leftFirst = new NearestStationTable(5, Arrays.asList(left, right));
+        NearestStationTable rightFirst = new NearestStationTable(5, Arrays.asList(right, left));
+
+        assertSame(left, leftFirst.getNearestStation(2, 2));
+        assertSame(right, rightFirst.getNearestStation(2, 2));
+        assertSame(left, leftFirst.getNearestStation(2, 0));
+        assertSame(right, rightFirst.getNearestStation(2, 4));
+        assertEquals(2, leftFirst.getDistance(2, 2));
+    }
+
+    @Test
+    public void emptyTableHasNoNearestStation() {
+        NearestStationTable table = new NearestStationTable(4, Collections.emptyList());
+        assertNull(table.getNearestStation(new Point(3, 1)));
+        assertEquals(DistanceField.UNREACHABLE, table.getDistance(3, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stationOffTheBoardThrows() {
+        new NearestStationTable(4, Collections.singletonList(new Point(4, 0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lookingUpOffTheBoardThrows() {
+        new NearestStationTable(4, Collections.singletonList(new Point(0, 0))).getDistance(0, -1);
+    }
+
+    @Test
+    public void fromBoardBreaksTiesByCellIndex() {
+        Random random = new Random(23);
+        for (int boardNumber = 0; boardNumber < 200; boardNumber++) {
+            int boardSize = 1 + random.nextInt(MAX_BOARD_SIZE);
+            BoardSnapshot.Builder builder = new BoardSnapshot.Builder(boardSize);
+            List<Point> stationsByCellIndex = new ArrayList<>();
+            for (int y = 0; y < boardSize; y++) {
+                for (int x = 0; x < boardSize; x++) {
+                    boolean isStation = random.nextInt(12) == 0;
+                    builder.setTileType(x, y, isStation ? TileType.RECHARGE : TileType.EMPTY);
+                    if (isStation) {
+                        stationsByCellIndex.add(new Point(x, y));
+                    }
+                }
+            }
+            PlayerBoardView boardView = new PlayerBoardView(builder.build(), new Point(0, 0), new Point(0, 0), 0);
+
+            NearestStationTable table = NearestStationTable.fromBoard(boardView, TileType.RECHARGE);
+            assertEquals(stationsByCellIndex.size(), table.getNumStations());
+            for (int y = 0; y < boardSize; y++) {
+                for (int x = 0; x < boardSize; x++) {
+                    Point expectedStation = findNearestStation(stationsByCellIndex, x, y);
+                    assertEquals("board " + boardNumber + " at " + x + "," + y, expectedStation,
+                                 table.getNearestStation(x, y));
+                }
+            }
+        }
+    }
+
+    private static void assertMatchesMinimum(NearestStationTable table, List<Point> stations, String message) {
+        int boardSize = table.getBoardSize();
+        for (int y = 0; y < boardSize; y++) {
+            for (int x = 0; x < boardSize; x++) {
+                Point expectedStation = findNearestStation(stations, x, y);
+                String cellMessage = message + " at " + x + "," + y;
+                // The very Point that was given, not just one at the same location
+                assertSame(cellMessage, expectedStation, table.getNearestStation(x, y));
+                int expectedDistance = (expectedStation == null) ? DistanceField.UNREACHABLE
+                                                                 : getDistance(expectedStation, x, y);
+                assertEquals(cellMessage, expectedDistance, table.getDistance(x, y));
+            }
+        }
+    }
+
+    /**
+     * The first of the stations, in the order given, that no other station is strictly nearer than
+     */
+    private static Point findNearestStation(List<Point> stations, int x, int y) {
+        Point nearestStation = null;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (Point station : stations) {
+            int distance = getDistance(station, x, y);
+            if (distance < nearestDistance) {
+                nearestStation = station;
+                nearestDistance = distance;
+            }
+        }
+        return nearestStation;
+    }
+
+    private static int getDistance(Point station, int x, int y) {
+        return Math.abs(station.x - x) + Math.abs(station.y - y);
+    }
+}
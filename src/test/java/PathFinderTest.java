@@ -0,0 +1,262 @@
+import mineopoly_three.competition.CompetitionStrategy;
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.strategy.RandomStrategy;
+import mineopoly_three.util.PathFinder;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PathFinderTest {
+    private static final int NUM_BOARDS = 1500;
+    private static final int MAX_BOARD_SIZE = 16;
+    private static final int PATHS_PER_BOARD = 8;
+    private static final int[] NEIGHBOR_DX = {1, -1, 0, 0};
+    private static final int[] NEIGHBOR_DY = {0, 0, 1, -1};
+
+    @Test
+    public void pathsCostTheSameAsAPlainDijkstraSearch() {
+        Random random = new Random(7);
+        for (int boardNumber = 0; boardNumber < NUM_BOARDS; boardNumber++) {
+            int size = 1 + random.nextInt(MAX_BOARD_SIZE);
+            int numCells = size * size;
+            PathFinder pathFinder = new PathFinder(size);
+            int[] extraCosts = new int[numCells];
+            for (int cellIndex = 0; cellIndex < numCells; cellIndex++) {
+                extraCosts[cellIndex] = getRandomExtraCost(random);
+                pathFinder.setExtraCost(cellIndex % size, cellIndex / size, extraCosts[cellIndex]);
+            }
+            int opponentCell = random.nextInt(numCells);
+            pathFinder.setOpponentLocation(opponentCell % size, opponentCell / size);
+            boolean[] hasAutominer = new boolean[numCells];
+            for (int i = 0; i < 3; i++) {
+                int autominerCell = random.nextInt(numCells);
+                hasAutominer[autominerCell] = true;
+                pathFinder.setAutominer(autominerCell % size, autominerCell / size, true);
+            }
+
+            // First with nothing changing, then only making cells dearer, which can never make a path that does
+            //  not go through a changed cell stop being the cheapest
+            for (int phase = 0; phase < 2; phase++) {
+                long[] moveCosts = getMoveCosts(size, extraCosts, opponentCell, hasAutominer,
+                                                pathFinder.getMaxMoveCost());
+                for (int pathNumber = 0; pathNumber < PATHS_PER_BOARD; pathNumber++) {
+                    int originCell = random.nextInt(numCells);
+                    int targetCell = random.nextInt(numCells);
+                    String message = "board " + boardNumber + " phase " + phase + " path " + pathNumber;
+                    assertCheapestPath(pathFinder, moveCosts, originCell, targetCell, message);
+
+                    // Walking along the path has to keep finding the rest of it
+                    int numMoves = pathFinder.findPath(originCell % size, originCell / size,
+                                                       targetCell % size, targetCell / size);
+                    if (numMoves > 0) {
+                        int nextCell = (pathFinder.getPathY(1) * size) + pathFinder.getPathX(1);
+                        assertCheapestPath(pathFinder, moveCosts, nextCell, targetCell, message + " next step");
+                    }
+                }
+                for (int change = 0; change < 3; change++) {
+                    int cellIndex = random.nextInt(numCells);
+                    extraCosts[cellIndex] = (int) Math.min(Integer.MAX_VALUE,
+                                                           extraCosts[cellIndex] + 1L + random.nextInt(20));
+                    pathFinder.setExtraCost(cellIndex % size, cellIndex / size, extraCosts[cellIndex]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void hugeExtraCostsAreWalkedAround() {
+        for (int extraCost : new int[] {3000000, Integer.MAX_VALUE}) {
+            PathFinder pathFinder = new PathFinder(5);
+            pathFinder.setExtraCost(2, 2, extraCost);
+            assertTrue(pathFinder.getMoveCost(2, 2) > 0);
+            assertTrue(pathFinder.getMoveCost(2, 2) <= pathFinder.getMaxMoveCost());
+
+            assertEquals(6, pathFinder.findPath(0, 2, 4, 2));
+            for (int step = 0; step <= 6; step++) {
+                assertFalse("Walked through a cell costing " + extraCost + " more",
+                            pathFinder.getPathX(step) == 2 && pathFinder.getPathY(step) == 2);
+            }
+        }
+
+        // A wall of capped cells with one gap still goes through the gap
+        PathFinder pathFinder = new PathFinder(5);
+        for (int y = 0; y < 4; y++) {
+            pathFinder.setExtraCost(2, y, Integer.MAX_VALUE);
+        }
+        int numMoves = pathFinder.findPath(0, 0, 4, 0);
+        assertEquals(12, numMoves);
+        boolean wentThroughGap = false;
+        for (int step = 0; step <= numMoves; step++) {
+            wentThroughGap |= pathFinder.getPathX(step) == 2 && pathFinder.getPathY(step) == 4;
+        }
+        assertTrue(wentThroughGap);
+    }
+
+    @Test
+    public void largestBoardStillHasRoomForCosts() {
+        PathFinder pathFinder = new PathFinder(1448, PathFinder.DEFAULT_OPPONENT_CELL_COST,
+                                               PathFinder.DEFAULT_NEXT_TO_OPPONENT_COST,
+                                               PathFinder.DEFAULT_AUTOMINER_COST, 1);
+        assertTrue(pathFinder.getMaxMoveCost() >= 512);
+        pathFinder.setExtraCost(1, 0, Integer.MAX_VALUE);
+        assertEquals(pathFinder.getMaxMoveCost(), pathFinder.getMoveCost(1, 0));
+        assertEquals(4, pathFinder.findPath(0, 0, 2, 0));
+        assertEquals(1, pathFinder.getPathY(1));
+    }
+
+    @Test
+    public void originOnACachedPathUsesTheCache() {
+        PathFinder pathFinder = new PathFinder(10);
+        assertEquals(10, pathFinder.findPath(1, 1, 6, 6));
+        assertEquals(1, pathFinder.getNumSearches());
+        int[] pathXs = new int[11];
+        int[] pathYs = new int[11];
+        for (int step = 0; step <= 10; step++) {
+            pathXs[step] = pathFinder.getPathX(step);
+            pathYs[step] = pathFinder.getPathY(step);
+        }
+
+        assertEquals(6, pathFinder.findPath(pathXs[4], pathYs[4], 6, 6));
+        assertEquals(1, pathFinder.getNumSearches());
+        assertEquals(1, pathFinder.getNumCacheHits());
+        for (int step = 0; step <= 6; step++) {
+            assertEquals(pathXs[step + 4], pathFinder.getPathX(step));
+            assertEquals(pathYs[step + 4], pathFinder.getPathY(step));
+        }
+
+        // A change off the path leaves it in the cache
+        pathFinder.setExtraCost(9, 9, 50);
+        assertEquals(10, pathFinder.findPath(1, 1, 6, 6));
+        assertEquals(1, pathFinder.getNumSearches());
+        assertEquals(2, pathFinder.getNumCacheHits());
+    }
+
+    @Test
+    public void changingACellOnACachedPathSearchesAgain() {
+        PathFinder pathFinder = new PathFinder(10);
+        assertEquals(10, pathFinder.findPath(1, 1, 6, 6));
+        int changedX = pathFinder.getPathX(5);
+        int changedY = pathFinder.getPathY(5);
+
+        pathFinder.setExtraCost(changedX, changedY, 50);
+        assertEquals(10, pathFinder.findPath(1, 1, 6, 6));
+        assertEquals(2, pathFinder.getNumSearches());
+        assertEquals(0, pathFinder.getNumCacheHits());
+        for (int step = 0; step <= 10; step++) {
+            assertFalse(pathFinder.getPathX(step) == changedX && pathFinder.getPathY(step) == changedY);
+        }
+
+        // The opponent moving next to the new path throws it away too
+        pathFinder.setOpponentLocation(pathFinder.getPathX(3) + 1, pathFinder.getPathY(3));
+        pathFinder.findPath(1, 1, 6, 6);
+        assertEquals(3, pathFinder.getNumSearches());
+    }
+
+    @Test
+    public void competitionStrategyWalksAlongPaths() {
+        for (long seed = 1; seed <= 3; seed++) {
+            CompetitionStrategy pathFindingStrategy = new CompetitionStrategy();
+            pathFindingStrategy.setPathFindingEnabled(true);
+            GameEngine engine = new GameEngine(20, pathFindingStrategy, new RandomStrategy(), seed);
+            engine.runGame();
+
+            assertNull(engine.getExceptionThrown());
+            assertTrue(engine.getRedPlayerScore() > engine.getBluePlayerScore());
+        }
+    }
+
+    private static int getRandomExtraCost(Random random) {
+        switch (random.nextInt(8)) {
+            case 0:
+                return Integer.MAX_VALUE;
+            case 1:
+                return random.nextInt(Integer.MAX_VALUE);
+            case 2:
+            case 3:
+                return random.nextInt(6);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Works out what moving into each cell costs from the defaults PathFinder documents, without asking it
+     */
+    private static long[] getMoveCosts(int size, int[] extraCosts, int opponentCell, boolean[] hasAutominer,
+                                       int maxMoveCost) {
+        long[] moveCosts = new long[extraCosts.length];
+        for (int cellIndex = 0; cellIndex < moveCosts.length; cellIndex++) {
+            long moveCost = 1L + extraCosts[cellIndex];
+            int x = cellIndex % size;
+            int y = cellIndex / size;
+            int opponentDistance = Math.abs(opponentCell % size - x) + Math.abs(opponentCell / size - y);
+            if (opponentDistance == 0) {
+                moveCost += PathFinder.DEFAULT_OPPONENT_CELL_COST;
+            } else if (opponentDistance == 1) {
+                moveCost += PathFinder.DEFAULT_NEXT_TO_OPPONENT_COST;
+            }
+            for (int autominerCell = 0; autominerCell < hasAutominer.length; autominerCell++) {
+                if (hasAutominer[autominerCell]
+                    && Math.abs(autominerCell % size - x) + Math.abs(autominerCell / size - y) <= 1) {
+                    moveCost += PathFinder.DEFAULT_AUTOMINER_COST;
+                }
+            }
+            moveCosts[cellIndex] = Math.min(moveCost, maxMoveCost);
+        }
+        return moveCosts;
+    }
+
+    private static void assertCheapestPath(PathFinder pathFinder, long[] moveCosts, int originCell, int targetCell,
+                                           String message) {
+        int size = pathFinder.getSize();
+        int numMoves = pathFinder.findPath(originCell % size, originCell / size, targetCell % size, targetCell / size);
+        assertEquals(message, originCell, (pathFinder.getPathY(0) * size) + pathFinder.getPathX(0));
+        long pathCost = 0;
+        for (int step = 1; step <= numMoves; step++) {
+            int x = pathFinder.getPathX(step);
+            int y = pathFinder.getPathY(step);
+            assertEquals(message + " step " + step, 1, Math.abs(x - pathFinder.getPathX(step - 1))
+                                                       + Math.abs(y - pathFinder.getPathY(step - 1)));
+            assertEquals(message, moveCosts[(y * size) + x], pathFinder.getMoveCost(x, y));
+            pathCost += moveCosts[(y * size) + x];
+        }
+        assertEquals(message, targetCell, (pathFinder.getPathY(numMoves) * size) + pathFinder.getPathX(numMoves));
+        assertEquals(message, searchCheapestCost(moveCosts, size, originCell, targetCell), pathCost);
+    }
+
+    /**
+     * A plain Dijkstra search with a priority queue of boxed entries, with nothing kept between calls
+     */
+    private static long searchCheapestCost(long[] moveCosts, int size, int originCell, int targetCell) {
+        long[] costs = new long[moveCosts.length];
+        Arrays.fill(costs, Long.MAX_VALUE);
+        costs[originCell] = 0;
+        PriorityQueue<long[]> queue = new PriorityQueue<>((first, second) -> Long.compare(first[0], second[0]));
+        queue.add(new long[] {0, originCell});
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int cellIndex = (int) entry[1];
+            if (entry[0] > costs[cellIndex]) {
+                continue;
+            }
+            for (int direction = 0; direction < NEIGHBOR_DX.length; direction++) {
+                int neighborX = cellIndex % size + NEIGHBOR_DX[direction];
+                int neighborY = cellIndex / size + NEIGHBOR_DY[direction];
+                if (neighborX < 0 || neighborY < 0 || neighborX >= size || neighborY >= size) {
+                    continue;
+                }
+                int neighborIndex = (neighborY * size) + neighborX;
+                long neighborCost = costs[cellIndex] + moveCosts[neighborIndex];
+                if (neighborCost < costs[neighborIndex]) {
+                    costs[neighborIndex] = neighborCost;
+                    queue.add(new long[] {neighborCost, neighborIndex});
+                }
+            }
+        }
+        return costs[targetCell];
+    }
+}
@@ -0,0 +1,173 @@
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.replay.Replay;
+import mineopoly_three.replay.ReplayArchive;
+import mineopoly_three.replay.ReplayArchiveEntry;
+import mineopoly_three.replay.ReplayArchiveWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ReplayArchiveTest {
+    // The same as ReplayArchiveFormat's, which the archive's users are not meant to see
+    private static final int ENTRIES_PER_BLOCK = 1024;
+    private static final int FIRST_BLOCK_OFFSET = 8;
+    private static final int BLOCK_NEXT_OFFSET = Integer.BYTES;
+    private static final int NAME_BYTES = 32;
+    private static final String LONG_NAME = "\u00c4rger \u00fcber "
+                                            + "\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void appendingPastABlockAndReopeningKeepsEveryReplay() throws IOException {
+        Path archivePath = temporaryFolder.getRoot().toPath().resolve("games.mrpa");
+        List<Replay> replays = createReplays(ENTRIES_PER_BLOCK + 100);
+        int numFirstReplays = ENTRIES_PER_BLOCK - 24;
+        try (ReplayArchiveWriter archiveWriter = new ReplayArchiveWriter(archivePath)) {
+            for (Replay replay : replays.subList(0, numFirstReplays)) {
+                archiveWriter.append(replay);
+            }
+        }
+        // Reopened to fill up the first block and go on into the next one
+        try (ReplayArchiveWriter archiveWriter = new ReplayArchiveWriter(archivePath)) {
+            assertEquals(numFirstReplays, archiveWriter.getNumReplays());
+            for (Replay replay : replays.subList(numFirstReplays, replays.size() - 1)) {
+                archiveWriter.append(replay);
+            }
+        }
+        try (ReplayArchiveWriter archiveWriter = new ReplayArchiveWriter(archivePath)) {
+            assertEquals(replays.size() - 1, archiveWriter.getNumReplays());
+            archiveWriter.append(replays.get(replays.size() - 1));
+        }
+
+        try (ReplayArchive archive = new ReplayArchive(archivePath)) {
+            assertEquals(replays.size(), archive.getNumReplays());
+            for (int replayIndex = 0; replayIndex < replays.size(); replayIndex++) {
+                Replay expected = replays.get(replayIndex);
+                ReplayArchiveEntry entry = archive.getEntry(replayIndex);
+                assertEntryDescribes(expected, entry);
+
+                Replay actual = archive.readReplay(entry);
+                assertEquals(expected.getRedPlayerActions(), actual.getRedPlayerActions());
+                assertEquals(expected.getBluePlayerActions(), actual.getBluePlayerActions());
+                assertEquals(expected.getRedPlayerName(), actual.getRedPlayerName());
+                assertEquals(expected.getKeyframes().keySet(), actual.getKeyframes().keySet());
+            }
+
+            List<ReplayArchiveEntry> redExceptions = archive.findEntries(ReplayArchiveEntry::redThrewException);
+            List<Integer> expectedIndices = new ArrayList<>();
+            for (int replayIndex = 0; replayIndex < replays.size(); replayIndex++) {
+                if (replays.get(replayIndex).redThrewException()) {
+                    expectedIndices.add(replayIndex);
+                }
+            }
+            List<Integer> actualIndices = new ArrayList<>();
+            for (ReplayArchiveEntry entry : redExceptions) {
+                assertTrue(entry.redThrewException());
+                actualIndices.add(entry.getIndex());
+            }
+            assertEquals(expectedIndices, actualIndices);
+            assertTrue(actualIndices.get(actualIndices.size() - 1) >= ENTRIES_PER_BLOCK);
+        }
+    }
+
+    @Test
+    public void brokenBlockChainIsRejected() throws IOException {
+        Path archivePath = temporaryFolder.getRoot().toPath().resolve("games.mrpa");
+        try (ReplayArchiveWriter archiveWriter = new ReplayArchiveWriter(archivePath)) {
+            for (Replay replay : createReplays(ENTRIES_PER_BLOCK + 10)) {
+                archiveWriter.append(replay);
+            }
+        }
+        byte[] archiveBytes = Files.readAllBytes(archivePath);
+
+        // The first block pointing back at itself
+        assertRejected(archiveBytes, FIRST_BLOCK_OFFSET + BLOCK_NEXT_OFFSET, FIRST_BLOCK_OFFSET);
+        // The first block pointing past the end of the file
+        assertRejected(archiveBytes, FIRST_BLOCK_OFFSET + BLOCK_NEXT_OFFSET, archiveBytes.length);
+        // A full block claiming to have room left, while a later block is in use
+        assertRejected(archiveBytes, FIRST_BLOCK_OFFSET, ENTRIES_PER_BLOCK - 1);
+        // A block claiming more entries than fit in it
+        assertRejected(archiveBytes, FIRST_BLOCK_OFFSET, ENTRIES_PER_BLOCK + 1);
+    }
+
+    private void assertRejected(byte[] archiveBytes, int corruptOffset, long corruptValue) throws IOException {
+        Path corruptPath = temporaryFolder.newFile().toPath();
+        Files.write(corruptPath, archiveBytes);
+        ByteBuffer corruptBytes = (corruptOffset == FIRST_BLOCK_OFFSET)
+                                  ? (ByteBuffer) ByteBuffer.allocate(Integer.BYTES).putInt((int) corruptValue).flip()
+                                  : (ByteBuffer) ByteBuffer.allocate(Long.BYTES).putLong(corruptValue).flip();
+        try (FileChannel channel = FileChannel.open(corruptPath, StandardOpenOption.WRITE)) {
+            channel.write(corruptBytes, corruptOffset);
+        }
+
+        try (ReplayArchive archive = new ReplayArchive(corruptPath)) {
+            fail("Read an archive with a broken block chain, " + archive.getNumReplays() + " replays");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Malformed"));
+        }
+        try (ReplayArchiveWriter archiveWriter = new ReplayArchiveWriter(corruptPath)) {
+            fail("Appended to an archive with a broken block chain, " + archiveWriter.getNumReplays() + " replays");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    private static void assertEntryDescribes(Replay expected, ReplayArchiveEntry entry) {
+        assertEquals(expected.getWorldSeed(), entry.getWorldSeed());
+        assertEquals(expected.getBoardSize(), entry.getBoardSize());
+        assertEquals(expected.getRedScore(), entry.getRedScore());
+        assertEquals(expected.getBlueScore(), entry.getBlueScore());
+        assertEquals(expected.redThrewException(), entry.redThrewException());
+        assertEquals(expected.blueThrewException(), entry.blueThrewException());
+        assertEquals(expected.getBluePlayerName(), entry.getBluePlayerName());
+
+        String expectedName = expected.getRedPlayerName();
+        String entryName = entry.getRedPlayerName();
+        if (expectedName == null) {
+            assertNull(entryName);
+        } else {
+            // Long names are cut short in the index, on a character boundary
+            assertTrue(entryName, expectedName.startsWith(entryName));
+            assertTrue(entryName.getBytes(StandardCharsets.UTF_8).length <= NAME_BYTES);
+            assertTrue(entryName.length() >= Math.min(expectedName.length(), NAME_BYTES / 3));
+        }
+    }
+
+    private static List<Replay> createReplays(int numReplays) {
+        Random random = new Random(13);
+        TurnAction[] allActions = TurnAction.values();
+        List<Replay> replays = new ArrayList<>();
+        for (int i = 0; i < numReplays; i++) {
+            List<TurnAction> redActions = new ArrayList<>();
+            List<TurnAction> blueActions = new ArrayList<>();
+            int numTurns = random.nextInt(40);
+            for (int turn = 0; turn < numTurns; turn++) {
+                redActions.add(allActions[random.nextInt(allActions.length)]);
+                blueActions.add(random.nextBoolean() ? null : allActions[random.nextInt(allActions.length)]);
+            }
+            String redPlayerName = (i % 3 == 0) ? null : ((i % 3 == 1) ? LONG_NAME : "Player " + i);
+            Replay replay = new Replay(14 + i % 16, i * 31L, redActions, blueActions, i % 7 == 0, i % 11 == 0,
+                                       redPlayerName, "Blue", i, -i);
+            if (i % 100 == 0) {
+                replay.addKeyframe(0, new byte[] {1, 2, 3});
+            }
+            replays.add(replay);
+        }
+        return replays;
+    }
+}
@@ -0,0 +1,215 @@
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.competition.CompetitionStrategy;
+import mineopoly_three.game.Economy;
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.replay.Replay;
+import mineopoly_three.replay.ReplayIO;
+import mineopoly_three.replay.ReplayStrategy;
+import mineopoly_three.strategy.MinePlayerStrategy;
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.strategy.RandomStrategy;
+import mineopoly_three.strategy.SeekableStrategy;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ReplaySeekTest {
+    private static final int BOARD_SIZE = 20;
+    private static final long RANDOM_SEED = 4;
+    private static final int KEYFRAME_INTERVAL = 50;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Replay replay;
+    private List<byte[]> recordedStates;
+
+    @Before
+    public void setUp() {
+        StateWatcher recorder = new StateWatcher(new CompetitionStrategy());
+        GameEngine engine = new GameEngine(BOARD_SIZE, recorder, new RandomStrategy(), RANDOM_SEED);
+        recorder.engine = engine;
+        engine.setKeyframeInterval(KEYFRAME_INTERVAL);
+        engine.runGame();
+        assertNull(engine.getExceptionThrown());
+
+        replay = engine.getReplay();
+        recordedStates = recorder.states;
+        assertTrue("The game is too short to seek around in", recordedStates.size() >= 4 * KEYFRAME_INTERVAL);
+    }
+
+    @Test
+    public void seekingBackwardsAndForwardsReproducesEveryState() {
+        int numTurns = recordedStates.size();
+        SeekingChecker seekingChecker = new SeekingChecker(new ReplayStrategy(replay), recordedStates);
+        GameEngine replayEngine = new GameEngine(BOARD_SIZE, seekingChecker, new ReplayStrategy(replay),
+                                                 replay.getWorldSeed());
+        seekingChecker.engine = replayEngine;
+        for (Map.Entry<Integer, byte[]> keyframe : replay.getKeyframes().entrySet()) {
+            replayEngine.addKeyframe(keyframe.getKey(), keyframe.getValue());
+        }
+        // Back to before the first keyframe after the start, then forward past several keyframes, then back to a
+        //  keyframe in the middle, then forward by less than a keyframe interval
+        seekingChecker.addSeek(numTurns * 3 / 5, numTurns / 10);
+        seekingChecker.addSeek(numTurns / 5, numTurns * 4 / 5);
+        seekingChecker.addSeek(numTurns * 4 / 5 + 5, numTurns / 2 + 3);
+        seekingChecker.addSeek(numTurns / 2 + 10, numTurns / 2 + 20);
+        replayEngine.runGame();
+
+        assertNull(replayEngine.getExceptionThrown());
+        assertTrue("Not every seek happened", seekingChecker.plannedSeeks.isEmpty());
+        assertTrue(seekingChecker.numTurnsChecked > numTurns);
+        assertEquals(numTurns, replayEngine.getTurnNumber());
+        assertEquals(replay.getRedScore(), replayEngine.getRedPlayerScore());
+        assertEquals(replay.getBlueScore(), replayEngine.getBluePlayerScore());
+        // Turns jumped over by a forward seek still need their actions in the replay
+        assertEquals(replay.getRedPlayerActions(), replayEngine.getReplay().getRedPlayerActions());
+        assertEquals(replay.getBluePlayerActions(), replayEngine.getReplay().getBluePlayerActions());
+    }
+
+    @Test
+    public void restoringEachKeyframeReproducesIt() {
+        GameEngine replayEngine = new GameEngine(BOARD_SIZE, new ReplayStrategy(replay), new ReplayStrategy(replay),
+                                                 replay.getWorldSeed());
+        replayEngine.runGame();
+
+        assertTrue(replay.getKeyframes().size() > 1);
+        for (Map.Entry<Integer, byte[]> keyframe : replay.getKeyframes().entrySet()) {
+            int turnNumber = keyframe.getKey();
+            replayEngine.restoreKeyframe(keyframe.getValue());
+            assertEquals(turnNumber, replayEngine.getTurnNumber());
+            assertArrayEquals(keyframe.getValue(), replayEngine.captureKeyframe());
+        }
+    }
+
+    @Test
+    public void keyframesOfAnotherVersionAreRejected() throws Exception {
+        Map.Entry<Integer, byte[]> lastKeyframe = null;
+        for (Map.Entry<Integer, byte[]> keyframe : replay.getKeyframes().entrySet()) {
+            lastKeyframe = keyframe;
+        }
+        byte[] otherKeyframe = lastKeyframe.getValue().clone();
+        otherKeyframe[Integer.BYTES - 1]++;
+        GameEngine engine = new GameEngine(BOARD_SIZE, new RandomStrategy(), new RandomStrategy(), RANDOM_SEED);
+        try {
+            engine.addKeyframe(lastKeyframe.getKey(), otherKeyframe);
+            fail("Added a keyframe of another version");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        replay.addKeyframe(lastKeyframe.getKey(), otherKeyframe);
+        String replayFilePath = temporaryFolder.newFile("other-version.replay").getPath();
+        ReplayIO.writeReplayToFile(replay, replayFilePath);
+        try {
+            ReplayIO.setupEngineForReplay(replayFilePath);
+            fail("Set up a replay with a keyframe of another version");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Passes every call on to another strategy, and keeps the state of the game each time it is asked for an
+     *  action, indexed by turn number
+     */
+    private static class StateWatcher implements MinePlayerStrategy {
+        protected final MinePlayerStrategy strategy;
+        protected GameEngine engine;
+        private final List<byte[]> states = new ArrayList<>();
+
+        private StateWatcher(MinePlayerStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public void initialize(int boardSize, int maxInventorySize, int maxCharge, int winningScore,
+                               PlayerBoardView startingBoard, Point startTileLocation, boolean isRedPlayer,
+                               Random random) {
+            strategy.initialize(boardSize, maxInventorySize, maxCharge, winningScore, startingBoard,
+                                startTileLocation, isRedPlayer, random);
+        }
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                        boolean isRedTurn) {
+            onState(engine.getTurnNumber(), engine.captureKeyframe());
+            return strategy.getTurnAction(boardView, economy, currentCharge, isRedTurn);
+        }
+
+        protected void onState(int turnNumber, byte[] state) {
+            assertEquals(states.size(), turnNumber);
+            states.add(state);
+        }
+
+        @Override
+        public void onReceiveItem(InventoryItem itemReceived) {
+            strategy.onReceiveItem(itemReceived);
+        }
+
+        @Override
+        public void onSoldInventory(int totalSellPrice) {
+            strategy.onSoldInventory(totalSellPrice);
+        }
+
+        @Override
+        public String getName() {
+            return strategy.getName();
+        }
+
+        @Override
+        public void endRound(int pointsScored, int opponentPointsScored) {
+            strategy.endRound(pointsScored, opponentPointsScored);
+        }
+    }
+
+    /**
+     * Checks the replayed game against the recorded states on every turn, and asks for each planned seek once the
+     *  game reaches the turn it is planned at
+     */
+    private static class SeekingChecker extends StateWatcher implements SeekableStrategy {
+        private final List<byte[]> recordedStates;
+        private final Deque<int[]> plannedSeeks = new ArrayDeque<>();
+        private int numTurnsChecked;
+
+        private SeekingChecker(SeekableStrategy strategy, List<byte[]> recordedStates) {
+            super(strategy);
+            this.recordedStates = recordedStates;
+        }
+
+        private void addSeek(int atTurn, int toTurn) {
+            plannedSeeks.add(new int[] {atTurn, toTurn});
+        }
+
+        @Override
+        protected void onState(int turnNumber, byte[] state) {
+            assertArrayEquals("State on turn " + turnNumber, recordedStates.get(turnNumber), state);
+            numTurnsChecked++;
+            if (!plannedSeeks.isEmpty() && plannedSeeks.peek()[0] == turnNumber) {
+                engine.requestSeek(plannedSeeks.poll()[1]);
+            }
+        }
+
+        @Override
+        public void seekToTurn(int turnNumber) {
+            ((SeekableStrategy) strategy).seekToTurn(turnNumber);
+        }
+
+        @Override
+        public TurnAction getTurnActionOn(int turnNumber) {
+            return ((SeekableStrategy) strategy).getTurnActionOn(turnNumber);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.competition.CompetitionStrategy;
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.replay.Replay;
+import mineopoly_three.replay.ReplayIO;
+import mineopoly_three.replay.ReplayWriter;
+import mineopoly_three.strategy.RandomStrategy;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ReplayTest {
+    private static final int BOARD_SIZE = 20;
+    private static final int KEYFRAME_INTERVAL = 100;
+    private static final String RED_PLAYER_NAME = "Gr\u00fcn Bergmann \u9271\u592b \u26cf";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void replayWrittenDuringGameReadsBackTheSame() throws IOException {
+        Path replayPath = temporaryFolder.getRoot().toPath().resolve("game.replay");
+        GameEngine engine = new GameEngine(BOARD_SIZE, new NamedStrategy(RED_PLAYER_NAME), new RandomStrategy(), 3);
+        engine.setKeyframeInterval(KEYFRAME_INTERVAL);
+        engine.setRecordStateHashes(true);
+        engine.setReplayFilePath(replayPath.toString());
+        engine.runGame();
+        assertNull(engine.getExceptionThrown());
+
+        Replay playedReplay = engine.getReplay();
+        assertTrue(playedReplay.getKeyframes().size() > 1);
+        assertEquals(RED_PLAYER_NAME, playedReplay.getRedPlayerName());
+        assertSameReplay(playedReplay, ReplayIO.readReplayFromFile(replayPath.toString()));
+    }
+
+    @Test
+    public void wholeReplayWrittenAtOnceReadsBackTheSame() throws IOException {
+        GameEngine engine = new GameEngine(BOARD_SIZE, new CompetitionStrategy(), new NamedStrategy(RED_PLAYER_NAME),
+                                           5);
+        engine.setKeyframeInterval(KEYFRAME_INTERVAL);
+        engine.setRecordStateHashes(true);
+        engine.runGame();
+
+        Replay playedReplay = engine.getReplay();
+        Path replayPath = temporaryFolder.getRoot().toPath().resolve("whole.replay");
+        ReplayWriter.writeReplay(playedReplay, replayPath);
+        assertSameReplay(playedReplay, ReplayIO.readReplayFromFile(replayPath.toString()));
+    }
+
+    @Test
+    public void replayClosedWithoutFinishingIsRejected() throws IOException {
+        Path replayPath = temporaryFolder.getRoot().toPath().resolve("unfinished.replay");
+        try (ReplayWriter replayWriter = new ReplayWriter(replayPath, BOARD_SIZE, 1, RED_PLAYER_NAME, null)) {
+            for (int turn = 0; turn < 50; turn++) {
+                replayWriter.writeAction(true, TurnAction.MOVE_UP);
+                replayWriter.writeAction(false, null);
+            }
+            replayWriter.writeKeyframe(0, new byte[16]);
+        }
+
+        try {
+            ReplayIO.readReplayFromFile(replayPath.toString());
+            fail("A replay that was never finished was read");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("never finished"));
+        }
+    }
+
+    private static void assertSameReplay(Replay expected, Replay actual) {
+        assertEquals(expected.getBoardSize(), actual.getBoardSize());
+        assertEquals(expected.getWorldSeed(), actual.getWorldSeed());
+        assertEquals(expected.getRedPlayerName(), actual.getRedPlayerName());
+        assertEquals(expected.getBluePlayerName(), actual.getBluePlayerName());
+        assertEquals(expected.getRedScore(), actual.getRedScore());
+        assertEquals(expected.getBlueScore(), actual.getBlueScore());
+        assertEquals(expected.redThrewException(), actual.redThrewException());
+        assertEquals(expected.blueThrewException(), actual.blueThrewException());
+        assertEquals(expected.getRedPlayerActions(), actual.getRedPlayerActions());
+        assertEquals(expected.getBluePlayerActions(), actual.getBluePlayerActions());
+        assertArrayEquals(expected.getStateHashes(), actual.getStateHashes());
+
+        assertEquals(expected.getKeyframes().keySet(), actual.getKeyframes().keySet());
+        Iterator<byte[]> actualKeyframes = actual.getKeyframes().values().iterator();
+        for (Map.Entry<Integer, byte[]> keyframe : expected.getKeyframes().entrySet()) {
+            assertArrayEquals("Keyframe at turn " + keyframe.getKey(), keyframe.getValue(), actualKeyframes.next());
+        }
+    }
+
+    /**
+     * Plays like CompetitionStrategy under a name that needs more than ASCII
+     */
+    private static class NamedStrategy extends CompetitionStrategy {
+        private final String name;
+
+        private NamedStrategy(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import mineopoly_three.competition.CompetitionStrategy;
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.replay.Replay;
+import mineopoly_three.replay.ReplayIO;
+import mineopoly_three.replay.ReplayVerification;
+import mineopoly_three.replay.ReplayVerifier;
+import mineopoly_three.strategy.RandomStrategy;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReplayVerifierTest {
+    private static final int BOARD_SIZE = 14;
+    private static final long RANDOM_SEED = 9;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Replay replay;
+
+    @Before
+    public void setUp() {
+        GameEngine engine = new GameEngine(BOARD_SIZE, new CompetitionStrategy(), new RandomStrategy(), RANDOM_SEED);
+        engine.setRecordStateHashes(true);
+        engine.runGame();
+        replay = engine.getReplay();
+    }
+
+    @Test
+    public void untouchedReplayMatches() {
+        ReplayVerification verification = ReplayVerifier.verify(replay, "untouched");
+        assertEquals(verification.toString(), ReplayVerification.Outcome.MATCHED, verification.getOutcome());
+        assertEquals(ReplayVerification.NO_TURN, verification.getDivergentTurn());
+    }
+
+    @Test
+    public void tamperedStateHashDivergesOnItsTurn() {
+        int[] stateHashes = replay.getStateHashes();
+        int tamperedTurn = stateHashes.length / 2;
+        stateHashes[tamperedTurn] ^= 1;
+        replay.setStateHashes(stateHashes);
+
+        ReplayVerification verification = ReplayVerifier.verify(replay, "tampered");
+        assertEquals(verification.toString(), ReplayVerification.Outcome.DIVERGED, verification.getOutcome());
+        assertEquals(tamperedTurn, verification.getDivergentTurn());
+    }
+
+    @Test
+    public void tamperedScoreDivergesWithoutATurn() {
+        Replay tamperedReplay = new Replay(replay.getBoardSize(), replay.getWorldSeed(),
+                                           replay.getRedPlayerActionLog(), replay.getBluePlayerActionLog(),
+                                           replay.getRedPlayerName(), replay.getBluePlayerName(),
+                                           replay.getRedScore() + 1, replay.getBlueScore());
+
+        ReplayVerification verification = ReplayVerifier.verify(tamperedReplay, "tampered score");
+        assertEquals(verification.toString(), ReplayVerification.Outcome.DIVERGED, verification.getOutcome());
+        assertEquals(ReplayVerification.NO_TURN, verification.getDivergentTurn());
+    }
+
+    @Test
+    public void directoryOfReplaysGetsOneOutcomePerFile() throws IOException {
+        Path replayDirectory = temporaryFolder.getRoot().toPath();
+        ReplayIO.writeReplayToFile(replay, replayDirectory.resolve("a-binary.replay").toString());
+        // Text replays only hold the actions, so there is nothing to check them against
+        Replay.encodeReplayFile(replay, replayDirectory.resolve("b-text.replay").toString());
+        Files.write(replayDirectory.resolve("c-garbage.replay"), new byte[] {'x', '\r', '\n', 'y'});
+
+        List<ReplayVerification> verifications = new ReplayVerifier().verifyDirectory(replayDirectory);
+        assertEquals(3, verifications.size());
+        assertEquals(ReplayVerification.Outcome.MATCHED, verifications.get(0).getOutcome());
+        assertEquals(ReplayVerification.Outcome.UNCHECKED, verifications.get(1).getOutcome());
+        assertEquals(ReplayVerification.Outcome.UNREADABLE, verifications.get(2).getOutcome());
+        assertTrue(verifications.get(2).getReplaySource().endsWith("c-garbage.replay"));
+    }
+}
@@ -0,0 +1,259 @@
+import mineopoly_three.action.TurnAction;
+import mineopoly_three.game.Economy;
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.game.StrategyBudget;
+import mineopoly_three.game.StrategyBudgetExceededException;
+import mineopoly_three.item.InventoryItem;
+import mineopoly_three.strategy.MinePlayerStrategy;
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.strategy.RandomStrategy;
+import org.junit.Test;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class StrategyBudgetTest {
+    private static final int BOARD_SIZE = 14;
+    private static final long RANDOM_SEED = 7;
+    private static final long TURN_LIMIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long TURN_LIMIT_BYTES = 8L << 20;
+
+    @Test
+    public void slowTurnGoesOverWallTimeLimit() {
+        GameEngine engine = runBudgetedGame(new SlowStrategy(false), new StrategyBudget(TURN_LIMIT_NANOS, 0, 0,
+                                                                                         0, 0, 0));
+        assertBudgetExceeded(engine, "wall time for a call");
+    }
+
+    @Test
+    public void slowInitializeGoesOverWallTimeLimit() {
+        GameEngine engine = runBudgetedGame(new SlowStrategy(true), new StrategyBudget(TURN_LIMIT_NANOS, 0, 0,
+                                                                                        0, 0, 0));
+        assertBudgetExceeded(engine, "wall time for a call");
+    }
+
+    @Test
+    public void cpuUsedOnStrategysOwnThreadGoesOverCpuLimit() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadCpuTimeSupported());
+        GameEngine engine = runBudgetedGame(new SpinningStrategy(), new StrategyBudget(0, TURN_LIMIT_NANOS, 0,
+                                                                                        0, 0, 0));
+        assertBudgetExceeded(engine, "CPU time for a call");
+    }
+
+    @Test
+    public void memoryAllocatedOnStrategysOwnPoolGoesOverAllocationLimit() {
+        Object threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        assumeTrue(((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported());
+        GameEngine engine = runBudgetedGame(new AllocatingStrategy(), new StrategyBudget(0, 0, TURN_LIMIT_BYTES,
+                                                                                          0, 0, 0));
+        assertBudgetExceeded(engine, "allocated bytes for a call");
+    }
+
+    @Test
+    public void runawayWorkersStopNewSupervisedGames() throws InterruptedException {
+        StrategyBudget budget = new StrategyBudget(TURN_LIMIT_NANOS, 0, 0, 0, 0, 0);
+        List<StubbornStrategy> stubbornStrategies = new ArrayList<>();
+        try {
+            boolean wasRefused = false;
+            for (int game = 0; game < 10 && !wasRefused; game++) {
+                StubbornStrategy stubbornStrategy = new StubbornStrategy();
+                stubbornStrategies.add(stubbornStrategy);
+                try {
+                    GameEngine engine = runBudgetedGame(stubbornStrategy, budget);
+                    assertBudgetExceeded(engine, "wall time for a call");
+                } catch (IllegalStateException e) {
+                    wasRefused = true;
+                }
+            }
+            assertTrue("Supervised games kept starting with runaway workers piling up", wasRefused);
+        } finally {
+            for (StubbornStrategy stubbornStrategy : stubbornStrategies) {
+                stubbornStrategy.release();
+            }
+        }
+
+        // Once the runaways finish, supervised games can be played again
+        for (StubbornStrategy stubbornStrategy : stubbornStrategies) {
+            stubbornStrategy.awaitStopped();
+        }
+        GameEngine engine = runBudgetedGame(new RandomStrategy(), StrategyBudget.unlimited());
+        assertNull(engine.getExceptionThrown());
+        assertTrue(engine.getRedStrategyUsage().getNumTurns() > 0);
+    }
+
+    private static GameEngine runBudgetedGame(MinePlayerStrategy redStrategy, StrategyBudget budget) {
+        GameEngine engine = new GameEngine(BOARD_SIZE, redStrategy, new RandomStrategy(), RANDOM_SEED);
+        engine.setStrategyBudget(budget);
+        engine.runGame();
+        return engine;
+    }
+
+    private static void assertBudgetExceeded(GameEngine engine, String limitName) {
+        Exception exceptionThrown = engine.getExceptionThrown();
+        assertTrue("Expected a budget breach but got " + exceptionThrown,
+                   exceptionThrown instanceof StrategyBudgetExceededException);
+        assertTrue(exceptionThrown.getMessage(), exceptionThrown.getMessage().contains(limitName));
+        assertTrue(exceptionThrown.getMessage(), exceptionThrown.getMessage().startsWith("red-strategy"));
+        assertEquals(-1, engine.getRedPlayerScore());
+    }
+
+    /**
+     * Does nothing, slowly enough to go over any reasonable limit, either when initialized or on its first turn
+     */
+    private static class SlowStrategy extends IdleStrategy {
+        private final boolean isSlowToInitialize;
+
+        private SlowStrategy(boolean isSlowToInitialize) {
+            this.isSlowToInitialize = isSlowToInitialize;
+        }
+
+        @Override
+        public void initialize(int boardSize, int maxInventorySize, int maxCharge, int winningScore,
+                               PlayerBoardView startingBoard, Point startTileLocation, boolean isRedPlayer,
+                               Random random) {
+            if (isSlowToInitialize) {
+                sleep();
+            }
+        }
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                        boolean isRedTurn) {
+            sleep();
+            return null;
+        }
+
+        private static void sleep() {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Keeps a thread of its own busy while the thread it was called on only waits
+     */
+    private static class SpinningStrategy extends IdleStrategy {
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                        boolean isRedTurn) {
+            Thread spinner = new Thread(() -> {
+                long spinUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+                while (System.nanoTime() < spinUntil && !Thread.currentThread().isInterrupted()) {
+                    // Spin
+                }
+            });
+            spinner.start();
+            try {
+                spinner.join();
+            } catch (InterruptedException e) {
+                spinner.interrupt();
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Allocates on a ForkJoinPool of its own while the thread it was called on only waits
+     */
+    private static class AllocatingStrategy extends IdleStrategy {
+        private volatile Object lastAllocation;
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                        boolean isRedTurn) {
+            ForkJoinPool pool = new ForkJoinPool(2);
+            try {
+                pool.submit(() -> {
+                    long allocateUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+                    while (System.nanoTime() < allocateUntil && !Thread.currentThread().isInterrupted()) {
+                        lastAllocation = new byte[1024];
+                    }
+                }).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Ignores being interrupted and waits on its first turn until it is released
+     */
+    private static class StubbornStrategy extends IdleStrategy {
+        private volatile boolean isReleased;
+        private volatile Thread waitingThread;
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                        boolean isRedTurn) {
+            waitingThread = Thread.currentThread();
+            while (!isReleased) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            }
+            return null;
+        }
+
+        private void release() {
+            isReleased = true;
+        }
+
+        private void awaitStopped() throws InterruptedException {
+            Thread thread = waitingThread;
+            if (thread != null) {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        }
+    }
+
+    private static class IdleStrategy implements MinePlayerStrategy {
+        @Override
+        public void initialize(int boardSize, int maxInventorySize, int maxCharge, int winningScore,
+                               PlayerBoardView startingBoard, Point startTileLocation, boolean isRedPlayer,
+                               Random random) {
+        }
+
+        @Override
+        public TurnAction getTurnAction(PlayerBoardView boardView, Economy economy, int currentCharge,
+                                        boolean isRedTurn) {
+            return null;
+        }
+
+        @Override
+        public void onReceiveItem(InventoryItem itemReceived) {
+        }
+
+        @Override
+        public void onSoldInventory(int totalSellPrice) {
+        }
+
+        @Override
+        public String getName() {
+            return getClass().getSimpleName();
+        }
+
+        @Override
+        public void endRound(int pointsScored, int opponentPointsScored) {
+        }
+    }
+}
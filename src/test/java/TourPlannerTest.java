@@ -0,0 +1,209 @@
+import mineopoly_three.competition.CompetitionStrategy;
+import mineopoly_three.game.Economy;
+import mineopoly_three.game.GameEngine;
+import mineopoly_three.item.ItemType;
+import mineopoly_three.strategy.PlayerBoardView;
+import mineopoly_three.strategy.RandomStrategy;
+import mineopoly_three.tiles.TileType;
+import mineopoly_three.util.NearestStationTable;
+import mineopoly_three.util.TourPlanner;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TourPlannerTest {
+    private static final ItemType[] RESOURCE_TYPES = {ItemType.DIAMOND, ItemType.EMERALD, ItemType.RUBY};
+    private static final int NUM_BOARDS = 300;
+    // No deadline, so every beam width is searched and the outcome does not depend on how fast the machine is
+    private static final long UNLIMITED_BUDGET_NANOS = Long.MAX_VALUE / 2;
+
+    @Test
+    public void threeStopToursOfSixMinesAreOptimal() {
+        // The widest beam holds every order of up to three of six mines, so nothing is ever left out
+        assertNearlyOptimal(1, 3, 6, 1 - 1e-9);
+    }
+
+    @Test
+    public void fullInventoryToursAreWithinAFifthOfAPercentOfOptimal() {
+        assertNearlyOptimal(2, 5, 8, 0.998);
+    }
+
+    @Test
+    public void replanningWithNoBudgetKeepsTheLastTour() {
+        Random random = new Random(3);
+        for (int boardNumber = 0; boardNumber < NUM_BOARDS; boardNumber++) {
+            TestBoard board = new TestBoard(random, 6);
+            TourPlanner planner = board.createPlanner(3);
+            TourPlanner.Tour tour = board.plan(planner, 3, UNLIMITED_BUDGET_NANOS);
+            if (tour == null) {
+                continue;
+            }
+            TourPlanner.Tour replannedTour = board.plan(planner, 3, 0);
+            assertNotNull(replannedTour);
+            assertTrue("board " + boardNumber,
+                       replannedTour.getValuePerTurn() >= tour.getValuePerTurn() - 1e-9);
+        }
+    }
+
+    @Test
+    public void competitionStrategyPlansTours() {
+        for (long seed = 1; seed <= 3; seed++) {
+            CompetitionStrategy tourPlanningStrategy = new CompetitionStrategy();
+            tourPlanningStrategy.setTourPlanningEnabled(true);
+            GameEngine engine = new GameEngine(20, tourPlanningStrategy, new RandomStrategy(), seed);
+            engine.runGame();
+
+            assertNull(engine.getExceptionThrown());
+            assertTrue(engine.getRedPlayerScore() > engine.getBluePlayerScore());
+        }
+    }
+
+    /**
+     * Plans a tour on random boards and compares it with trying every order of every set of mines. The planner
+     *  can never beat the brute force search, and on average has to come within a fraction of it
+     */
+    private static void assertNearlyOptimal(long seed, int maxStops, int numMines, double minMeanRatio) {
+        Random random = new Random(seed);
+        double ratioSum = 0;
+        int numRatios = 0;
+        for (int boardNumber = 0; boardNumber < NUM_BOARDS; boardNumber++) {
+            TestBoard board = new TestBoard(random, numMines);
+            TourPlanner.Tour tour = board.plan(board.createPlanner(maxStops), maxStops, UNLIMITED_BUDGET_NANOS);
+            double optimalValue = board.searchBestValue(maxStops);
+            if (tour == null) {
+                assertEquals("board " + boardNumber, Double.NEGATIVE_INFINITY, optimalValue, 0);
+                continue;
+            }
+            assertTrue("board " + boardNumber, tour.getValuePerTurn() <= optimalValue + 1e-9);
+            if (optimalValue > 0) {
+                ratioSum += tour.getValuePerTurn() / optimalValue;
+                numRatios++;
+            }
+        }
+        assertTrue(numRatios > NUM_BOARDS / 2);
+        double meanRatio = ratioSum / numRatios;
+        assertTrue("Mean ratio to optimal " + meanRatio, meanRatio >= minMeanRatio);
+    }
+
+    /**
+     * A small random board with two red markets, a recharge tile and a few resource tiles, along with a random
+     *  starting point and charge
+     */
+    private static class TestBoard {
+        private final int size;
+        private final PlayerBoardView view;
+        private final Point origin;
+        private final int charge;
+        private final Economy economy;
+        private final NearestStationTable markets;
+        private final NearestStationTable recharges;
+        private final List<int[]> mines;
+        private double bestValue;
+
+        private TestBoard(Random random, int numMines) {
+            size = 8 + random.nextInt(6);
+            TileType[][] tiles = new TileType[size][size];
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    tiles[x][y] = TileType.EMPTY;
+                }
+            }
+            List<Point> marketLocations = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                Point market = new Point(random.nextInt(size), random.nextInt(size));
+                setTile(tiles, market.x, market.y, TileType.RED_MARKET);
+                marketLocations.add(market);
+            }
+            Point recharge = new Point(random.nextInt(size), random.nextInt(size));
+            while (getTile(tiles, recharge.x, recharge.y) != TileType.EMPTY) {
+                recharge = new Point(random.nextInt(size), random.nextInt(size));
+            }
+            setTile(tiles, recharge.x, recharge.y, TileType.RECHARGE);
+            mines = new ArrayList<>();
+            while (mines.size() < numMines) {
+                int x = random.nextInt(size);
+                int y = random.nextInt(size);
+                if (getTile(tiles, x, y) == TileType.EMPTY) {
+                    ItemType resourceType = RESOURCE_TYPES[random.nextInt(RESOURCE_TYPES.length)];
+                    setTile(tiles, x, y, resourceType.getResourceTileType());
+                    mines.add(new int[] {x, y, resourceType.ordinal()});
+                }
+            }
+            origin = new Point(random.nextInt(size), random.nextInt(size));
+            charge = 10 + random.nextInt(60);
+
+            view = new PlayerBoardView(tiles, new HashMap<>(), origin, new Point(0, 0), 0);
+            economy = new Economy(RESOURCE_TYPES);
+            markets = new NearestStationTable(size, marketLocations);
+            List<Point> rechargeLocations = new ArrayList<>();
+            rechargeLocations.add(recharge);
+            recharges = new NearestStationTable(size, rechargeLocations);
+        }
+
+        /**
+         * Tile arrays for PlayerBoardView are rows from the top of the board down
+         */
+        private static TileType getTile(TileType[][] tiles, int x, int y) {
+            return tiles[(tiles.length - 1) - y][x];
+        }
+
+        private static void setTile(TileType[][] tiles, int x, int y, TileType tileType) {
+            tiles[(tiles.length - 1) - y][x] = tileType;
+        }
+
+        private TourPlanner createPlanner(int maxStops) {
+            return new TourPlanner(size, maxStops, markets, recharges);
+        }
+
+        private TourPlanner.Tour plan(TourPlanner planner, int inventorySpace, long budgetNanos) {
+            return planner.plan(view, economy, origin, new int[ItemType.values().length], inventorySpace, charge,
+                                budgetNanos);
+        }
+
+        /**
+         * @return The best value per turn of any tour, or NEGATIVE_INFINITY if none can reach a market
+         */
+        private double searchBestValue(int maxStops) {
+            bestValue = Double.NEGATIVE_INFINITY;
+            searchTours(new boolean[mines.size()], origin.x, origin.y, 0, 0,
+                        new int[ItemType.values().length], maxStops);
+            return bestValue;
+        }
+
+        private void searchTours(boolean[] isMined, int x, int y, int turns, int moves, int[] counts,
+                                 int stopsLeft) {
+            int marketDistance = markets.getDistance(x, y);
+            Point market = markets.getNearestStation(x, y);
+            if (moves + marketDistance + recharges.getDistance(market.x, market.y) <= charge) {
+                int totalTurns = turns + marketDistance;
+                double value = (totalTurns == 0) ? 0
+                               : ((double) economy.getForecastRevenue(counts, Math.max(0, totalTurns - 1)))
+                                 / totalTurns;
+                bestValue = Math.max(bestValue, value);
+            }
+            if (stopsLeft == 0) {
+                return;
+            }
+            for (int mineIndex = 0; mineIndex < mines.size(); mineIndex++) {
+                if (isMined[mineIndex]) {
+                    continue;
+                }
+                int[] mine = mines.get(mineIndex);
+                int distance = Math.abs(mine[0] - x) + Math.abs(mine[1] - y);
+                int turnsToMine = ItemType.values()[mine[2]].getTurnsToMine();
+                isMined[mineIndex] = true;
+                counts[mine[2]]++;
+                searchTours(isMined, mine[0], mine[1], turns + distance + turnsToMine + 1, moves + distance, counts,
+                            stopsLeft - 1);
+                counts[mine[2]]--;
+                isMined[mineIndex] = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import mineopoly_three.competition.CompetitionStrategy;
+import mineopoly_three.evaluation.EvaluationResult;
+import mineopoly_three.evaluation.WinPercentEvaluator;
+import mineopoly_three.strategy.RandomStrategy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class WinPercentEvaluatorTest {
+    private static final int[] BOARD_SIZES = {10, 14};
+    private static final int NUM_GAMES_PER_SIZE = 20;
+    private static final long EVALUATION_SEED = 3;
+
+    @Test
+    public void evaluationDoesNotDependOnNumberOfThreads() {
+        List<String> singleThreadScores = Collections.synchronizedList(new ArrayList<>());
+        List<EvaluationResult> singleThreadResults = evaluate(1, singleThreadScores);
+        List<String> multiThreadScores = Collections.synchronizedList(new ArrayList<>());
+        List<EvaluationResult> multiThreadResults = evaluate(4, multiThreadScores);
+
+        assertEquals(BOARD_SIZES.length, singleThreadResults.size());
+        assertEquals(BOARD_SIZES.length, multiThreadResults.size());
+        for (int i = 0; i < BOARD_SIZES.length; i++) {
+            EvaluationResult singleThreadResult = singleThreadResults.get(i);
+            EvaluationResult multiThreadResult = multiThreadResults.get(i);
+            assertEquals(BOARD_SIZES[i], singleThreadResult.getBoardSize());
+            assertEquals(BOARD_SIZES[i], multiThreadResult.getBoardSize());
+            assertEquals(NUM_GAMES_PER_SIZE, singleThreadResult.getGamesPlayed());
+            assertEquals(NUM_GAMES_PER_SIZE, multiThreadResult.getGamesPlayed());
+            assertEquals(singleThreadResult.getGamesWonByMinScore(), multiThreadResult.getGamesWonByMinScore());
+        }
+
+        // Games finish in a different order on more threads, but every game must end with the same scores
+        Collections.sort(singleThreadScores);
+        Collections.sort(multiThreadScores);
+        assertEquals(BOARD_SIZES.length * NUM_GAMES_PER_SIZE, singleThreadScores.size());
+        assertEquals(singleThreadScores, multiThreadScores);
+    }
+
+    @Test
+    public void gameSeedOnlyDependsOnItsInputs() {
+        long seed = WinPercentEvaluator.getGameSeed(EVALUATION_SEED, 10, 7);
+        assertEquals(seed, WinPercentEvaluator.getGameSeed(EVALUATION_SEED, 10, 7));
+        // Pinned, so evaluations written down earlier can still be played again game for game
+        assertEquals(2035046734415842310L, seed);
+
+        Set<Long> seeds = new HashSet<>();
+        for (long evaluationSeed = 0; evaluationSeed < 4; evaluationSeed++) {
+            for (int boardSize = 10; boardSize < 20; boardSize++) {
+                for (int gameIndex = 0; gameIndex < 50; gameIndex++) {
+                    seeds.add(WinPercentEvaluator.getGameSeed(evaluationSeed, boardSize, gameIndex));
+                }
+            }
+        }
+        // Changing any one input gives another game, including swapping the board size and game index
+        assertEquals(4 * 10 * 50, seeds.size());
+        assertNotEquals(WinPercentEvaluator.getGameSeed(EVALUATION_SEED, 11, 12),
+                        WinPercentEvaluator.getGameSeed(EVALUATION_SEED, 12, 11));
+    }
+
+    private static List<EvaluationResult> evaluate(int numThreads, List<String> gameScores) {
+        ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            WinPercentEvaluator evaluator = new WinPercentEvaluator(() -> new ScoreRecorder(gameScores),
+                                                                    RandomStrategy::new, EVALUATION_SEED, pool);
+            return evaluator.evaluate(BOARD_SIZES, NUM_GAMES_PER_SIZE);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Keeps the final scores of every game it plays
+     */
+    private static class ScoreRecorder extends CompetitionStrategy {
+        private final List<String> gameScores;
+
+        private ScoreRecorder(List<String> gameScores) {
+            this.gameScores = gameScores;
+        }
+
+        @Override
+        public void endRound(int pointsScored, int opponentPointsScored) {
+            gameScores.add(pointsScored + " to " + opponentPointsScored);
+            super.endRound(pointsScored, opponentPointsScored);
+        }
+    }
+}